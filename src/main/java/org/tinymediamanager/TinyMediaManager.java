@@ -52,6 +52,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.jdesktop.beansbinding.ELProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.tinymediamanager.core.ImageCache;
 import org.tinymediamanager.core.License;
 import org.tinymediamanager.core.TmmModuleManager;
 import org.tinymediamanager.core.Utils;
@@ -330,6 +331,17 @@ public class TinyMediaManager {
             TmmWindowSaver.getInstance().loadSettings(window);
             window.setVisible(true);
 
+            // watch the data sources for changes (only in the UI - the command line runs just once)
+            if (Globals.settings.isWatchDatasources()) {
+              MovieModuleManager.getInstance().startDatasourceWatcher();
+              TvShowModuleManager.getInstance().startDatasourceWatcher();
+            }
+
+            // remove orphaned/exceeding files from the image cache
+            if (Globals.settings.isImageCache()) {
+              ImageCache.scheduleMaintenance();
+            }
+
             // wizard for new user
             if (Globals.settings.newConfig) {
               Globals.settings.writeDefaultSettings(); // now all plugins are resolved - write again defaults!
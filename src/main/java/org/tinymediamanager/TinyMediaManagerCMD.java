@@ -36,6 +36,7 @@ import org.tinymediamanager.core.movie.tasks.MovieUpdateDatasourceTask2;
 import org.tinymediamanager.core.threading.TmmTask;
 import org.tinymediamanager.core.threading.TmmTaskManager;
 import org.tinymediamanager.core.tvshow.TvShowList;
+import org.tinymediamanager.core.tvshow.TvShowModuleManager;
 import org.tinymediamanager.core.tvshow.TvShowSearchAndScrapeOptions;
 import org.tinymediamanager.core.tvshow.entities.TvShow;
 import org.tinymediamanager.core.tvshow.entities.TvShowEpisode;
@@ -60,6 +61,7 @@ public class TinyMediaManagerCMD {
   private static boolean          rename          = false;
   private static boolean          dryRun          = false;
   private static boolean          checkFiles      = false;
+  private static boolean          fullRescan      = false;
 
   // datasource IDs
   private static HashSet<Integer> updateMovieDs   = new HashSet<>();
@@ -111,6 +113,9 @@ public class TinyMediaManagerCMD {
       else if (cmd.equalsIgnoreCase("-checkFiles")) {
         checkFiles = true;
       }
+      else if (cmd.equalsIgnoreCase("-fullRescan")) {
+        fullRescan = true;
+      }
       else if (cmd.equalsIgnoreCase("-rename") || cmd.equalsIgnoreCase("-renameNew")) { // "new" deprecated
         rename = true;
       }
@@ -150,6 +155,7 @@ public class TinyMediaManagerCMD {
         "    -updateTv            update all TvShow\n" +
         "    -updateTvX           replace X with 1-9 - just updates a single TvShow datasource; ordering like GUI\n" +
         "    -update              update all (short for '-updateMovies -updateTv')\n" +
+        "    -fullRescan          parse all movie folders, even those which did not change since the last update\n" +
         "\n" +
         "    SCRAPE: auto-scrapes (force best match) your specified items:\n" +
         "    -scrapeNew           only NEW FOUND movies/TvShows/episodes from former update\n" +
@@ -211,14 +217,14 @@ public class TinyMediaManagerCMD {
       if (updateMovies) {
         LOGGER.info("Commandline - updating movies...");
         if (updateMovieDs.isEmpty()) {
-          task = new MovieUpdateDatasourceTask2();
+          task = new MovieUpdateDatasourceTask2(fullRescan);
           task.run(); // blocking
         }
         else {
           List<String> dataSources = new ArrayList<>(MovieModuleManager.MOVIE_SETTINGS.getMovieDataSource());
           for (Integer i : updateMovieDs) {
             if (dataSources != null && dataSources.size() >= i - 1) {
-              task = new MovieUpdateDatasourceTask2(dataSources.get(i - 1));
+              task = new MovieUpdateDatasourceTask2(dataSources.get(i - 1), fullRescan);
               task.run(); // blocking
             }
           }
@@ -469,6 +475,10 @@ public class TinyMediaManagerCMD {
         }
       }
 
+      // write all pending changes to the databases
+      MovieModuleManager.getInstance().flush();
+      TvShowModuleManager.getInstance().flush();
+
       if (updateAvailable) {
         LOGGER.warn("=====================================================");
         LOGGER.warn("There's a new TMM version available! Please update!");
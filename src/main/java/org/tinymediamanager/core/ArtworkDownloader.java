@@ -0,0 +1,194 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tinymediamanager.scraper.http.Url;
+
+/**
+ * The class ArtworkDownloader. Downloads artwork for all entities:
+ * <ul>
+ * <li>the amount of concurrent downloads per host is limited (the artwork providers throttle/block clients with too many connections)</li>
+ * <li>identical urls which are requested at the same time (or shortly after each other) by several entities are only downloaded once</li>
+ * <li>the responses are always consumed completely and closed, so that the http connections are kept alive and re-used</li>
+ * </ul>
+ *
+ * @author Manuel Laggner
+ */
+public class ArtworkDownloader {
+  private static final Logger                             LOGGER         = LoggerFactory.getLogger(ArtworkDownloader.class);
+  // recently downloaded artwork (http only) is kept for other entities requesting the same url
+  private static final long                               MAX_BYTES      = 32 * 1024 * 1024;
+  private static ArtworkDownloader                        instance;
+
+  private final int                                       permitsPerHost;
+  private final ConcurrentMap<String, Semaphore>          hostSemaphores = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, FutureTask<byte[]>> inFlight       = new ConcurrentHashMap<>();
+  private final LinkedHashMap<String, byte[]>             recent         = new LinkedHashMap<>(16, 0.75f, true);
+  private long                                            recentBytes    = 0;
+
+  ArtworkDownloader(int permitsPerHost) {
+    this.permitsPerHost = Math.max(1, permitsPerHost);
+  }
+
+  public static synchronized ArtworkDownloader getInstance() {
+    if (instance == null) {
+      instance = new ArtworkDownloader(Settings.getInstance().getImageDownloadsPerHost());
+    }
+    return instance;
+  }
+
+  /**
+   * download the artwork from the given url; blocks until the artwork has been downloaded
+   *
+   * @param url
+   *          the url of the artwork
+   * @return the downloaded artwork
+   * @throws Exception
+   *           any exception while downloading
+   */
+  public byte[] download(final String url) throws Exception {
+    byte[] bytes = getRecent(url);
+    if (bytes != null) {
+      LOGGER.trace("re-using downloaded artwork " + url);
+      return bytes;
+    }
+
+    FutureTask<byte[]> task = new FutureTask<>(new Callable<byte[]>() {
+      @Override
+      public byte[] call() throws Exception {
+        return fetch(url);
+      }
+    });
+    FutureTask<byte[]> running = inFlight.putIfAbsent(url, task);
+    if (running == null) {
+      // we have to download it
+      try {
+        task.run();
+        // keep the artwork before the download is removed from the running ones; callers in between would download it again
+        bytes = getResult(task);
+        putRecent(url, bytes);
+        return bytes;
+      }
+      finally {
+        inFlight.remove(url, task);
+      }
+    }
+
+    LOGGER.trace("waiting for the running download of " + url);
+    return getResult(running);
+  }
+
+  private static byte[] getResult(FutureTask<byte[]> task) throws Exception {
+    try {
+      return task.get();
+    }
+    catch (ExecutionException e) {
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private byte[] fetch(String url) throws Exception {
+    Semaphore semaphore = getSemaphore(url);
+    semaphore.acquire();
+    InputStream is = null;
+    try {
+      Url url1 = new Url(url);
+      is = url1.getInputStream();
+      if (is == null) {
+        throw new Exception("could not open " + url);
+      }
+      // read the whole response; this releases the connection for re-use
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      IOUtils.copy(is, baos);
+      return baos.toByteArray();
+    }
+    finally {
+      IOUtils.closeQuietly(is);
+      semaphore.release();
+    }
+  }
+
+  private Semaphore getSemaphore(String url) {
+    String host = getHost(url);
+    Semaphore semaphore = hostSemaphores.get(host);
+    if (semaphore == null) {
+      Semaphore newSemaphore = new Semaphore(permitsPerHost, true);
+      semaphore = hostSemaphores.putIfAbsent(host, newSemaphore);
+      if (semaphore == null) {
+        semaphore = newSemaphore;
+      }
+    }
+    return semaphore;
+  }
+
+  static String getHost(String url) {
+    try {
+      String host = new URI(url).getHost();
+      if (StringUtils.isNotBlank(host)) {
+        return host.toLowerCase();
+      }
+    }
+    catch (Exception e) {
+      // fall through
+    }
+    // local files and unparseable urls
+    return "";
+  }
+
+  static boolean isRemote(String url) {
+    String lower = url.toLowerCase();
+    return lower.startsWith("http://") || lower.startsWith("https://");
+  }
+
+  private synchronized byte[] getRecent(String url) {
+    return recent.get(url);
+  }
+
+  private synchronized void putRecent(String url, byte[] bytes) {
+    // local files may change at any time and are cheap to read again
+    if (!isRemote(url) || bytes == null || bytes.length == 0 || bytes.length > MAX_BYTES / 4 || recent.containsKey(url)) {
+      return;
+    }
+    recent.put(url, bytes);
+    recentBytes += bytes.length;
+
+    Iterator<Map.Entry<String, byte[]>> it = recent.entrySet().iterator();
+    while (recentBytes > MAX_BYTES && it.hasNext()) {
+      recentBytes -= it.next().getValue().length;
+      it.remove();
+    }
+  }
+}
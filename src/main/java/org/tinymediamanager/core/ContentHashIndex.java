@@ -0,0 +1,95 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+
+/**
+ * The class ContentHashIndex. Holds a content hash of every entity persisted in a MVStore map, so that unchanged entities can be detected
+ * without reading and comparing the whole stored entity
+ *
+ * @author Manuel Laggner
+ */
+public class ContentHashIndex {
+  private final MVMap<UUID, byte[]> hashMap;
+
+  /**
+   * create/open the hash index for the given map
+   *
+   * @param mvStore
+   *          the MVStore holding the entities
+   * @param mapName
+   *          the name of the entity map
+   */
+  public ContentHashIndex(MVStore mvStore, String mapName) {
+    hashMap = mvStore.openMap(getHashMapName(mapName));
+  }
+
+  static String getHashMapName(String mapName) {
+    return mapName + "Hashes";
+  }
+
+  /**
+   * calculate the content hash of the given value
+   *
+   * @param value
+   *          the encoded entity
+   * @return the content hash
+   */
+  public static byte[] hash(byte[] value) {
+    return DigestUtils.md5(value);
+  }
+
+  /**
+   * checks whether the given hash differs from the stored one
+   *
+   * @param uuid
+   *          the db id of the entity
+   * @param hash
+   *          the content hash of the new value
+   * @return true if there is no stored hash or the stored one differs
+   */
+  public boolean hasChanged(UUID uuid, byte[] hash) {
+    return !Arrays.equals(hash, hashMap.get(uuid));
+  }
+
+  /**
+   * store the hash for the given entity
+   *
+   * @param uuid
+   *          the db id of the entity
+   * @param hash
+   *          the content hash of the stored value
+   */
+  public void put(UUID uuid, byte[] hash) {
+    hashMap.put(uuid, hash);
+  }
+
+  /**
+   * remove the hash of the given entity
+   *
+   * @param uuid
+   *          the db id of the entity
+   */
+  public void remove(UUID uuid) {
+    hashMap.remove(uuid);
+  }
+}
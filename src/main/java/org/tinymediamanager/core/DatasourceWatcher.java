@@ -0,0 +1,486 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The class DatasourceWatcher. Watches the data sources of a module for changes and reports the changed top level folders (the movie/TV show
+ * folders) after the changes came to rest. Local data sources are watched via the WatchService of the OS; network mounts (where the OS does not
+ * deliver change events) are polled
+ *
+ * @author Manuel Laggner
+ */
+public class DatasourceWatcher {
+  private static final Logger              LOGGER              = LoggerFactory.getLogger(DatasourceWatcher.class);
+  private static final long                DEBOUNCE_DELAY      = 10000; // 10 secs
+  private static final int                 POLL_DEPTH          = 3;
+  private static final long                IGNORE_WINDOW       = 30000; // 30 secs
+  // the paths written by tmm itself and the time until their changes are ignored
+  private static final Map<Path, Long>     SELF_WRITTEN        = new ConcurrentHashMap<>();
+  // file store types of network mounts
+  private static final List<String>        NETWORK_FILE_STORES = Arrays.asList("nfs", "nfs4", "cifs", "smb", "smbfs", "smb2", "afpfs", "webdav",
+      "davfs", "fuse.sshfs", "9p");
+
+  private final String                     name;
+  private final Map<Path, String>          dataSources         = new LinkedHashMap<>();
+  private final long                       pollInterval;
+  private final ChangeListener             listener;
+
+  private WatchService                     watchService;
+  private final Map<WatchKey, Path>        watchedDirs         = new HashMap<>();
+  private final Map<Path, Map<Path, Long>> pollSnapshots       = new HashMap<>();
+  private Thread                           watcherThread;
+  private volatile boolean                 running             = false;
+
+  // guarded by this
+  private final Set<Path>                  changedDataSources  = new LinkedHashSet<>();
+  private final Map<Path, Set<Path>>       changedFolders      = new LinkedHashMap<>();
+  private long                             lastChange          = 0;
+
+  /**
+   * the callback for detected changes
+   */
+  public interface ChangeListener {
+    /**
+     * the whole data source has to be updated (e.g. too many changes to track them)
+     *
+     * @param datasource
+     *          the data source
+     */
+    void datasourceChanged(String datasource);
+
+    /**
+     * some top level folders of the data source have been changed, added or removed
+     *
+     * @param datasource
+     *          the data source
+     * @param folders
+     *          the changed folders
+     */
+    void foldersChanged(String datasource, List<Path> folders);
+  }
+
+  /**
+   * create a new watcher for the given data sources
+   *
+   * @param name
+   *          the name of the watcher (used for the watcher thread)
+   * @param dataSources
+   *          the data sources to watch
+   * @param pollInterval
+   *          the interval (in seconds) to poll data sources on network mounts
+   * @param listener
+   *          the listener to inform about changes
+   */
+  public DatasourceWatcher(String name, List<String> dataSources, int pollInterval, ChangeListener listener) {
+    this.name = name;
+    for (String ds : dataSources) {
+      if (StringUtils.isNotBlank(ds)) {
+        this.dataSources.put(Paths.get(ds).toAbsolutePath(), ds);
+      }
+    }
+    this.pollInterval = TimeUnit.SECONDS.toMillis(pollInterval);
+    this.listener = listener;
+  }
+
+  /**
+   * ignore the changes of the given paths (and everything below them) for a while. tmm calls this for everything it writes itself (NFOs,
+   * artwork, renames, downloads), so that its own changes do not trigger an update of the written folders
+   *
+   * @param paths
+   *          the written paths
+   */
+  public static void ignoreChanges(Path... paths) {
+    long until = System.currentTimeMillis() + IGNORE_WINDOW;
+    for (Path path : paths) {
+      if (path != null) {
+        SELF_WRITTEN.put(path.toAbsolutePath().normalize(), until);
+      }
+    }
+  }
+
+  /**
+   * is the change of the given path caused by tmm itself? The directory holding a written path counts too (its modification time changes)
+   */
+  static boolean isSelfWritten(Path path) {
+    if (SELF_WRITTEN.isEmpty()) {
+      return false;
+    }
+
+    long now = System.currentTimeMillis();
+    Path normalized = path.toAbsolutePath().normalize();
+    boolean selfWritten = false;
+    for (Iterator<Entry<Path, Long>> it = SELF_WRITTEN.entrySet().iterator(); it.hasNext();) {
+      Entry<Path, Long> entry = it.next();
+      if (entry.getValue() < now) {
+        it.remove();
+      }
+      else if (normalized.startsWith(entry.getKey()) || normalized.equals(entry.getKey().getParent())) {
+        selfWritten = true;
+      }
+    }
+    return selfWritten;
+  }
+
+  /**
+   * register all data sources and start watching
+   */
+  public void start() {
+    if (running) {
+      return;
+    }
+
+    try {
+      watchService = FileSystems.getDefault().newWatchService();
+    }
+    catch (IOException e) {
+      LOGGER.warn("could not create a watch service - polling all data sources: " + e.getMessage());
+    }
+
+    for (Path ds : dataSources.keySet()) {
+      if (!Files.isDirectory(ds)) {
+        LOGGER.warn("data source " + ds + " not available - not watching it");
+        continue;
+      }
+
+      if (watchService == null || isNetworkMount(ds)) {
+        startPolling(ds);
+        continue;
+      }
+
+      try {
+        registerRecursive(ds);
+        LOGGER.info("watching data source " + ds);
+      }
+      catch (IOException e) {
+        // e.g. the limit of inotify watches has been reached
+        LOGGER.warn("could not watch data source " + ds + " - polling it: " + e.getMessage());
+        startPolling(ds);
+      }
+    }
+
+    running = true;
+    watcherThread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        watch();
+      }
+    }, "tmm-watcher-" + name);
+    watcherThread.setDaemon(true);
+    watcherThread.start();
+  }
+
+  /**
+   * stop watching the data sources
+   */
+  public void stop() {
+    running = false;
+    if (watchService != null) {
+      try {
+        watchService.close();
+      }
+      catch (IOException ignored) {
+      }
+    }
+    if (watcherThread != null) {
+      watcherThread.interrupt();
+      try {
+        watcherThread.join(5000);
+      }
+      catch (InterruptedException ignored) {
+      }
+    }
+  }
+
+  private boolean isNetworkMount(Path ds) {
+    // UNC paths are always network shares
+    if (ds.toString().startsWith("\\\\")) {
+      return true;
+    }
+    try {
+      String type = Files.getFileStore(ds).type();
+      return type != null && NETWORK_FILE_STORES.contains(type.toLowerCase());
+    }
+    catch (IOException e) {
+      return false;
+    }
+  }
+
+  private void startPolling(Path ds) {
+    LOGGER.info("polling data source " + ds + " every " + TimeUnit.MILLISECONDS.toSeconds(pollInterval) + " secs");
+    pollSnapshots.put(ds, createSnapshot(ds));
+  }
+
+  private void registerRecursive(Path start) throws IOException {
+    Files.walkFileTree(start, EnumSet.noneOf(FileVisitOption.class), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+        if (isIgnored(dir)) {
+          return FileVisitResult.SKIP_SUBTREE;
+        }
+        WatchKey key = dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+        watchedDirs.put(key, dir);
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFileFailed(Path file, IOException exc) {
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+  private boolean isIgnored(Path path) {
+    return path.getFileName() != null && Constants.BACKUP_FOLDER.equals(path.getFileName().toString());
+  }
+
+  private void watch() {
+    long nextPoll = System.currentTimeMillis() + pollInterval;
+
+    while (running) {
+      try {
+        if (watchService != null && !watchedDirs.isEmpty()) {
+          WatchKey key = watchService.poll(1, TimeUnit.SECONDS);
+          if (key != null) {
+            processEvents(key);
+          }
+        }
+        else {
+          Thread.sleep(1000);
+        }
+
+        if (!pollSnapshots.isEmpty() && System.currentTimeMillis() >= nextPoll) {
+          poll();
+          nextPoll = System.currentTimeMillis() + pollInterval;
+        }
+
+        fireChanges();
+      }
+      catch (InterruptedException | ClosedWatchServiceException e) {
+        break;
+      }
+      catch (Exception e) {
+        LOGGER.error("problem watching the " + name + " data sources: " + e.getMessage());
+      }
+    }
+  }
+
+  private void processEvents(WatchKey key) {
+    Path dir = watchedDirs.get(key);
+    if (dir == null) {
+      key.cancel();
+      return;
+    }
+
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == OVERFLOW) {
+        // we lost some events - update the whole data source
+        Path ds = getDatasource(dir);
+        if (ds != null) {
+          synchronized (this) {
+            changedDataSources.add(ds);
+            lastChange = System.currentTimeMillis();
+          }
+        }
+        continue;
+      }
+
+      Path child = dir.resolve((Path) event.context());
+      if (isIgnored(child)) {
+        continue;
+      }
+      if (event.kind() == ENTRY_CREATE && Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+        // new folders need to be watched too
+        try {
+          registerRecursive(child);
+        }
+        catch (IOException e) {
+          LOGGER.warn("could not watch " + child + ": " + e.getMessage());
+        }
+      }
+      markChanged(child);
+    }
+
+    if (!key.reset()) {
+      // the directory is not accessible any more
+      watchedDirs.remove(key);
+    }
+  }
+
+  private void poll() {
+    for (Entry<Path, Map<Path, Long>> entry : pollSnapshots.entrySet()) {
+      Map<Path, Long> oldSnapshot = entry.getValue();
+      Map<Path, Long> newSnapshot = createSnapshot(entry.getKey());
+
+      for (Entry<Path, Long> dir : newSnapshot.entrySet()) {
+        if (!dir.getValue().equals(oldSnapshot.get(dir.getKey()))) {
+          markChanged(dir.getKey());
+        }
+      }
+      for (Path dir : oldSnapshot.keySet()) {
+        if (!newSnapshot.containsKey(dir)) {
+          markChanged(dir);
+        }
+      }
+
+      entry.setValue(newSnapshot);
+    }
+  }
+
+  /**
+   * collect the modification times of all directories inside the data source (up to POLL_DEPTH levels)
+   */
+  private Map<Path, Long> createSnapshot(final Path ds) {
+    final Map<Path, Long> snapshot = new HashMap<>();
+    try {
+      Files.walkFileTree(ds, EnumSet.noneOf(FileVisitOption.class), POLL_DEPTH, new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+          if (isIgnored(dir)) {
+            return FileVisitResult.SKIP_SUBTREE;
+          }
+          // new/removed folders in the data source itself are detected by their own entries
+          if (!dir.equals(ds)) {
+            snapshot.put(dir, attrs.lastModifiedTime().toMillis());
+          }
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+          // directories at the max depth are reported as files
+          if (attrs.isDirectory()) {
+            snapshot.put(file, attrs.lastModifiedTime().toMillis());
+          }
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException exc) {
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    }
+    catch (IOException e) {
+      LOGGER.warn("could not poll data source " + ds + ": " + e.getMessage());
+    }
+    return snapshot;
+  }
+
+  private Path getDatasource(Path path) {
+    for (Path ds : dataSources.keySet()) {
+      if (path.startsWith(ds)) {
+        return ds;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * map the changed path to the top level folder of its data source
+   */
+  private void markChanged(Path path) {
+    Path ds = getDatasource(path);
+    if (ds == null || path.equals(ds) || isSelfWritten(path)) {
+      return;
+    }
+
+    Path folder = ds.resolve(ds.relativize(path).getName(0));
+    synchronized (this) {
+      if (path.equals(folder) && Files.isRegularFile(folder)) {
+        // a file directly in the data source - we need to update the whole data source
+        changedDataSources.add(ds);
+      }
+      else {
+        Set<Path> folders = changedFolders.get(ds);
+        if (folders == null) {
+          folders = new HashSet<>();
+          changedFolders.put(ds, folders);
+        }
+        folders.add(folder);
+      }
+      lastChange = System.currentTimeMillis();
+    }
+  }
+
+  /**
+   * inform the listener about all changes, if there was no further change within the debounce delay
+   */
+  private void fireChanges() {
+    List<Path> dataSourcesToUpdate;
+    Map<Path, Set<Path>> foldersToUpdate;
+
+    synchronized (this) {
+      if ((changedDataSources.isEmpty() && changedFolders.isEmpty()) || System.currentTimeMillis() - lastChange < DEBOUNCE_DELAY) {
+        return;
+      }
+      dataSourcesToUpdate = new ArrayList<>(changedDataSources);
+      foldersToUpdate = new LinkedHashMap<>(changedFolders);
+      changedDataSources.clear();
+      changedFolders.clear();
+    }
+
+    for (Path ds : dataSourcesToUpdate) {
+      LOGGER.info("detected changes in data source " + ds);
+      listener.datasourceChanged(dataSources.get(ds));
+    }
+    for (Entry<Path, Set<Path>> entry : foldersToUpdate.entrySet()) {
+      if (dataSourcesToUpdate.contains(entry.getKey())) {
+        // already covered by the update of the whole data source
+        continue;
+      }
+      LOGGER.info("detected changes in " + entry.getValue().size() + " folder(s) of data source " + entry.getKey());
+      listener.foldersChanged(dataSources.get(entry.getKey()), new ArrayList<>(entry.getValue()));
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+
+/**
+ * The class DirectoryFingerprintIndex. Holds a fingerprint (modification time, count and names of the children) of every scanned directory, so
+ * that an update of the data sources can skip directories which did not change since the last scan
+ *
+ * @author Manuel Laggner
+ */
+public class DirectoryFingerprintIndex {
+  private final MVMap<String, byte[]> fingerprintMap;
+
+  /**
+   * create/open the fingerprint index for the given module
+   *
+   * @param mvStore
+   *          the MVStore of the module
+   * @param mapName
+   *          the name prefix of the map
+   */
+  public DirectoryFingerprintIndex(MVStore mvStore, String mapName) {
+    fingerprintMap = mvStore.openMap(mapName + "DirectoryFingerprints");
+  }
+
+  /**
+   * calculate the fingerprint of a directory
+   *
+   * @param lastModified
+   *          the modification time of the directory
+   * @param childNames
+   *          the names of all files/folders inside the directory
+   * @return the fingerprint
+   */
+  public static byte[] fingerprint(long lastModified, List<String> childNames) {
+    List<String> names = new ArrayList<>(childNames);
+    Collections.sort(names);
+
+    StringBuilder sb = new StringBuilder();
+    sb.append(lastModified).append('|').append(names.size());
+    for (String name : names) {
+      sb.append('|').append(name);
+    }
+    return DigestUtils.md5(sb.toString());
+  }
+
+  /**
+   * checks whether the given fingerprint differs from the stored one
+   *
+   * @param directory
+   *          the directory
+   * @param fingerprint
+   *          the current fingerprint of the directory
+   * @return true if there is no stored fingerprint or the stored one differs
+   */
+  public boolean hasChanged(Path directory, byte[] fingerprint) {
+    return !Arrays.equals(fingerprint, fingerprintMap.get(directory.toAbsolutePath().toString()));
+  }
+
+  /**
+   * store all given fingerprints
+   *
+   * @param fingerprints
+   *          the fingerprints to store
+   */
+  public void putAll(Map<Path, byte[]> fingerprints) {
+    for (Entry<Path, byte[]> entry : fingerprints.entrySet()) {
+      fingerprintMap.put(entry.getKey().toAbsolutePath().toString(), entry.getValue());
+    }
+  }
+
+  /**
+   * remove the fingerprints of all directories below the given root which do not exist any more
+   *
+   * @param root
+   *          the root directory (e.g. the data source)
+   * @param existing
+   *          all directories which have been found below the root
+   */
+  public void removeStale(Path root, Set<Path> existing) {
+    String prefix = root.toAbsolutePath().toString();
+    if (!prefix.endsWith(File.separator)) {
+      prefix += File.separator;
+    }
+
+    List<String> staleKeys = new ArrayList<>();
+    Iterator<String> iterator = fingerprintMap.keyIterator(prefix);
+    while (iterator.hasNext()) {
+      String key = iterator.next();
+      if (!key.startsWith(prefix)) {
+        // the keys are sorted; we left the subtree
+        break;
+      }
+      if (!existing.contains(root.getFileSystem().getPath(key))) {
+        staleKeys.add(key);
+      }
+    }
+
+    for (String key : staleKeys) {
+      fingerprintMap.remove(key);
+    }
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The interface EntityCodec. A codec defines the binary format in which entities are stored in the database
+ *
+ * @author Manuel Laggner
+ */
+public interface EntityCodec {
+  /**
+   * the name of the codec (stored in the database to detect a change of the codec)
+   *
+   * @return the codec name
+   */
+  String getName();
+
+  /**
+   * create a new ObjectMapper which reads and writes this format; the entity specific configuration is done by the caller
+   *
+   * @return a new ObjectMapper
+   */
+  ObjectMapper createObjectMapper();
+}
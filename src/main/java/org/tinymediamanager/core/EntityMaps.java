@@ -0,0 +1,160 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tinymediamanager.Globals;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The class EntityMaps. Opens the maps holding the encoded entities and migrates the data of older versions (JSON strings) or of another codec
+ * into the format of the used codec
+ *
+ * @author Manuel Laggner
+ */
+public class EntityMaps {
+  private static final Logger       LOGGER      = LoggerFactory.getLogger(EntityMaps.class);
+  private static final String       META_MAP    = "meta";
+  private static final String       DATA_SUFFIX = "Data";
+  private static final String       CODEC_KEY   = ".codec";
+  private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+  private EntityMaps() {
+  }
+
+  /**
+   * get the codec which is used to store the entities (configured in the settings; JSON if the configured codec is unknown)
+   *
+   * @return the codec
+   */
+  public static EntityCodec getDefaultCodec() {
+    EntityCodec codec = getCodec(Globals.settings.getDatabaseCodec());
+    if (codec == null) {
+      LOGGER.warn("unknown database codec " + Globals.settings.getDatabaseCodec() + " - using " + JsonEntityCodec.NAME);
+      codec = new JsonEntityCodec();
+    }
+    return codec;
+  }
+
+  /**
+   * get the codec for the given name
+   *
+   * @param name
+   *          the name of the codec
+   * @return the codec or null if there is no codec with the given name
+   */
+  public static EntityCodec getCodec(String name) {
+    if (JsonEntityCodec.NAME.equals(name)) {
+      return new JsonEntityCodec();
+    }
+    if (SmileEntityCodec.NAME.equals(name)) {
+      return new SmileEntityCodec();
+    }
+    return null;
+  }
+
+  /**
+   * open the map holding the encoded entities. Entities of older versions (stored as JSON strings in a map with the given name) or entities
+   * encoded with another codec are migrated on the first open
+   *
+   * @param mvStore
+   *          the MVStore holding the entities
+   * @param mapName
+   *          the name of the entity map
+   * @param codec
+   *          the codec to store the entities with
+   * @return the map with the encoded entities
+   * @throws IOException
+   *           if the entities could not be migrated
+   */
+  public static MVMap<UUID, byte[]> openMap(MVStore mvStore, String mapName, EntityCodec codec) throws IOException {
+    MVMap<UUID, byte[]> map = mvStore.openMap(mapName + DATA_SUFFIX);
+    MVMap<String, String> metaMap = mvStore.openMap(META_MAP);
+    String codecKey = mapName + CODEC_KEY;
+
+    if (mvStore.hasMap(mapName)) {
+      // older versions stored the entities as JSON strings
+      MVMap<UUID, String> legacyMap = mvStore.openMap(mapName);
+      ObjectMapper writer = codec.createObjectMapper();
+      int count = 0;
+      for (UUID uuid : new ArrayList<>(legacyMap.keySet())) {
+        try {
+          map.put(uuid, writer.writeValueAsBytes(JSON_MAPPER.readTree(legacyMap.get(uuid))));
+          // only migrated entries are removed; the others stay in the legacy map
+          legacyMap.remove(uuid);
+          count++;
+        }
+        catch (IOException e) {
+          LOGGER.warn("could not migrate " + uuid + " of " + mapName + ": " + e.getMessage());
+        }
+      }
+      if (legacyMap.isEmpty()) {
+        mvStore.removeMap(legacyMap);
+      }
+      else {
+        LOGGER.error("could not migrate " + legacyMap.size() + " entries of " + mapName + " - they are kept in the database");
+      }
+      clearContentHashes(mvStore, mapName);
+      LOGGER.info("migrated " + count + " entries of " + mapName + " to " + codec.getName());
+    }
+    else {
+      String storedCodec = metaMap.get(codecKey);
+      if (storedCodec != null && !storedCodec.equals(codec.getName())) {
+        transcode(map, mapName, getCodec(storedCodec), codec);
+        clearContentHashes(mvStore, mapName);
+      }
+    }
+
+    metaMap.put(codecKey, codec.getName());
+    return map;
+  }
+
+  private static void transcode(MVMap<UUID, byte[]> map, String mapName, EntityCodec from, EntityCodec to) throws IOException {
+    if (from == null) {
+      throw new IOException("unknown codec for " + mapName);
+    }
+
+    ObjectMapper reader = from.createObjectMapper();
+    ObjectMapper writer = to.createObjectMapper();
+    // convert all entries before writing any of them; a failure must not leave the map with mixed encodings
+    Map<UUID, byte[]> converted = new HashMap<>();
+    for (UUID uuid : map.keyList()) {
+      converted.put(uuid, writer.writeValueAsBytes(reader.readTree(map.get(uuid))));
+    }
+    map.putAll(converted);
+    LOGGER.info("converted " + map.size() + " entries of " + mapName + " from " + from.getName() + " to " + to.getName());
+  }
+
+  /**
+   * the content hashes have been calculated from the old encoding - they are recalculated with the next write
+   */
+  private static void clearContentHashes(MVStore mvStore, String mapName) {
+    String hashMapName = ContentHashIndex.getHashMapName(mapName);
+    if (mvStore.hasMap(hashMapName)) {
+      mvStore.openMap(hashMapName).clear();
+    }
+  }
+}
@@ -15,29 +15,41 @@
  */
 package org.tinymediamanager.core;
 
+import java.awt.Dimension;
 import java.awt.Image;
 import java.awt.Point;
 import java.awt.Toolkit;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorConvertOp;
+import java.awt.image.DataBufferInt;
+import java.awt.image.WritableRaster;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
 import javax.imageio.plugins.jpeg.JPEGImageWriteParam;
-import javax.imageio.stream.FileImageOutputStream;
+import javax.imageio.stream.ImageInputStream;
 import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
 
 import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.codec.digest.DigestUtils;
@@ -47,7 +59,7 @@ import org.slf4j.LoggerFactory;
 import org.tinymediamanager.Globals;
 import org.tinymediamanager.core.entities.MediaEntity;
 import org.tinymediamanager.core.entities.MediaFile;
-import org.tinymediamanager.scraper.http.Url;
+import org.tinymediamanager.core.threading.TmmTaskManager;
 import org.tinymediamanager.thirdparty.ImageLoader;
 
 /**
@@ -56,14 +68,39 @@ import org.tinymediamanager.thirdparty.ImageLoader;
  * @author Manuel Laggner
  */
 public class ImageCache {
-  private static final Logger LOGGER    = LoggerFactory.getLogger(ImageCache.class);
-  private static final Path   CACHE_DIR = Paths.get("cache/image");
+  private static final Logger        LOGGER                = LoggerFactory.getLogger(ImageCache.class);
+  private static final Path          CACHE_DIR             = Paths.get("cache/image");
+  private static final AtomicBoolean MAINTENANCE_SCHEDULED = new AtomicBoolean(false);
+
+  // the widths of the smaller levels of the thumbnail pyramid (ascending)
+  public static final int[]          PYRAMID_WIDTHS        = { 150, 350, 1000 };
+
+  // image writers are expensive to create; every thread re-uses its own ones
+  private static final ThreadLocal<ImageWriter> JPG_WRITER = new ThreadLocal<ImageWriter>() {
+    @Override
+    protected ImageWriter initialValue() {
+      return ImageIO.getImageWritersByFormatName("jpg").next();
+    }
+  };
+  private static final ThreadLocal<ImageWriter> PNG_WRITER = new ThreadLocal<ImageWriter>() {
+    @Override
+    protected ImageWriter initialValue() {
+      return ImageIO.getImageWritersByFormatName("png").next();
+    }
+  };
 
   public enum CacheType {
     FAST,
     SMOOTH
   }
 
+  public enum EvictionPolicy {
+    // least recently used
+    LRU,
+    // least frequently used
+    LFU
+  }
+
   /**
    * Gets the cache dir. If it is not on the disk - it will also create it
    * 
@@ -104,6 +141,78 @@ public class ImageCache {
     }
   }
 
+  /**
+   * Gets the key of a file: the path, the size and the modification time.
+   * 
+   * @param file
+   *          the file
+   * @return the key or null if the file is not accessible
+   */
+  static String getFileKey(Path file) {
+    try {
+      BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+      return file.toAbsolutePath().toString() + "|" + attrs.size() + "|" + attrs.lastModifiedTime().toMillis();
+    }
+    catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Gets the file name of the cached file. The name is built from the path, the size and the modification time of the original image, so
+   * changing the image results in a new cache file. If content hashing is activated, the name is built from the content of the image instead, so
+   * identical images are scaled and cached only once. The name is remembered for a few seconds, so that painting does not access the original
+   * on every call.
+   * 
+   * @param mf
+   *          the media file of the original image
+   * @return the cached file name
+   */
+  static String getCachedFileName(MediaFile mf) {
+    Path originalFile = mf.getFileAsPath();
+    String cachedFileName = ImageCacheIndex.getInstance().getRecentName(originalFile);
+    if (cachedFileName == null) {
+      cachedFileName = createCachedFileName(mf);
+      ImageCacheIndex.getInstance().putRecentName(originalFile, cachedFileName);
+    }
+    return cachedFileName;
+  }
+
+  private static String createCachedFileName(MediaFile mf) {
+    Path originalFile = mf.getFileAsPath();
+    String extension = "." + Utils.getExtension(originalFile);
+
+    String fileKey = getFileKey(originalFile);
+    if (fileKey == null) {
+      // the original is not accessible (e.g. on a disconnected share) - serve the last cached file
+      String cachedFileName = ImageCacheIndex.getInstance().getCachedFileName(originalFile);
+      if (cachedFileName != null) {
+        return cachedFileName;
+      }
+      return getMD5(originalFile.toString()) + extension;
+    }
+
+    if (Globals.settings.isImageCacheContentHash()) {
+      ImageCacheIndex index = ImageCacheIndex.getInstance();
+      String contentHash = index.getContentHash(fileKey);
+      if (contentHash == null) {
+        try (InputStream is = Files.newInputStream(originalFile)) {
+          contentHash = DigestUtils.md5Hex(is);
+          index.putContentHash(fileKey, contentHash);
+        }
+        catch (IOException e) {
+          LOGGER.debug("could not hash " + originalFile + ": " + e.getMessage());
+          return getMD5(fileKey) + extension;
+        }
+      }
+      // the size of the cached image depends on the artwork type
+      boolean movieSetArtwork = mf.getFilename().startsWith("movieset-fanart") || mf.getFilename().startsWith("movieset-poster");
+      return getMD5(contentHash + "|" + mf.getType().name() + "|" + movieSetArtwork) + extension;
+    }
+
+    return getMD5(fileKey) + extension;
+  }
+
   /**
    * Scale image to fit in the given width.
    * 
@@ -117,65 +226,18 @@ public class ImageCache {
    * @throws InterruptedException
    */
   public static InputStream scaleImage(String imageUrl, int width) throws IOException, InterruptedException {
-    Url url = new Url(imageUrl);
-
     BufferedImage originalImage = null;
     try {
-      originalImage = createImage(url.getBytes());
+      originalImage = createImage(ArtworkDownloader.getInstance().download(imageUrl));
+    }
+    catch (InterruptedException e) {
+      throw e;
     }
     catch (Exception e) {
       throw new IOException(e.getMessage());
     }
 
-    Point size = new Point();
-    size.x = width;
-    size.y = size.x * originalImage.getHeight() / originalImage.getWidth();
-
-    // BufferedImage scaledImage = Scaling.scale(originalImage, size.x, size.y);
-    BufferedImage scaledImage = Scalr.resize(originalImage, Scalr.Method.QUALITY, Scalr.Mode.AUTOMATIC, size.x, size.y, Scalr.OP_ANTIALIAS);
-    originalImage = null;
-
-    ImageWriter imgWrtr = null;
-    ImageWriteParam imgWrtrPrm = null;
-
-    // here we have two different ways to create our thumb
-    // a) a scaled down jpg/png (without transparency) which we have to modify since OpenJDK cannot call native jpg encoders
-    // b) a scaled down png (with transparency) which we can store without any more modifying as png
-    if (hasTransparentPixels(scaledImage)) {
-      // transparent image -> png
-      imgWrtr = ImageIO.getImageWritersByFormatName("png").next();
-      imgWrtrPrm = imgWrtr.getDefaultWriteParam();
-
-    }
-    else {
-      // non transparent image -> jpg
-      // convert to rgb
-      BufferedImage rgb = new BufferedImage(scaledImage.getWidth(), scaledImage.getHeight(), BufferedImage.TYPE_INT_RGB);
-      ColorConvertOp xformOp = new ColorConvertOp(null);
-      xformOp.filter(scaledImage, rgb);
-      imgWrtr = ImageIO.getImageWritersByFormatName("jpg").next();
-      imgWrtrPrm = imgWrtr.getDefaultWriteParam();
-      imgWrtrPrm.setCompressionMode(JPEGImageWriteParam.MODE_EXPLICIT);
-      imgWrtrPrm.setCompressionQuality(0.80f);
-
-      scaledImage = rgb;
-    }
-
-    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-    ImageOutputStream output = ImageIO.createImageOutputStream(baos);
-    imgWrtr.setOutput(output);
-    IIOImage outputImage = new IIOImage(scaledImage, null, null);
-    imgWrtr.write(null, outputImage, imgWrtrPrm);
-    imgWrtr.dispose();
-    scaledImage = null;
-
-    byte[] bytes = baos.toByteArray();
-
-    output.flush();
-    output.close();
-    baos.close();
-
-    return new ByteArrayInputStream(bytes);
+    return scaleImage(originalImage, width);
   }
 
   /**
@@ -199,55 +261,19 @@ public class ImageCache {
       throw new IOException(e.getMessage());
     }
 
+    return scaleImage(originalImage, width);
+  }
+
+  private static InputStream scaleImage(BufferedImage originalImage, int width) throws IOException {
     Point size = new Point();
     size.x = width;
     size.y = size.x * originalImage.getHeight() / originalImage.getWidth();
 
-    // BufferedImage scaledImage = Scaling.scale(originalImage, size.x, size.y);
     BufferedImage scaledImage = Scalr.resize(originalImage, Scalr.Method.QUALITY, Scalr.Mode.AUTOMATIC, size.x, size.y, Scalr.OP_ANTIALIAS);
-    originalImage = null;
-
-    ImageWriter imgWrtr = null;
-    ImageWriteParam imgWrtrPrm = null;
-
-    // here we have two different ways to create our thumb
-    // a) a scaled down jpg/png (without transparency) which we have to modify since OpenJDK cannot call native jpg encoders
-    // b) a scaled down png (with transparency) which we can store without any more modifying as png
-    if (hasTransparentPixels(scaledImage)) {
-      // transparent image -> png
-      imgWrtr = ImageIO.getImageWritersByFormatName("png").next();
-      imgWrtrPrm = imgWrtr.getDefaultWriteParam();
-
-    }
-    else {
-      // non transparent image -> jpg
-      // convert to rgb
-      BufferedImage rgb = new BufferedImage(scaledImage.getWidth(), scaledImage.getHeight(), BufferedImage.TYPE_INT_RGB);
-      ColorConvertOp xformOp = new ColorConvertOp(null);
-      xformOp.filter(scaledImage, rgb);
-      imgWrtr = ImageIO.getImageWritersByFormatName("jpg").next();
-      imgWrtrPrm = imgWrtr.getDefaultWriteParam();
-      imgWrtrPrm.setCompressionMode(JPEGImageWriteParam.MODE_EXPLICIT);
-      imgWrtrPrm.setCompressionQuality(0.80f);
-
-      scaledImage = rgb;
-    }
 
     ByteArrayOutputStream baos = new ByteArrayOutputStream();
-    ImageOutputStream output = ImageIO.createImageOutputStream(baos);
-    imgWrtr.setOutput(output);
-    IIOImage outputImage = new IIOImage(scaledImage, null, null);
-    imgWrtr.write(null, outputImage, imgWrtrPrm);
-    imgWrtr.dispose();
-    scaledImage = null;
-
-    byte[] bytes = baos.toByteArray();
-
-    output.flush();
-    output.close();
-    baos.close();
-
-    return new ByteArrayInputStream(bytes);
+    writeImage(scaledImage, hasTransparentPixels(scaledImage), baos);
+    return new ByteArrayInputStream(baos.toByteArray());
   }
 
   /**
@@ -260,7 +286,7 @@ public class ImageCache {
    */
   public static Path cacheImage(MediaFile mf) throws Exception {
     Path originalFile = mf.getFileAsPath();
-    Path cachedFile = ImageCache.getCacheDir().resolve(getMD5(originalFile.toString()) + "." + Utils.getExtension(originalFile));
+    Path cachedFile = ImageCache.getCacheDir().resolve(getCachedFileName(mf));
     if (Files.notExists(cachedFile)) {
       // check if the original file exists && size > 0
       if (Files.notExists(originalFile)) {
@@ -273,24 +299,30 @@ public class ImageCache {
       // recreate cache dir if needed
       // rescale & cache
       BufferedImage originalImage = null;
-      try {
-        originalImage = createImage(originalFile);
-      }
-      catch (Exception e) {
-        throw new Exception("cannot create image - file seems not to be valid? " + originalFile);
+
+      // JPEGs can be decoded subsampled - just read the size from the header
+      Dimension originalSize = readJpegSize(originalFile);
+      if (originalSize == null) {
+        try {
+          originalImage = createImage(originalFile);
+        }
+        catch (Exception e) {
+          throw new Exception("cannot create image - file seems not to be valid? " + originalFile);
+        }
+        originalSize = new Dimension(originalImage.getWidth(), originalImage.getHeight());
       }
 
       // calculate width based on MF type
-      int desiredWidth = originalImage.getWidth(); // initialize with fallback
+      int desiredWidth = originalSize.width; // initialize with fallback
       switch (mf.getType()) {
         case FANART:
-          if (originalImage.getWidth() > 1000) {
+          if (originalSize.width > 1000) {
             desiredWidth = 1000;
           }
           break;
 
         case POSTER:
-          if (originalImage.getHeight() > 500) {
+          if (originalSize.height > 500) {
             desiredWidth = 350;
           }
           break;
@@ -308,72 +340,262 @@ public class ImageCache {
 
       // special handling for movieset-fanart or movieset-poster
       if (mf.getFilename().startsWith("movieset-fanart") || mf.getFilename().startsWith("movieset-poster")) {
-        if (originalImage.getWidth() > 1000) {
+        if (originalSize.width > 1000) {
           desiredWidth = 1000;
         }
       }
 
-      Point size = calculateSize(desiredWidth, (int) (originalImage.getHeight() / 1.5), originalImage.getWidth(), originalImage.getHeight(), true);
+      Point size = calculateSize(desiredWidth, (int) (originalSize.height / 1.5), originalSize.width, originalSize.height, true);
       BufferedImage scaledImage = null;
 
+      if (originalImage == null) {
+        // decode at roughly the target size; leave some headroom for a good quality resize
+        int headroom = Globals.settings.getImageCacheType() == CacheType.FAST ? 1 : 2;
+        try {
+          originalImage = createImage(originalFile, size.x * headroom, size.y * headroom);
+        }
+        catch (Exception e) {
+          throw new Exception("cannot create image - file seems not to be valid? " + originalFile);
+        }
+      }
+
+      Scalr.Method scaleMethod;
       if (Globals.settings.getImageCacheType() == CacheType.FAST) {
         // scale fast
-        scaledImage = Scalr.resize(originalImage, Scalr.Method.BALANCED, Scalr.Mode.FIT_EXACT, size.x, size.y);
+        scaleMethod = Scalr.Method.BALANCED;
       }
       else {
         // scale with good quality
-        scaledImage = Scalr.resize(originalImage, Scalr.Method.QUALITY, Scalr.Mode.FIT_EXACT, size.x, size.y);
+        scaleMethod = Scalr.Method.QUALITY;
       }
+      scaledImage = Scalr.resize(originalImage, scaleMethod, Scalr.Mode.FIT_EXACT, size.x, size.y);
       originalImage = null;
 
-      ImageWriter imgWrtr = null;
-      ImageWriteParam imgWrtrPrm = null;
+      // the smaller levels of the pyramid are scaled down from the next bigger level (all in one pass with a single decoding)
+      boolean transparent = hasTransparentPixels(scaledImage);
+      List<BufferedImage> levels = new ArrayList<>();
+      List<Path> levelFiles = new ArrayList<>();
+      levels.add(scaledImage);
+      levelFiles.add(cachedFile);
+      for (int i = PYRAMID_WIDTHS.length - 1; i >= 0; i--) {
+        BufferedImage biggerLevel = levels.get(levels.size() - 1);
+        if (PYRAMID_WIDTHS[i] >= biggerLevel.getWidth()) {
+          continue;
+        }
+        int height = biggerLevel.getHeight() * PYRAMID_WIDTHS[i] / biggerLevel.getWidth();
+        levels.add(Scalr.resize(biggerLevel, scaleMethod, Scalr.Mode.FIT_EXACT, PYRAMID_WIDTHS[i], Math.max(1, height)));
+        levelFiles.add(getPyramidFile(cachedFile, PYRAMID_WIDTHS[i]));
+      }
+      scaledImage = null;
 
-      // here we have two different ways to create our thumb
-      // a) a scaled down jpg/png (without transparency) which we have to modify since OpenJDK cannot call native jpg encoders
-      // b) a scaled down png (with transparency) which we can store without any more modifying as png
-      if (hasTransparentPixels(scaledImage)) {
-        // transparent image -> png
-        imgWrtr = ImageIO.getImageWritersByFormatName("png").next();
-        imgWrtrPrm = imgWrtr.getDefaultWriteParam();
+      // encode all levels into temporary files and move them into place afterwards; readers (and concurrent writers) never see partially
+      // written files. The main file is moved last, its existence indicates a completely cached image
+      List<Path> tempFiles = new ArrayList<>();
+      try {
+        for (int i = levels.size() - 1; i >= 0; i--) {
+          tempFiles.add(writeCachedImage(levels.get(i), transparent, levelFiles.get(i)));
+        }
+        levels.clear();
 
+        for (int i = 0; i < tempFiles.size(); i++) {
+          Files.move(tempFiles.get(i), levelFiles.get(levelFiles.size() - 1 - i), StandardCopyOption.ATOMIC_MOVE);
+        }
       }
-      else {
-        // non transparent image -> jpg
-        // convert to rgb
-        BufferedImage rgb = new BufferedImage(scaledImage.getWidth(), scaledImage.getHeight(), BufferedImage.TYPE_INT_RGB);
-        ColorConvertOp xformOp = new ColorConvertOp(null);
-        xformOp.filter(scaledImage, rgb);
-        imgWrtr = ImageIO.getImageWritersByFormatName("jpg").next();
-        imgWrtrPrm = imgWrtr.getDefaultWriteParam();
-        imgWrtrPrm.setCompressionMode(JPEGImageWriteParam.MODE_EXPLICIT);
-        imgWrtrPrm.setCompressionQuality(0.80f);
-
-        scaledImage = rgb;
+      finally {
+        // clean up the temporary files of a failed run (already moved files do not exist any more)
+        for (Path tempFile : tempFiles) {
+          try {
+            Files.deleteIfExists(tempFile);
+          }
+          catch (IOException e) {
+            LOGGER.debug("could not delete temporary cache file " + tempFile + ": " + e.getMessage());
+          }
+        }
+      }
+
+      ImageCacheIndex index = ImageCacheIndex.getInstance();
+      index.add(cachedFile, originalFile, Globals.settings.isImageCacheContentHash());
+      long budget = (long) Globals.settings.getImageCacheSizeLimit() * 1024 * 1024;
+      if (budget > 0 && index.getTotalSize() > budget) {
+        scheduleMaintenance();
       }
+    }
+
+    if (Files.notExists(cachedFile)) {
+      throw new Exception("unable to cache file: " + originalFile);
+    }
+
+    return cachedFile;
+  }
+
+  /**
+   * remove orphaned files and evict the least recently used files (if the cache is too big) in the background
+   */
+  public static void scheduleMaintenance() {
+    if (MAINTENANCE_SCHEDULED.compareAndSet(false, true)) {
+      TmmTaskManager.getInstance().addUnnamedTask(new ImageCacheMaintenanceTask());
+    }
+  }
+
+  static void maintenanceFinished() {
+    MAINTENANCE_SCHEDULED.set(false);
+  }
+
+  /**
+   * write a scaled image into a temporary file next to the given cache file
+   * 
+   * @return the temporary file which has to be moved to the cache file
+   */
+  private static Path writeCachedImage(BufferedImage scaledImage, boolean transparent, Path file) throws IOException {
+    Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+    try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+      writeImage(scaledImage, transparent, os);
+    }
+    catch (IOException e) {
+      Files.deleteIfExists(tempFile);
+      throw e;
+    }
+    return tempFile;
+  }
+
+  /**
+   * encode the scaled image directly into the given stream (the stream will not be closed)
+   */
+  private static void writeImage(BufferedImage scaledImage, boolean transparent, OutputStream os) throws IOException {
+    ImageWriter imgWrtr = null;
+    ImageWriteParam imgWrtrPrm = null;
+
+    // here we have two different ways to create our thumb
+    // a) a scaled down jpg/png (without transparency) which we have to modify since OpenJDK cannot call native jpg encoders
+    // b) a scaled down png (with transparency) which we can store without any more modifying as png
+    if (transparent) {
+      // transparent image -> png
+      imgWrtr = PNG_WRITER.get();
+      imgWrtrPrm = imgWrtr.getDefaultWriteParam();
+    }
+    else {
+      // non transparent image -> jpg
+      scaledImage = toRgb(scaledImage);
+      imgWrtr = JPG_WRITER.get();
+      imgWrtrPrm = imgWrtr.getDefaultWriteParam();
+      imgWrtrPrm.setCompressionMode(JPEGImageWriteParam.MODE_EXPLICIT);
+      imgWrtrPrm.setCompressionQuality(0.80f);
+    }
 
-      FileImageOutputStream output = new FileImageOutputStream(cachedFile.toFile());
+    // ImageIO.createImageOutputStream may buffer into a temp file; we always have a memory buffer
+    ImageOutputStream output = new MemoryCacheImageOutputStream(os);
+    try {
       imgWrtr.setOutput(output);
-      IIOImage image = new IIOImage(scaledImage, null, null);
-      imgWrtr.write(null, image, imgWrtrPrm);
-      imgWrtr.dispose();
+      imgWrtr.write(null, new IIOImage(scaledImage, null, null), imgWrtrPrm);
       output.flush();
+    }
+    finally {
+      // the writer is re-used by this thread
+      imgWrtr.reset();
       output.close();
-      scaledImage = null;
     }
+  }
 
-    if (Files.notExists(cachedFile)) {
-      throw new Exception("unable to cache file: " + originalFile);
+  /**
+   * convert the image to rgb (drop the alpha channel)
+   */
+  private static BufferedImage toRgb(BufferedImage image) {
+    if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+      return image;
     }
 
+    BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+    if (image.getType() == BufferedImage.TYPE_INT_ARGB) {
+      // same pixel layout - just copy the data; the alpha byte is ignored by the rgb color model
+      int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+      int[] rgbPixels = ((DataBufferInt) rgb.getRaster().getDataBuffer()).getData();
+      if (pixels.length == rgbPixels.length) {
+        System.arraycopy(pixels, 0, rgbPixels, 0, pixels.length);
+        return rgb;
+      }
+    }
+    ColorConvertOp xformOp = new ColorConvertOp(null);
+    xformOp.filter(image, rgb);
+    return rgb;
+  }
+
+  /**
+   * Gets the file of a smaller level of the thumbnail pyramid
+   * 
+   * @param cachedFile
+   *          the (main) cached file
+   * @param width
+   *          the width of the level
+   * @return the file of the level (may not exist)
+   */
+  public static Path getPyramidFile(Path cachedFile, int width) {
+    String filename = cachedFile.getFileName().toString();
+    int dot = filename.lastIndexOf('.');
+    if (dot < 0) {
+      return cachedFile.resolveSibling(filename + "_" + width);
+    }
+    return cachedFile.resolveSibling(filename.substring(0, dot) + "_" + width + filename.substring(dot));
+  }
+
+  /**
+   * get the smallest existing level of the thumbnail pyramid which is not smaller than the given width
+   */
+  private static Path getPyramidLevel(Path cachedFile, int width) {
+    if (width <= 0 || cachedFile == null || !cachedFile.toAbsolutePath().startsWith(CACHE_DIR.toAbsolutePath())) {
+      return cachedFile;
+    }
+    for (int levelWidth : PYRAMID_WIDTHS) {
+      if (levelWidth >= width) {
+        Path level = getPyramidFile(cachedFile, levelWidth);
+        if (Files.exists(level)) {
+          return level;
+        }
+      }
+    }
     return cachedFile;
   }
 
+  /**
+   * delete the cached file including all levels of the thumbnail pyramid
+   * 
+   * @param cachedFile
+   *          the (main) cached file
+   */
+  static void deleteCachedFile(Path cachedFile) {
+    for (int width : PYRAMID_WIDTHS) {
+      Utils.deleteFileSafely(getPyramidFile(cachedFile, width));
+    }
+    Utils.deleteFileSafely(cachedFile);
+  }
+
   private static boolean hasTransparentPixels(BufferedImage image) {
-    for (int x = 0; x < image.getWidth(); x++) {
-      for (int y = 0; y < image.getHeight(); y++) {
-        int pixel = image.getRGB(x, y);
-        if ((pixel >> 24) == 0x00) {
+    // no alpha channel - no need to look at the pixels
+    if (!image.getColorModel().hasAlpha()) {
+      return false;
+    }
+
+    int width = image.getWidth();
+    int height = image.getHeight();
+    WritableRaster alphaRaster = image.getAlphaRaster();
+    if (alphaRaster != null) {
+      // check the alpha samples row by row
+      int[] row = new int[width];
+      for (int y = 0; y < height; y++) {
+        alphaRaster.getSamples(0, y, width, 1, 0, row);
+        for (int x = 0; x < width; x++) {
+          if (row[x] == 0) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    int[] row = new int[width];
+    for (int y = 0; y < height; y++) {
+      image.getRGB(0, y, width, 1, row, 0, width);
+      for (int x = 0; x < width; x++) {
+        if ((row[x] >>> 24) == 0x00) {
           return true;
         }
       }
@@ -381,6 +603,7 @@ public class ImageCache {
     return false;
   }
 
+
   /**
    * Invalidate cached image.
    * 
@@ -388,10 +611,15 @@ public class ImageCache {
    *          the path
    */
   public static void invalidateCachedImage(Path path) {
-    Path cachedFile = getCacheDir().resolve(ImageCache.getMD5(path.toAbsolutePath().toString()) + "." + Utils.getExtension(path));
-    if (Files.exists(cachedFile)) {
-      Utils.deleteFileSafely(cachedFile);
+    ImageCacheIndex.getInstance().removeRecentName(path);
+    // the name of the cache file has changed with the original, so take the last cached one
+    String cachedFileName = ImageCacheIndex.getInstance().getCachedFileName(path);
+    if (cachedFileName == null) {
+      cachedFileName = ImageCache.getMD5(path.toAbsolutePath().toString()) + "." + Utils.getExtension(path);
     }
+    Path cachedFile = getCacheDir().resolve(cachedFileName);
+    deleteCachedFile(cachedFile);
+    ImageCacheIndex.getInstance().remove(cachedFile);
   }
 
   /**
@@ -402,6 +630,20 @@ public class ImageCache {
    * @return the cached file
    */
   public static Path getCachedFile(Path path) {
+    return getCachedFile(path, 0);
+  }
+
+  /**
+   * Gets the cached file in (at least) the given width. The smallest level of the thumbnail pyramid which is not smaller than the requested
+   * width is taken; if there is no such level, the main cached file is returned
+   * 
+   * @param path
+   *          the path
+   * @param width
+   *          the needed width (0 for the main cached file)
+   * @return the cached file
+   */
+  public static Path getCachedFile(Path path, int width) {
     if (path == null) {
       return null;
     }
@@ -417,7 +659,14 @@ public class ImageCache {
 
     try {
       MediaFile mf = new MediaFile(path);
-      return ImageCache.cacheImage(mf);
+      Path cachedFile = CACHE_DIR.resolve(getCachedFileName(mf));
+      if (Files.exists(cachedFile)) {
+        ImageCacheIndex.getInstance().hit(cachedFile);
+        return getPyramidLevel(cachedFile, width);
+      }
+      ImageCacheIndex.getInstance().miss();
+
+      return getPyramidLevel(ImageCache.cacheImage(mf), width);
     }
     catch (EmptyFileException e) {
       LOGGER.warn("failed to cache file (file is empty): " + path);
@@ -445,7 +694,7 @@ public class ImageCache {
       return false;
     }
 
-    Path cachedFile = CACHE_DIR.resolve(ImageCache.getMD5(path.toString()) + "." + Utils.getExtension(path));
+    Path cachedFile = CACHE_DIR.resolve(getCachedFileName(new MediaFile(path)));
     if (Files.exists(cachedFile)) {
       return true;
     }
@@ -464,9 +713,8 @@ public class ImageCache {
     for (MediaFile mediaFile : mediaFiles) {
       if (mediaFile.isGraphic()) {
         Path file = ImageCache.getCachedFile(mediaFile.getFileAsPath());
-        if (Files.exists(file)) {
-          Utils.deleteFileSafely(file);
-        }
+        deleteCachedFile(file);
+        ImageCacheIndex.getInstance().remove(file);
       }
     }
   }
@@ -514,6 +762,85 @@ public class ImageCache {
     return createImage(Toolkit.getDefaultToolkit().createImage(file.toFile().getAbsolutePath()));
   }
 
+  /**
+   * Create the image in (at least) the given size. JPEGs are decoded subsampled which needs much less memory and time for big images; all other
+   * formats (and JPEGs which cannot be read by ImageIO, e.g. CMYK) are decoded completely
+   * 
+   * @param file
+   *          the image file
+   * @param minWidth
+   *          the minimum width of the decoded image
+   * @param minHeight
+   *          the minimum height of the decoded image
+   * @return the image
+   * @throws Exception
+   */
+  public static BufferedImage createImage(Path file, int minWidth, int minHeight) throws Exception {
+    try (ImageInputStream iis = ImageIO.createImageInputStream(file.toFile())) {
+      ImageReader reader = getJpegReader(iis);
+      if (reader != null) {
+        try {
+          int width = reader.getWidth(0);
+          int height = reader.getHeight(0);
+          int subsampling = Math.max(1, Math.min(width / Math.max(1, minWidth), height / Math.max(1, minHeight)));
+          ImageReadParam param = reader.getDefaultReadParam();
+          if (subsampling > 1) {
+            param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+          }
+          return reader.read(0, param);
+        }
+        finally {
+          reader.dispose();
+        }
+      }
+    }
+    catch (Exception e) {
+      LOGGER.debug("could not decode subsampled - falling back: " + file + " (" + e.getMessage() + ")");
+    }
+
+    return createImage(file);
+  }
+
+  /**
+   * read the image size from the header of a JPEG file
+   * 
+   * @return the size or null if it is no JPEG (readable by ImageIO)
+   */
+  private static Dimension readJpegSize(Path file) {
+    try (ImageInputStream iis = ImageIO.createImageInputStream(file.toFile())) {
+      ImageReader reader = getJpegReader(iis);
+      if (reader != null) {
+        try {
+          return new Dimension(reader.getWidth(0), reader.getHeight(0));
+        }
+        finally {
+          reader.dispose();
+        }
+      }
+    }
+    catch (Exception e) {
+      LOGGER.trace("could not read the image size: " + e.getMessage());
+    }
+    return null;
+  }
+
+  private static ImageReader getJpegReader(ImageInputStream iis) throws IOException {
+    if (iis == null) {
+      return null;
+    }
+    Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+    if (!readers.hasNext()) {
+      return null;
+    }
+    ImageReader reader = readers.next();
+    if (!"jpeg".equalsIgnoreCase(reader.getFormatName())) {
+      reader.dispose();
+      return null;
+    }
+    reader.setInput(iis, true, true);
+    return reader;
+  }
+
   public static BufferedImage createImage(Image img) {
     return ImageLoader.createImage(img);
   }
@@ -0,0 +1,520 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tinymediamanager.core.ImageCache.EvictionPolicy;
+
+/**
+ * The class ImageCacheIndex. Holds the size, the last access, the access count and the source of every file in the image cache, so that the
+ * cache can be held within a size budget (by evicting the least recently or least frequently used files) and files of no longer existing
+ * sources can be removed
+ *
+ * @author Manuel Laggner
+ */
+public class ImageCacheIndex {
+  private static final Logger           LOGGER             = LoggerFactory.getLogger(ImageCacheIndex.class);
+  private static final Path             INDEX_DB           = Paths.get("cache/imagecache.db");
+  private static final String           BOOTSTRAPPED_KEY   = "bootstrapped";
+  // do not rewrite the entry on every access
+  private static final long             ACCESS_GRANULARITY = 60 * 1000;
+  // do not stat the original on every access (painting); changes are detected with this delay
+  private static final long             NAME_VALIDITY      = 10 * 1000;
+  private static final int              MAX_NAMES          = 5000;
+  private static ImageCacheIndex        instance;
+
+  private MVStore                       mvStore            = null;
+  private MVMap<String, IndexEntry>     entryMap           = null;
+  private MVMap<String, String>         sourceMap          = null;
+  private MVMap<String, String>         contentHashMap     = null;
+  private MVMap<String, String>         metaMap            = null;
+  private boolean                       disabled           = false;
+
+  private final AtomicLong              totalSize          = new AtomicLong(0);
+  private final AtomicLong              hits               = new AtomicLong(0);
+  private final AtomicLong              misses             = new AtomicLong(0);
+  private final AtomicLong              evictions          = new AtomicLong(0);
+  private final AtomicLong              orphans            = new AtomicLong(0);
+  private final Map<String, CachedName> names              = new LinkedHashMap<>(16, 0.75f, true);
+
+  private ImageCacheIndex() {
+  }
+
+  public static synchronized ImageCacheIndex getInstance() {
+    if (instance == null) {
+      instance = new ImageCacheIndex();
+    }
+    return instance;
+  }
+
+  /**
+   * register a newly cached file. If the source has been cached before (and has changed in the meantime), the outdated cache file will be
+   * removed - unless it may be shared with other sources
+   *
+   * @param cachedFile
+   *          the file in the image cache
+   * @param source
+   *          the original image
+   * @param shared
+   *          true if the cache file may be shared by several (identical) sources
+   */
+  public void add(Path cachedFile, Path source, boolean shared) {
+    MVMap<String, IndexEntry> map = getMap();
+    if (map == null) {
+      return;
+    }
+
+    String key = cachedFile.getFileName().toString();
+    String sourceKey = source.toAbsolutePath().toString();
+    String outdatedKey = sourceMap.put(sourceKey, key);
+    if (!shared && outdatedKey != null && !outdatedKey.equals(key)) {
+      Path outdatedFile = cachedFile.resolveSibling(outdatedKey);
+      ImageCache.deleteCachedFile(outdatedFile);
+      remove(outdatedFile);
+    }
+
+    IndexEntry entry = new IndexEntry();
+    entry.source = sourceKey;
+    entry.lastAccess = System.currentTimeMillis();
+    entry.accessCount = 1;
+    try {
+      entry.size = Files.size(cachedFile);
+      // the smaller levels of the thumbnail pyramid belong to the same entry
+      for (int width : ImageCache.PYRAMID_WIDTHS) {
+        Path level = ImageCache.getPyramidFile(cachedFile, width);
+        if (Files.exists(level)) {
+          entry.size += Files.size(level);
+        }
+      }
+    }
+    catch (IOException e) {
+      return;
+    }
+
+    IndexEntry oldEntry = map.get(key);
+    if (oldEntry != null) {
+      // re-cached (e.g. shared by another source) - keep the usage
+      entry.accessCount = Math.max(1, oldEntry.accessCount);
+    }
+    map.put(key, entry);
+    totalSize.addAndGet(entry.size - (oldEntry != null ? oldEntry.size : 0));
+  }
+
+  /**
+   * get the name of the last cache file which has been created for the given source
+   *
+   * @param source
+   *          the original image
+   * @return the name of the cache file or null
+   */
+  public String getCachedFileName(Path source) {
+    MVMap<String, IndexEntry> map = getMap();
+    if (map == null) {
+      return null;
+    }
+    return sourceMap.get(source.toAbsolutePath().toString());
+  }
+
+  /**
+   * get the recently computed cache file name of the given source; the original is not accessed again for a few seconds
+   *
+   * @param source
+   *          the original image
+   * @return the name of the cache file or null if it has to be computed (again)
+   */
+  public String getRecentName(Path source) {
+    synchronized (names) {
+      CachedName cachedName = names.get(source.toString());
+      if (cachedName == null || System.currentTimeMillis() - cachedName.created > NAME_VALIDITY) {
+        return null;
+      }
+      return cachedName.name;
+    }
+  }
+
+  /**
+   * remember the computed cache file name of the given source
+   *
+   * @param source
+   *          the original image
+   * @param name
+   *          the name of the cache file
+   */
+  public void putRecentName(Path source, String name) {
+    CachedName cachedName = new CachedName();
+    cachedName.name = name;
+    cachedName.created = System.currentTimeMillis();
+    synchronized (names) {
+      names.put(source.toString(), cachedName);
+      Iterator<String> it = names.keySet().iterator();
+      while (names.size() > MAX_NAMES && it.hasNext()) {
+        it.next();
+        it.remove();
+      }
+    }
+  }
+
+  /**
+   * forget the cache file name of the given source (e.g. after the original has been changed)
+   *
+   * @param source
+   *          the original image
+   */
+  public void removeRecentName(Path source) {
+    synchronized (names) {
+      names.remove(source.toString());
+    }
+  }
+
+  /**
+   * get the stored content hash of a file
+   *
+   * @param fileKey
+   *          the key of the file (path, size and modification time)
+   * @return the content hash or null
+   */
+  public String getContentHash(String fileKey) {
+    MVMap<String, IndexEntry> map = getMap();
+    if (map == null) {
+      return null;
+    }
+    return contentHashMap.get(fileKey);
+  }
+
+  /**
+   * store the content hash of a file
+   *
+   * @param fileKey
+   *          the key of the file (path, size and modification time)
+   * @param contentHash
+   *          the content hash
+   */
+  public void putContentHash(String fileKey, String contentHash) {
+    MVMap<String, IndexEntry> map = getMap();
+    if (map != null) {
+      contentHashMap.put(fileKey, contentHash);
+    }
+  }
+
+  /**
+   * record an access to a cached file; accesses within the access granularity are counted once
+   *
+   * @param cachedFile
+   *          the file in the image cache
+   */
+  public void hit(Path cachedFile) {
+    hits.incrementAndGet();
+
+    MVMap<String, IndexEntry> map = getMap();
+    if (map == null) {
+      return;
+    }
+
+    String key = cachedFile.getFileName().toString();
+    IndexEntry entry = map.get(key);
+    long now = System.currentTimeMillis();
+    if (entry != null && now - entry.lastAccess > ACCESS_GRANULARITY) {
+      IndexEntry newEntry = new IndexEntry();
+      newEntry.source = entry.source;
+      newEntry.size = entry.size;
+      newEntry.lastAccess = now;
+      newEntry.accessCount = entry.accessCount + 1;
+      map.put(key, newEntry);
+    }
+  }
+
+  /**
+   * record a request for a not (yet) cached file
+   */
+  public void miss() {
+    misses.incrementAndGet();
+  }
+
+  /**
+   * remove the given file from the index
+   *
+   * @param cachedFile
+   *          the file in the image cache
+   */
+  public void remove(Path cachedFile) {
+    MVMap<String, IndexEntry> map = getMap();
+    if (map == null) {
+      return;
+    }
+
+    IndexEntry entry = map.remove(cachedFile.getFileName().toString());
+    if (entry != null) {
+      totalSize.addAndGet(-entry.size);
+    }
+  }
+
+  /**
+   * remove all entries (after the cache has been cleared)
+   */
+  public void clear() {
+    synchronized (names) {
+      names.clear();
+    }
+    MVMap<String, IndexEntry> map = getMap();
+    if (map != null) {
+      map.clear();
+      sourceMap.clear();
+      metaMap.remove(BOOTSTRAPPED_KEY);
+      totalSize.set(0);
+    }
+  }
+
+  /**
+   * remove all cache files whose source does not exist any more and evict the least recently (or least frequently) used files until the cache
+   * fits into the budget.
+   * On the first run, all files which are in the cache folder, but not in the index (created by an older version) are added to the index
+   *
+   * @param budget
+   *          the maximum size of the cache in bytes (0 = unlimited)
+   * @param policy
+   *          which files are evicted first
+   * @param protectedFiles
+   *          the names of files in the cache folder which must not be evicted (they cannot be re-created from a source)
+   */
+  public void maintain(long budget, final EvictionPolicy policy, Set<String> protectedFiles) {
+    MVMap<String, IndexEntry> map = getMap();
+    if (map == null) {
+      return;
+    }
+
+    Path cacheDir = ImageCache.getCacheDir();
+    if (metaMap.get(BOOTSTRAPPED_KEY) == null) {
+      bootstrap(cacheDir, protectedFiles);
+    }
+
+    // orphans
+    List<String> keys = new ArrayList<>(map.keySet());
+    for (String key : keys) {
+      IndexEntry entry = map.get(key);
+      if (entry == null || entry.source == null) {
+        continue;
+      }
+      if (isSourceGone(Paths.get(entry.source))) {
+        LOGGER.debug("removing orphaned cache file " + key + " (" + entry.source + ")");
+        Path cachedFile = cacheDir.resolve(key);
+        ImageCache.deleteCachedFile(cachedFile);
+        remove(cachedFile);
+        sourceMap.remove(entry.source);
+        orphans.incrementAndGet();
+      }
+    }
+
+    // content hashes of changed/removed files
+    for (String fileKey : new ArrayList<>(contentHashMap.keySet())) {
+      int separator = fileKey.lastIndexOf('|', fileKey.lastIndexOf('|') - 1);
+      if (separator < 0 || !fileKey.equals(ImageCache.getFileKey(Paths.get(fileKey.substring(0, separator))))) {
+        contentHashMap.remove(fileKey);
+      }
+    }
+
+    // evict the least recently/frequently used files
+    if (budget > 0 && totalSize.get() > budget) {
+      List<Map.Entry<String, IndexEntry>> entries = new ArrayList<>();
+      for (String key : map.keySet()) {
+        IndexEntry entry = map.get(key);
+        if (entry != null && !protectedFiles.contains(key)) {
+          entries.add(new AbstractMap.SimpleImmutableEntry<>(key, entry));
+        }
+      }
+      Collections.sort(entries, new Comparator<Map.Entry<String, IndexEntry>>() {
+        @Override
+        public int compare(Map.Entry<String, IndexEntry> o1, Map.Entry<String, IndexEntry> o2) {
+          if (policy == EvictionPolicy.LFU && o1.getValue().accessCount != o2.getValue().accessCount) {
+            return Long.compare(o1.getValue().accessCount, o2.getValue().accessCount);
+          }
+          return Long.compare(o1.getValue().lastAccess, o2.getValue().lastAccess);
+        }
+      });
+
+      int evicted = 0;
+      for (Map.Entry<String, IndexEntry> entry : entries) {
+        if (totalSize.get() <= budget) {
+          break;
+        }
+        Path cachedFile = cacheDir.resolve(entry.getKey());
+        ImageCache.deleteCachedFile(cachedFile);
+        remove(cachedFile);
+        evicted++;
+      }
+      evictions.addAndGet(evicted);
+      LOGGER.info("evicted " + evicted + " files from the image cache (" + (totalSize.get() / (1024 * 1024)) + "MB left)");
+    }
+  }
+
+  public long getTotalSize() {
+    getMap();
+    return totalSize.get();
+  }
+
+  public int getEntryCount() {
+    MVMap<String, IndexEntry> map = getMap();
+    return map != null ? map.size() : 0;
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public long getEvictions() {
+    return evictions.get();
+  }
+
+  public long getOrphans() {
+    return orphans.get();
+  }
+
+  /**
+   * close the index (on shutdown); the index will not be re-opened
+   */
+  public synchronized void close() {
+    disabled = true;
+    if (mvStore != null && !mvStore.isClosed()) {
+      mvStore.commit();
+      mvStore.close();
+    }
+    mvStore = null;
+    entryMap = null;
+    sourceMap = null;
+    contentHashMap = null;
+    metaMap = null;
+  }
+
+  private synchronized MVMap<String, IndexEntry> getMap() {
+    if (entryMap != null || disabled) {
+      return entryMap;
+    }
+
+    try {
+      Files.createDirectories(INDEX_DB.getParent());
+      mvStore = new MVStore.Builder().fileName(INDEX_DB.toString()).compress().autoCommitBufferSize(1024).open();
+      mvStore.setAutoCommitDelay(5000); // 5 sec
+      mvStore.setRetentionTime(0);
+      mvStore.setReuseSpace(true);
+      entryMap = mvStore.openMap("entries");
+      sourceMap = mvStore.openMap("sources");
+      contentHashMap = mvStore.openMap("contentHashes");
+      metaMap = mvStore.openMap("meta");
+
+      long size = 0;
+      for (IndexEntry entry : entryMap.values()) {
+        size += entry.size;
+      }
+      totalSize.set(size);
+    }
+    catch (Exception e) {
+      LOGGER.warn("could not open the image cache index: " + e.getMessage());
+      close();
+    }
+    return entryMap;
+  }
+
+  /**
+   * add all files of the cache folder which are not indexed yet; their last access is the modification time and their source is unknown
+   */
+  private void bootstrap(Path cacheDir, Set<String> protectedFiles) {
+    int count = 0;
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDir)) {
+      for (Path file : stream) {
+        String key = file.getFileName().toString();
+        if (!Files.isRegularFile(file) || protectedFiles.contains(key) || entryMap.containsKey(key)) {
+          continue;
+        }
+        IndexEntry entry = new IndexEntry();
+        entry.size = Files.size(file);
+        entry.lastAccess = Files.getLastModifiedTime(file).toMillis();
+        entryMap.put(key, entry);
+        totalSize.addAndGet(entry.size);
+        count++;
+      }
+      metaMap.put(BOOTSTRAPPED_KEY, Boolean.TRUE.toString());
+      LOGGER.info("added " + count + " existing files to the image cache index");
+    }
+    catch (IOException e) {
+      LOGGER.warn("could not index the image cache: " + e.getMessage());
+    }
+  }
+
+  /**
+   * a source is gone if it does not exist, but its folder (or the nearest existing parent) is accessible. If nothing of the path exists, the
+   * source may be on a disconnected drive/share, so we keep the cached file
+   */
+  private boolean isSourceGone(Path source) {
+    if (Files.exists(source)) {
+      return false;
+    }
+
+    Path parent = source.getParent();
+    while (parent != null && !Files.exists(parent)) {
+      parent = parent.getParent();
+    }
+    if (parent == null || parent.getParent() == null) {
+      // only the root is left
+      return false;
+    }
+
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(parent)) {
+      // an empty folder may be the mount point of a disconnected share
+      return stream.iterator().hasNext();
+    }
+    catch (IOException e) {
+      return false;
+    }
+  }
+
+  private static class CachedName {
+    String name;
+    long   created;
+  }
+
+  private static class IndexEntry implements Serializable {
+    private static final long serialVersionUID = -4125487123476598212L;
+
+    String                    source;
+    long                      size;
+    long                      lastAccess;
+    // accesses in distinct access granularity intervals; 0 for entries of older versions
+    long                      accessCount;
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import java.util.HashSet;
+import java.util.ResourceBundle;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tinymediamanager.Globals;
+import org.tinymediamanager.core.movie.MovieList;
+import org.tinymediamanager.core.movie.entities.MovieSet;
+import org.tinymediamanager.core.threading.TmmTask;
+import org.tinymediamanager.ui.UTF8Control;
+
+/**
+ * The Class ImageCacheMaintenanceTask. Removes orphaned files from the image cache and evicts the least recently used files if the cache
+ * exceeds its size limit
+ *
+ * @author Manuel Laggner
+ */
+public class ImageCacheMaintenanceTask extends TmmTask {
+  private static final Logger         LOGGER = LoggerFactory.getLogger(ImageCacheMaintenanceTask.class);
+  private static final ResourceBundle BUNDLE = ResourceBundle.getBundle("messages", new UTF8Control()); //$NON-NLS-1$
+
+  public ImageCacheMaintenanceTask() {
+    super(BUNDLE.getString("tmm.maintainimagecache"), 0, TaskType.BACKGROUND_TASK);
+  }
+
+  @Override
+  protected void doInBackground() {
+    try {
+      long budget = (long) Globals.settings.getImageCacheSizeLimit() * 1024 * 1024;
+      ImageCacheIndex.getInstance().maintain(budget, Globals.settings.getImageCacheEvictionPolicy(), getProtectedFiles());
+    }
+    catch (Exception e) {
+      LOGGER.warn("problem maintaining the image cache: " + e.getMessage());
+    }
+    finally {
+      ImageCache.maintenanceFinished();
+    }
+  }
+
+  /**
+   * the artwork of movie sets without a folder is downloaded directly into the cache folder and cannot be re-created
+   */
+  private Set<String> getProtectedFiles() {
+    Set<String> protectedFiles = new HashSet<>();
+    for (MovieSet movieSet : MovieList.getInstance().getMovieSetList()) {
+      for (MediaFileType type : MediaFileType.values()) {
+        String url = movieSet.getArtworkUrl(type);
+        if (StringUtils.isNotBlank(url)) {
+          String md5 = ImageCache.getMD5(url);
+          protectedFiles.add(md5);
+          protectedFiles.add(md5 + ".jpg");
+        }
+      }
+    }
+    return protectedFiles;
+  }
+}
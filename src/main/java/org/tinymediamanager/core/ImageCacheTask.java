@@ -19,58 +19,99 @@ import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tinymediamanager.core.entities.MediaFile;
-import org.tinymediamanager.core.threading.TmmTask;
+import org.tinymediamanager.core.threading.ThreadPoolType;
+import org.tinymediamanager.core.threading.TmmThreadPool;
 import org.tinymediamanager.ui.UTF8Control;
 
 /**
- * The Class ImageCacheTask. Cache a bunch of images in a separate task
+ * The Class ImageCacheTask. Cache a bunch of images in a separate task; the images are decoded/scaled/encoded in parallel (CPU bound)
  * 
  * @author Manuel Laggner
  */
-public class ImageCacheTask extends TmmTask {
+public class ImageCacheTask extends TmmThreadPool {
   private static final Logger         LOGGER       = LoggerFactory.getLogger(ImageCacheTask.class);
   private static final ResourceBundle BUNDLE       = ResourceBundle.getBundle("messages", new UTF8Control()); //$NON-NLS-1$
 
   private List<Path>                  filesToCache = new ArrayList<>();
+  private long                        start;
+  private int                         cached;
 
   public ImageCacheTask(String pathToFile) {
-    super(BUNDLE.getString("tmm.rebuildimagecache"), 1, TaskType.BACKGROUND_TASK);
+    super(BUNDLE.getString("tmm.rebuildimagecache"), TaskType.BACKGROUND_TASK);
     filesToCache.add(Paths.get(pathToFile));
   }
 
   @Deprecated
   public ImageCacheTask(File file) {
-    super(BUNDLE.getString("tmm.rebuildimagecache"), 1, TaskType.BACKGROUND_TASK);
+    super(BUNDLE.getString("tmm.rebuildimagecache"), TaskType.BACKGROUND_TASK);
     filesToCache.add(file.toPath());
   }
 
   public ImageCacheTask(Path file) {
-    super(BUNDLE.getString("tmm.rebuildimagecache"), 1, TaskType.BACKGROUND_TASK);
+    super(BUNDLE.getString("tmm.rebuildimagecache"), TaskType.BACKGROUND_TASK);
     filesToCache.add(file);
   }
 
   public ImageCacheTask(List<Path> files) {
-    super(BUNDLE.getString("tmm.rebuildimagecache"), files.size(), TaskType.BACKGROUND_TASK);
-    filesToCache.addAll(files);
+    super(BUNDLE.getString("tmm.rebuildimagecache"), TaskType.BACKGROUND_TASK);
+    // the same image may be referenced several times; do not cache it concurrently
+    filesToCache.addAll(new LinkedHashSet<>(files));
   }
 
   @Override
   protected void doInBackground() {
-    int i = 0;
+    initThreadPool(ThreadPoolType.IMAGECACHE, "imageCache");
+    start = System.nanoTime();
+    cached = 0;
+
     for (Path fileToCache : filesToCache) {
+      submitTask(new CacheImageWorker(fileToCache));
+    }
+    waitForCompletionOrCancel();
+
+    double seconds = (System.nanoTime() - start) / 1000000000d;
+    LOGGER.info("cached " + cached + " of " + filesToCache.size() + " images in " + String.format(Locale.US, "%.1f", seconds) + "s");
+  }
+
+  @Override
+  public void callback(Object obj) {
+    if (Boolean.TRUE.equals(obj)) {
+      cached++;
+    }
+    // throughput of the really cached (decoded) images
+    double seconds = (System.nanoTime() - start) / 1000000000d;
+    double rate = seconds > 0 ? cached / seconds : 0;
+    publishState(String.format(BUNDLE.getString("tmm.rebuildimagecache.rate"), rate), progressDone);
+  }
+
+  /**
+   * caches one image; the result is true if the image has been decoded and written to the cache
+   */
+  private static class CacheImageWorker implements Callable<Object> {
+    private final Path fileToCache;
+
+    CacheImageWorker(Path fileToCache) {
+      this.fileToCache = fileToCache;
+    }
+
+    @Override
+    public Object call() {
       try {
-        if (cancel) {
-          return;
+        // already cached - skip before decoding
+        if (ImageCache.isImageCached(fileToCache)) {
+          return Boolean.FALSE;
         }
-
-        publishState(++i);
         ImageCache.cacheImage(new MediaFile(fileToCache));
+        return Boolean.TRUE;
       }
       catch (EmptyFileException e) {
         LOGGER.warn("failed to cache file (file is empty): " + fileToCache);
@@ -78,6 +119,7 @@ public class ImageCacheTask extends TmmTask {
       catch (Exception e) {
         LOGGER.warn("failed to cache file: " + fileToCache);
       }
+      return Boolean.FALSE;
     }
   }
 }
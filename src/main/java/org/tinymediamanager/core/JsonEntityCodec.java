@@ -0,0 +1,37 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The class JsonEntityCodec. Stores the entities as (UTF-8 encoded) JSON
+ *
+ * @author Manuel Laggner
+ */
+public class JsonEntityCodec implements EntityCodec {
+  public static final String NAME = "json";
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public ObjectMapper createObjectMapper() {
+    return new ObjectMapper();
+  }
+}
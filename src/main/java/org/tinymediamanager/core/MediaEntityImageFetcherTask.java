@@ -15,21 +15,17 @@
  */
 package org.tinymediamanager.core;
 
-import java.io.FileOutputStream;
-import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tinymediamanager.core.Message.MessageLevel;
 import org.tinymediamanager.core.entities.MediaEntity;
 import org.tinymediamanager.scraper.entities.MediaArtwork.MediaArtworkType;
-import org.tinymediamanager.scraper.http.Url;
 
 /**
  * The Class MediaEntityImageFetcherTask.
@@ -104,21 +100,10 @@ public class MediaEntityImageFetcherTask implements Runnable {
 
         // fetch and store images
         if (!sameFile) {
-          Url url1 = new Url(url);
-          FileOutputStream outputStream = new FileOutputStream(tempFile.toFile());
-          InputStream is = url1.getInputStream();
-          IOUtils.copy(is, outputStream);
-          outputStream.flush();
-          try {
-            outputStream.getFD().sync(); // wait until file has been completely written
-            // give it a few milliseconds
-            Thread.sleep(150);
-          }
-          catch (Exception e) {
-            // empty here -> just not let the thread crash
-          }
-          outputStream.close();
-          is.close();
+          // identical urls of several entities are only downloaded once
+          byte[] bytes = ArtworkDownloader.getInstance().download(url);
+          DatasourceWatcher.ignoreChanges(tempFile, destFile);
+          Files.write(tempFile, bytes);
 
           // check if the file has been downloaded
           if (Files.notExists(tempFile) || Files.size(tempFile) == 0) {
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tinymediamanager.thirdparty.MediaInfo;
+import org.tinymediamanager.thirdparty.MediaInfo.StreamKind;
+
+/**
+ * The class MediaInfoCache. A persistent cache of the MediaInfo snapshots of all scanned files. A snapshot is valid as long as the size and the
+ * modification time of the file did not change, so unchanged files need not to be re-opened by libmediainfo
+ *
+ * @author Manuel Laggner
+ */
+public class MediaInfoCache {
+  private static final Logger       LOGGER      = LoggerFactory.getLogger(MediaInfoCache.class);
+  private static final Path         CACHE_DB    = Paths.get("cache/mediainfo.db");
+  private static final String       VERSION_KEY = "libmediainfoVersion";
+  private static MediaInfoCache     instance;
+
+  private MVStore                   mvStore     = null;
+  private MVMap<String, CacheEntry> snapshotMap = null;
+  private boolean                   disabled    = false;
+
+  private MediaInfoCache() {
+  }
+
+  public static synchronized MediaInfoCache getInstance() {
+    if (instance == null) {
+      instance = new MediaInfoCache();
+    }
+    return instance;
+  }
+
+  /**
+   * get the cached snapshot of the given file
+   *
+   * @param file
+   *          the file
+   * @param size
+   *          the current size of the file
+   * @param lastModified
+   *          the current modification time of the file
+   * @return the snapshot or null if there is no valid snapshot for the file
+   */
+  public Map<StreamKind, List<Map<String, String>>> get(Path file, long size, long lastModified) {
+    MVMap<String, CacheEntry> map = getMap();
+    if (map == null || size <= 0 || lastModified <= 0) {
+      return null;
+    }
+
+    CacheEntry entry = map.get(file.toAbsolutePath().toString());
+    if (entry != null && entry.size == size && entry.lastModified == lastModified) {
+      return entry.snapshot;
+    }
+    return null;
+  }
+
+  /**
+   * store the snapshot of the given file
+   *
+   * @param file
+   *          the file
+   * @param size
+   *          the size of the file
+   * @param lastModified
+   *          the modification time of the file
+   * @param snapshot
+   *          the MediaInfo snapshot
+   */
+  public void put(Path file, long size, long lastModified, Map<StreamKind, List<Map<String, String>>> snapshot) {
+    MVMap<String, CacheEntry> map = getMap();
+    if (map == null || size <= 0 || lastModified <= 0 || snapshot == null) {
+      return;
+    }
+
+    CacheEntry entry = new CacheEntry();
+    entry.size = size;
+    entry.lastModified = lastModified;
+    entry.snapshot = snapshot;
+    map.put(file.toAbsolutePath().toString(), entry);
+  }
+
+  /**
+   * remove the snapshot of the given file
+   *
+   * @param file
+   *          the file
+   */
+  public void remove(Path file) {
+    MVMap<String, CacheEntry> map = getMap();
+    if (map != null) {
+      map.remove(file.toAbsolutePath().toString());
+    }
+  }
+
+  /**
+   * close the cache (on shutdown); the cache will not be re-opened
+   */
+  public synchronized void close() {
+    disabled = true;
+    if (mvStore != null && !mvStore.isClosed()) {
+      mvStore.commit();
+      mvStore.close();
+    }
+    mvStore = null;
+    snapshotMap = null;
+  }
+
+  private synchronized MVMap<String, CacheEntry> getMap() {
+    if (snapshotMap != null || disabled) {
+      return snapshotMap;
+    }
+
+    try {
+      Files.createDirectories(CACHE_DB.getParent());
+      mvStore = new MVStore.Builder().fileName(CACHE_DB.toString()).compress().autoCommitBufferSize(4096).open();
+      mvStore.setAutoCommitDelay(2000); // 2 sec
+      mvStore.setRetentionTime(0);
+      mvStore.setReuseSpace(true);
+      snapshotMap = mvStore.openMap("snapshots");
+
+      // another version of libmediainfo may produce other results - start over
+      MVMap<String, String> metaMap = mvStore.openMap("meta");
+      String version = MediaInfo.version();
+      if (!StringUtils.equals(version, metaMap.get(VERSION_KEY))) {
+        if (!snapshotMap.isEmpty()) {
+          LOGGER.info("libmediainfo has changed (" + version + ") - clearing the MediaInfo cache");
+        }
+        snapshotMap.clear();
+        if (version != null) {
+          metaMap.put(VERSION_KEY, version);
+        }
+      }
+    }
+    catch (Exception | Error e) {
+      // mediainfo or the cache is not available - just work without the cache
+      LOGGER.warn("could not open the MediaInfo cache: " + e.getMessage());
+      close();
+    }
+    return snapshotMap;
+  }
+
+  private static class CacheEntry implements Serializable {
+    private static final long                  serialVersionUID = 2396541727036529812L;
+
+    long                                       size;
+    long                                       lastModified;
+    Map<StreamKind, List<Map<String, String>>> snapshot;
+  }
+}
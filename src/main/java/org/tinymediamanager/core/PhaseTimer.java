@@ -0,0 +1,81 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class PhaseTimer. Measures the time spent in the phases of a long running task (the time of a phase which is run several times - e.g. once
+ * per data source - is summed up), so that the phase timings can be written to the log
+ *
+ * @author Manuel Laggner
+ */
+public class PhaseTimer {
+  private final Map<String, Long> times = new LinkedHashMap<>();
+  private String                  phase;
+  private long                    start;
+
+  /**
+   * start a new phase; the running phase is stopped
+   *
+   * @param newPhase
+   *          the name of the phase
+   */
+  public synchronized void start(String newPhase) {
+    stop();
+    phase = newPhase;
+    start = System.nanoTime();
+  }
+
+  /**
+   * stop the running phase (if any)
+   */
+  public synchronized void stop() {
+    if (phase == null) {
+      return;
+    }
+    Long time = times.get(phase);
+    times.put(phase, (time == null ? 0 : time) + System.nanoTime() - start);
+    phase = null;
+  }
+
+  /**
+   * get the time spent in the given phase
+   *
+   * @param phaseName
+   *          the name of the phase
+   * @return the time in ms
+   */
+  public synchronized long getTime(String phaseName) {
+    Long time = times.get(phaseName);
+    return time == null ? 0 : TimeUnit.NANOSECONDS.toMillis(time);
+  }
+
+  @Override
+  public synchronized String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (Entry<String, Long> entry : times.entrySet()) {
+      if (sb.length() > 0) {
+        sb.append(", ");
+      }
+      sb.append(entry.getKey()).append(": ").append(TimeUnit.NANOSECONDS.toMillis(entry.getValue())).append("ms");
+    }
+    return sb.toString();
+  }
+}
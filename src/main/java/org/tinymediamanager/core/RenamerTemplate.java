@@ -0,0 +1,251 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The class RenamerTemplate. A renamer pattern (e.g. "$T {($Y)}") parsed once into a program of literal runs, tokens ($x) and optional groups
+ * ({...}). The program is evaluated into a reused StringBuilder, so renaming/previewing the whole library does not scan the pattern again for
+ * every movie/episode.<br>
+ * The values of the tokens are inserted as they are - they are not interpreted as tokens again.
+ *
+ * @author Manuel Laggner
+ */
+public class RenamerTemplate {
+  // the amount of cached templates; the renamer settings preview compiles a template for every keystroke
+  private static final int                                    MAX_CACHED_TEMPLATES  = 256;
+  private static final ConcurrentMap<String, RenamerTemplate> TEMPLATES             = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<String, RenamerTemplate> TEMPLATES_WITH_GROUPS = new ConcurrentHashMap<>();
+  private static final ThreadLocal<StringBuilder>             BUILDER               = new ThreadLocal<>();
+
+  // marks the key token of an optional group
+  private static final Part                                   KEY                   = new Literal("");
+
+  private final List<Part>                                    parts;
+
+  /**
+   * resolves the values of the tokens for one movie/episode
+   */
+  public interface TokenResolver {
+    /**
+     * get the value of a token
+     *
+     * @param token
+     *          the token ($x)
+     * @return the value (already cleaned for file/folder names) or an empty string
+     */
+    String getTokenValue(String token);
+
+    /**
+     * get the value of the key token of an optional group; if the value is empty, the whole group is left out
+     *
+     * @param token
+     *          the first token ($x) of the group
+     * @return the value or an empty string
+     */
+    String getOptionalValue(String token);
+  }
+
+  private RenamerTemplate(List<Part> parts) {
+    this.parts = parts;
+  }
+
+  /**
+   * get the compiled program for the given template; optional groups ({...}) are not interpreted
+   *
+   * @param template
+   *          the renamer template
+   * @return the compiled template
+   */
+  public static RenamerTemplate compile(String template) {
+    return compile(template, false, TEMPLATES);
+  }
+
+  /**
+   * get the compiled program for the given template, including optional groups ({...})
+   *
+   * @param template
+   *          the renamer template
+   * @return the compiled template
+   */
+  public static RenamerTemplate compileWithOptionalGroups(String template) {
+    return compile(template, true, TEMPLATES_WITH_GROUPS);
+  }
+
+  private static RenamerTemplate compile(String template, boolean optionalGroups, ConcurrentMap<String, RenamerTemplate> cache) {
+    RenamerTemplate compiled = cache.get(template);
+    if (compiled == null) {
+      if (cache.size() > MAX_CACHED_TEMPLATES) {
+        cache.clear();
+      }
+      compiled = new RenamerTemplate(parse(template, optionalGroups, null));
+      cache.putIfAbsent(template, compiled);
+    }
+    return compiled;
+  }
+
+  /**
+   * evaluate the template
+   *
+   * @param resolver
+   *          the resolver for the token values
+   * @return the resulting string (not cleaned up)
+   */
+  public String evaluate(TokenResolver resolver) {
+    // optional groups may evaluate other templates while we are using the builder of this thread
+    StringBuilder sb = BUILDER.get();
+    if (sb == null) {
+      sb = new StringBuilder(128);
+    }
+    else {
+      BUILDER.set(null);
+      sb.setLength(0);
+    }
+
+    try {
+      for (Part part : parts) {
+        part.appendTo(sb, resolver);
+      }
+      return sb.toString();
+    }
+    finally {
+      BUILDER.set(sb);
+    }
+  }
+
+  /**
+   * parse the template; tokens are $ followed by a word character or #
+   */
+  private static List<Part> parse(String template, boolean optionalGroups, String key) {
+    List<Part> parts = new ArrayList<>();
+    StringBuilder literal = new StringBuilder();
+    int i = 0;
+    while (i < template.length()) {
+      char c = template.charAt(i);
+      if (key != null && template.startsWith(key, i)) {
+        addLiteral(parts, literal);
+        parts.add(KEY);
+        i += key.length();
+      }
+      else if (optionalGroups && c == '{' && template.indexOf('}', i + 1) > 0) {
+        int end = template.indexOf('}', i + 1);
+        addLiteral(parts, literal);
+        Part group = parseOptionalGroup(template.substring(i + 1, end));
+        if (group != null) {
+          parts.add(group);
+        }
+        i = end + 1;
+      }
+      else if (c == '$' && i + 1 < template.length() && isTokenCharacter(template.charAt(i + 1))) {
+        addLiteral(parts, literal);
+        parts.add(new Token(template.substring(i, i + 2)));
+        i += 2;
+      }
+      else {
+        literal.append(c);
+        i++;
+      }
+    }
+    addLiteral(parts, literal);
+    return parts;
+  }
+
+  /**
+   * an optional group is driven by its first $x (any character after the $); groups without any $x are left out completely
+   */
+  private static Part parseOptionalGroup(String group) {
+    int pos = group.indexOf('$');
+    if (pos < 0 || pos + 1 >= group.length()) {
+      return null;
+    }
+    String key = group.substring(pos, pos + 2);
+    return new OptionalGroup(key, parse(group, false, key));
+  }
+
+  private static void addLiteral(List<Part> parts, StringBuilder literal) {
+    if (literal.length() > 0) {
+      parts.add(new Literal(literal.toString()));
+      literal.setLength(0);
+    }
+  }
+
+  private static boolean isTokenCharacter(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '#';
+  }
+
+  /**
+   * one instruction of the program
+   */
+  private abstract static class Part {
+    abstract void appendTo(StringBuilder sb, TokenResolver resolver);
+  }
+
+  private static class Literal extends Part {
+    private final String text;
+
+    Literal(String text) {
+      this.text = text;
+    }
+
+    @Override
+    void appendTo(StringBuilder sb, TokenResolver resolver) {
+      sb.append(text);
+    }
+  }
+
+  private static class Token extends Part {
+    private final String token;
+
+    Token(String token) {
+      this.token = token;
+    }
+
+    @Override
+    void appendTo(StringBuilder sb, TokenResolver resolver) {
+      sb.append(resolver.getTokenValue(token));
+    }
+  }
+
+  private static class OptionalGroup extends Part {
+    private final String     key;
+    private final List<Part> parts;
+
+    OptionalGroup(String key, List<Part> parts) {
+      this.key = key;
+      this.parts = parts;
+    }
+
+    @Override
+    void appendTo(StringBuilder sb, TokenResolver resolver) {
+      String value = resolver.getOptionalValue(key);
+      if (value.isEmpty()) {
+        return;
+      }
+      for (Part part : parts) {
+        if (part == KEY) {
+          sb.append(value);
+        }
+        else {
+          part.appendTo(sb, resolver);
+        }
+      }
+    }
+  }
+}
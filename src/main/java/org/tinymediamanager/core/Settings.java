@@ -52,6 +52,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tinymediamanager.ReleaseInfo;
 import org.tinymediamanager.core.ImageCache.CacheType;
+import org.tinymediamanager.core.ImageCache.EvictionPolicy;
 import org.tinymediamanager.core.Message.MessageLevel;
 import org.tinymediamanager.core.movie.MovieFanartNaming;
 import org.tinymediamanager.core.movie.MovieNfoNaming;
@@ -95,9 +96,30 @@ public class Settings extends AbstractModelObject {
   private final static String         PROXY_PASSWORD              = "proxyPassword";
   private final static String         IMAGE_CACHE                 = "imageCache";
   private final static String         IMAGE_CACHE_TYPE            = "imageCacheType";
+  private final static String         IMAGE_CACHE_SIZE_LIMIT      = "imageCacheSizeLimit";
+  private final static String         IMAGE_CACHE_CONTENT_HASH    = "imageCacheContentHash";
+  private final static String         IMAGE_CACHE_EVICTION_POLICY = "imageCacheEvictionPolicy";
   private final static String         LANGUAGE                    = "language";
   private final static String         WOL_DEVICES                 = "wolDevices";
   private final static String         ENABLE_ANALYTICS            = "enableAnalytics";
+  private final static String         WATCH_DATASOURCES           = "watchDatasources";
+  private final static String         DATASOURCE_POLL_INTERVAL    = "datasourcePollInterval";
+  private final static String         UPDATE_THREADS              = "updateThreads";
+  private final static String         MEDIAINFO_THREADS           = "mediainfoThreads";
+  private final static String         MEDIAINFO_THREADS_PER_DISK  = "mediainfoThreadsPerDisk";
+  private final static String         SCRAPE_THREADS              = "scrapeThreads";
+  private final static String         SUBTITLE_THREADS            = "subtitleThreads";
+  private final static String         IMAGE_CACHE_THREADS         = "imageCacheThreads";
+  private final static String         IMAGE_DOWNLOAD_THREADS      = "imageDownloadThreads";
+  private final static String         IMAGE_DOWNLOADS_PER_HOST    = "imageDownloadsPerHost";
+  private final static String         DOWNLOAD_THREADS            = "downloadThreads";
+  private final static String         DOWNLOAD_SEGMENTS           = "downloadSegments";
+  private final static String         CONCURRENT_DATASOURCES      = "concurrentDatasources";
+  private final static String         DATASOURCES_PER_DEVICE      = "datasourcesPerDevice";
+  private final static String         RENAME_THREADS              = "renameThreads";
+  private final static String         RENAMES_PER_DEVICE          = "renamesPerDevice";
+  private final static String         ADAPTIVE_THREAD_POOLS       = "adaptiveThreadPools";
+  private final static String         DATABASE_CODEC              = "databaseCodec";
 
   @XmlElementWrapper(name = TITLE_PREFIX)
   @XmlElement(name = PREFIX)
@@ -135,6 +157,9 @@ public class Settings extends AbstractModelObject {
 
   private boolean                     imageCache                  = true;
   private CacheType                   imageCacheType              = CacheType.SMOOTH;
+  private int                         imageCacheSizeLimit         = 4096;
+  private EvictionPolicy              imageCacheEvictionPolicy    = EvictionPolicy.LRU;
+  private boolean                     imageCacheContentHash       = false;
   private boolean                     dirty                       = false;
   private MovieSettings               movieSettings               = null;
   private TvShowSettings              tvShowSettings              = null;
@@ -150,6 +175,24 @@ public class Settings extends AbstractModelObject {
 
   private boolean                     deleteTrashOnExit           = false;
   private boolean                     enableAnalytics             = true;
+  private boolean                     watchDatasources            = false;
+  private int                         datasourcePollInterval      = 300;
+  private int                         updateThreads               = 3;
+  private int                         mediainfoThreads            = 4;
+  private int                         mediainfoThreadsPerDisk     = 2;
+  private int                         scrapeThreads               = 3;
+  private int                         subtitleThreads             = 3;
+  private int                         imageCacheThreads           = 0;
+  private int                         imageDownloadThreads        = 6;
+  private int                         imageDownloadsPerHost       = 3;
+  private int                         downloadThreads             = 2;
+  private int                         downloadSegments            = 4;
+  private boolean                     concurrentDatasources       = false;
+  private int                         datasourcesPerDevice        = 1;
+  private int                         renameThreads               = 4;
+  private int                         renamesPerDevice            = 2;
+  private boolean                     adaptiveThreadPools         = false;
+  private String                      databaseCodec               = JsonEntityCodec.NAME;
 
   private PropertyChangeListener      propertyChangeListener;
   @XmlTransient
@@ -967,6 +1010,52 @@ public class Settings extends AbstractModelObject {
     firePropertyChange(IMAGE_CACHE_TYPE, oldValue, newValue);
   }
 
+  /**
+   * the maximum size of the image cache in MB (0 = unlimited)
+   * 
+   * @return the size limit
+   */
+  public int getImageCacheSizeLimit() {
+    return imageCacheSizeLimit;
+  }
+
+  public void setImageCacheSizeLimit(int newValue) {
+    int oldValue = this.imageCacheSizeLimit;
+    this.imageCacheSizeLimit = newValue;
+    firePropertyChange(IMAGE_CACHE_SIZE_LIMIT, oldValue, newValue);
+  }
+
+  /**
+   * which files are evicted first if the image cache exceeds its size limit
+   * 
+   * @return the eviction policy
+   */
+  public EvictionPolicy getImageCacheEvictionPolicy() {
+    return imageCacheEvictionPolicy;
+  }
+
+  public void setImageCacheEvictionPolicy(EvictionPolicy newValue) {
+    EvictionPolicy oldValue = this.imageCacheEvictionPolicy;
+    this.imageCacheEvictionPolicy = newValue;
+    firePropertyChange(IMAGE_CACHE_EVICTION_POLICY, oldValue, newValue);
+  }
+
+  /**
+   * build the names of the cached images from the content of the original images, so that identical images (e.g. the same artwork for several
+   * movies) are cached only once
+   * 
+   * @return true if the content should be hashed
+   */
+  public boolean isImageCacheContentHash() {
+    return imageCacheContentHash;
+  }
+
+  public void setImageCacheContentHash(boolean newValue) {
+    boolean oldValue = this.imageCacheContentHash;
+    this.imageCacheContentHash = newValue;
+    firePropertyChange(IMAGE_CACHE_CONTENT_HASH, oldValue, newValue);
+  }
+
   /**
    * get Localge.getLanguage() 2 char from settings
    * 
@@ -1109,4 +1198,275 @@ public class Settings extends AbstractModelObject {
     this.enableAnalytics = newValue;
     firePropertyChange(ENABLE_ANALYTICS, oldValue, newValue);
   }
+
+  /**
+   * watch the data sources for changes and update the changed folders automatically
+   * 
+   * @return true if the data sources should be watched
+   */
+  public boolean isWatchDatasources() {
+    return watchDatasources;
+  }
+
+  public void setWatchDatasources(boolean newValue) {
+    boolean oldValue = this.watchDatasources;
+    this.watchDatasources = newValue;
+    firePropertyChange(WATCH_DATASOURCES, oldValue, newValue);
+  }
+
+  /**
+   * the interval (in seconds) to poll watched data sources on network mounts
+   * 
+   * @return the poll interval
+   */
+  public int getDatasourcePollInterval() {
+    return datasourcePollInterval;
+  }
+
+  public void setDatasourcePollInterval(int newValue) {
+    int oldValue = this.datasourcePollInterval;
+    this.datasourcePollInterval = newValue;
+    firePropertyChange(DATASOURCE_POLL_INTERVAL, oldValue, newValue);
+  }
+
+  /**
+   * the amount of threads for updating the data sources
+   * 
+   * @return the amount of threads
+   */
+  public int getUpdateThreads() {
+    return updateThreads;
+  }
+
+  public void setUpdateThreads(int newValue) {
+    int oldValue = this.updateThreads;
+    this.updateThreads = newValue;
+    firePropertyChange(UPDATE_THREADS, oldValue, newValue);
+  }
+
+  /**
+   * the amount of threads for gathering the media information
+   * 
+   * @return the amount of threads
+   */
+  public int getMediainfoThreads() {
+    return mediainfoThreads;
+  }
+
+  public void setMediainfoThreads(int newValue) {
+    int oldValue = this.mediainfoThreads;
+    this.mediainfoThreads = newValue;
+    firePropertyChange(MEDIAINFO_THREADS, oldValue, newValue);
+  }
+
+  /**
+   * the maximum amount of files per disk/mount which are read by libmediainfo at the same time
+   * 
+   * @return the amount of concurrent accesses per disk
+   */
+  public int getMediainfoThreadsPerDisk() {
+    return mediainfoThreadsPerDisk;
+  }
+
+  public void setMediainfoThreadsPerDisk(int newValue) {
+    int oldValue = this.mediainfoThreadsPerDisk;
+    this.mediainfoThreadsPerDisk = newValue;
+    firePropertyChange(MEDIAINFO_THREADS_PER_DISK, oldValue, newValue);
+  }
+
+  /**
+   * the amount of threads for scraping
+   * 
+   * @return the amount of threads
+   */
+  public int getScrapeThreads() {
+    return scrapeThreads;
+  }
+
+  public void setScrapeThreads(int newValue) {
+    int oldValue = this.scrapeThreads;
+    this.scrapeThreads = newValue;
+    firePropertyChange(SCRAPE_THREADS, oldValue, newValue);
+  }
+
+  /**
+   * the amount of threads for searching/downloading subtitles
+   * 
+   * @return the amount of threads
+   */
+  public int getSubtitleThreads() {
+    return subtitleThreads;
+  }
+
+  public void setSubtitleThreads(int newValue) {
+    int oldValue = this.subtitleThreads;
+    this.subtitleThreads = newValue;
+    firePropertyChange(SUBTITLE_THREADS, oldValue, newValue);
+  }
+
+  /**
+   * the amount of threads for building the image cache (0 = one thread per core, but leave one core for the UI)
+   * 
+   * @return the amount of threads
+   */
+  public int getImageCacheThreads() {
+    return imageCacheThreads;
+  }
+
+  public void setImageCacheThreads(int newValue) {
+    int oldValue = this.imageCacheThreads;
+    this.imageCacheThreads = newValue;
+    firePropertyChange(IMAGE_CACHE_THREADS, oldValue, newValue);
+  }
+
+  /**
+   * the amount of threads for downloading artwork
+   * 
+   * @return the amount of threads
+   */
+  public int getImageDownloadThreads() {
+    return imageDownloadThreads;
+  }
+
+  public void setImageDownloadThreads(int newValue) {
+    int oldValue = this.imageDownloadThreads;
+    this.imageDownloadThreads = newValue;
+    firePropertyChange(IMAGE_DOWNLOAD_THREADS, oldValue, newValue);
+  }
+
+  /**
+   * the maximum amount of concurrent artwork downloads from the same host
+   * 
+   * @return the amount of concurrent downloads per host
+   */
+  public int getImageDownloadsPerHost() {
+    return imageDownloadsPerHost;
+  }
+
+  public void setImageDownloadsPerHost(int newValue) {
+    int oldValue = this.imageDownloadsPerHost;
+    this.imageDownloadsPerHost = newValue;
+    firePropertyChange(IMAGE_DOWNLOADS_PER_HOST, oldValue, newValue);
+  }
+
+  /**
+   * the amount of concurrent (trailer/subtitle) downloads
+   * 
+   * @return the amount of concurrent downloads
+   */
+  public int getDownloadThreads() {
+    return downloadThreads;
+  }
+
+  public void setDownloadThreads(int newValue) {
+    int oldValue = this.downloadThreads;
+    this.downloadThreads = newValue;
+    firePropertyChange(DOWNLOAD_THREADS, oldValue, newValue);
+  }
+
+  /**
+   * the maximum amount of parallel connections (segments) for a single big download; 1 disables segmented downloading
+   * 
+   * @return the amount of segments
+   */
+  public int getDownloadSegments() {
+    return downloadSegments;
+  }
+
+  public void setDownloadSegments(int newValue) {
+    int oldValue = this.downloadSegments;
+    this.downloadSegments = newValue;
+    firePropertyChange(DOWNLOAD_SEGMENTS, oldValue, newValue);
+  }
+
+  /**
+   * update several data sources at the same time (data sources on different devices are scanned in parallel)
+   * 
+   * @return true if the data sources should be updated concurrently
+   */
+  public boolean isConcurrentDatasources() {
+    return concurrentDatasources;
+  }
+
+  public void setConcurrentDatasources(boolean newValue) {
+    boolean oldValue = this.concurrentDatasources;
+    this.concurrentDatasources = newValue;
+    firePropertyChange(CONCURRENT_DATASOURCES, oldValue, newValue);
+  }
+
+  /**
+   * the maximum amount of data sources on the same device (file store) which are updated at the same time
+   * 
+   * @return the amount of data sources per device
+   */
+  public int getDatasourcesPerDevice() {
+    return datasourcesPerDevice;
+  }
+
+  public void setDatasourcesPerDevice(int newValue) {
+    int oldValue = this.datasourcesPerDevice;
+    this.datasourcesPerDevice = newValue;
+    firePropertyChange(DATASOURCES_PER_DEVICE, oldValue, newValue);
+  }
+
+  /**
+   * the maximum amount of movies/TV shows which are renamed at the same time; 1 renames sequentially
+   * 
+   * @return the amount of rename threads
+   */
+  public int getRenameThreads() {
+    return renameThreads;
+  }
+
+  public void setRenameThreads(int newValue) {
+    int oldValue = this.renameThreads;
+    this.renameThreads = newValue;
+    firePropertyChange(RENAME_THREADS, oldValue, newValue);
+  }
+
+  /**
+   * the maximum amount of renames which access the same device (file store) at the same time
+   * 
+   * @return the amount of renames per device
+   */
+  public int getRenamesPerDevice() {
+    return renamesPerDevice;
+  }
+
+  public void setRenamesPerDevice(int newValue) {
+    int oldValue = this.renamesPerDevice;
+    this.renamesPerDevice = newValue;
+    firePropertyChange(RENAMES_PER_DEVICE, oldValue, newValue);
+  }
+
+  /**
+   * resize the thread pools at runtime depending on the observed task latency and queue depth (the configured amount of threads is used as start
+   * value)
+   * 
+   * @return true if the thread pools should be resized adaptively
+   */
+  public boolean isAdaptiveThreadPools() {
+    return adaptiveThreadPools;
+  }
+
+  public void setAdaptiveThreadPools(boolean newValue) {
+    boolean oldValue = this.adaptiveThreadPools;
+    this.adaptiveThreadPools = newValue;
+    firePropertyChange(ADAPTIVE_THREAD_POOLS, oldValue, newValue);
+  }
+
+  /**
+   * the codec for storing the entities in the databases (json or smile); the databases are converted on the next start after a change
+   * 
+   * @return the name of the codec
+   */
+  public String getDatabaseCodec() {
+    return databaseCodec;
+  }
+
+  public void setDatabaseCodec(String newValue) {
+    String oldValue = this.databaseCodec;
+    this.databaseCodec = newValue;
+    firePropertyChange(DATABASE_CODEC, oldValue, newValue);
+  }
 }
@@ -84,6 +84,8 @@ public class TmmModuleManager {
         }
       }
     }
+    MediaInfoCache.getInstance().close();
+    ImageCacheIndex.getInstance().close();
   }
 
   /**
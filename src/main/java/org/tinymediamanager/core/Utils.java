@@ -95,6 +95,9 @@ public class Utils {
   private static final Pattern folderStackingPattern = Pattern.compile("(.*?)[ _.-]*((?:cd|dvd|p(?:ar)?t|dis[ck])[ _.-]*[0-9]+(.*?))$",
       Pattern.CASE_INSENSITIVE);
 
+  // delays between the retries of a failed move/copy; most locks (virus scanner, indexer) are released within a few hundred ms
+  private static final long[]  RETRY_DELAYS          = { 100, 200, 400, 800 };
+
   /**
    * gets the filename part, and returns last extension
    * 
@@ -602,7 +605,7 @@ public class Utils {
   /**
    * modified version of commons-io FileUtils.moveDirectory(); adapted to Java 7 NIO<br>
    * since renameTo() might not work in first place, retry it up to 5 times.<br>
-   * (better wait 5 sec for success, than always copying a 50gig directory ;)<br>
+   * (better wait a moment for success, than always copying a 50gig directory ;)<br>
    * <b>And NO, we're NOT doing a copy+delete as fallback!</b>
    * 
    * @param srcDir
@@ -624,6 +627,8 @@ public class Utils {
     }
     if (!srcDir.toAbsolutePath().toString().equals(destDir.toAbsolutePath().toString())) {
       LOGGER.debug("try to move folder " + srcDir + " to " + destDir);
+      // our own changes must not trigger an update of the data source
+      DatasourceWatcher.ignoreChanges(srcDir, destDir);
       if (!Files.isDirectory(srcDir)) {
         throw new FileNotFoundException("Source '" + srcDir + "' does not exist, or is not a directory");
       }
@@ -643,9 +648,9 @@ public class Utils {
         }
       }
 
-      // rename folder; try 5 times and wait a sec
+      // rename folder; try 5 times with a growing delay
       boolean rename = false;
-      for (int i = 0; i < 5; i++) {
+      for (int i = 0; i <= RETRY_DELAYS.length; i++) {
         try {
           // need atomic fs move for changing cASE
           Files.move(srcDir, destDir, StandardCopyOption.ATOMIC_MOVE);
@@ -665,12 +670,11 @@ public class Utils {
         if (rename) {
           break; // ok it worked, step out
         }
-        try {
+        if (i < RETRY_DELAYS.length) {
           LOGGER.debug("rename did not work - sleep a while and try again...");
-          Thread.sleep(1000);
-        }
-        catch (InterruptedException e) {
-          LOGGER.warn("I'm so excited - could not sleep");
+          if (!sleepBeforeRetry(RETRY_DELAYS[i])) {
+            break;
+          }
         }
       }
 
@@ -695,7 +699,7 @@ public class Utils {
   /**
    * modified version of commons-io FileUtils.moveFile(); adapted to Java 7 NIO<br>
    * since renameTo() might not work in first place, retry it up to 5 times.<br>
-   * (better wait 5 sec for success, than always copying a 50gig directory ;)<br>
+   * (better wait a moment for success, than always copying a 50gig directory ;)<br>
    * <b>And NO, we're NOT doing a copy+delete as fallback!</b>
    * 
    * @param srcFile
@@ -721,6 +725,7 @@ public class Utils {
     // if (!srcFile.equals(destFile)) {
     if (!srcFile.toAbsolutePath().toString().equals(destFile.toAbsolutePath().toString())) {
       LOGGER.debug("try to move file " + srcFile + " to " + destFile);
+      DatasourceWatcher.ignoreChanges(srcFile, destFile);
       if (Files.notExists(srcFile)) {
         throw new FileNotFoundException("Source '" + srcFile + "' does not exist");
       }
@@ -736,9 +741,9 @@ public class Utils {
         throw new IOException("Destination '" + destFile + "' is a directory");
       }
 
-      // rename folder; try 5 times and wait a sec
+      // rename folder; try 5 times with a growing delay
       boolean rename = false;
-      for (int i = 0; i < 5; i++) {
+      for (int i = 0; i <= RETRY_DELAYS.length; i++) {
         try {
           // need atomic fs move for changing cASE
           Files.move(srcFile, destFile, StandardCopyOption.ATOMIC_MOVE);
@@ -760,12 +765,11 @@ public class Utils {
         if (rename) {
           break; // ok it worked, step out
         }
-        try {
+        if (i < RETRY_DELAYS.length) {
           LOGGER.debug("rename did not work - sleep a while and try again...");
-          Thread.sleep(1000);
-        }
-        catch (InterruptedException e) {
-          LOGGER.warn("I'm so excited - could not sleep");
+          if (!sleepBeforeRetry(RETRY_DELAYS[i])) {
+            break;
+          }
         }
       }
 
@@ -782,6 +786,24 @@ public class Utils {
     return true; // files are equal
   }
 
+  /**
+   * sleep before the next retry of a failed move/copy
+   * 
+   * @param millis
+   *          the time to sleep
+   * @return false if the thread has been interrupted (no further retries)
+   */
+  private static boolean sleepBeforeRetry(long millis) {
+    try {
+      Thread.sleep(millis);
+      return true;
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
   /**
    * copy a file, preserving the attributes, but NOT overwrite it
    * 
@@ -832,6 +854,7 @@ public class Utils {
     // if (!srcFile.equals(destFile)) {
     if (!srcFile.toAbsolutePath().toString().equals(destFile.toAbsolutePath().toString())) {
       LOGGER.debug("try to copy file " + srcFile + " to " + destFile);
+      DatasourceWatcher.ignoreChanges(destFile);
       if (Files.notExists(srcFile)) {
         throw new FileNotFoundException("Source '" + srcFile + "' does not exist");
       }
@@ -849,9 +872,9 @@ public class Utils {
         throw new IOException("Destination '" + destFile + "' is a directory");
       }
 
-      // rename folder; try 5 times and wait a sec
+      // rename folder; try 5 times with a growing delay
       boolean rename = false;
-      for (int i = 0; i < 5; i++) {
+      for (int i = 0; i <= RETRY_DELAYS.length; i++) {
         try {
           // replace existing for changing cASE
           Files.copy(srcFile, destFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
@@ -863,12 +886,11 @@ public class Utils {
         if (rename) {
           break; // ok it worked, step out
         }
-        try {
+        if (i < RETRY_DELAYS.length) {
           LOGGER.debug("rename did not work - sleep a while and try again...");
-          Thread.sleep(1000);
-        }
-        catch (InterruptedException e) {
-          LOGGER.warn("I'm so excited - could not sleep");
+          if (!sleepBeforeRetry(RETRY_DELAYS[i])) {
+            break;
+          }
         }
       }
 
@@ -906,6 +928,7 @@ public class Utils {
       LOGGER.warn("could not delete file '" + fn + "': file is a directory!");
       return false;
     }
+    DatasourceWatcher.ignoreChanges(file);
 
     // inject backup path
     fn = fn.replace(datasource, datasource + FileSystems.getDefault().getSeparator() + Constants.BACKUP_FOLDER);
@@ -941,6 +964,7 @@ public class Utils {
       LOGGER.warn("Will not delete file '" + file + "': file is a directory!");
       return false;
     }
+    DatasourceWatcher.ignoreChanges(file);
     try {
       Files.deleteIfExists(file);
     }
@@ -973,6 +997,7 @@ public class Utils {
       LOGGER.warn("Will not delete folder '" + folder + "': datasource '" + datasource + "' does not match");
       return false;
     }
+    DatasourceWatcher.ignoreChanges(folder);
 
     // inject backup path
     fn = fn.replace(datasource, datasource + FileSystems.getDefault().getSeparator() + Constants.BACKUP_FOLDER);
@@ -1270,6 +1295,7 @@ public class Utils {
     }
 
     LOGGER.info("Deleting complete directory: " + dir);
+    DatasourceWatcher.ignoreChanges(dir);
     Files.walkFileTree(dir, new FileVisitor<Path>() {
 
       @Override
@@ -1435,6 +1461,7 @@ public class Utils {
    * @throws IOException
    */
   public static void writeStringToFile(Path file, String text) throws IOException {
+    DatasourceWatcher.ignoreChanges(file);
     byte[] buf = text.getBytes(StandardCharsets.UTF_8);
     Files.write(file, buf);
   }
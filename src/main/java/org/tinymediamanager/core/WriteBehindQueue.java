@@ -0,0 +1,195 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import java.util.ConcurrentModificationException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.h2.mvstore.MVStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The class WriteBehindQueue. Collects entities to be persisted and writes them in batches on a dedicated writer thread. Repeated saves of the
+ * same entity within the write delay are coalesced into a single write.
+ *
+ * @author Manuel Laggner
+ */
+public class WriteBehindQueue<T> {
+  private static final Logger            LOGGER    = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+  private final String                   name;
+  private final MVStore                  mvStore;
+  private final EntityWriter<T>          writer;
+  private final long                     writeDelay;
+  private final ScheduledExecutorService executor;
+
+  // guarded by this
+  private Map<UUID, T>                   pending   = new LinkedHashMap<>();
+  private boolean                        scheduled = false;
+
+  // held while a batch is written - used to discard entities safely
+  private final Object                   writeLock = new Object();
+
+  /**
+   * the callback which serializes and stores a single entity
+   */
+  public interface EntityWriter<T> {
+    void write(T entity) throws Exception;
+  }
+
+  /**
+   * create a new write behind queue
+   *
+   * @param name
+   *          the name of the queue (used for the writer thread)
+   * @param mvStore
+   *          the MVStore to commit after every batch
+   * @param writer
+   *          the writer for a single entity
+   * @param writeDelay
+   *          the time (in ms) to collect saves before writing them
+   */
+  public WriteBehindQueue(final String name, MVStore mvStore, EntityWriter<T> writer, long writeDelay) {
+    this.name = name;
+    this.mvStore = mvStore;
+    this.writer = writer;
+    this.writeDelay = writeDelay;
+    this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread t = new Thread(r, "tmm-db-writer-" + name);
+        t.setDaemon(true);
+        return t;
+      }
+    });
+  }
+
+  /**
+   * enqueue the given entity for writing; if the entity is already queued, it will be written only once
+   *
+   * @param uuid
+   *          the db id of the entity
+   * @param entity
+   *          the entity to write
+   */
+  public synchronized void enqueue(UUID uuid, T entity) {
+    pending.put(uuid, entity);
+    if (!scheduled && !executor.isShutdown()) {
+      scheduled = true;
+      executor.schedule(new Runnable() {
+        @Override
+        public void run() {
+          writeBatch();
+        }
+      }, writeDelay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * remove the given entity from the queue. When this method returns, the entity is neither queued nor being written
+   *
+   * @param uuid
+   *          the db id of the entity
+   */
+  public void discard(UUID uuid) {
+    synchronized (writeLock) {
+      synchronized (this) {
+        pending.remove(uuid);
+      }
+    }
+  }
+
+  /**
+   * write all queued entities and wait until they have been committed
+   */
+  public void flush() {
+    if (executor.isShutdown()) {
+      // the writer is gone; write in the calling thread
+      writeBatch();
+      return;
+    }
+    try {
+      executor.submit(new Runnable() {
+        @Override
+        public void run() {
+          writeBatch();
+        }
+      }).get();
+    }
+    catch (Exception e) {
+      LOGGER.error("could not flush the " + name + " queue: " + e.getMessage());
+    }
+  }
+
+  /**
+   * flush the queue and stop the writer thread
+   */
+  public void shutdown() {
+    flush();
+    executor.shutdown();
+    try {
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+    catch (InterruptedException e) {
+      LOGGER.warn("interrupted while waiting for the " + name + " writer");
+    }
+    // write everything which has been queued in the meantime
+    writeBatch();
+  }
+
+  private void writeBatch() {
+    synchronized (writeLock) {
+      Map<UUID, T> batch;
+      synchronized (this) {
+        batch = pending;
+        pending = new LinkedHashMap<>();
+        scheduled = false;
+      }
+
+      if (batch.isEmpty()) {
+        return;
+      }
+
+      for (Map.Entry<UUID, T> entry : batch.entrySet()) {
+        try {
+          writer.write(entry.getValue());
+        }
+        catch (Exception e) {
+          if (ExceptionUtils.indexOfThrowable(e, ConcurrentModificationException.class) >= 0) {
+            // the entity has been modified while serializing - write it with the next batch
+            enqueue(entry.getKey(), entry.getValue());
+          }
+          else {
+            LOGGER.error("failed to write entity " + entry.getKey() + " to the " + name + " database: " + e.getMessage());
+          }
+        }
+      }
+
+      if (!mvStore.isClosed()) {
+        mvStore.commit();
+      }
+      LOGGER.trace("wrote " + batch.size() + " entities to the " + name + " database");
+    }
+  }
+}
@@ -62,6 +62,7 @@ import org.tinymediamanager.core.MediaFileType;
 import org.tinymediamanager.scraper.entities.MediaArtwork.MediaArtworkType;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonView;
 
 /**
  * The Class MediaEntity. The base class for all entities
@@ -83,29 +84,40 @@ public abstract class MediaEntity extends AbstractModelObject {
   @JsonProperty
   protected String                     year              = "";
   @JsonProperty
+  @JsonView(DetailView.class)
   protected String                     plot              = "";
   @JsonProperty
   protected float                      rating            = 0f;
   @JsonProperty
+  @JsonView(DetailView.class)
   protected int                        votes             = 0;
   @JsonProperty
   protected String                     path              = "";
   @JsonProperty
   protected Date                       dateAdded         = new Date();
   @JsonProperty
+  @JsonView(DetailView.class)
   protected String                     productionCompany = "";
   @JsonProperty
   protected boolean                    scraped           = false;
 
   @JsonProperty
+  @JsonView(DetailView.class)
   private List<MediaFile>              mediaFiles        = new ArrayList<>();
   @JsonProperty
+  @JsonView(DetailView.class)
   protected Map<MediaFileType, String> artworkUrlMap     = new HashMap<>();
 
   protected boolean                    newlyAdded        = false;
   protected boolean                    duplicate         = false;
   protected ReadWriteLock              readWriteLock     = new ReentrantReadWriteLock();
 
+  /**
+   * JSON view of the details of an entity (these are only available in the full JSON; the summary is written without them)
+   */
+  public interface DetailView {
+  }
+
   public MediaEntity() {
   }
 
@@ -116,6 +128,34 @@ public abstract class MediaEntity extends AbstractModelObject {
     sortMediaFiles();
   }
 
+  /**
+   * load the details of this entity if they are not available in memory yet. Every access to the details calls this hook first
+   */
+  public void loadDetails() {
+  }
+
+  /**
+   * take over the details (all fields of the {@link DetailView}) from the given entity without touching the other fields
+   *
+   * @param source
+   *          the entity which has been read from the database
+   */
+  protected void copyDetailsFrom(MediaEntity source) {
+    plot = source.plot;
+    votes = source.votes;
+    productionCompany = source.productionCompany;
+    artworkUrlMap = source.artworkUrlMap;
+
+    readWriteLock.writeLock().lock();
+    try {
+      mediaFiles = source.mediaFiles;
+      sortMediaFiles();
+    }
+    finally {
+      readWriteLock.writeLock().unlock();
+    }
+  }
+
   protected void sortMediaFiles() {
     Comparator<MediaFile> mediaFileComparator = getMediaFileComparator();
     if (mediaFileComparator != null) {
@@ -152,6 +192,7 @@ public abstract class MediaEntity extends AbstractModelObject {
   }
 
   public String getPlot() {
+    loadDetails();
     return plot;
   }
 
@@ -228,6 +269,7 @@ public abstract class MediaEntity extends AbstractModelObject {
   }
 
   public void setPlot(String newValue) {
+    loadDetails();
     String oldValue = plot;
     plot = newValue == null ? "" : newValue.trim();
     firePropertyChange(PLOT, oldValue, newValue);
@@ -246,10 +288,12 @@ public abstract class MediaEntity extends AbstractModelObject {
   }
 
   public int getVotes() {
+    loadDetails();
     return votes;
   }
 
   public void setVotes(int newValue) {
+    loadDetails();
     int oldValue = this.votes;
     this.votes = newValue;
     firePropertyChange(VOTES, oldValue, newValue);
@@ -262,6 +306,7 @@ public abstract class MediaEntity extends AbstractModelObject {
   }
 
   public void setArtworkUrl(String url, MediaFileType type) {
+    loadDetails();
     String oldValue = getArtworkFilename(type);
 
     switch (type) {
@@ -290,6 +335,7 @@ public abstract class MediaEntity extends AbstractModelObject {
    * @return the url to the artwork type or an empty string
    */
   public String getArtworkUrl(MediaFileType type) {
+    loadDetails();
     String url = artworkUrlMap.get(type);
     return url == null ? "" : url;
   }
@@ -300,6 +346,7 @@ public abstract class MediaEntity extends AbstractModelObject {
    * @return a map containing all urls
    */
   public Map<MediaFileType, String> getArtworkUrls() {
+    loadDetails();
     return artworkUrlMap;
   }
 
@@ -375,10 +422,12 @@ public abstract class MediaEntity extends AbstractModelObject {
   }
 
   public String getProductionCompany() {
+    loadDetails();
     return productionCompany;
   }
 
   public void setProductionCompany(String newValue) {
+    loadDetails();
     String oldValue = this.productionCompany;
     this.productionCompany = newValue;
     firePropertyChange(PRODUCTION_COMPANY, oldValue, newValue);
@@ -452,6 +501,7 @@ public abstract class MediaEntity extends AbstractModelObject {
   }
 
   public void addToMediaFiles(MediaFile mediaFile) {
+    loadDetails();
     readWriteLock.writeLock().lock();
     // only store the MF if it is not in the list or if the type has been changed
     if (mediaFiles.contains(mediaFile)) {
@@ -535,6 +585,7 @@ public abstract class MediaEntity extends AbstractModelObject {
   }
 
   public List<MediaFile> getMediaFiles() {
+    loadDetails();
     List<MediaFile> mf = new ArrayList<>();
     readWriteLock.readLock().lock();
     try {
@@ -555,6 +606,7 @@ public abstract class MediaEntity extends AbstractModelObject {
    * @return list of MF (may be empty, but never null)
    */
   public List<MediaFile> getMediaFiles(MediaFileType... types) {
+    loadDetails();
     List<MediaFile> mf = new ArrayList<>();
     readWriteLock.readLock().lock();
     for (MediaFile mediaFile : mediaFiles) {
@@ -579,6 +631,7 @@ public abstract class MediaEntity extends AbstractModelObject {
    * @return biggest MF
    */
   public MediaFile getBiggestMediaFile() {
+    loadDetails();
     MediaFile mf = new MediaFile();
 
     readWriteLock.readLock().lock();
@@ -599,6 +652,7 @@ public abstract class MediaEntity extends AbstractModelObject {
    * @return NULL or MF
    */
   public MediaFile getNewestMediaFilesOfType(MediaFileType type) {
+    loadDetails();
     MediaFile mf = null;
     readWriteLock.readLock().lock();
     for (MediaFile mediaFile : mediaFiles) {
@@ -622,6 +676,7 @@ public abstract class MediaEntity extends AbstractModelObject {
    * @return list of MF (may be empty, but never null)
    */
   public List<MediaFile> getMediaFilesExceptType(MediaFileType... types) {
+    loadDetails();
     List<MediaFile> mf = new ArrayList<>();
     readWriteLock.readLock().lock();
     for (MediaFile mediaFile : mediaFiles) {
@@ -640,6 +695,7 @@ public abstract class MediaEntity extends AbstractModelObject {
   }
 
   public void removeAllMediaFiles() {
+    loadDetails();
     List<MediaFile> changedMediafiles = new ArrayList<>(mediaFiles);
     readWriteLock.writeLock().lock();
     for (int i = mediaFiles.size() - 1; i >= 0; i--) {
@@ -652,6 +708,7 @@ public abstract class MediaEntity extends AbstractModelObject {
   }
 
   public void removeFromMediaFiles(MediaFile mediaFile) {
+    loadDetails();
     readWriteLock.writeLock().lock();
     try {
       mediaFiles.remove(mediaFile);
@@ -665,6 +722,7 @@ public abstract class MediaEntity extends AbstractModelObject {
   }
 
   public void removeAllMediaFilesExceptType(MediaFileType type) {
+    loadDetails();
     List<MediaFile> changedMediafiles = new ArrayList<>();
 
     readWriteLock.writeLock().lock();
@@ -682,6 +740,7 @@ public abstract class MediaEntity extends AbstractModelObject {
   }
 
   public void removeAllMediaFiles(MediaFileType type) {
+    loadDetails();
     List<MediaFile> changedMediafiles = new ArrayList<>();
 
     readWriteLock.writeLock().lock();
@@ -699,6 +758,7 @@ public abstract class MediaEntity extends AbstractModelObject {
   }
 
   public void updateMediaFilePath(Path oldPath, Path newPath) {
+    loadDetails();
     readWriteLock.readLock().lock();
     List<MediaFile> mfs = new ArrayList<>(this.mediaFiles);
     readWriteLock.readLock().unlock();
@@ -708,6 +768,7 @@ public abstract class MediaEntity extends AbstractModelObject {
   }
 
   public void gatherMediaFileInformation(boolean force) {
+    loadDetails();
     readWriteLock.readLock().lock();
     List<MediaFile> mediaFiles = new ArrayList<>(this.mediaFiles);
     readWriteLock.readLock().unlock();
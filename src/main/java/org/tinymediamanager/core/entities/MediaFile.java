@@ -51,7 +51,9 @@ import org.slf4j.LoggerFactory;
 import org.tinymediamanager.Globals;
 import org.tinymediamanager.core.AbstractModelObject;
 import org.tinymediamanager.core.MediaFileType;
+import org.tinymediamanager.core.MediaInfoCache;
 import org.tinymediamanager.core.Utils;
+import org.tinymediamanager.core.threading.FileStoreThrottle;
 import org.tinymediamanager.scraper.util.LanguageUtils;
 import org.tinymediamanager.scraper.util.StrgUtils;
 import org.tinymediamanager.thirdparty.MediaInfo;
@@ -89,6 +91,8 @@ public class MediaFile extends AbstractModelObject implements Comparable<MediaFi
   private static Pattern                             discartPattern     = Pattern
       .compile("(?i)(.*-discart|discart|.*-disc|disc)\\.(jpg|jpeg|png|tbn)");
   private static Pattern                             clearartPattern    = Pattern.compile("(?i)(.*-clearart|clearart)\\..{2,4}");
+  // limits the concurrent libmediainfo accesses per disk
+  private static FileStoreThrottle                   mediaInfoThrottle  = null;
 
   public static final String                         VIDEO_FORMAT_480P  = "480p";
   public static final String                         VIDEO_FORMAT_576P  = "576p";
@@ -715,30 +719,52 @@ public class MediaFile extends AbstractModelObject implements Comparable<MediaFi
    * instantiates and gets new mediainfo object.
    */
   private void getMediaInfoSnapshot() {
+    if (miSnapshot != null) {
+      return;
+    }
+
+    // an unchanged file need not to be opened again
+    miSnapshot = MediaInfoCache.getInstance().get(getFileAsPath(), filesize, filedate);
+    if (miSnapshot != null) {
+      LOGGER.trace("got MI from cache");
+      return;
+    }
+
     if (mediaInfo == null) {
       mediaInfo = new MediaInfo();
     }
 
-    if (miSnapshot == null) {
-      try {
-        if (!mediaInfo.open(this.getFileAsPath())) {
-          LOGGER.error("Mediainfo could not open file: " + getFileAsPath());
-
-          // clear references
-          closeMediaInfo();
-        }
-        else {
-          miSnapshot = mediaInfo.snapshot();
-        }
-      }
-      // sometimes also an error is thrown
-      catch (Exception | Error e) {
-        LOGGER.error("Mediainfo could not open file: " + getFileAsPath() + "; " + e.getMessage());
+    FileStoreThrottle throttle = getMediaInfoThrottle();
+    throttle.acquire(getFileAsPath());
+    try {
+      if (!mediaInfo.open(this.getFileAsPath())) {
+        LOGGER.error("Mediainfo could not open file: " + getFileAsPath());
 
         // clear references
         closeMediaInfo();
       }
+      else {
+        miSnapshot = mediaInfo.snapshot();
+        MediaInfoCache.getInstance().put(getFileAsPath(), filesize, filedate, miSnapshot);
+      }
+    }
+    // sometimes also an error is thrown
+    catch (Exception | Error e) {
+      LOGGER.error("Mediainfo could not open file: " + getFileAsPath() + "; " + e.getMessage());
+
+      // clear references
+      closeMediaInfo();
+    }
+    finally {
+      throttle.release(getFileAsPath());
+    }
+  }
+
+  private static synchronized FileStoreThrottle getMediaInfoThrottle() {
+    if (mediaInfoThrottle == null) {
+      mediaInfoThrottle = new FileStoreThrottle(Globals.settings.getMediainfoThreadsPerDisk());
     }
+    return mediaInfoThrottle;
   }
 
   /**
@@ -102,6 +102,11 @@ public class MovieExporter extends MediaEntityExporter {
     LOGGER.info("generating movie list");
     Utils.deleteFileSafely(listExportFile);
 
+    // the templates access the details directly; load them upfront
+    for (MediaEntity me : moviesToExport) {
+      ((Movie) me).loadDetails();
+    }
+
     Map<String, Object> root = new HashMap<>();
     root.put("movies", new ArrayList<>(moviesToExport));
 
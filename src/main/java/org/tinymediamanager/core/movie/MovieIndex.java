@@ -0,0 +1,178 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.movie;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.commons.lang3.StringUtils;
+import org.tinymediamanager.core.movie.entities.Movie;
+
+/**
+ * The class MovieIndex. Holds the secondary indexes (db id, path, IMDB id, TMDB id) of all movies in the movie list
+ *
+ * @author Manuel Laggner
+ */
+class MovieIndex {
+  private final Map<UUID, Movie>          byDbId   = new HashMap<>();
+  private final Map<Path, List<Movie>>    byPath   = new HashMap<>();
+  private final Map<String, List<Movie>>  byImdbId = new HashMap<>();
+  private final Map<Integer, List<Movie>> byTmdbId = new HashMap<>();
+
+  // the keys every movie has been indexed with (needed to unindex the movie after a change of its path/ids)
+  private final Map<Movie, IndexKeys>     keys     = new IdentityHashMap<>();
+
+  /**
+   * normalize the given path for the usage as index key
+   *
+   * @param path
+   *          the path
+   * @return the normalized path or null
+   */
+  static Path normalize(Path path) {
+    if (path == null) {
+      return null;
+    }
+    return path.toAbsolutePath().normalize();
+  }
+
+  synchronized void clear() {
+    byDbId.clear();
+    byPath.clear();
+    byImdbId.clear();
+    byTmdbId.clear();
+    keys.clear();
+  }
+
+  synchronized void add(Movie movie) {
+    if (keys.containsKey(movie)) {
+      return;
+    }
+
+    IndexKeys indexKeys = new IndexKeys();
+    indexKeys.dbId = movie.getDbId();
+    if (StringUtils.isNotBlank(movie.getPath())) {
+      indexKeys.path = normalize(Paths.get(movie.getPath()));
+    }
+    if (StringUtils.isNotBlank(movie.getImdbId())) {
+      indexKeys.imdbId = movie.getImdbId();
+    }
+    if (movie.getTmdbId() > 0) {
+      indexKeys.tmdbId = movie.getTmdbId();
+    }
+
+    keys.put(movie, indexKeys);
+    byDbId.put(indexKeys.dbId, movie);
+    addToIndex(byPath, indexKeys.path, movie);
+    addToIndex(byImdbId, indexKeys.imdbId, movie);
+    addToIndex(byTmdbId, indexKeys.tmdbId, movie);
+  }
+
+  synchronized void remove(Movie movie) {
+    IndexKeys indexKeys = keys.remove(movie);
+    if (indexKeys == null) {
+      return;
+    }
+
+    if (byDbId.get(indexKeys.dbId) == movie) {
+      byDbId.remove(indexKeys.dbId);
+    }
+    removeFromIndex(byPath, indexKeys.path, movie);
+    removeFromIndex(byImdbId, indexKeys.imdbId, movie);
+    removeFromIndex(byTmdbId, indexKeys.tmdbId, movie);
+  }
+
+  /**
+   * re-index the given movie (after a change of its path or ids)
+   *
+   * @param movie
+   *          the changed movie
+   */
+  synchronized void update(Movie movie) {
+    if (keys.containsKey(movie)) {
+      remove(movie);
+      add(movie);
+    }
+  }
+
+  synchronized Movie getByDbId(UUID uuid) {
+    return byDbId.get(uuid);
+  }
+
+  synchronized List<Movie> getByPath(Path path) {
+    return copyOf(byPath.get(normalize(path)));
+  }
+
+  synchronized List<Movie> getByImdbId(String imdbId) {
+    return copyOf(byImdbId.get(imdbId));
+  }
+
+  synchronized List<Movie> getByTmdbId(int tmdbId) {
+    return copyOf(byTmdbId.get(tmdbId));
+  }
+
+  private static List<Movie> copyOf(List<Movie> movies) {
+    if (movies == null) {
+      return Collections.emptyList();
+    }
+    return new ArrayList<>(movies);
+  }
+
+  private static <K> void addToIndex(Map<K, List<Movie>> index, K key, Movie movie) {
+    if (key == null) {
+      return;
+    }
+    List<Movie> movies = index.get(key);
+    if (movies == null) {
+      // most keys point to exactly one movie
+      movies = new ArrayList<>(1);
+      index.put(key, movies);
+    }
+    movies.add(movie);
+  }
+
+  private static <K> void removeFromIndex(Map<K, List<Movie>> index, K key, Movie movie) {
+    if (key == null) {
+      return;
+    }
+    List<Movie> movies = index.get(key);
+    if (movies != null) {
+      // movies do not override equals - remove by identity
+      for (int i = movies.size() - 1; i >= 0; i--) {
+        if (movies.get(i) == movie) {
+          movies.remove(i);
+        }
+      }
+      if (movies.isEmpty()) {
+        index.remove(key);
+      }
+    }
+  }
+
+  private static class IndexKeys {
+    UUID    dbId;
+    Path    path;
+    String  imdbId;
+    Integer tmdbId;
+  }
+}
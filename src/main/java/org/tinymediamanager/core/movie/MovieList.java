@@ -16,8 +16,11 @@
 package org.tinymediamanager.core.movie;
 
 import static org.tinymediamanager.core.Constants.CERTIFICATION;
+import static org.tinymediamanager.core.Constants.IMDB;
 import static org.tinymediamanager.core.Constants.MEDIA_FILES;
 import static org.tinymediamanager.core.Constants.MEDIA_INFORMATION;
+import static org.tinymediamanager.core.Constants.PATH;
+import static org.tinymediamanager.core.Constants.TMDB;
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
@@ -36,7 +39,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import org.apache.commons.lang3.LocaleUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -78,7 +84,9 @@ import ca.odell.glazedlists.ObservableElementList;
  * @author Manuel Laggner
  */
 public class MovieList extends AbstractModelObject {
-  private static final Logger          LOGGER             = LoggerFactory.getLogger(MovieList.class);
+  private static final Logger          LOGGER                  = LoggerFactory.getLogger(MovieList.class);
+  private static final int             PARALLEL_LOAD_THRESHOLD = 500;
+  private static final int             DECODE_CHUNK_SIZE       = 250;
   private static MovieList             instance;
 
   private final MovieSettings          movieSettings;
@@ -89,7 +97,9 @@ public class MovieList extends AbstractModelObject {
   private List<String>                 videoCodecsObservable;
   private List<String>                 audioCodecsObservable;
   private List<Certification>          certificationsObservable;
-  private final Comparator<MovieSet>   movieSetComparator = new MovieSetComparator();
+  private final Comparator<MovieSet>   movieSetComparator      = new MovieSetComparator();
+  private final MovieIndex             movieIndex              = new MovieIndex();
+  private final Map<UUID, MovieSet>    movieSetIndex           = new ConcurrentHashMap<>();
 
   /**
    * Instantiates a new movie list.
@@ -118,6 +128,12 @@ public class MovieList extends AbstractModelObject {
           Movie movie = (Movie) evt.getSource();
           updateCertifications(movie);
         }
+        // keep the indexes in sync
+        if (PATH.equals(evt.getPropertyName()) || IMDB.equals(evt.getPropertyName()) || TMDB.equals(evt.getPropertyName())
+            || "imdbId".equals(evt.getPropertyName()) || "tmdbId".equals(evt.getPropertyName())) {
+          Movie movie = (Movie) evt.getSource();
+          movieIndex.update(movie);
+        }
       }
     };
 
@@ -146,6 +162,7 @@ public class MovieList extends AbstractModelObject {
     if (!movieList.contains(movie)) {
       int oldValue = movieList.size();
       movieList.add(movie);
+      movieIndex.add(movie);
 
       updateTags(movie);
       movie.addPropertyChangeListener(tagListener);
@@ -223,6 +240,7 @@ public class MovieList extends AbstractModelObject {
     for (int i = movies.size() - 1; i >= 0; i--) {
       Movie movie = movies.get(i);
       movieList.remove(movie);
+      movieIndex.remove(movie);
       if (movie.getMovieSet() != null) {
         MovieSet movieSet = movie.getMovieSet();
 
@@ -267,6 +285,7 @@ public class MovieList extends AbstractModelObject {
       Movie movie = movies.get(i);
       movie.deleteFilesSafely();
       movieList.remove(movie);
+      movieIndex.remove(movie);
       if (movie.getMovieSet() != null) {
         MovieSet movieSet = movie.getMovieSet();
         movieSet.removeMovie(movie);
@@ -303,30 +322,49 @@ public class MovieList extends AbstractModelObject {
   }
 
   /**
-   * Load movies from database.
+   * Load movies from database. Movies with a stored summary are loaded without their details (which are loaded on first access)
    */
-  void loadMoviesFromDatabase(MVMap<UUID, String> movieMap, ObjectMapper objectMapper) {
+  void loadMoviesFromDatabase(MVMap<UUID, byte[]> movieMap, MVMap<UUID, byte[]> movieSummaryMap, ObjectMapper objectMapper) {
     // load movies
     movieList = new ObservableElementList<>(GlazedLists.threadSafeList(new BasicEventList<Movie>()), GlazedLists.beanConnector(Movie.class));
+    // the ObjectReader is immutable and thus can be shared across all decoding threads
     ObjectReader movieObjectReader = objectMapper.readerFor(Movie.class);
 
-    for (UUID uuid : movieMap.keyList()) {
-      String json = "";
+    List<UUID> uuids = new ArrayList<>(movieMap.keySet());
+    List<Movie> movies;
+
+    int threads = Runtime.getRuntime().availableProcessors();
+    if (threads > 1 && uuids.size() > PARALLEL_LOAD_THRESHOLD) {
+      // decode the movies in parallel; every fork decodes a slice of the key range
+      ForkJoinPool pool = new ForkJoinPool(threads);
       try {
-        json = movieMap.get(uuid);
-        Movie movie = movieObjectReader.readValue(json);
-        movie.setDbId(uuid);
-        // for performance reasons we add movies directly
-        movieList.add(movie);
+        movies = pool.invoke(new MovieDecodeTask(movieMap, movieSummaryMap, movieObjectReader, uuids, 0, uuids.size()));
       }
-      catch (Exception e) {
-        LOGGER.warn("problem decoding movie json string: ", e);
+      finally {
+        pool.shutdown();
       }
     }
+    else {
+      movies = new MovieDecodeTask(movieMap, movieSummaryMap, movieObjectReader, uuids, 0, uuids.size()).decode();
+    }
+
+    // for performance reasons we add movies directly (in one locked batch)
+    movieList.getReadWriteLock().writeLock().lock();
+    try {
+      movieList.addAll(movies);
+    }
+    finally {
+      movieList.getReadWriteLock().writeLock().unlock();
+    }
+
+    movieIndex.clear();
+    for (Movie movie : movies) {
+      movieIndex.add(movie);
+    }
     LOGGER.info("found " + movieList.size() + " movies in database");
   }
 
-  void loadMovieSetsFromDatabase(MVMap<UUID, String> movieSetMap, ObjectMapper objectMapper) {
+  void loadMovieSetsFromDatabase(MVMap<UUID, byte[]> movieSetMap, ObjectMapper objectMapper) {
     // load movie sets
     movieSetList = ObservableCollections.observableList(Collections.synchronizedList(new ArrayList<MovieSet>()));
     ObjectReader movieSetObjectReader = objectMapper.readerFor(MovieSet.class);
@@ -337,9 +375,10 @@ public class MovieList extends AbstractModelObject {
         movieSet.setDbId(uuid);
         // for performance reasons we add movies sets directly
         movieSetList.add(movieSet);
+        movieSetIndex.put(uuid, movieSet);
       }
       catch (Exception e) {
-        LOGGER.warn("problem decoding movie set json string: ", e);
+        LOGGER.warn("problem decoding movie set: ", e);
       }
     }
 
@@ -404,22 +443,60 @@ public class MovieList extends AbstractModelObject {
     }
   }
 
+  /**
+   * read the details of the given movie from its full JSON in the database
+   * 
+   * @param movie
+   *          the movie to fill the details in
+   * @return true if the details have been read
+   */
+  public boolean readMovieDetailsFromDb(Movie movie) {
+    try {
+      return MovieModuleManager.getInstance().readMovieDetails(movie);
+    }
+    catch (Exception e) {
+      LOGGER.error("failed to read movie details: " + movie.getDbId() + " - " + e.getMessage());
+    }
+    return false;
+  }
+
   public MovieSet lookupMovieSet(UUID uuid) {
-    for (MovieSet movieSet : movieSetList) {
-      if (movieSet.getDbId().equals(uuid)) {
-        return movieSet;
-      }
+    if (uuid == null) {
+      return null;
     }
-    return null;
+    return movieSetIndex.get(uuid);
   }
 
   public Movie lookupMovie(UUID uuid) {
-    for (Movie movie : movieList) {
-      if (movie.getDbId().equals(uuid)) {
-        return movie;
-      }
+    return movieIndex.getByDbId(uuid);
+  }
+
+  /**
+   * Gets all movies with the given IMDB id.
+   * 
+   * @param imdbId
+   *          the IMDB id
+   * @return the movies with this IMDB id
+   */
+  public List<Movie> getMoviesByImdbId(String imdbId) {
+    if (StringUtils.isBlank(imdbId)) {
+      return new ArrayList<>(0);
     }
-    return null;
+    return movieIndex.getByImdbId(imdbId);
+  }
+
+  /**
+   * Gets all movies with the given TMDB id.
+   * 
+   * @param tmdbId
+   *          the TMDB id
+   * @return the movies with this TMDB id
+   */
+  public List<Movie> getMoviesByTmdbId(int tmdbId) {
+    if (tmdbId <= 0) {
+      return new ArrayList<>(0);
+    }
+    return movieIndex.getByTmdbId(tmdbId);
   }
 
   /**
@@ -431,7 +508,7 @@ public class MovieList extends AbstractModelObject {
    * @deprecated use Java7 getMovieByPath(Path path) instead.
    */
   @Deprecated
-  public synchronized Movie getMovieByPath(File path) {
+  public Movie getMovieByPath(File path) {
     return getMovieByPath(path.toPath());
   }
 
@@ -442,13 +519,12 @@ public class MovieList extends AbstractModelObject {
    *          the path
    * @return the movie by path
    */
-  public synchronized Movie getMovieByPath(Path path) {
-
-    for (Movie movie : movieList) {
-      if (movie.getPathNIO().compareTo(path.toAbsolutePath()) == 0) {
-        LOGGER.debug("Ok, found already existing movie '" + movie.getTitle() + "' in DB (path: " + path + ")");
-        return movie;
-      }
+  public Movie getMovieByPath(Path path) {
+    List<Movie> movies = movieIndex.getByPath(path);
+    if (!movies.isEmpty()) {
+      Movie movie = movies.get(0);
+      LOGGER.debug("Ok, found already existing movie '" + movie.getTitle() + "' in DB (path: " + path + ")");
+      return movie;
     }
 
     return null;
@@ -463,7 +539,7 @@ public class MovieList extends AbstractModelObject {
    * @deprecated use Java7 getMoviesByPath(Path path) instead.
    */
   @Deprecated
-  public synchronized List<Movie> getMoviesByPath(File path) {
+  public List<Movie> getMoviesByPath(File path) {
     return getMoviesByPath(path.toPath());
   }
 
@@ -474,14 +550,8 @@ public class MovieList extends AbstractModelObject {
    *          the path
    * @return the movie list
    */
-  public synchronized List<Movie> getMoviesByPath(Path path) {
-    ArrayList<Movie> movies = new ArrayList<>();
-    for (Movie movie : movieList) {
-      if (Paths.get(movie.getPath()).compareTo(path) == 0) {
-        movies.add(movie);
-      }
-    }
-    return movies;
+  public List<Movie> getMoviesByPath(Path path) {
+    return movieIndex.getByPath(path);
   }
 
   /**
@@ -807,6 +877,17 @@ public class MovieList extends AbstractModelObject {
    *          the movie
    */
   private void updateMediaInformationLists(Movie movie) {
+    // movies loaded from their summary carry their codecs in the summary
+    if (!movie.isDetailsLoaded() && movie.getSummary() != null) {
+      for (String codec : movie.getSummary().getVideoCodecs()) {
+        addVideoCodec(codec);
+      }
+      for (String codec : movie.getSummary().getAudioCodecs()) {
+        addAudioCodec(codec);
+      }
+      return;
+    }
+
     // video codec
     List<String> availableCodecs = new ArrayList<>(videoCodecsObservable);
     for (MediaFile mf : movie.getMediaFiles(MediaFileType.VIDEO)) {
@@ -1002,6 +1083,11 @@ public class MovieList extends AbstractModelObject {
    */
   public void setMovieSetList(ObservableElementList<MovieSet> movieSetList) {
     this.movieSetList = movieSetList;
+
+    movieSetIndex.clear();
+    for (MovieSet movieSet : movieSetList) {
+      movieSetIndex.put(movieSet.getDbId(), movieSet);
+    }
   }
 
   /**
@@ -1013,6 +1099,7 @@ public class MovieList extends AbstractModelObject {
   public void addMovieSet(MovieSet movieSet) {
     int oldValue = movieSetList.size();
     this.movieSetList.add(movieSet);
+    movieSetIndex.put(movieSet.getDbId(), movieSet);
     firePropertyChange("addedMovieSet", null, movieSet);
     firePropertyChange("movieSetCount", oldValue, movieSetList.size());
   }
@@ -1029,6 +1116,7 @@ public class MovieList extends AbstractModelObject {
 
     try {
       movieSetList.remove(movieSet);
+      movieSetIndex.remove(movieSet.getDbId());
       MovieModuleManager.getInstance().removeMovieSetFromDb(movieSet);
     }
     catch (Exception e) {
@@ -1090,6 +1178,14 @@ public class MovieList extends AbstractModelObject {
   private void checkAndCleanupMediaFiles() {
     List<Movie> moviesToRemove = new ArrayList<>();
     for (Movie movie : movieList) {
+      // movies loaded from their summary know whether they have a VIDEO without loading their details
+      if (!movie.isDetailsLoaded() && movie.getSummary() != null) {
+        if (!movie.getSummary().hasVideo()) {
+          moviesToRemove.add(movie);
+        }
+        continue;
+      }
+
       List<MediaFile> mfs = movie.getMediaFiles(MediaFileType.VIDEO);
       if (mfs.isEmpty()) {
         // mark movie for removal
@@ -1208,4 +1304,69 @@ public class MovieList extends AbstractModelObject {
       return o1.getId().compareTo(o2.getId());
     }
   }
+
+  /**
+   * decodes a slice of the movie key range; the slice is split up recursively until it is small enough to be decoded in one go
+   */
+  private static class MovieDecodeTask extends RecursiveTask<List<Movie>> {
+    private static final long         serialVersionUID = 1L;
+
+    private final MVMap<UUID, byte[]> movieMap;
+    private final MVMap<UUID, byte[]> movieSummaryMap;
+    private final ObjectReader        movieObjectReader;
+    private final List<UUID>          uuids;
+    private final int                 start;
+    private final int                 end;
+
+    MovieDecodeTask(MVMap<UUID, byte[]> movieMap, MVMap<UUID, byte[]> movieSummaryMap, ObjectReader movieObjectReader, List<UUID> uuids,
+        int start, int end) {
+      this.movieMap = movieMap;
+      this.movieSummaryMap = movieSummaryMap;
+      this.movieObjectReader = movieObjectReader;
+      this.uuids = uuids;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected List<Movie> compute() {
+      if (end - start <= DECODE_CHUNK_SIZE) {
+        return decode();
+      }
+
+      int middle = (start + end) >>> 1;
+      MovieDecodeTask left = new MovieDecodeTask(movieMap, movieSummaryMap, movieObjectReader, uuids, start, middle);
+      MovieDecodeTask right = new MovieDecodeTask(movieMap, movieSummaryMap, movieObjectReader, uuids, middle, end);
+      left.fork();
+      List<Movie> movies = right.compute();
+      List<Movie> result = left.join();
+      result.addAll(movies);
+      return result;
+    }
+
+    List<Movie> decode() {
+      List<Movie> movies = new ArrayList<>(end - start);
+      for (int i = start; i < end; i++) {
+        UUID uuid = uuids.get(i);
+        try {
+          Movie movie;
+          byte[] summary = movieSummaryMap.get(uuid);
+          movie = summary != null ? (Movie) movieObjectReader.readValue(summary) : null;
+          if (movie != null && movie.getSummary() != null && movie.getSummary().isComplete()) {
+            movie.setDetailsLoaded(false);
+          }
+          else {
+            // no (or an outdated) summary - read the full movie
+            movie = movieObjectReader.readValue(movieMap.get(uuid));
+          }
+          movie.setDbId(uuid);
+          movies.add(movie);
+        }
+        catch (Exception e) {
+          LOGGER.warn("problem decoding movie: ", e);
+        }
+      }
+      return movies;
+    }
+  }
 }
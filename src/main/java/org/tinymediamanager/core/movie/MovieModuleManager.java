@@ -15,12 +15,14 @@
  */
 package org.tinymediamanager.core.movie;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.TimeZone;
 import java.util.UUID;
 
-import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.time.StopWatch;
 import org.h2.mvstore.MVMap;
 import org.h2.mvstore.MVStore;
 import org.json.JSONObject;
@@ -28,16 +30,28 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tinymediamanager.Globals;
 import org.tinymediamanager.core.Constants;
+import org.tinymediamanager.core.ContentHashIndex;
+import org.tinymediamanager.core.DatasourceWatcher;
+import org.tinymediamanager.core.DatasourceWatcher.ChangeListener;
+import org.tinymediamanager.core.DirectoryFingerprintIndex;
+import org.tinymediamanager.core.EntityCodec;
+import org.tinymediamanager.core.EntityMaps;
 import org.tinymediamanager.core.ITmmModule;
 import org.tinymediamanager.core.Settings;
 import org.tinymediamanager.core.Utils;
+import org.tinymediamanager.core.WriteBehindQueue;
+import org.tinymediamanager.core.WriteBehindQueue.EntityWriter;
+import org.tinymediamanager.core.entities.MediaEntity;
 import org.tinymediamanager.core.movie.entities.Movie;
 import org.tinymediamanager.core.movie.entities.MovieSet;
+import org.tinymediamanager.core.movie.tasks.MovieUpdateDatasourceTask2;
+import org.tinymediamanager.core.threading.TmmTaskManager;
 
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.ObjectWriter;
 
 /**
@@ -50,17 +64,26 @@ public class MovieModuleManager implements ITmmModule {
 
   private static final String       MODULE_TITLE   = "Movie management";
   private static final String       MOVIE_DB       = "movies.db";
+  private static final long         WRITE_DELAY    = 1000; // 1 sec
   private static final Logger       LOGGER         = LoggerFactory.getLogger(MovieModuleManager.class);
   private static MovieModuleManager instance;
 
   private boolean                   enabled;
   private MVStore                   mvStore;
   private ObjectMapper              objectMapper;
+  private ObjectReader              movieDetailObjectReader;
   private ObjectWriter              movieObjectWriter;
+  private ObjectWriter              movieSummaryObjectWriter;
   private ObjectWriter              movieSetObjectWriter;
 
-  private MVMap<UUID, String>       movieMap;
-  private MVMap<UUID, String>       movieSetMap;
+  private MVMap<UUID, byte[]>       movieMap;
+  private MVMap<UUID, byte[]>       movieSummaryMap;
+  private MVMap<UUID, byte[]>       movieSetMap;
+  private ContentHashIndex          movieHashes;
+  private ContentHashIndex          movieSetHashes;
+  private WriteBehindQueue<Movie>   movieWriteQueue;
+  private DirectoryFingerprintIndex directoryFingerprints;
+  private DatasourceWatcher         datasourceWatcher;
 
   private MovieModuleManager() {
     enabled = false;
@@ -97,8 +120,9 @@ public class MovieModuleManager implements ITmmModule {
     mvStore.setRetentionTime(0);
     mvStore.setReuseSpace(true);
 
-    // configure JSON
-    objectMapper = new ObjectMapper();
+    // configure the entity codec (JSON or binary)
+    EntityCodec codec = EntityMaps.getDefaultCodec();
+    objectMapper = codec.createObjectMapper();
     objectMapper.configure(MapperFeature.AUTO_DETECT_GETTERS, false);
     objectMapper.configure(MapperFeature.AUTO_DETECT_IS_GETTERS, false);
     objectMapper.configure(MapperFeature.AUTO_DETECT_SETTERS, false);
@@ -106,20 +130,100 @@ public class MovieModuleManager implements ITmmModule {
     objectMapper.setTimeZone(TimeZone.getDefault());
     objectMapper.setSerializationInclusion(Include.NON_DEFAULT);
 
-    movieObjectWriter = objectMapper.writerFor(Movie.class);
+    // the details are read into a scratch movie and copied into the movie which has been loaded from its summary
+    movieDetailObjectReader = objectMapper.readerFor(Movie.class);
+    movieObjectWriter = objectMapper.writerWithView(MediaEntity.DetailView.class).forType(Movie.class);
+    movieSummaryObjectWriter = objectMapper.writerWithView(Movie.SummaryView.class).forType(Movie.class);
     movieSetObjectWriter = objectMapper.writerFor(MovieSet.class);
 
-    movieMap = mvStore.openMap("movies");
-    movieSetMap = mvStore.openMap("movieSets");
+    movieMap = EntityMaps.openMap(mvStore, "movies", codec);
+    movieSummaryMap = EntityMaps.openMap(mvStore, "movieSummaries", codec);
+    movieSetMap = EntityMaps.openMap(mvStore, "movieSets", codec);
+    movieHashes = new ContentHashIndex(mvStore, "movies");
+    movieSetHashes = new ContentHashIndex(mvStore, "movieSets");
+    directoryFingerprints = new DirectoryFingerprintIndex(mvStore, "movies");
+    movieWriteQueue = new WriteBehindQueue<>("movies", mvStore, new EntityWriter<Movie>() {
+      @Override
+      public void write(Movie movie) throws Exception {
+        writeMovie(movie);
+      }
+    }, WRITE_DELAY);
+
+    // load the data and log the time needed for every phase
+    StopWatch stopWatch = new StopWatch();
+    stopWatch.start();
+    MovieList.getInstance().loadMoviesFromDatabase(movieMap, movieSummaryMap, objectMapper);
+    writeMissingSummaries();
+    long moviesLoaded = stopWatch.getTime();
+    LOGGER.info("loading movies took " + moviesLoaded + " ms");
 
-    MovieList.getInstance().loadMoviesFromDatabase(movieMap, objectMapper);
     MovieList.getInstance().loadMovieSetsFromDatabase(movieSetMap, objectMapper);
+    long movieSetsLoaded = stopWatch.getTime();
+    LOGGER.info("loading movie sets took " + (movieSetsLoaded - moviesLoaded) + " ms");
+
     MovieList.getInstance().initDataAfterLoading();
+    stopWatch.stop();
+    LOGGER.info("initializing movie data took " + (stopWatch.getTime() - movieSetsLoaded) + " ms");
+    LOGGER.info("movie module started - took " + stopWatch);
     enabled = true;
   }
 
+  /**
+   * write the summary of all movies which have been loaded from their full JSON (e.g. the first start after an upgrade)
+   */
+  private void writeMissingSummaries() {
+    int count = 0;
+    for (Movie movie : MovieList.getInstance().getMovies()) {
+      // movies with a valid summary have been loaded without their details
+      if (movie.isDetailsLoaded()) {
+        movie.updateSummary();
+        try {
+          movieSummaryMap.put(movie.getDbId(), movieSummaryObjectWriter.writeValueAsBytes(movie));
+          count++;
+        }
+        catch (JsonProcessingException e) {
+          LOGGER.warn("could not write movie summary: " + e.getMessage());
+        }
+      }
+    }
+    if (count > 0) {
+      LOGGER.info("wrote " + count + " missing movie summaries");
+    }
+  }
+
+  /**
+   * start watching the movie data sources; detected changes are passed to an update of the affected folders
+   */
+  public void startDatasourceWatcher() {
+    if (datasourceWatcher != null) {
+      return;
+    }
+
+    datasourceWatcher = new DatasourceWatcher("movies", MOVIE_SETTINGS.getMovieDataSource(), Globals.settings.getDatasourcePollInterval(),
+        new ChangeListener() {
+          @Override
+          public void datasourceChanged(String datasource) {
+            TmmTaskManager.getInstance().addMainTask(new MovieUpdateDatasourceTask2(datasource));
+          }
+
+          @Override
+          public void foldersChanged(String datasource, List<Path> folders) {
+            TmmTaskManager.getInstance().addMainTask(new MovieUpdateDatasourceTask2(datasource, folders));
+          }
+        });
+    datasourceWatcher.start();
+  }
+
   @Override
   public void shutDown() throws Exception {
+    if (datasourceWatcher != null) {
+      datasourceWatcher.stop();
+      datasourceWatcher = null;
+    }
+
+    // write all pending changes before closing the database
+    movieWriteQueue.shutdown();
+
     mvStore.compactMoveChunks();
     mvStore.close();
 
@@ -145,39 +249,91 @@ public class MovieModuleManager implements ITmmModule {
    *          the movie to make the dump for
    */
   public void dump(Movie movie) {
+    movie.loadDetails();
     try {
-      JSONObject jsonObject = new JSONObject(movieObjectWriter.writeValueAsString(movie));
+      // the codec may be a binary one; convert the encoded movie to JSON
+      JSONObject jsonObject = new JSONObject(objectMapper.readTree(movieObjectWriter.writeValueAsBytes(movie)).toString());
       LOGGER.info("Dumping Movie:\n" + jsonObject.toString(4));
     }
-    catch (JsonProcessingException e) {
+    catch (IOException e) {
       LOGGER.error("Cannot parse JSON!", e);
     }
   }
 
+  /**
+   * write all pending movie changes to the database (and wait until they have been committed)
+   */
+  public void flush() {
+    if (enabled) {
+      movieWriteQueue.flush();
+    }
+  }
+
+  /**
+   * get the fingerprints of all scanned movie directories
+   *
+   * @return the directory fingerprint index
+   */
+  public DirectoryFingerprintIndex getDirectoryFingerprints() {
+    return directoryFingerprints;
+  }
+
   void persistMovie(Movie movie) throws Exception {
-    String newValue = movieObjectWriter.writeValueAsString(movie);
-    String oldValue = movieMap.get(movie.getDbId());
+    // the movie is serialized in the writer thread; multiple saves within the write delay result in a single write
+    movieWriteQueue.enqueue(movie.getDbId(), movie);
+  }
+
+  private void writeMovie(Movie movie) throws Exception {
+    // we need the details to write the full JSON (and to derive the summary values from them)
+    movie.updateSummary();
+    if (!movie.isDetailsLoaded()) {
+      // never write the full JSON without the details - this would erase them in the database
+      LOGGER.warn("could not load the details of movie " + movie.getDbId() + " - only writing its summary");
+      movieSummaryMap.put(movie.getDbId(), movieSummaryObjectWriter.writeValueAsBytes(movie));
+      return;
+    }
+
+    byte[] newValue = movieObjectWriter.writeValueAsBytes(movie);
+    byte[] hash = ContentHashIndex.hash(newValue);
 
-    if (!StringUtils.equals(newValue, oldValue)) {
+    // compare the content hashes rather than the whole stored value
+    if (movieHashes.hasChanged(movie.getDbId(), hash)) {
       // write movie to DB
       movieMap.put(movie.getDbId(), newValue);
+      movieSummaryMap.put(movie.getDbId(), movieSummaryObjectWriter.writeValueAsBytes(movie));
+      movieHashes.put(movie.getDbId(), hash);
+    }
+  }
+
+  boolean readMovieDetails(Movie movie) throws Exception {
+    byte[] value = movieMap.get(movie.getDbId());
+    if (value == null) {
+      return false;
     }
+    Movie details = movieDetailObjectReader.readValue(value);
+    movie.copyDetailsFrom(details);
+    return true;
   }
 
   void removeMovieFromDb(Movie movie) throws Exception {
+    movieWriteQueue.discard(movie.getDbId());
     movieMap.remove(movie.getDbId());
+    movieSummaryMap.remove(movie.getDbId());
+    movieHashes.remove(movie.getDbId());
   }
 
   void persistMovieSet(MovieSet movieSet) throws Exception {
-    String newValue = movieSetObjectWriter.writeValueAsString(movieSet);
-    String oldValue = movieMap.get(movieSet.getDbId());
-    if (!StringUtils.equals(newValue, oldValue)) {
+    byte[] newValue = movieSetObjectWriter.writeValueAsBytes(movieSet);
+    byte[] hash = ContentHashIndex.hash(newValue);
+    if (movieSetHashes.hasChanged(movieSet.getDbId(), hash)) {
       movieSetMap.put(movieSet.getDbId(), newValue);
+      movieSetHashes.put(movieSet.getDbId(), hash);
     }
   }
 
   void removeMovieSetFromDb(MovieSet movieSet) throws Exception {
     movieSetMap.remove(movieSet.getDbId());
+    movieSetHashes.remove(movieSet.getDbId());
   }
 
   @Override
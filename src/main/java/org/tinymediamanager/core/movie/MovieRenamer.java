@@ -26,6 +26,8 @@ import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -41,6 +43,7 @@ import org.tinymediamanager.core.MediaSource;
 import org.tinymediamanager.core.Message;
 import org.tinymediamanager.core.Message.MessageLevel;
 import org.tinymediamanager.core.MessageManager;
+import org.tinymediamanager.core.RenamerTemplate;
 import org.tinymediamanager.core.Utils;
 import org.tinymediamanager.core.entities.MediaFile;
 import org.tinymediamanager.core.entities.MediaFileSubtitle;
@@ -58,7 +61,24 @@ import org.tinymediamanager.scraper.util.StrgUtils;
  * @author Manuel Laggner / Myron Boyle
  */
 public class MovieRenamer {
-  private final static Logger LOGGER = LoggerFactory.getLogger(MovieRenamer.class);
+  private final static Logger                         LOGGER                    = LoggerFactory.getLogger(MovieRenamer.class);
+
+  // cleanup rules for the generated file/folder names
+  private static final Pattern                        emptyRoundBrackets        = Pattern.compile("\\(\\)");
+  private static final Pattern                        emptySquareBrackets       = Pattern.compile("\\[\\]");
+  private static final Pattern                        emptyCurlyBrackets        = Pattern.compile("\\{\\}");
+  private static final Pattern                        whitespaceBeforeBackslash = Pattern.compile("\\s+\\\\");
+  private static final Pattern                        whitespaceAfterBackslash  = Pattern.compile("\\\\\\s+");
+  private static final Pattern                        multipleBackslashes       = Pattern.compile("\\\\{2,}");
+  private static final Pattern                        leadingBackslash          = Pattern.compile("^\\\\");
+  private static final Pattern                        whitespaceBeforeSlash     = Pattern.compile("\\s+/");
+  private static final Pattern                        whitespaceAfterSlash      = Pattern.compile("/\\s+");
+  private static final Pattern                        multipleSlashes           = Pattern.compile("/{2,}");
+  private static final Pattern                        leadingSlash              = Pattern.compile("^/");
+  private static final Pattern                        multipleSpaces            = Pattern.compile(" +");
+  private static final Pattern                        trailingDotsAndSpaces     = Pattern.compile("[ \\.]+$");
+  private static final Pattern                        invalidCharacters         = Pattern.compile("([\"\\\\:<>|/?*])");
+  private static final ConcurrentMap<String, Pattern> multipleReplacements      = new ConcurrentHashMap<>();
 
   private static void renameSubtitles(Movie m) {
     // build language lists
@@ -925,13 +945,8 @@ public class MovieRenamer {
    * @return the string
    */
   public static String createDestinationForFilename(String template, Movie movie) {
-    // replace optional group first
-    Pattern regex = Pattern.compile("\\{(.*?)\\}");
-    Matcher mat = regex.matcher(template);
-    while (mat.find()) {
-      template = template.replace(mat.group(0), replaceOptionalVariable(mat.group(1), movie, true));
-    }
-    return createDestination(template, movie, true);
+    String newDestination = RenamerTemplate.compileWithOptionalGroups(template).evaluate(new MovieTokenResolver(movie, true));
+    return cleanupDestination(newDestination, true);
   }
 
   /**
@@ -944,43 +959,8 @@ public class MovieRenamer {
    * @return the string
    */
   public static String createDestinationForFoldername(String template, Movie movie) {
-    // replace optional group first
-    Pattern regex = Pattern.compile("\\{(.*?)\\}");
-    Matcher mat = regex.matcher(template);
-    while (mat.find()) {
-      template = template.replace(mat.group(0), replaceOptionalVariable(mat.group(1), movie, false));
-    }
-    return createDestination(template, movie, false);
-  }
-
-  /**
-   * replaces an optional variable, eg "{ Year $Y }"<br>
-   * if we have a year, "Year 2013" will be returned<br>
-   * if $Y replacement was empty, the complete optional tag will be empty.
-   * 
-   * @param s
-   *          the string to replace the optional variable for
-   * @param movie
-   *          the movie holding all needed meta data
-   * @param forFilename
-   *          do the logic for file or for folder names?
-   * @return the resulting string
-   */
-  private static String replaceOptionalVariable(String s, Movie movie, boolean forFilename) {
-    Pattern regex = Pattern.compile("\\$.{1}");
-    Matcher mat = regex.matcher(s);
-    if (mat.find()) {
-      String rep = createDestination(mat.group(), movie, forFilename);
-      if (rep.isEmpty()) {
-        return "";
-      }
-      else {
-        return s.replace(mat.group(), rep);
-      }
-    }
-    else {
-      return "";
-    }
+    String newDestination = RenamerTemplate.compileWithOptionalGroups(template).evaluate(new MovieTokenResolver(movie, false));
+    return cleanupDestination(newDestination, false);
   }
 
   /**
@@ -1105,50 +1085,54 @@ public class MovieRenamer {
    * @return the string
    */
   public static String createDestination(String template, Movie movie, boolean forFilename) {
-    String newDestination = template;
-
-    // replace all $x parameters
-    Pattern p = Pattern.compile("(\\$[\\w#])"); // # is for rating
-    Matcher m = p.matcher(template);
-    while (m.find()) {
-      String value = getTokenValue(movie, m.group(1));
-      newDestination = replaceToken(newDestination, m.group(1), value);
-    }
+    String newDestination = RenamerTemplate.compile(template).evaluate(new MovieTokenResolver(movie, forFilename));
+    return cleanupDestination(newDestination, forFilename);
+  }
 
+  /**
+   * clean the file/folder name after all tokens have been replaced
+   * 
+   * @param newDestination
+   *          the file/folder name
+   * @param forFilename
+   *          clean for a filename (=true)? or for a foldername (=false)
+   * @return the cleaned name
+   */
+  private static String cleanupDestination(String newDestination, boolean forFilename) {
     // replace empty brackets
-    newDestination = newDestination.replaceAll("\\(\\)", "");
-    newDestination = newDestination.replaceAll("\\[\\]", "");
-    newDestination = newDestination.replaceAll("\\{\\}", "");
+    newDestination = emptyRoundBrackets.matcher(newDestination).replaceAll("");
+    newDestination = emptySquareBrackets.matcher(newDestination).replaceAll("");
+    newDestination = emptyCurlyBrackets.matcher(newDestination).replaceAll("");
 
     // if there are multiple file separators in a row - strip them out
     if (SystemUtils.IS_OS_WINDOWS) {
       if (!forFilename) {
         // trim whitespace around directory sep
-        newDestination = newDestination.replaceAll("\\s+\\\\", "\\\\");
-        newDestination = newDestination.replaceAll("\\\\\\s+", "\\\\");
+        newDestination = whitespaceBeforeBackslash.matcher(newDestination).replaceAll("\\\\");
+        newDestination = whitespaceAfterBackslash.matcher(newDestination).replaceAll("\\\\");
       }
       // we need to mask it in windows
-      newDestination = newDestination.replaceAll("\\\\{2,}", "\\\\");
-      newDestination = newDestination.replaceAll("^\\\\", "");
+      newDestination = multipleBackslashes.matcher(newDestination).replaceAll("\\\\");
+      newDestination = leadingBackslash.matcher(newDestination).replaceAll("");
     }
     else {
       if (!forFilename) {
         // trim whitespace around directory sep
-        newDestination = newDestination.replaceAll("\\s+/", "/");
-        newDestination = newDestination.replaceAll("/\\s+", "/");
+        newDestination = whitespaceBeforeSlash.matcher(newDestination).replaceAll("/");
+        newDestination = whitespaceAfterSlash.matcher(newDestination).replaceAll("/");
       }
-      newDestination = newDestination.replaceAll("/{2,}", "/");
-      newDestination = newDestination.replaceAll("^/", "");
+      newDestination = multipleSlashes.matcher(newDestination).replaceAll("/");
+      newDestination = leadingSlash.matcher(newDestination).replaceAll("");
     }
 
     // replace ALL directory separators, if we generate this for filenames!
     if (forFilename) {
-      newDestination = newDestination.replaceAll("\\/", " ");
-      newDestination = newDestination.replaceAll("\\\\", " ");
+      newDestination = newDestination.replace('/', ' ');
+      newDestination = newDestination.replace('\\', ' ');
     }
 
     // replace multiple spaces with a single one
-    newDestination = newDestination.replaceAll(" +", " ").trim();
+    newDestination = multipleSpaces.matcher(newDestination).replaceAll(" ").trim();
 
     // replace spaces with underscores if needed
     if (MovieModuleManager.MOVIE_SETTINGS.isMovieRenamerSpaceSubstitution()) {
@@ -1158,7 +1142,8 @@ public class MovieRenamer {
       // also replace now multiple replacements with one to avoid strange looking results;
       // example:
       // Abraham Lincoln - Vapire Hunter -> Abraham-Lincoln---Vampire-Hunter
-      newDestination = newDestination.replaceAll(Pattern.quote(replacement) + "+", replacement);
+      newDestination = getMultipleReplacementsPattern(replacement).matcher(newDestination)
+          .replaceAll(Matcher.quoteReplacement(replacement));
     }
 
     // ASCII replacement
@@ -1167,19 +1152,18 @@ public class MovieRenamer {
     }
 
     // replace trailing dots and spaces
-    newDestination = newDestination.replaceAll("[ \\.]+$", "");
+    newDestination = trailingDotsAndSpaces.matcher(newDestination).replaceAll("");
 
     return newDestination.trim();
   }
 
-  private static String replaceToken(String destination, String token, String replacement) {
-    String replacingCleaned = "";
-    if (StringUtils.isNotBlank(replacement)) {
-      // replace illegal characters
-      // http://msdn.microsoft.com/en-us/library/windows/desktop/aa365247%28v=vs.85%29.aspx
-      replacingCleaned = replaceInvalidCharacters(replacement);
+  private static Pattern getMultipleReplacementsPattern(String replacement) {
+    Pattern pattern = multipleReplacements.get(replacement);
+    if (pattern == null) {
+      pattern = Pattern.compile(Pattern.quote(replacement) + "+");
+      multipleReplacements.putIfAbsent(replacement, pattern);
     }
-    return destination.replace(token, replacingCleaned);
+    return pattern;
   }
 
   /**
@@ -1191,9 +1175,39 @@ public class MovieRenamer {
    * @return cleaned string
    */
   public static String replaceInvalidCharacters(String source) {
-    source = source.replaceAll(": ", " - "); // nicer
-    source = source.replaceAll(":", "-"); // nicer
-    return source.replaceAll("([\"\\\\:<>|/?*])", "");
+    source = source.replace(": ", " - "); // nicer
+    source = source.replace(':', '-'); // nicer
+    return invalidCharacters.matcher(source).replaceAll("");
+  }
+
+  /**
+   * resolves the token values of one movie for the renamer templates
+   */
+  private static class MovieTokenResolver implements RenamerTemplate.TokenResolver {
+    private final Movie   movie;
+    private final boolean forFilename;
+
+    MovieTokenResolver(Movie movie, boolean forFilename) {
+      this.movie = movie;
+      this.forFilename = forFilename;
+    }
+
+    @Override
+    public String getTokenValue(String token) {
+      String value = MovieRenamer.getTokenValue(movie, token);
+      if (StringUtils.isNotBlank(value)) {
+        // replace illegal characters
+        // http://msdn.microsoft.com/en-us/library/windows/desktop/aa365247%28v=vs.85%29.aspx
+        return replaceInvalidCharacters(value);
+      }
+      return "";
+    }
+
+    @Override
+    public String getOptionalValue(String token) {
+      // the optional group is only used if the token alone results in a non empty name
+      return createDestination(token, movie, forFilename);
+    }
   }
 
   /**
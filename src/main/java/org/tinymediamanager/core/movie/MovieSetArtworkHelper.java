@@ -15,10 +15,7 @@
  */
 package org.tinymediamanager.core.movie;
 
-import java.io.ByteArrayInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -27,17 +24,17 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.tinymediamanager.core.ArtworkDownloader;
+import org.tinymediamanager.core.DatasourceWatcher;
 import org.tinymediamanager.core.ImageCache;
 import org.tinymediamanager.core.MediaFileType;
 import org.tinymediamanager.core.entities.MediaFile;
 import org.tinymediamanager.core.movie.entities.Movie;
 import org.tinymediamanager.core.movie.entities.MovieSet;
 import org.tinymediamanager.core.threading.TmmTaskManager;
-import org.tinymediamanager.scraper.http.Url;
 
 /**
  * The class MovieSetArtworkHelper. A helper class for managing movie set artwork
@@ -225,10 +222,8 @@ public class MovieSetArtworkHelper {
     public void run() {
       // first, fetch image
       try {
-        Url url = new Url(urlToArtwork);
-        InputStream is = url.getInputStream();
-        byte[] bytes = IOUtils.toByteArray(is);
-        is.close();
+        // the artwork may be requested for several movie sets/movies at once - download it only once
+        byte[] bytes = ArtworkDownloader.getInstance().download(urlToArtwork);
 
         // and then write it to the desired files
         movieSet.removeAllMediaFiles(type);
@@ -314,19 +309,9 @@ public class MovieSetArtworkHelper {
       }
     }
 
-    private void writeImage(byte[] bytes, Path pathAndFilename) throws IOException, InterruptedException {
-      FileOutputStream outputStream = new FileOutputStream(pathAndFilename.toFile());
-      InputStream is = new ByteArrayInputStream(bytes);
-      IOUtils.copy(is, outputStream);
-      outputStream.flush();
-      try {
-        outputStream.getFD().sync(); // wait until file has been completely written
-      }
-      catch (Exception e) {
-        // empty here -> just not let the thread crash
-      }
-      outputStream.close();
-      is.close();
+    private void writeImage(byte[] bytes, Path pathAndFilename) throws IOException {
+      DatasourceWatcher.ignoreChanges(pathAndFilename);
+      Files.write(pathAndFilename, bytes);
 
       ImageCache.invalidateCachedImage(pathAndFilename);
 
@@ -111,6 +111,7 @@ import org.tinymediamanager.scraper.util.StrgUtils;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonView;
 
 /**
  * The main class for movies.
@@ -126,12 +127,16 @@ public class Movie extends MediaEntity {
   @JsonProperty
   private String                                sortTitle                  = "";
   @JsonProperty
+  @JsonView(DetailView.class)
   private String                                tagline                    = "";
   @JsonProperty
+  @JsonView(DetailView.class)
   private int                                   runtime                    = 0;
   @JsonProperty
+  @JsonView(DetailView.class)
   private String                                director                   = "";
   @JsonProperty
+  @JsonView(DetailView.class)
   private String                                writer                     = "";
   @JsonProperty
   private String                                dataSource                 = "";
@@ -140,18 +145,22 @@ public class Movie extends MediaEntity {
   @JsonProperty
   private boolean                               isDisc                     = false;
   @JsonProperty
+  @JsonView(DetailView.class)
   private String                                spokenLanguages            = "";
   @JsonProperty
   private boolean                               subtitles                  = false;
   @JsonProperty
+  @JsonView(DetailView.class)
   private String                                country                    = "";
   @JsonProperty
+  @JsonView(DetailView.class)
   @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
   private Date                                  releaseDate                = null;
   @JsonProperty
   private boolean                               multiMovieDir              = false;                               // we detected more movies in
                                                                                                                   // same folder
   @JsonProperty
+  @JsonView(DetailView.class)
   private int                                   top250                     = 0;
   @JsonProperty
   private MediaSource                           mediaSource                = MediaSource.UNKNOWN;                 // DVD, Bluray, etc
@@ -173,20 +182,35 @@ public class Movie extends MediaEntity {
   @JsonProperty
   private List<String>                          tags                       = new ArrayList<>(0);
   @JsonProperty
+  @JsonView(DetailView.class)
   private List<String>                          extraThumbs                = new ArrayList<>(0);
   @JsonProperty
+  @JsonView(DetailView.class)
   private List<String>                          extraFanarts               = new ArrayList<>(0);
   @JsonProperty
+  @JsonView(DetailView.class)
   private List<MovieActor>                      actors                     = new ArrayList<>();
   @JsonProperty
+  @JsonView(DetailView.class)
   private List<MovieProducer>                   producers                  = new ArrayList<>(0);
   @JsonProperty
+  @JsonView(DetailView.class)
   private List<MovieTrailer>                    trailer                    = new ArrayList<>(0);
 
   private MovieSet                              movieSet;
   private String                                titleSortable              = "";
   private Date                                  lastWatched                = null;
   private List<MediaGenres>                     genresForAccess            = new ArrayList<>(0);
+  @JsonProperty
+  @JsonView(SummaryView.class)
+  private volatile MovieSummary                 summary                    = null;
+  private volatile boolean                      detailsLoaded              = true;
+
+  /**
+   * JSON view of the movie summary (everything except the details which are loaded on first access)
+   */
+  public interface SummaryView {
+  }
 
   /**
    * Instantiates a new movie. To initialize the propertychangesupport after loading
@@ -267,6 +291,10 @@ public class Movie extends MediaEntity {
    * @return the checks for nfo file
    */
   public Boolean getHasNfoFile() {
+    if (!detailsLoaded && summary != null) {
+      return summary.hasNfoFile();
+    }
+
     List<MediaFile> mf = getMediaFiles(MediaFileType.NFO);
     if (mf != null && mf.size() > 0) {
       return true;
@@ -283,18 +311,41 @@ public class Movie extends MediaEntity {
    * @return true/false
    */
   public Boolean getHasMetadata() {
-    if (!plot.isEmpty() && !(year.isEmpty() || year.equals("0"))) {
+    if (!detailsLoaded && summary != null) {
+      return summary.hasMetadata();
+    }
+
+    if (!getPlot().isEmpty() && !(year.isEmpty() || year.equals("0"))) {
       return true;
     }
     return false;
   }
 
+  /**
+   * get the path of the artwork of the given type. Movies without loaded details take it from their summary (if it is part of it), so showing or
+   * prefetching the artwork does not load the details
+   */
+  @Override
+  public String getArtworkFilename(MediaFileType type) {
+    if (!detailsLoaded && summary != null) {
+      String filename = summary.getArtworkFilename(type);
+      if (filename != null) {
+        return filename;
+      }
+    }
+    return super.getArtworkFilename(type);
+  }
+
   /**
    * Gets the checks for images.
    * 
    * @return the checks for images
    */
   public Boolean getHasImages() {
+    if (!detailsLoaded && summary != null) {
+      return summary.hasImages();
+    }
+
     if (!StringUtils.isEmpty(getArtworkFilename(MediaFileType.POSTER)) && !StringUtils.isEmpty(getArtworkFilename(MediaFileType.FANART))) {
       return true;
     }
@@ -307,6 +358,11 @@ public class Movie extends MediaEntity {
    * @return the checks for trailer
    */
   public Boolean getHasTrailer() {
+    if (!detailsLoaded && summary != null) {
+      return summary.hasTrailer();
+    }
+
+    List<MovieTrailer> trailer = getTrailer();
     if (trailer != null && trailer.size() > 0) {
       return true;
     }
@@ -360,6 +416,7 @@ public class Movie extends MediaEntity {
    *          the obj
    */
   public void addActor(MovieActor obj) {
+    loadDetails();
     actors.add(obj);
     firePropertyChange(ACTORS, null, this.getActors());
   }
@@ -370,6 +427,7 @@ public class Movie extends MediaEntity {
    * @return the trailers
    */
   public List<MovieTrailer> getTrailer() {
+    loadDetails();
     return this.trailer;
   }
 
@@ -380,6 +438,7 @@ public class Movie extends MediaEntity {
    *          the obj
    */
   public void addTrailer(MovieTrailer obj) {
+    loadDetails();
     trailer.add(obj);
     firePropertyChange(TRAILER, null, trailer);
   }
@@ -388,6 +447,7 @@ public class Movie extends MediaEntity {
    * Removes the all trailers.
    */
   public void removeAllTrailers() {
+    loadDetails();
     trailer.clear();
     firePropertyChange(TRAILER, null, trailer);
   }
@@ -508,6 +568,10 @@ public class Movie extends MediaEntity {
       return true; // local ones found
     }
 
+    if (!detailsLoaded && summary != null) {
+      return summary.hasSubtitles();
+    }
+
     if (getMediaFiles(MediaFileType.SUBTITLE).size() > 0) {
       return true;
     }
@@ -560,6 +624,7 @@ public class Movie extends MediaEntity {
    * @return the actors
    */
   public List<MovieActor> getActors() {
+    loadDetails();
     return this.actors;
   }
 
@@ -569,6 +634,7 @@ public class Movie extends MediaEntity {
    * @return the director
    */
   public String getDirector() {
+    loadDetails();
     return director;
   }
 
@@ -647,6 +713,7 @@ public class Movie extends MediaEntity {
    * @return the runtime
    */
   public int getRuntime() {
+    loadDetails();
     int runtimeFromMi = getRuntimeFromMediaFilesInMinutes();
     if (MovieModuleManager.MOVIE_SETTINGS.isRuntimeFromMediaInfo() && runtimeFromMi > 0) {
       return runtimeFromMi;
@@ -660,6 +727,7 @@ public class Movie extends MediaEntity {
    * @return the tagline
    */
   public String getTagline() {
+    loadDetails();
     return tagline;
   }
 
@@ -669,6 +737,7 @@ public class Movie extends MediaEntity {
    * @return the writer
    */
   public String getWriter() {
+    loadDetails();
     return writer;
   }
 
@@ -700,6 +769,7 @@ public class Movie extends MediaEntity {
    *          the obj
    */
   public void removeActor(MovieActor obj) {
+    loadDetails();
     actors.remove(obj);
     firePropertyChange(ACTORS, null, this.getActors());
   }
@@ -710,6 +780,7 @@ public class Movie extends MediaEntity {
    * @return the extra thumbs
    */
   public List<String> getExtraThumbs() {
+    loadDetails();
     return extraThumbs;
   }
 
@@ -720,6 +791,7 @@ public class Movie extends MediaEntity {
    *          the new extra thumbs
    */
   public void setExtraThumbs(List<String> extraThumbs) {
+    loadDetails();
     this.extraThumbs = extraThumbs;
   }
 
@@ -729,6 +801,7 @@ public class Movie extends MediaEntity {
    * @return the extra fanarts
    */
   public List<String> getExtraFanarts() {
+    loadDetails();
     return extraFanarts;
   }
 
@@ -739,6 +812,7 @@ public class Movie extends MediaEntity {
    *          the new extra fanarts
    */
   public void setExtraFanarts(List<String> extraFanarts) {
+    loadDetails();
     this.extraFanarts = extraFanarts;
   }
 
@@ -964,6 +1038,7 @@ public class Movie extends MediaEntity {
    *          the new trailers
    */
   public void setTrailers(List<MovieTrailer> trailers) {
+    loadDetails();
     MovieTrailer preferredTrailer = null;
     removeAllTrailers();
 
@@ -1050,6 +1125,7 @@ public class Movie extends MediaEntity {
    * @return the metadata
    */
   public MediaMetadata getMetadata() {
+    loadDetails();
     MediaMetadata md = new MediaMetadata("");
 
     for (Entry<String, Object> entry : ids.entrySet()) {
@@ -1106,6 +1182,8 @@ public class Movie extends MediaEntity {
    *          the new actors
    */
   public void setActors(List<MovieActor> newActors) {
+    loadDetails();
+
     // two way sync of actors
 
     // first remove unused
@@ -1182,6 +1260,7 @@ public class Movie extends MediaEntity {
    *          the new runtime
    */
   public void setRuntime(int newValue) {
+    loadDetails();
     int oldValue = this.runtime;
     this.runtime = newValue;
     firePropertyChange(RUNTIME, oldValue, newValue);
@@ -1194,6 +1273,7 @@ public class Movie extends MediaEntity {
    *          the new tagline
    */
   public void setTagline(String newValue) {
+    loadDetails();
     String oldValue = this.tagline;
     this.tagline = newValue;
     firePropertyChange("tagline", oldValue, newValue);
@@ -1350,6 +1430,7 @@ public class Movie extends MediaEntity {
    *          the new director
    */
   public void setDirector(String newValue) {
+    loadDetails();
     String oldValue = this.director;
     this.director = newValue;
     firePropertyChange(DIRECTOR, oldValue, newValue);
@@ -1362,6 +1443,7 @@ public class Movie extends MediaEntity {
    *          the new writer
    */
   public void setWriter(String newValue) {
+    loadDetails();
     String oldValue = this.writer;
     this.writer = newValue;
     firePropertyChange(WRITER, oldValue, newValue);
@@ -1622,6 +1704,10 @@ public class Movie extends MediaEntity {
    * Gets the media info video format (i.e. 720p).
    */
   public String getMediaInfoVideoFormat() {
+    if (!detailsLoaded && summary != null) {
+      return summary.getVideoFormat();
+    }
+
     List<MediaFile> videos = getMediaFiles(MediaFileType.VIDEO);
     if (videos.size() > 0) {
       MediaFile mediaFile = videos.get(0);
@@ -1673,20 +1759,24 @@ public class Movie extends MediaEntity {
   }
 
   public void setSpokenLanguages(String newValue) {
+    loadDetails();
     String oldValue = this.spokenLanguages;
     this.spokenLanguages = newValue;
     firePropertyChange(SPOKEN_LANGUAGES, oldValue, newValue);
   }
 
   public String getSpokenLanguages() {
+    loadDetails();
     return this.spokenLanguages;
   }
 
   public String getCountry() {
+    loadDetails();
     return country;
   }
 
   public void setCountry(String newValue) {
+    loadDetails();
     String oldValue = this.country;
     this.country = newValue;
     firePropertyChange(COUNTRY, oldValue, newValue);
@@ -1760,11 +1850,13 @@ public class Movie extends MediaEntity {
   }
 
   public Date getReleaseDate() {
+    loadDetails();
     return releaseDate;
   }
 
   @JsonIgnore
   public void setReleaseDate(Date newValue) {
+    loadDetails();
     Date oldValue = this.releaseDate;
     this.releaseDate = newValue;
     firePropertyChange(RELEASE_DATE, oldValue, newValue);
@@ -1776,6 +1868,7 @@ public class Movie extends MediaEntity {
    * https://xkcd.com/1179/ :P
    */
   public String getReleaseDateFormatted() {
+    loadDetails();
     if (this.releaseDate == null) {
       return "";
     }
@@ -1786,6 +1879,7 @@ public class Movie extends MediaEntity {
    * Gets the first aired as a string, formatted in the system locale.
    */
   public String getReleaseDateAsString() {
+    loadDetails();
     if (this.releaseDate == null) {
       return "";
     }
@@ -1841,6 +1935,7 @@ public class Movie extends MediaEntity {
   }
 
   public int getTop250() {
+    loadDetails();
     return top250;
   }
 
@@ -1862,22 +1957,27 @@ public class Movie extends MediaEntity {
   }
 
   public void setTop250(int newValue) {
+    loadDetails();
     int oldValue = this.top250;
     this.top250 = newValue;
     firePropertyChange(TOP250, oldValue, newValue);
   }
 
   public void addProducer(MovieProducer obj) {
+    loadDetails();
     producers.add(obj);
     firePropertyChange(PRODUCERS, null, producers);
   }
 
   public void removeProducer(MovieProducer obj) {
+    loadDetails();
     producers.remove(obj);
     firePropertyChange(PRODUCERS, null, producers);
   }
 
   public void setProducers(List<MovieProducer> newProducers) {
+    loadDetails();
+
     // two way sync of producers
     // first remove unused
     for (int i = producers.size() - 1; i >= 0; i--) {
@@ -1917,9 +2017,97 @@ public class Movie extends MediaEntity {
   }
 
   public List<MovieProducer> getProducers() {
+    loadDetails();
     return this.producers;
   }
 
+  /**
+   * are the details (media files, cast, trailers, plot, ...) of this movie loaded? Movies loaded from the summary in the database get their details
+   * on first access
+   * 
+   * @return true if the details are available in memory
+   */
+  public boolean isDetailsLoaded() {
+    return detailsLoaded;
+  }
+
+  /**
+   * mark that the details of this movie have not been loaded yet (used after loading the summary from the database)
+   * 
+   * @param newValue
+   *          true if the details are available in memory
+   */
+  public void setDetailsLoaded(boolean newValue) {
+    this.detailsLoaded = newValue;
+  }
+
+  /**
+   * load the details (media files, cast, trailers, plot, ...) from the database if this movie has been loaded from its summary only. If the details
+   * could not be read, the movie stays in the summary state and the next access tries it again
+   */
+  @Override
+  public void loadDetails() {
+    if (detailsLoaded) {
+      return;
+    }
+
+    synchronized (this) {
+      if (detailsLoaded) {
+        return;
+      }
+
+      if (!MovieList.getInstance().readMovieDetailsFromDb(this)) {
+        return;
+      }
+
+      // publish the details only after they have been filled in completely
+      detailsLoaded = true;
+    }
+  }
+
+  /**
+   * take over the details (media files, cast, trailers, plot, ...) from the given movie which has been read from the database. All other fields
+   * are kept, because they may have been changed since the summary has been loaded
+   * 
+   * @param source
+   *          the movie which has been read from the database
+   */
+  public void copyDetailsFrom(Movie source) {
+    super.copyDetailsFrom(source);
+    tagline = source.tagline;
+    runtime = source.runtime;
+    director = source.director;
+    writer = source.writer;
+    spokenLanguages = source.spokenLanguages;
+    country = source.country;
+    releaseDate = source.releaseDate;
+    top250 = source.top250;
+    extraThumbs = source.extraThumbs;
+    extraFanarts = source.extraFanarts;
+    actors = source.actors;
+    producers = source.producers;
+    trailer = source.trailer;
+  }
+
+  /**
+   * get the values derived from the details which are stored in the summary of this movie
+   * 
+   * @return the summary or null if this movie has not been loaded from a summary
+   */
+  public MovieSummary getSummary() {
+    return summary;
+  }
+
+  /**
+   * recreate the summary values from the details of this movie (used before the summary is written to the database)
+   */
+  public void updateSummary() {
+    loadDetails();
+    if (detailsLoaded) {
+      summary = new MovieSummary(this);
+    }
+  }
+
   /**
    * Is the movie "stacked" (more than one video file)
    * 
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.movie.entities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.tinymediamanager.core.MediaFileType;
+import org.tinymediamanager.core.entities.MediaFile;
+import org.tinymediamanager.core.entities.MediaFileAudioStream;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The Class MovieSummary. Holds the values which are derived from the details of a movie (media files, trailers, plot) and are needed without
+ * loading the details (movie list, filters, startup checks)
+ * 
+ * @author Manuel Laggner
+ */
+public class MovieSummary {
+  // the artwork which is shown in the UI (e.g. prefetched for the neighbouring movies)
+  private static final List<MediaFileType> ARTWORK_TYPES    = Arrays.asList(MediaFileType.POSTER, MediaFileType.FANART, MediaFileType.BANNER,
+      MediaFileType.THUMB, MediaFileType.CLEARART, MediaFileType.DISCART, MediaFileType.LOGO);
+
+  @JsonProperty
+  private String                           videoFormat      = "";
+  @JsonProperty
+  private List<String>                     videoCodecs      = new ArrayList<>(0);
+  @JsonProperty
+  private List<String>                     audioCodecs      = new ArrayList<>(0);
+  @JsonProperty
+  private boolean                          hasVideo         = false;
+  @JsonProperty
+  private boolean                          hasNfoFile       = false;
+  @JsonProperty
+  private boolean                          hasImages        = false;
+  @JsonProperty
+  private boolean                          hasTrailer       = false;
+  @JsonProperty
+  private boolean                          hasSubtitles     = false;
+  @JsonProperty
+  private boolean                          hasMetadata      = false;
+  @JsonProperty
+  private Map<MediaFileType, String>       artworkFilenames = new EnumMap<>(MediaFileType.class);
+
+  public MovieSummary() {
+  }
+
+  /**
+   * create the summary of the given movie; the details of the movie have to be loaded
+   * 
+   * @param movie
+   *          the movie to create the summary for
+   */
+  MovieSummary(Movie movie) {
+    List<MediaFile> videos = movie.getMediaFiles(MediaFileType.VIDEO);
+    hasVideo = !videos.isEmpty();
+    for (MediaFile mf : videos) {
+      if (videoFormat.isEmpty()) {
+        videoFormat = mf.getVideoFormat();
+      }
+      if (!videoCodecs.contains(mf.getVideoCodec())) {
+        videoCodecs.add(mf.getVideoCodec());
+      }
+      for (MediaFileAudioStream audio : mf.getAudioStreams()) {
+        if (!audioCodecs.contains(audio.getCodec())) {
+          audioCodecs.add(audio.getCodec());
+        }
+      }
+    }
+    hasNfoFile = movie.getHasNfoFile();
+    hasImages = movie.getHasImages();
+    hasTrailer = movie.getHasTrailer();
+    hasSubtitles = movie.hasSubtitles();
+    hasMetadata = movie.getHasMetadata();
+    for (MediaFileType type : ARTWORK_TYPES) {
+      artworkFilenames.put(type, movie.getArtworkFilename(type));
+    }
+  }
+
+  public String getVideoFormat() {
+    return videoFormat;
+  }
+
+  public List<String> getVideoCodecs() {
+    return videoCodecs;
+  }
+
+  public List<String> getAudioCodecs() {
+    return audioCodecs;
+  }
+
+  public boolean hasVideo() {
+    return hasVideo;
+  }
+
+  public boolean hasNfoFile() {
+    return hasNfoFile;
+  }
+
+  public boolean hasImages() {
+    return hasImages;
+  }
+
+  public boolean hasTrailer() {
+    return hasTrailer;
+  }
+
+  public boolean hasSubtitles() {
+    return hasSubtitles;
+  }
+
+  public boolean hasMetadata() {
+    return hasMetadata;
+  }
+
+  /**
+   * summaries written by older versions do not contain all values; such movies have to be loaded completely (and get a new summary)
+   * 
+   * @return true if this summary contains all values
+   */
+  public boolean isComplete() {
+    return !artworkFilenames.isEmpty();
+  }
+
+  /**
+   * get the path of the artwork of the given type
+   * 
+   * @param type
+   *          the artwork type
+   * @return the path ("" if there is no such artwork) or null if this type is not part of the summary
+   */
+  public String getArtworkFilename(MediaFileType type) {
+    return artworkFilenames.get(type);
+  }
+}
@@ -15,23 +15,21 @@
  */
 package org.tinymediamanager.core.movie.tasks;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.tinymediamanager.core.ArtworkDownloader;
+import org.tinymediamanager.core.DatasourceWatcher;
 import org.tinymediamanager.core.Utils;
 import org.tinymediamanager.core.movie.entities.Movie;
 import org.tinymediamanager.core.movie.entities.MovieActor;
-import org.tinymediamanager.scraper.http.Url;
 
 /**
  * The Class MovieActorImageFetcher.
@@ -60,6 +58,7 @@ public class MovieActorImageFetcher implements Runnable {
 
       // check if actors folder exists
       Path actorsDir = Paths.get(movie.getPath(), MovieActor.ACTOR_DIR);
+      DatasourceWatcher.ignoreChanges(actorsDir);
       if (!Files.isDirectory(actorsDir)) {
         Files.createDirectory(actorsDir);
       }
@@ -101,22 +100,16 @@ public class MovieActorImageFetcher implements Runnable {
         Path actorImage = actorsDir.resolve(actorName + "." + providedFiletype);
         if (StringUtils.isNotEmpty(actor.getThumbUrl()) && Files.notExists(actorImage)) {
           try {
-            Url url = new Url(actor.getThumbUrl());
-            FileOutputStream outputStream = new FileOutputStream(actorImage.toFile());
-            InputStream is = url.getInputStream();
-            IOUtils.copy(is, outputStream);
-            outputStream.flush();
-            try {
-              outputStream.getFD().sync();
-            }
-            catch (Exception e) {
-            }
-            outputStream.close();
-            is.close();
-
+            DatasourceWatcher.ignoreChanges(actorImage);
+            Files.write(actorImage, ArtworkDownloader.getInstance().download(actor.getThumbUrl()));
             actor.setThumbPath(actorImage.toAbsolutePath().toString());
           }
-          catch (IOException e) {
+          catch (InterruptedException e) {
+            LOGGER.warn("interrupted download of actor images");
+            Thread.currentThread().interrupt();
+            return;
+          }
+          catch (Exception e) {
             LOGGER.warn("Problem getting actor image: " + e.getMessage());
           }
         }
@@ -15,18 +15,17 @@
  */
 package org.tinymediamanager.core.movie.tasks;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.tinymediamanager.core.ArtworkDownloader;
+import org.tinymediamanager.core.DatasourceWatcher;
 import org.tinymediamanager.core.ImageCache;
 import org.tinymediamanager.core.MediaFileType;
 import org.tinymediamanager.core.Message;
@@ -37,7 +36,6 @@ import org.tinymediamanager.core.entities.MediaFile;
 import org.tinymediamanager.core.movie.MovieModuleManager;
 import org.tinymediamanager.core.movie.entities.Movie;
 import org.tinymediamanager.scraper.entities.MediaArtwork.MediaArtworkType;
-import org.tinymediamanager.scraper.http.Url;
 
 /**
  * The class MovieExtraImageFetcher. To fetch extrafanarts and extrathumbs
@@ -134,22 +132,9 @@ public class MovieExtraImageFetcher implements Runnable {
       LOGGER.debug("writing " + type + " " + filename);
 
       // fetch and store images
-      Url url1 = new Url(artworkUrl);
       Path tempFile = movie.getPathNIO().resolve(filename + ".part");
-      FileOutputStream outputStream = new FileOutputStream(tempFile.toFile());
-      InputStream is = url1.getInputStream();
-      IOUtils.copy(is, outputStream);
-      outputStream.flush();
-      try {
-        outputStream.getFD().sync(); // wait until file has been completely written
-        // give it a few milliseconds
-        Thread.sleep(150);
-      }
-      catch (Exception e) {
-        // empty here -> just not let the thread crash
-      }
-      outputStream.close();
-      is.close();
+      DatasourceWatcher.ignoreChanges(tempFile, movie.getPathNIO().resolve(filename));
+      Files.write(tempFile, ArtworkDownloader.getInstance().download(artworkUrl));
 
       // has tmm been shut down?
       if (Thread.interrupted()) {
@@ -210,29 +195,16 @@ public class MovieExtraImageFetcher implements Runnable {
         Utils.deleteDirectoryRecursive(folder);
         movie.removeAllMediaFiles(MediaFileType.EXTRAFANART);
       }
+      DatasourceWatcher.ignoreChanges(folder);
       Files.createDirectory(folder);
 
       // fetch and store images
       for (int i = 0; i < fanarts.size(); i++) {
         String urlAsString = fanarts.get(i);
         String providedFiletype = FilenameUtils.getExtension(urlAsString);
-        Url url = new Url(urlAsString);
         Path file = folder.resolve("fanart" + (i + 1) + "." + providedFiletype);
-        FileOutputStream outputStream = new FileOutputStream(file.toFile());
-        InputStream is = url.getInputStream();
-        IOUtils.copy(is, outputStream);
-        outputStream.flush();
-        try {
-          outputStream.getFD().sync(); // wait until file has been completely written
-          // give it a few milliseconds
-          Thread.sleep(150);
-        }
-        catch (Exception e) {
-          // empty here -> just not let the thread crash
-        }
-        outputStream.close();
-
-        is.close();
+        DatasourceWatcher.ignoreChanges(file);
+        Files.write(file, ArtworkDownloader.getInstance().download(urlAsString));
         MediaFile mf = new MediaFile(file, MediaFileType.EXTRAFANART);
         mf.gatherMediaInformation();
         movie.addToMediaFiles(mf);
@@ -240,6 +212,7 @@ public class MovieExtraImageFetcher implements Runnable {
     }
     catch (InterruptedException e) {
       LOGGER.warn("interrupted download extrafanarts");
+      Thread.currentThread().interrupt();
     }
     catch (IOException e) {
       LOGGER.warn("download extrafanarts", e);
@@ -260,6 +233,7 @@ public class MovieExtraImageFetcher implements Runnable {
         Utils.deleteDirectoryRecursive(folder);
         movie.removeAllMediaFiles(MediaFileType.EXTRATHUMB);
       }
+      DatasourceWatcher.ignoreChanges(folder);
       Files.createDirectory(folder);
 
       // fetch and store images
@@ -267,14 +241,15 @@ public class MovieExtraImageFetcher implements Runnable {
         String url = thumbs.get(i);
         String providedFiletype = FilenameUtils.getExtension(url);
 
-        FileOutputStream outputStream = null;
-        InputStream is = null;
         Path file = null;
         if (MovieModuleManager.MOVIE_SETTINGS.isImageExtraThumbsResize() && MovieModuleManager.MOVIE_SETTINGS.getImageExtraThumbsSize() > 0) {
           file = folder.resolve("thumb" + (i + 1) + ".jpg");
-          outputStream = new FileOutputStream(file.toFile());
           try {
-            is = ImageCache.scaleImage(url, MovieModuleManager.MOVIE_SETTINGS.getImageExtraThumbsSize());
+            DatasourceWatcher.ignoreChanges(file);
+            Files.copy(ImageCache.scaleImage(url, MovieModuleManager.MOVIE_SETTINGS.getImageExtraThumbsSize()), file);
+          }
+          catch (InterruptedException e) {
+            throw e;
           }
           catch (Exception e) {
             LOGGER.warn("problem with rescaling: " + e.getMessage());
@@ -283,27 +258,19 @@ public class MovieExtraImageFetcher implements Runnable {
         }
         else {
           file = folder.resolve("thumb" + (i + 1) + "." + providedFiletype);
-          outputStream = new FileOutputStream(file.toFile());
-          Url url1 = new Url(url);
-          is = url1.getInputStream();
+          DatasourceWatcher.ignoreChanges(file);
+          Files.write(file, ArtworkDownloader.getInstance().download(url));
         }
 
-        IOUtils.copy(is, outputStream);
-        outputStream.flush();
-        try {
-          outputStream.getFD().sync();
-        }
-        catch (Exception e) {
-          // empty here -> just not let the thread crash
-        }
-        outputStream.close();
-        is.close();
-
         MediaFile mf = new MediaFile(file, MediaFileType.EXTRATHUMB);
         mf.gatherMediaInformation();
         movie.addToMediaFiles(mf);
       }
     }
+    catch (InterruptedException e) {
+      LOGGER.warn("interrupted download extrathumbs");
+      Thread.currentThread().interrupt();
+    }
     catch (IOException e) {
       LOGGER.warn("download extrathumbs", e);
     }
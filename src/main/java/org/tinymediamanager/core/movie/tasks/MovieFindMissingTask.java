@@ -32,6 +32,7 @@ import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.Set;
 
 import org.apache.commons.lang3.time.StopWatch;
 import org.slf4j.Logger;
@@ -40,6 +41,7 @@ import org.tinymediamanager.core.Constants;
 import org.tinymediamanager.core.Message;
 import org.tinymediamanager.core.Message.MessageLevel;
 import org.tinymediamanager.core.MessageManager;
+import org.tinymediamanager.core.PhaseTimer;
 import org.tinymediamanager.core.Utils;
 import org.tinymediamanager.core.entities.MediaFile;
 import org.tinymediamanager.core.movie.MovieList;
@@ -79,10 +81,12 @@ public class MovieFindMissingTask extends TmmThreadPool {
     try {
       StopWatch stopWatch = new StopWatch();
       stopWatch.start();
+      PhaseTimer timer = new PhaseTimer();
 
-      // build MF list
-      ArrayList<MediaFile> mfs = new ArrayList<>();
-      for (Movie movie : movieList.getMovies()) {
+      // build MF set (MFs are equal if their files are equal)
+      timer.start("index");
+      Set<MediaFile> mfs = new HashSet<>();
+      for (Movie movie : new ArrayList<>(movieList.getMovies())) {
         mfs.addAll(movie.getMediaFiles());
         // mfs.addAll(movie.getMediaFiles(MediaFileType.VIDEO));
         // mfs.addAll(movie.getMediaFiles(MediaFileType.VIDEO_EXTRA));
@@ -92,11 +96,13 @@ public class MovieFindMissingTask extends TmmThreadPool {
       for (String ds : dataSources) {
         start();
 
+        timer.start("walk");
         HashSet<Path> bigFiles = getBigFilesRecursive(Paths.get(ds));
         if (cancel) {
           break;
         }
 
+        timer.start("compare");
         for (Path file : bigFiles) {
 
           MediaFile mf = new MediaFile(file);
@@ -112,7 +118,9 @@ public class MovieFindMissingTask extends TmmThreadPool {
       }
 
       stopWatch.stop();
+      timer.stop();
       LOGGER.info("Done finding missing movies :) - took " + stopWatch);
+      LOGGER.info("time per phase: " + timer);
     }
     catch (Exception e) {
       LOGGER.error("Thread crashed", e);
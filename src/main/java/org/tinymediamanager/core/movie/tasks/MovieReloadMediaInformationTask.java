@@ -28,6 +28,7 @@ import org.tinymediamanager.core.Message.MessageLevel;
 import org.tinymediamanager.core.MessageManager;
 import org.tinymediamanager.core.entities.MediaFile;
 import org.tinymediamanager.core.movie.entities.Movie;
+import org.tinymediamanager.core.threading.ThreadPoolType;
 import org.tinymediamanager.core.threading.TmmThreadPool;
 import org.tinymediamanager.ui.UTF8Control;
 
@@ -45,7 +46,7 @@ public class MovieReloadMediaInformationTask extends TmmThreadPool {
   public MovieReloadMediaInformationTask(List<Movie> movies) {
     super(BUNDLE.getString("movie.updatemediainfo"));
     moviesToReload = new ArrayList<>(movies);
-    initThreadPool(1, "reloadMI");
+    initThreadPool(ThreadPoolType.MEDIAINFO, "reloadMI");
   }
 
   @Override
@@ -15,17 +15,23 @@
  */
 package org.tinymediamanager.core.movie.tasks;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.ResourceBundle;
 import java.util.concurrent.Callable;
 
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tinymediamanager.core.Message;
 import org.tinymediamanager.core.Message.MessageLevel;
 import org.tinymediamanager.core.MessageManager;
+import org.tinymediamanager.core.Settings;
+import org.tinymediamanager.core.movie.MovieModuleManager;
 import org.tinymediamanager.core.movie.MovieRenamer;
 import org.tinymediamanager.core.movie.entities.Movie;
+import org.tinymediamanager.core.threading.RenameScheduler;
 import org.tinymediamanager.core.threading.TmmThreadPool;
 import org.tinymediamanager.ui.UTF8Control;
 
@@ -35,10 +41,11 @@ import org.tinymediamanager.ui.UTF8Control;
  * @author Manuel Laggner
  */
 public class MovieRenameTask extends TmmThreadPool {
-  private final static Logger         LOGGER = LoggerFactory.getLogger(MovieRenameTask.class);
-  private static final ResourceBundle BUNDLE = ResourceBundle.getBundle("messages", new UTF8Control()); //$NON-NLS-1$
+  private final static Logger          LOGGER = LoggerFactory.getLogger(MovieRenameTask.class);
+  private static final ResourceBundle  BUNDLE = ResourceBundle.getBundle("messages", new UTF8Control()); //$NON-NLS-1$
 
-  private List<Movie>                 moviesToRename;
+  private List<Movie>                  moviesToRename;
+  private final RenameScheduler<Movie> scheduler;
 
   /**
    * Instantiates a new movie rename task.
@@ -49,23 +56,45 @@ public class MovieRenameTask extends TmmThreadPool {
   public MovieRenameTask(List<Movie> moviesToRename) {
     super(BUNDLE.getString("movie.rename"));
     this.moviesToRename = moviesToRename;
+    this.scheduler = new RenameScheduler<>(Settings.getInstance().getRenamesPerDevice());
   }
 
   @Override
   protected void doInBackground() {
     try {
-      initThreadPool(1, "rename");
+      initThreadPool(Math.max(1, Settings.getInstance().getRenameThreads()), "rename");
       start();
-      // rename movies
+
+      // plan all folder moves up front, so that movies which do not affect each other can be renamed in parallel
+      String pattern = MovieModuleManager.MOVIE_SETTINGS.getMovieRenamerPathname();
+      boolean uniquePattern = MovieRenamer.isFolderPatternUnique(pattern);
       for (int i = 0; i < moviesToRename.size(); i++) {
         if (cancel) {
           break;
         }
 
         Movie movie = moviesToRename.get(i);
-        submitTask(new RenameMovieTask(movie));
+        Path source = movie.getPathNIO();
+        Path destination = source;
+        String newPathname = MovieRenamer.createDestinationForFoldername(pattern, movie);
+        if (StringUtils.isNotEmpty(movie.getDataSource()) && !newPathname.isEmpty()) {
+          destination = Paths.get(movie.getDataSource(), newPathname);
+        }
+        Path datasource = StringUtils.isNotEmpty(movie.getDataSource()) ? Paths.get(movie.getDataSource()) : null;
+        scheduler.addJob(movie, datasource, source, destination, !movie.isMultiMovieDir() && uniquePattern);
+      }
+
+      RenameMovieAction action = new RenameMovieAction();
+      for (Callable<Object> task : scheduler.createTasks(action)) {
+        submitTask(task);
       }
       waitForCompletionOrCancel();
+      if (cancel) {
+        return;
+      }
+
+      // renames which failed because of locked folders
+      scheduler.retryFailed(action);
       LOGGER.info("Done renaming movies)");
     }
     catch (Exception e) {
@@ -74,22 +103,18 @@ public class MovieRenameTask extends TmmThreadPool {
     }
   }
 
+  @Override
+  public void cancel() {
+    super.cancel();
+    scheduler.cancel();
+  }
+
   /**
-   * ThreadpoolWorker to work off ONE possible movie from root datasource directory
-   * 
-   * @author Myron Boyle
-   * @version 1.0
+   * renames ONE movie
    */
-  private class RenameMovieTask implements Callable<Object> {
-
-    private Movie movie = null;
-
-    public RenameMovieTask(Movie movie) {
-      this.movie = movie;
-    }
-
+  private class RenameMovieAction implements RenameScheduler.RenameAction<Movie> {
     @Override
-    public String call() throws Exception {
+    public String rename(Movie movie) {
       MovieRenamer.renameMovie(movie);
       return movie.getTitle();
     }
@@ -30,6 +30,7 @@ import org.tinymediamanager.core.Message.MessageLevel;
 import org.tinymediamanager.core.MessageManager;
 import org.tinymediamanager.core.entities.MediaFile;
 import org.tinymediamanager.core.movie.entities.Movie;
+import org.tinymediamanager.core.threading.ThreadPoolType;
 import org.tinymediamanager.core.threading.TmmTaskManager;
 import org.tinymediamanager.core.threading.TmmThreadPool;
 import org.tinymediamanager.scraper.MediaScraper;
@@ -61,7 +62,7 @@ public class MovieSubtitleSearchAndDownloadTask extends TmmThreadPool {
 
   @Override
   protected void doInBackground() {
-    initThreadPool(3, "searchAndDownloadSubtitles");
+    initThreadPool(ThreadPoolType.SUBTITLE, "searchAndDownloadSubtitles");
     start();
 
     for (int i = 0; i < movies.size(); i++) {
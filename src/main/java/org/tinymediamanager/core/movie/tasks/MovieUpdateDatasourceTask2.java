@@ -29,16 +29,23 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.Deque;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -49,6 +56,7 @@ import org.apache.commons.lang3.time.StopWatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tinymediamanager.Globals;
+import org.tinymediamanager.core.DirectoryFingerprintIndex;
 import org.tinymediamanager.core.ImageCacheTask;
 import org.tinymediamanager.core.MediaFileInformationFetcherTask;
 import org.tinymediamanager.core.MediaFileType;
@@ -56,6 +64,7 @@ import org.tinymediamanager.core.MediaSource;
 import org.tinymediamanager.core.Message;
 import org.tinymediamanager.core.Message.MessageLevel;
 import org.tinymediamanager.core.MessageManager;
+import org.tinymediamanager.core.PhaseTimer;
 import org.tinymediamanager.core.Utils;
 import org.tinymediamanager.core.entities.MediaFile;
 import org.tinymediamanager.core.movie.MovieEdition;
@@ -65,6 +74,8 @@ import org.tinymediamanager.core.movie.connector.MovieToMpNfoConnector;
 import org.tinymediamanager.core.movie.connector.MovieToXbmcNfoConnector;
 import org.tinymediamanager.core.movie.entities.Movie;
 import org.tinymediamanager.core.movie.entities.MovieTrailer;
+import org.tinymediamanager.core.threading.FileStoreThrottle;
+import org.tinymediamanager.core.threading.ThreadPoolType;
 import org.tinymediamanager.core.threading.TmmTask;
 import org.tinymediamanager.core.threading.TmmTaskManager;
 import org.tinymediamanager.core.threading.TmmThreadPool;
@@ -98,20 +109,76 @@ public class MovieUpdateDatasourceTask2 extends TmmThreadPool {
   private static Pattern              video3DPattern = Pattern.compile("(?i)[ ._\\(\\[-]3D[ ._\\)\\]-]?");
 
   private List<String>                dataSources;
+  private Set<Path>                   movieFolders   = new LinkedHashSet<>();
   private MovieList                   movieList;
-  private HashSet<Path>               filesFound     = new HashSet<>();
+  private Set<Path>                   filesFound     = Collections.synchronizedSet(new HashSet<Path>());
+  private boolean                     fullRescan;
+  private DirectoryFingerprintIndex   fingerprints;
+
+  // the fingerprints of all changed/visited directories of the current data source
+  private Map<Path, byte[]>           newFingerprints;
+  private Set<Path>                   visitedDirs;
+
+  // concurrent update of several data sources: one sub task per data source
+  private List<TmmTask>               subTasks       = new CopyOnWriteArrayList<>();
+  private boolean                     subTask        = false;
+  private List<Path>                  imageFiles     = new ArrayList<>();
+
+  // the paths of the data sources of the movies (there are only a few different data sources, but many movies)
+  private Map<String, Path>           dsPathCache    = new HashMap<>();
+  private PhaseTimer                  timer          = new PhaseTimer();
 
   public MovieUpdateDatasourceTask2() {
+    this(false);
+  }
+
+  /**
+   * update all data sources
+   * 
+   * @param fullRescan
+   *          parse all directories, even if they did not change since the last update
+   */
+  public MovieUpdateDatasourceTask2(boolean fullRescan) {
     super(BUNDLE.getString("update.datasource"));
     movieList = MovieList.getInstance();
     dataSources = new ArrayList<>(MovieModuleManager.MOVIE_SETTINGS.getMovieDataSource());
+    this.fullRescan = fullRescan;
   }
 
   public MovieUpdateDatasourceTask2(String datasource) {
+    this(datasource, false);
+  }
+
+  /**
+   * update the given data source
+   * 
+   * @param datasource
+   *          the data source
+   * @param fullRescan
+   *          parse all directories, even if they did not change since the last update
+   */
+  public MovieUpdateDatasourceTask2(String datasource, boolean fullRescan) {
     super(BUNDLE.getString("update.datasource") + " (" + datasource + ")");
     movieList = MovieList.getInstance();
     dataSources = new ArrayList<>(1);
     dataSources.add(datasource);
+    this.fullRescan = fullRescan;
+  }
+
+  /**
+   * update only the given folders of a data source (e.g. the folders where the data source watcher detected changes)
+   * 
+   * @param datasource
+   *          the data source
+   * @param movieFolders
+   *          the folders inside the data source to update
+   */
+  public MovieUpdateDatasourceTask2(String datasource, List<Path> movieFolders) {
+    // the folders are known to be changed - parse them without looking at the fingerprints
+    this(datasource, true);
+    for (Path folder : movieFolders) {
+      this.movieFolders.add(folder.toAbsolutePath());
+    }
   }
 
   @Override
@@ -125,93 +192,49 @@ public class MovieUpdateDatasourceTask2 extends TmmThreadPool {
     }
 
     // get existing movie folders
-    List<Path> existing = new ArrayList<>();
-    for (Movie movie : movieList.getMovies()) {
+    Set<Path> existing = new HashSet<>();
+    for (Movie movie : new ArrayList<>(movieList.getMovies())) {
       existing.add(movie.getPathNIO());
     }
 
+    fingerprints = MovieModuleManager.getInstance().getDirectoryFingerprints();
+    if (fullRescan && movieFolders.isEmpty()) {
+      LOGGER.info("full rescan requested - parsing all directories");
+    }
+
     try {
       StopWatch stopWatch = new StopWatch();
       stopWatch.start();
-      List<Path> imageFiles = new ArrayList<>();
-
-      for (String ds : dataSources) {
-        initThreadPool(3, "update");
-        setTaskName(BUNDLE.getString("update.datasource") + " '" + ds + "'");
-        publishState();
-
-        // just check datasource folder, parse NEW folders first
-        List<Path> newMovieDirs = new ArrayList<>();
-        List<Path> existingMovieDirs = new ArrayList<>();
-        List<Path> rootList = listFilesAndDirs(Paths.get(ds));
-        List<Path> rootFiles = new ArrayList<>();
-        for (Path path : rootList) {
-          if (Files.isDirectory(path)) {
-            if (existing.contains(path)) {
-              existingMovieDirs.add(path);
-            }
-            else {
-              newMovieDirs.add(path);
-            }
-          }
-          else {
-            rootFiles.add(path);
-          }
-        }
-        rootList.clear();
-        for (Path path : newMovieDirs) {
-          searchAndParse(Paths.get(ds).toAbsolutePath(), path, Integer.MAX_VALUE);
-        }
-        for (Path path : existingMovieDirs) {
-          searchAndParse(Paths.get(ds).toAbsolutePath(), path, Integer.MAX_VALUE);
-        }
-        if (rootFiles.size() > 0) {
-          submitTask(new parseMultiMovieDirTask(Paths.get(ds).toAbsolutePath(), Paths.get(ds).toAbsolutePath(), rootFiles));
-        }
-
-        waitForCompletionOrCancel();
-        newMovieDirs.clear();
-        existingMovieDirs.clear();
-        rootFiles.clear();
 
-        if (cancel) {
-          break;
+      if (dataSources.size() > 1 && movieFolders.isEmpty() && Globals.settings.isConcurrentDatasources()) {
+        updateDatasourcesConcurrently();
+      }
+      else {
+        for (String ds : dataSources) {
+          updateDatasource(ds, existing);
+          if (cancel) {
+            break;
+          }
         }
+      }
 
-        // cleanup
-        cleanup(ds);
-
-        // mediainfo
-        gatherMediainfo(ds);
-
-        if (cancel) {
-          break;
+      // sub tasks leave the image cache and the sync to the parent task
+      if (!subTask) {
+        if (imageFiles.size() > 0) {
+          ImageCacheTask task = new ImageCacheTask(imageFiles);
+          TmmTaskManager.getInstance().addUnnamedTask(task);
         }
 
-        // build image cache on import
-        if (MovieModuleManager.MOVIE_SETTINGS.isBuildImageCacheOnImport()) {
-          for (Movie movie : movieList.getMovies()) {
-            if (!Paths.get(ds).equals(Paths.get(movie.getDataSource()))) {
-              // check only movies matching datasource
-              continue;
-            }
-            imageFiles.addAll(movie.getImagesToCache());
-          }
+        if (MovieModuleManager.MOVIE_SETTINGS.getSyncTrakt()) {
+          TmmTask task = new SyncTraktTvTask(true, true, false, false);
+          TmmTaskManager.getInstance().addUnnamedTask(task);
         }
-      } // END datasource loop
-
-      if (imageFiles.size() > 0) {
-        ImageCacheTask task = new ImageCacheTask(imageFiles);
-        TmmTaskManager.getInstance().addUnnamedTask(task);
-      }
-
-      if (MovieModuleManager.MOVIE_SETTINGS.getSyncTrakt()) {
-        TmmTask task = new SyncTraktTvTask(true, true, false, false);
-        TmmTaskManager.getInstance().addUnnamedTask(task);
       }
 
       stopWatch.stop();
+      timer.stop();
       LOGGER.info("Done updating datasource :) - took " + stopWatch);
+      LOGGER.info("time per phase: " + timer);
 
       LOGGER.debug("FilesFound " + filesFound.size());
       LOGGER.debug("moviesFound " + movieList.getMovieCount());
@@ -228,6 +251,155 @@ public class MovieUpdateDatasourceTask2 extends TmmThreadPool {
     }
   }
 
+  /**
+   * update a single data source: parse all (changed) folders, remove orphaned movies/files and gather the mediainfo
+   */
+  private void updateDatasource(String ds, Set<Path> existing) {
+    timer.start("parse");
+    initThreadPool(ThreadPoolType.UPDATE, "update");
+    setTaskName(BUNDLE.getString("update.datasource") + " '" + ds + "'");
+    publishState();
+
+    newFingerprints = new HashMap<>();
+    visitedDirs = new HashSet<>();
+
+    List<Path> newMovieDirs = new ArrayList<>();
+    List<Path> existingMovieDirs = new ArrayList<>();
+    List<Path> rootFiles = new ArrayList<>();
+    if (movieFolders.isEmpty()) {
+      // just check datasource folder, parse NEW folders first
+      List<Path> rootList = listFilesAndDirs(Paths.get(ds));
+      for (Path path : rootList) {
+        if (Files.isDirectory(path)) {
+          if (existing.contains(path)) {
+            existingMovieDirs.add(path);
+          }
+          else {
+            newMovieDirs.add(path);
+          }
+        }
+        else {
+          rootFiles.add(path);
+        }
+      }
+      rootList.clear();
+    }
+    else {
+      // just the given folders (deleted ones are handled by the cleanup)
+      for (Path path : movieFolders) {
+        if (Files.isDirectory(path)) {
+          existingMovieDirs.add(path);
+        }
+      }
+    }
+    for (Path path : newMovieDirs) {
+      searchAndParse(Paths.get(ds).toAbsolutePath(), path, Integer.MAX_VALUE);
+    }
+    for (Path path : existingMovieDirs) {
+      searchAndParse(Paths.get(ds).toAbsolutePath(), path, Integer.MAX_VALUE);
+    }
+    if (rootFiles.size() > 0) {
+      submitTask(new parseMultiMovieDirTask(Paths.get(ds).toAbsolutePath(), Paths.get(ds).toAbsolutePath(), rootFiles));
+    }
+
+    waitForCompletionOrCancel();
+    newMovieDirs.clear();
+    existingMovieDirs.clear();
+    rootFiles.clear();
+
+    if (cancel) {
+      return;
+    }
+
+    // all changed directories have been parsed; remember their fingerprints for the next update
+    timer.start("fingerprints");
+    fingerprints.putAll(newFingerprints);
+    if (movieFolders.isEmpty()) {
+      fingerprints.removeStale(Paths.get(ds), visitedDirs);
+    }
+    else {
+      for (Path path : movieFolders) {
+        fingerprints.removeStale(path, visitedDirs);
+      }
+    }
+    LOGGER.debug("parsed " + newFingerprints.size() + " changed of " + visitedDirs.size() + " directories");
+    newFingerprints = null;
+    visitedDirs = null;
+
+    // cleanup
+    timer.start("cleanup");
+    cleanup(ds);
+
+    // mediainfo
+    timer.start("mediainfo");
+    gatherMediainfo(ds);
+
+    if (cancel) {
+      return;
+    }
+
+    // build image cache on import
+    if (MovieModuleManager.MOVIE_SETTINGS.isBuildImageCacheOnImport()) {
+      timer.start("imagecache");
+      Path datasourcePath = Paths.get(ds);
+      for (Movie movie : new ArrayList<>(movieList.getMovies())) {
+        if (!isInDatasource(movie, datasourcePath) || !isInMovieFolders(movie)) {
+          // check only movies matching datasource
+          continue;
+        }
+        imageFiles.addAll(movie.getImagesToCache());
+      }
+    }
+    timer.stop();
+  }
+
+  /**
+   * update all data sources concurrently. Every data source is updated by its own sub task (parsing, cleanup and mediainfo), so that the cleanup
+   * and mediainfo of a data source start as soon as its own folders have been parsed. Only a limited amount of data sources per device (file
+   * store) is updated at once
+   */
+  private void updateDatasourcesConcurrently() {
+    final FileStoreThrottle throttle = new FileStoreThrottle(Globals.settings.getDatasourcesPerDevice());
+
+    timer.start("datasources");
+    initThreadPool(dataSources.size(), "datasource");
+    setTaskName(BUNDLE.getString("update.datasource"));
+    publishState();
+
+    // the sub tasks collect their images to cache directly in our list
+    imageFiles = Collections.synchronizedList(new ArrayList<Path>());
+
+    for (final String ds : dataSources) {
+      final MovieUpdateDatasourceTask2 task = new MovieUpdateDatasourceTask2(ds, fullRescan);
+      task.subTask = true;
+      task.imageFiles = imageFiles;
+      subTasks.add(task);
+
+      submitTask(new Runnable() {
+        @Override
+        public void run() {
+          Path path = Paths.get(ds);
+          throttle.acquireFolder(path);
+          try {
+            task.run();
+          }
+          finally {
+            throttle.releaseFolder(path);
+          }
+        }
+      });
+    }
+    waitForCompletionOrCancel();
+  }
+
+  @Override
+  public void cancel() {
+    super.cancel();
+    for (TmmTask task : subTasks) {
+      task.cancel();
+    }
+  }
+
   /**
    * ThreadpoolWorker to work off ONE possible movie from root datasource directory
    * 
@@ -842,14 +1014,15 @@ public class MovieUpdateDatasourceTask2 extends TmmThreadPool {
 
     LOGGER.info("removing orphaned movies/files...");
     List<Movie> moviesToRemove = new ArrayList<>();
-    for (int i = movieList.getMovies().size() - 1; i >= 0; i--) {
+    Path datasourcePath = Paths.get(datasource);
+    // iterate over a copy - other data sources may be updated at the same time
+    for (Movie movie : new ArrayList<>(movieList.getMovies())) {
       if (cancel) {
         break;
       }
-      Movie movie = movieList.getMovies().get(i);
 
-      // check only movies matching datasource
-      if (!Paths.get(datasource).equals(Paths.get(movie.getDataSource()))) {
+      // check only movies matching datasource (and the updated folders)
+      if (!isInDatasource(movie, datasourcePath) || !isInMovieFolders(movie)) {
         continue;
       }
 
@@ -895,6 +1068,44 @@ public class MovieUpdateDatasourceTask2 extends TmmThreadPool {
     movieList.removeMovies(moviesToRemove);
   }
 
+  /**
+   * checks whether the movie is inside the folders to update
+   * 
+   * @param movie
+   *          the movie to check
+   * @return true if all folders are updated or the movie is inside one of the given folders
+   */
+  private boolean isInMovieFolders(Movie movie) {
+    if (movieFolders.isEmpty()) {
+      return true;
+    }
+    // walk up the folder hierarchy of the movie instead of comparing with every folder
+    for (Path dir = movie.getPathNIO(); dir != null; dir = dir.getParent()) {
+      if (movieFolders.contains(dir)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * checks whether the movie is inside the given data source
+   * 
+   * @param movie
+   *          the movie to check
+   * @param datasource
+   *          the path of the data source
+   * @return true if the movie belongs to the data source
+   */
+  private boolean isInDatasource(Movie movie, Path datasource) {
+    Path path = dsPathCache.get(movie.getDataSource());
+    if (path == null) {
+      path = Paths.get(movie.getDataSource());
+      dsPathCache.put(movie.getDataSource(), path);
+    }
+    return datasource.equals(path);
+  }
+
   /*
    * gather mediainfo for ungathered movies
    */
@@ -903,17 +1114,17 @@ public class MovieUpdateDatasourceTask2 extends TmmThreadPool {
     setTaskName(BUNDLE.getString("update.mediainfo"));
     publishState();
 
-    initThreadPool(1, "mediainfo");
+    initThreadPool(ThreadPoolType.MEDIAINFO, "mediainfo");
 
     LOGGER.info("getting Mediainfo...");
-    for (int i = movieList.getMovies().size() - 1; i >= 0; i--) {
+    Path datasourcePath = Paths.get(datasource);
+    for (Movie movie : new ArrayList<>(movieList.getMovies())) {
       if (cancel) {
         break;
       }
-      Movie movie = movieList.getMovies().get(i);
 
       // check only movies matching datasource
-      if (!Paths.get(datasource).equals(Paths.get(movie.getDataSource()))) {
+      if (!isInDatasource(movie, datasourcePath)) {
         continue;
       }
 
@@ -1110,12 +1321,57 @@ public class MovieUpdateDatasourceTask2 extends TmmThreadPool {
     catch (IOException e) {
       // can not happen, since we override visitFileFailed, which throws no exception ;)
     }
+
+    if (cancel) {
+      return;
+    }
+
+    // the video folders of unchanged directories: we only need to parse them if the movie root folder
+    // (which may be a parent of the video folder; disc and stacked folders) has changed
+    for (Path dir : visitor.unchangedVideofolders) {
+      Path movieRoot = findMovieRoot(datasource, dir);
+      if (movieRoot == null || !visitedDirs.contains(movieRoot) || visitor.changedDirs.contains(movieRoot)) {
+        visitor.submitFindMovieTask(dir);
+      }
+      else {
+        // nothing changed - just mark all files of the movie(s) as found
+        for (Movie movie : movieList.getMoviesByPath(movieRoot)) {
+          filesFound.add(movieRoot);
+          for (MediaFile mf : movie.getMediaFiles()) {
+            filesFound.add(mf.getFileAsPath());
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * find the root folder of the existing movie(s) containing the given video folder
+   * 
+   * @param datasource
+   *          the data source
+   * @param videoFolder
+   *          the folder containing the video files
+   * @return the movie root folder or null if there is no movie for this video folder yet
+   */
+  private Path findMovieRoot(Path datasource, Path videoFolder) {
+    Path dir = videoFolder;
+    while (dir != null && !dir.equals(datasource)) {
+      if (!movieList.getMoviesByPath(dir).isEmpty()) {
+        return dir;
+      }
+      dir = dir.getParent();
+    }
+    return null;
   }
 
   private class SearchAndParseVisitor implements FileVisitor<Path> {
-    private Path              datasource;
-    private ArrayList<String> unstackedRoot = new ArrayList<>(); // only for folder stacking
-    private HashSet<Path>     videofolders  = new HashSet<>();   // all found video folders
+    private Path                  datasource;
+    private ArrayList<String>     unstackedRoot         = new ArrayList<>();  // only for folder stacking
+    private HashSet<Path>         videofolders          = new HashSet<>();    // all found video folders
+    private HashSet<Path>         changedDirs           = new HashSet<>();    // all directories with changes in their subtree
+    private List<Path>            unchangedVideofolders = new ArrayList<>();  // video folders which did not change
+    private Deque<DirectoryState> directoryStates       = new ArrayDeque<>(); // the states of the currently visited directories
 
     protected SearchAndParseVisitor(Path datasource) {
       this.datasource = datasource;
@@ -1124,6 +1380,9 @@ public class MovieUpdateDatasourceTask2 extends TmmThreadPool {
     @Override
     public FileVisitResult visitFile(Path file, BasicFileAttributes attr) {
       visFile++;
+      if (!directoryStates.isEmpty()) {
+        directoryStates.peek().childNames.add(file.getFileName().toString());
+      }
       if (Utils.isRegularFile(attr) && !file.getFileName().toString().matches(skipRegex)) {
         // check for video?
         if (Globals.settings.getVideoFileType().contains("." + FilenameUtils.getExtension(file.toString()).toLowerCase())) {
@@ -1139,6 +1398,9 @@ public class MovieUpdateDatasourceTask2 extends TmmThreadPool {
     @Override
     public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
       preDir++;
+      if (!directoryStates.isEmpty()) {
+        directoryStates.peek().childNames.add(dir.getFileName().toString());
+      }
       String fn = dir.getFileName().toString().toUpperCase();
       if (skipFolders.contains(fn) || fn.matches(skipRegex) || Files.exists(dir.resolve(".tmmignore")) || Files.exists(dir.resolve("tmmignore"))
           || Files.exists(dir.resolve(".nomedia"))
@@ -1146,38 +1408,57 @@ public class MovieUpdateDatasourceTask2 extends TmmThreadPool {
         LOGGER.debug("Skipping dir: " + dir);
         return SKIP_SUBTREE;
       }
+      directoryStates.push(new DirectoryState(attrs.lastModifiedTime().toMillis()));
       return CONTINUE;
     }
 
     @Override
     public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
       postDir++;
+
+      // compare the fingerprint of this directory with the one from the last update
+      DirectoryState state = directoryStates.pop();
+      byte[] fingerprint = DirectoryFingerprintIndex.fingerprint(state.lastModified, state.childNames);
+      boolean changed = state.subtreeChanged || fingerprints.hasChanged(dir, fingerprint);
+      visitedDirs.add(dir);
+      if (changed) {
+        changedDirs.add(dir);
+        newFingerprints.put(dir, fingerprint);
+        if (!directoryStates.isEmpty()) {
+          directoryStates.peek().subtreeChanged = true;
+        }
+      }
+
       if (cancel) {
         return TERMINATE;
       }
 
       if (this.videofolders.contains(dir)) {
-        boolean update = true;
-        // quick fix for folder stacking
-        // name = stacking marker & parent has already been processed - skip
-        Path relative = datasource.relativize(dir);
-        if (!Utils.getFolderStackingMarker(relative.toString()).isEmpty()
-            && Utils.getFolderStackingMarker(relative.toString()).equals(dir.getFileName().toString())) {
-          if (unstackedRoot.contains(dir.getParent().toString())) {
-            update = false;
-          }
-          else {
-            unstackedRoot.add(dir.getParent().toString());
-          }
+        if (fullRescan || changed) {
+          submitFindMovieTask(dir);
         }
-        if (update) {
-          // this.videofolders.remove(dir);
-          submitTask(new FindMovieTask(dir, datasource));
+        else {
+          // decide after the walk, when we know whether the movie root folder has changed
+          unchangedVideofolders.add(dir);
         }
       }
       return CONTINUE;
     }
 
+    private void submitFindMovieTask(Path dir) {
+      // quick fix for folder stacking
+      // name = stacking marker & parent has already been processed - skip
+      Path relative = datasource.relativize(dir);
+      if (!Utils.getFolderStackingMarker(relative.toString()).isEmpty()
+          && Utils.getFolderStackingMarker(relative.toString()).equals(dir.getFileName().toString())) {
+        if (unstackedRoot.contains(dir.getParent().toString())) {
+          return;
+        }
+        unstackedRoot.add(dir.getParent().toString());
+      }
+      submitTask(new FindMovieTask(dir, datasource));
+    }
+
     // If there is some error accessing the file, let the user know.
     // If you don't override this method and an error occurs, an IOException is thrown.
     @Override
@@ -1186,4 +1467,17 @@ public class MovieUpdateDatasourceTask2 extends TmmThreadPool {
       return CONTINUE;
     }
   }
+
+  /**
+   * the state of a directory while walking through its children
+   */
+  private static class DirectoryState {
+    private final long         lastModified;
+    private final List<String> childNames     = new ArrayList<>();
+    private boolean            subtreeChanged = false;
+
+    private DirectoryState(long lastModified) {
+      this.lastModified = lastModified;
+    }
+  }
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.threading;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tinymediamanager.core.threading.ThreadPoolType.Profile;
+
+/**
+ * The class AdaptivePoolSizer. Grows/shrinks a thread pool depending on the observed per-task latency and the queue depth.<br>
+ * The lowest average latency seen is taken as the latency of an uncontended task. As long as the latency stays near this value and there are
+ * more queued tasks than threads, another thread is added. If the latency rises too much (the disk/network/CPU is saturated), a thread is
+ * removed.
+ *
+ * @author Manuel Laggner
+ */
+class AdaptivePoolSizer {
+  private static final Logger LOGGER         = LoggerFactory.getLogger(AdaptivePoolSizer.class);
+  private static final int    MIN_SAMPLES    = 8;
+
+  private final String        poolname;
+  private final int           minThreads;
+  private final int           maxThreads;
+  private final double        growThreshold;
+  private final double        shrinkThreshold;
+
+  // written by the worker threads
+  private final AtomicLong    latencySum     = new AtomicLong(0);
+  private final AtomicInteger latencySamples = new AtomicInteger(0);
+
+  private double              baseline       = 0;
+
+  AdaptivePoolSizer(String poolname, Profile profile, int maxThreads) {
+    this.poolname = poolname;
+    this.minThreads = 1;
+    this.maxThreads = maxThreads;
+    if (profile == Profile.CPU_BOUND) {
+      // CPU bound tasks slow down early if the cores are busy
+      this.growThreshold = 1.25;
+      this.shrinkThreshold = 1.75;
+    }
+    else {
+      this.growThreshold = 1.5;
+      this.shrinkThreshold = 2.5;
+    }
+  }
+
+  /**
+   * record the runtime of a finished task
+   *
+   * @param nanos
+   *          the runtime in ns
+   */
+  void record(long nanos) {
+    latencySum.addAndGet(nanos);
+    latencySamples.incrementAndGet();
+  }
+
+  /**
+   * re-evaluate the pool size; should be called after every finished task
+   *
+   * @param pool
+   *          the pool to resize
+   */
+  void adjust(ThreadPoolExecutor pool) {
+    int current = pool.getMaximumPoolSize();
+    int samples = latencySamples.get();
+    if (samples < Math.max(MIN_SAMPLES, 2 * current)) {
+      return;
+    }
+
+    double average = (double) latencySum.getAndSet(0) / latencySamples.getAndSet(0);
+    if (baseline == 0 || average < baseline) {
+      baseline = average;
+    }
+
+    int queued = pool.getQueue().size();
+    int newSize = current;
+    if (average > baseline * shrinkThreshold && current > minThreads) {
+      newSize = current - 1;
+    }
+    else if (average <= baseline * growThreshold && queued > current && current < maxThreads) {
+      newSize = current + 1;
+    }
+
+    if (newSize != current) {
+      LOGGER.debug("ThreadPool " + poolname + ": resizing from " + current + " to " + newSize + " threads (avg latency " + (long) (average / 1000000)
+          + "ms, baseline " + (long) (baseline / 1000000) + "ms, queued " + queued + ")");
+      resize(pool, newSize);
+    }
+  }
+
+  private static void resize(ThreadPoolExecutor pool, int size) {
+    // core size must never exceed the maximum size
+    if (size > pool.getMaximumPoolSize()) {
+      pool.setMaximumPoolSize(size);
+      pool.setCorePoolSize(size);
+    }
+    else {
+      pool.setCorePoolSize(size);
+      pool.setMaximumPoolSize(size);
+    }
+  }
+}
@@ -15,17 +15,37 @@
  */
 package org.tinymediamanager.core.threading;
 
-import java.io.BufferedInputStream;
-import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
 import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tinymediamanager.Globals;
+import org.tinymediamanager.core.DatasourceWatcher;
 import org.tinymediamanager.core.MediaFileType;
 import org.tinymediamanager.core.Message;
 import org.tinymediamanager.core.Message.MessageLevel;
@@ -33,6 +53,7 @@ import org.tinymediamanager.core.MessageManager;
 import org.tinymediamanager.core.Utils;
 import org.tinymediamanager.core.entities.MediaEntity;
 import org.tinymediamanager.core.entities.MediaFile;
+import org.tinymediamanager.core.threading.TmmThreadPool.TmmThreadFactory;
 import org.tinymediamanager.scraper.http.StreamingUrl;
 import org.tinymediamanager.scraper.util.UrlUtil;
 import org.tinymediamanager.ui.UTF8Control;
@@ -40,19 +61,31 @@ import org.tinymediamanager.ui.UTF8Control;
 import okhttp3.Headers;
 
 /**
- * DownloadTask for bigger downloads with status updates
+ * DownloadTask for bigger downloads with status updates. Partial downloads (.part) are resumed via HTTP range requests and big downloads are
+ * split into several segments which are downloaded in parallel (if the server supports range requests)
  * 
  * @author Myron Boyle, Manuel Laggner
  */
 public class DownloadTask extends TmmTask {
-  private static final Logger         LOGGER    = LoggerFactory.getLogger(DownloadTask.class);
-  private static final ResourceBundle BUNDLE    = ResourceBundle.getBundle("messages", new UTF8Control()); //$NON-NLS-1$
+  private static final Logger         LOGGER            = LoggerFactory.getLogger(DownloadTask.class);
+  private static final ResourceBundle BUNDLE            = ResourceBundle.getBundle("messages", new UTF8Control()); //$NON-NLS-1$
+  private static final Pattern        CONTENT_RANGE     = Pattern.compile("bytes\\s+(\\d+)-(\\d+)/(\\d+|\\*)");
+  private static final int            BUFFER_SIZE       = 256 * 1024;
+  // do not split downloads into segments smaller than this
+  private static final long           MIN_SEGMENT_SIZE  = 8 * 1024 * 1024;
 
   protected String                    url;
   protected Path                      file;
   protected MediaEntity               media;
   protected MediaFileType             fileType;
-  protected String                    userAgent = "";
+  protected String                    userAgent         = "";
+
+  private final AtomicLong            bytesDone         = new AtomicLong(0);
+  private long                        length            = -1;
+  private long                        bytesDonePrevious = 0;
+  private long                        timestamp         = 0;
+  private double                      speed             = 0;
+  private String                      validator         = null;
 
   /**
    * Downloads an url to a file, and does correct http encoding on querystring.<br>
@@ -128,10 +161,30 @@ public class DownloadTask extends TmmTask {
         }
       }
 
+      Path tempFile = file.resolveSibling(file.getFileName() + ".part");
+      // the part files must not trigger an update of the data source (renewed with every progress update)
+      DatasourceWatcher.ignoreChanges(file.getParent());
+      long offset = 0;
+      ResumeInfo resumeInfo = null;
+      if (Files.exists(tempFile)) {
+        resumeInfo = ResumeInfo.load(tempFile);
+        if (resumeInfo != null) {
+          // the first segment never exceeds its own range
+          offset = Math.min(Files.size(tempFile), resumeInfo.segmentSize);
+        }
+        else {
+          // without a validator we cannot know if the partial download belongs to the actual file on the server
+          LOGGER.debug("partial download without validator - starting from scratch");
+          deletePartFiles(tempFile);
+        }
+      }
+
       LOGGER.info("Downloading " + url);
-      StreamingUrl u = new StreamingUrl(UrlUtil.getURIEncoded(url).toASCIIString());
-      if (StringUtils.isNotBlank(userAgent)) {
-        u.setUserAgent(userAgent);
+      StreamingUrl u = createUrl();
+      if (resumeInfo != null) {
+        // there is a partial download from a previous run; try to resume it. The server sends the whole file if it has been changed
+        u.addHeader("Range", "bytes=" + offset + "-");
+        u.addHeader("If-Range", resumeInfo.validator);
       }
       InputStream is = u.getInputStream();
 
@@ -145,10 +198,56 @@ public class DownloadTask extends TmmTask {
       if (u.isFault()) {
         MessageManager.instance.pushMessage(new Message(MessageLevel.ERROR, u.getUrl(), u.getStatusLine()));
         is.close();
+        if (resumeInfo != null) {
+          // maybe the partial download is not valid any more - start from scratch next time
+          deletePartFiles(tempFile);
+        }
         return;
       }
 
-      long length = u.getContentLength();
+      validator = getValidator(headers);
+      String contentRange = headers.get("Content-Range");
+      int segmentCount = 1;
+      long segmentSize = -1;
+      if (resumeInfo != null && contentRange != null) {
+        if (getRangeStart(contentRange) != offset || getRangeTotal(contentRange) != resumeInfo.length
+            || !resumeInfo.validator.equals(validator)) {
+          // the server ignored the If-Range header or sent another file
+          is.close();
+          deletePartFiles(tempFile);
+          throw new IOException("server returned an unexpected range (" + contentRange + ", " + validator + ") for " + url);
+        }
+        LOGGER.info("Resuming download at " + formatBytesForOutput(offset));
+        length = resumeInfo.length;
+        // resume with the layout of the first run; otherwise the already downloaded parts would end up at other offsets
+        segmentCount = resumeInfo.segmentCount;
+        segmentSize = resumeInfo.segmentSize;
+      }
+      else {
+        if (resumeInfo != null) {
+          LOGGER.debug("file has been changed or server does not support resuming downloads - starting from scratch");
+          offset = 0;
+        }
+        deletePartFiles(tempFile);
+        length = u.getContentLength();
+        // split big downloads into several segments if the server accepts range requests
+        if (length > 0 && "bytes".equalsIgnoreCase(headers.get("Accept-Ranges"))) {
+          segmentCount = (int) Math.max(1, Math.min(Globals.settings.getDownloadSegments(), length / MIN_SEGMENT_SIZE));
+        }
+        segmentSize = length > 0 ? (length + segmentCount - 1) / segmentCount : -1;
+
+        // create all segment files up front, so that a resume always finds the complete layout
+        Files.createFile(tempFile);
+        for (int i = 1; i < segmentCount; i++) {
+          Files.createFile(getSegmentFile(tempFile, i));
+        }
+
+        // remember which file we are downloading (and how it has been split); only this file can be resumed
+        if (validator != null && length > 0) {
+          ResumeInfo.store(tempFile, new ResumeInfo(validator, length, segmentCount, segmentSize));
+        }
+      }
+
       String type = u.getContentEncoding();
       if (ext.isEmpty()) {
         // still empty? try to parse from mime header
@@ -171,58 +270,65 @@ public class DownloadTask extends TmmTask {
 
       LOGGER.info("Downloading to " + file);
 
-      Path tempFile = file.resolveSibling(file.getFileName() + ".part");
-      BufferedInputStream bufferedInputStream = new BufferedInputStream(is);
-      FileOutputStream outputStream = new FileOutputStream(tempFile.toFile());
-      int count = 0;
-      byte buffer[] = new byte[2048];
-      Long timestamp1 = System.nanoTime();
-      Long timestamp2;
-      long bytesDone = 0;
-      long bytesDonePrevious = 0;
-      double speed = 0;
-
-      while ((count = bufferedInputStream.read(buffer, 0, buffer.length)) != -1) {
-        if (cancel) {
-          break;
+      // the first segment is read from the already opened stream; all other segments open their own (ranged) connection
+      List<Segment> segments = new ArrayList<>();
+      if (segmentCount > 1) {
+        LOGGER.debug("downloading in " + segmentCount + " segments");
+        segments.add(new Segment(tempFile, 0, segmentSize, offset, is));
+        for (int i = 1; i < segmentCount; i++) {
+          Path segmentFile = getSegmentFile(tempFile, i);
+          long start = i * segmentSize;
+          long end = Math.min(length, (i + 1) * segmentSize);
+          long done = Files.exists(segmentFile) ? Math.min(Files.size(segmentFile), end - start) : 0;
+          segments.add(new Segment(segmentFile, start, end, done, null));
         }
+      }
+      else {
+        segments.add(new Segment(tempFile, 0, length > 0 ? length : -1, offset, is));
+      }
 
-        outputStream.write(buffer, 0, count);
-        bytesDone += count;
-
-        // we push the progress only once per 250ms (to use less performance and get a better download speed)
-        timestamp2 = System.nanoTime();
-        if (timestamp2 - timestamp1 > 250000000) {
-          // avg. speed between the actual and the previous
-          speed = (speed + (bytesDone - bytesDonePrevious) / ((double) (timestamp2 - timestamp1) / 1000000000)) / 2;
-
-          timestamp1 = timestamp2;
-          bytesDonePrevious = bytesDone;
+      for (Segment segment : segments) {
+        bytesDone.addAndGet(segment.done);
+      }
+      bytesDonePrevious = bytesDone.get();
+      timestamp = System.nanoTime();
 
-          if (length > 0) {
-            publishState(formatBytesForOutput(bytesDone) + "/" + formatBytesForOutput(length) + " @" + formatSpeedForOutput(speed),
-                (int) (bytesDone * 100 / length));
-          }
-          else {
-            setWorkUnits(0);
-            publishState(formatBytesForOutput(bytesDone) + " @" + formatSpeedForOutput(speed), 0);
+      ExecutorService executor = null;
+      List<Future<Void>> futures = new ArrayList<>();
+      try {
+        if (segments.size() > 1) {
+          executor = Executors.newFixedThreadPool(segments.size() - 1, new TmmThreadFactory("download-segment"));
+          for (Segment segment : segments.subList(1, segments.size())) {
+            futures.add(executor.submit(segment));
           }
+        }
 
+        segments.get(0).call();
+        for (Future<Void> future : futures) {
+          while (true) {
+            try {
+              future.get(250, TimeUnit.MILLISECONDS);
+              break;
+            }
+            catch (TimeoutException e) {
+              publishProgress();
+            }
+          }
         }
       }
-
-      outputStream.close();
-
-      // we must not close the input stream on cancel(the rest will be downloaded if we close it on cancel)
-      if (!cancel) {
-        is.close();
+      finally {
+        if (executor != null) {
+          executor.shutdownNow();
+        }
       }
 
       if (cancel) {
         // delete half downloaded file
-        Utils.deleteFileSafely(tempFile);
+        deletePartFiles(tempFile);
       }
       else {
+        joinSegments(segments);
+
         if (ext.isEmpty()) {
           // STILL empty? hmpf...
           // now we have a chicken-egg problem:
@@ -241,6 +347,7 @@ public class DownloadTask extends TmmTask {
         boolean ok = Utils.moveFileSafe(tempFile, file);
         if (ok) {
           Utils.deleteFileSafely(tempFile);
+          ResumeInfo.delete(tempFile);
           if (media != null) {
             MediaFile mf = new MediaFile(file, fileType);
             mf.gatherMediaInformation();
@@ -255,10 +362,301 @@ public class DownloadTask extends TmmTask {
       } // end isCancelled
     }
     catch (Exception e) {
+      // the partial download is kept and will be resumed the next time
       LOGGER.error("problem downloading: ", e);
     }
   }
 
+  private StreamingUrl createUrl() throws Exception {
+    StreamingUrl u = new StreamingUrl(UrlUtil.getURIEncoded(url).toASCIIString());
+    if (StringUtils.isNotBlank(userAgent)) {
+      u.setUserAgent(userAgent);
+    }
+    return u;
+  }
+
+  /**
+   * append all other segments to the first one
+   */
+  private void joinSegments(List<Segment> segments) throws IOException {
+    if (segments.size() < 2) {
+      return;
+    }
+    try (FileChannel target = FileChannel.open(segments.get(0).file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+      for (Segment segment : segments.subList(1, segments.size())) {
+        try (FileChannel source = FileChannel.open(segment.file, StandardOpenOption.READ)) {
+          long size = source.size();
+          long transferred = 0;
+          while (transferred < size) {
+            transferred += source.transferTo(transferred, size - transferred, target);
+          }
+        }
+        Utils.deleteFileSafely(segment.file);
+      }
+    }
+  }
+
+  private void publishProgress() {
+    // we push the progress only once per 250ms (to use less performance and get a better download speed)
+    long now = System.nanoTime();
+    if (now - timestamp < 250000000) {
+      return;
+    }
+    DatasourceWatcher.ignoreChanges(file.getParent());
+
+    // avg. speed between the actual and the previous
+    long done = bytesDone.get();
+    speed = (speed + (done - bytesDonePrevious) / ((double) (now - timestamp) / 1000000000)) / 2;
+
+    timestamp = now;
+    bytesDonePrevious = done;
+
+    if (length > 0) {
+      publishState(formatBytesForOutput(done) + "/" + formatBytesForOutput(length) + " @" + formatSpeedForOutput(speed), (int) (done * 100 / length));
+    }
+    else {
+      setWorkUnits(0);
+      publishState(formatBytesForOutput(done) + " @" + formatSpeedForOutput(speed), 0);
+    }
+  }
+
+  private static Path getSegmentFile(Path tempFile, int index) {
+    return tempFile.resolveSibling(tempFile.getFileName().toString() + index);
+  }
+
+  /**
+   * a previous segmented download left one file per segment (.part, .part1, .part2, ...)
+   */
+  private static int getExistingSegmentCount(Path tempFile) {
+    int count = 1;
+    while (Files.exists(getSegmentFile(tempFile, count))) {
+      count++;
+    }
+    return count;
+  }
+
+  private static void deleteSegmentFiles(Path tempFile) {
+    // a segment in the middle may be missing; use the stored layout too
+    ResumeInfo resumeInfo = ResumeInfo.load(tempFile);
+    int count = Math.max(getExistingSegmentCount(tempFile), resumeInfo != null ? resumeInfo.segmentCount : 1);
+    for (int i = 1; i < count; i++) {
+      Utils.deleteFileSafely(getSegmentFile(tempFile, i));
+    }
+  }
+
+  private static void deletePartFiles(Path tempFile) {
+    deleteSegmentFiles(tempFile);
+    Utils.deleteFileSafely(tempFile);
+    ResumeInfo.delete(tempFile);
+  }
+
+  /**
+   * get a strong validator (ETag or Last-Modified) of the response; needed for the If-Range header
+   */
+  static String getValidator(Headers headers) {
+    String etag = headers.get("ETag");
+    if (StringUtils.isNotBlank(etag) && !etag.startsWith("W/")) {
+      return etag;
+    }
+    String lastModified = headers.get("Last-Modified");
+    if (StringUtils.isNotBlank(lastModified)) {
+      return lastModified;
+    }
+    return null;
+  }
+
+  /**
+   * get the first byte of a Content-Range header (bytes 100-999/1000)
+   */
+  static long getRangeStart(String contentRange) {
+    Matcher matcher = CONTENT_RANGE.matcher(StringUtils.defaultString(contentRange));
+    if (matcher.find()) {
+      return Long.parseLong(matcher.group(1));
+    }
+    return -1;
+  }
+
+  /**
+   * get the total length of a Content-Range header (bytes 100-999/1000); -1 if it is unknown
+   */
+  static long getRangeTotal(String contentRange) {
+    Matcher matcher = CONTENT_RANGE.matcher(StringUtils.defaultString(contentRange));
+    if (matcher.find() && !"*".equals(matcher.group(3))) {
+      return Long.parseLong(matcher.group(3));
+    }
+    return -1;
+  }
+
+  /**
+   * a part of the download which is written into its own file. The segment starts writing at the end of the already downloaded part
+   */
+  private class Segment implements Callable<Void> {
+    private final Path    file;
+    private final long    start;
+    private final long    end;
+    private final long    done;
+    // only the first segment runs in the thread of the task
+    private final boolean publish;
+    private InputStream   is;
+
+    /**
+     * @param file
+     *          the file to write the segment to
+     * @param start
+     *          the first byte of the segment
+     * @param end
+     *          the end of the segment (exclusive); -1 if the length is unknown
+     * @param done
+     *          the amount of bytes which have already been downloaded
+     * @param is
+     *          the stream already positioned at start + done or null if the segment has to be requested
+     */
+    Segment(Path file, long start, long end, long done, InputStream is) {
+      this.file = file;
+      this.start = start;
+      this.end = end;
+      this.done = done;
+      this.is = is;
+      this.publish = is != null;
+    }
+
+    @Override
+    public Void call() throws Exception {
+      long position = start + done;
+      if (end > 0 && position >= end) {
+        // already complete; drop everything behind the end of the segment
+        IOUtils.closeQuietly(is);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+          channel.truncate(done);
+        }
+        return null;
+      }
+
+      if (is == null) {
+        StreamingUrl u = createUrl();
+        u.addHeader("Range", "bytes=" + position + "-" + (end - 1));
+        if (validator != null) {
+          u.addHeader("If-Range", validator);
+        }
+        is = u.getInputStream();
+        if (u.isFault() || getRangeStart(u.getHeadersResponse().get("Content-Range")) != position) {
+          IOUtils.closeQuietly(is);
+          throw new IOException("server did not return the requested range " + position + "-" + (end - 1) + " of " + url);
+        }
+      }
+
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+        // drop everything behind the already downloaded part
+        channel.truncate(done);
+        channel.position(done);
+
+        ReadableByteChannel source = Channels.newChannel(is);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        while (!cancel) {
+          buffer.clear();
+          if (end > 0) {
+            buffer.limit((int) Math.min(BUFFER_SIZE, end - position));
+          }
+          int count = source.read(buffer);
+          if (count < 0) {
+            break;
+          }
+
+          buffer.flip();
+          while (buffer.hasRemaining()) {
+            channel.write(buffer);
+          }
+          position += count;
+          bytesDone.addAndGet(count);
+
+          if (end > 0 && position >= end) {
+            break;
+          }
+          if (publish) {
+            publishProgress();
+          }
+        }
+      }
+
+      // we must not close the input stream on cancel(the rest will be downloaded if we close it on cancel)
+      if (!cancel) {
+        IOUtils.closeQuietly(is);
+        if (end > 0 && position < end) {
+          throw new IOException("download of " + url + " ended at " + position + " instead of " + end);
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * the validator, the total length and the segment layout of a partial download; stored next to the .part file
+   */
+  static class ResumeInfo {
+    private static final String VALIDATOR     = "validator";
+    private static final String LENGTH        = "length";
+    private static final String SEGMENT_COUNT = "segmentCount";
+    private static final String SEGMENT_SIZE  = "segmentSize";
+
+    final String                validator;
+    final long                  length;
+    final int                   segmentCount;
+    final long                  segmentSize;
+
+    ResumeInfo(String validator, long length, int segmentCount, long segmentSize) {
+      this.validator = validator;
+      this.length = length;
+      this.segmentCount = segmentCount;
+      this.segmentSize = segmentSize;
+    }
+
+    private static Path getFile(Path tempFile) {
+      return tempFile.resolveSibling(tempFile.getFileName() + ".meta");
+    }
+
+    static void store(Path tempFile, ResumeInfo resumeInfo) throws IOException {
+      Properties properties = new Properties();
+      properties.setProperty(VALIDATOR, resumeInfo.validator);
+      properties.setProperty(LENGTH, Long.toString(resumeInfo.length));
+      properties.setProperty(SEGMENT_COUNT, Integer.toString(resumeInfo.segmentCount));
+      properties.setProperty(SEGMENT_SIZE, Long.toString(resumeInfo.segmentSize));
+      try (OutputStream os = Files.newOutputStream(getFile(tempFile))) {
+        properties.store(os, null);
+      }
+    }
+
+    /**
+     * @return the stored info or null if there is none (or it is invalid)
+     */
+    static ResumeInfo load(Path tempFile) {
+      Path file = getFile(tempFile);
+      if (!Files.exists(file)) {
+        return null;
+      }
+      Properties properties = new Properties();
+      try (InputStream is = Files.newInputStream(file)) {
+        properties.load(is);
+        String validator = properties.getProperty(VALIDATOR);
+        long length = Long.parseLong(properties.getProperty(LENGTH, "-1"));
+        int segmentCount = Integer.parseInt(properties.getProperty(SEGMENT_COUNT, "-1"));
+        long segmentSize = Long.parseLong(properties.getProperty(SEGMENT_SIZE, "-1"));
+        // the segments must cover the whole file
+        if (StringUtils.isBlank(validator) || length <= 0 || segmentCount < 1 || segmentSize <= 0 || segmentCount * segmentSize < length) {
+          return null;
+        }
+        return new ResumeInfo(validator, length, segmentCount, segmentSize);
+      }
+      catch (Exception e) {
+        LOGGER.debug("could not read " + file + ": " + e.getMessage());
+        return null;
+      }
+    }
+
+    static void delete(Path tempFile) {
+      Utils.deleteFileSafely(getFile(tempFile));
+    }
+  }
+
   private String formatBytesForOutput(long bytes) {
     return String.format("%.2fM", (double) bytes / (1024d * 1024d));
   }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.threading;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * The class FileStoreThrottle. Limits the amount of concurrent accesses per file store (disk/mount), so that a pool with many threads does not
+ * thrash a single (spinning) disk while other disks are idle
+ *
+ * @author Manuel Laggner
+ */
+public class FileStoreThrottle {
+  private final int                              permits;
+  private final ConcurrentMap<Object, Semaphore> semaphores = new ConcurrentHashMap<>();
+  // resolving the file store is expensive; most files share their parent folder
+  private final ConcurrentMap<Path, Object>      storeByDir = new ConcurrentHashMap<>();
+
+  /**
+   * create a new throttle
+   *
+   * @param permits
+   *          the maximum amount of concurrent accesses per file store
+   */
+  public FileStoreThrottle(int permits) {
+    this.permits = Math.max(1, permits);
+  }
+
+  /**
+   * acquire a permit for the file store of the given file; blocks until a permit is available. Every call must be followed by a call of
+   * {@link #release(Path)}
+   *
+   * @param file
+   *          the file to access
+   */
+  public void acquire(Path file) {
+    getSemaphore(file).acquireUninterruptibly();
+  }
+
+  /**
+   * release the permit for the file store of the given file
+   *
+   * @param file
+   *          the accessed file
+   */
+  public void release(Path file) {
+    getSemaphore(file).release();
+  }
+
+  /**
+   * acquire a permit for the file store of the given folder (the folder may be the mount point of the file store); blocks until a permit is
+   * available. Every call must be followed by a call of {@link #releaseFolder(Path)}
+   *
+   * @param folder
+   *          the folder to access
+   */
+  public void acquireFolder(Path folder) {
+    getSemaphore(getFileStoreOfDir(folder.toAbsolutePath())).acquireUninterruptibly();
+  }
+
+  /**
+   * release the permit for the file store of the given folder
+   *
+   * @param folder
+   *          the accessed folder
+   */
+  public void releaseFolder(Path folder) {
+    getSemaphore(getFileStoreOfDir(folder.toAbsolutePath())).release();
+  }
+
+  private Semaphore getSemaphore(Path file) {
+    return getSemaphore(getFileStore(file));
+  }
+
+  private Semaphore getSemaphore(Object store) {
+    Semaphore semaphore = semaphores.get(store);
+    if (semaphore == null) {
+      Semaphore newSemaphore = new Semaphore(permits, true);
+      semaphore = semaphores.putIfAbsent(store, newSemaphore);
+      if (semaphore == null) {
+        semaphore = newSemaphore;
+      }
+    }
+    return semaphore;
+  }
+
+  private Object getFileStore(Path file) {
+    Path dir = file.toAbsolutePath().getParent();
+    if (dir == null) {
+      dir = file.toAbsolutePath();
+    }
+    return getFileStoreOfDir(dir);
+  }
+
+  private Object getFileStoreOfDir(Path dir) {
+    Object store = storeByDir.get(dir);
+    if (store == null) {
+      try {
+        store = Files.getFileStore(dir);
+      }
+      catch (IOException e) {
+        // not accessible - group by the root of the path
+        store = dir.getRoot() != null ? dir.getRoot() : dir;
+      }
+      storeByDir.putIfAbsent(dir, store);
+    }
+    return store;
+  }
+}
@@ -0,0 +1,384 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.threading;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The class RenameScheduler. Plans all folder moves of a rename run up front and executes the renames in parallel where they cannot interfere
+ * with each other:
+ * <ul>
+ * <li>renames touching the same folders (same source or destination, nested folders, the destination of one is the source of another) are put
+ * into one group which is executed sequentially; chains are ordered, so that a folder is moved away before another one is moved to its place</li>
+ * <li>renames moving from or into the same parent folder inside the data source (e.g. a collection folder) are put into one group too: the
+ * renamer deletes empty parent folders, which another rename might just have created</li>
+ * <li>the groups are executed in parallel, but only a limited amount of renames per device (file store) at the same time</li>
+ * <li>folder moves which failed (e.g. because of a locked file) are retried once after all other renames are done</li>
+ * </ul>
+ *
+ * @author Manuel Laggner
+ */
+public class RenameScheduler<T> {
+  private static final Logger      LOGGER = LoggerFactory.getLogger(RenameScheduler.class);
+
+  private final FileStoreThrottle  throttle;
+  private final List<RenameJob<T>> jobs   = new ArrayList<>();
+  private final List<RenameJob<T>> failed = Collections.synchronizedList(new ArrayList<RenameJob<T>>());
+  private volatile boolean         cancel = false;
+
+  /**
+   * the action which renames one item
+   */
+  public interface RenameAction<T> {
+    /**
+     * rename the given item
+     *
+     * @param item
+     *          the item to rename
+     * @return a description of the item (for the progress)
+     */
+    String rename(T item);
+  }
+
+  /**
+   * create a new scheduler
+   *
+   * @param renamesPerDevice
+   *          the maximum amount of renames per device at the same time
+   */
+  public RenameScheduler(int renamesPerDevice) {
+    this.throttle = new FileStoreThrottle(renamesPerDevice);
+  }
+
+  /**
+   * add an item to rename
+   *
+   * @param item
+   *          the item to rename
+   * @param datasource
+   *          the data source of the item (its folder is never deleted); null if unknown
+   * @param source
+   *          the current folder of the item
+   * @param destination
+   *          the planned folder of the item (or the source if the folder does not change)
+   * @param moveFolder
+   *          true if the folder itself is moved; false if only files are moved out of the folder (e.g. multi movie dirs)
+   */
+  public void addJob(T item, Path datasource, Path source, Path destination, boolean moveFolder) {
+    Path ds = datasource == null ? null : datasource.toAbsolutePath().normalize();
+    Path src = source.toAbsolutePath().normalize();
+    Path dest = destination == null ? src : destination.toAbsolutePath().normalize();
+    jobs.add(new RenameJob<>(item, ds, src, dest, moveFolder));
+  }
+
+  /**
+   * create the tasks for the thread pool; one task per group of dependent renames
+   *
+   * @param action
+   *          the rename action
+   * @return the tasks to submit
+   */
+  public List<Callable<Object>> createTasks(RenameAction<T> action) {
+    List<Callable<Object>> tasks = new ArrayList<>();
+    for (List<RenameJob<T>> group : plan()) {
+      tasks.add(new RenameGroup(group, action));
+    }
+    return tasks;
+  }
+
+  /**
+   * retry all folder moves which failed in the first run (sequentially)
+   *
+   * @param action
+   *          the rename action
+   */
+  public void retryFailed(RenameAction<T> action) {
+    List<RenameJob<T>> toRetry;
+    synchronized (failed) {
+      toRetry = new ArrayList<>(failed);
+      failed.clear();
+    }
+
+    for (RenameJob<T> job : toRetry) {
+      if (cancel) {
+        break;
+      }
+      LOGGER.info("retry moving " + job.source + " to " + job.destination);
+      execute(job, action);
+    }
+
+    for (RenameJob<T> job : failed) {
+      LOGGER.warn("could not move " + job.source + " to " + job.destination);
+    }
+  }
+
+  /**
+   * do not start any further renames
+   */
+  public void cancel() {
+    cancel = true;
+  }
+
+  /**
+   * group the jobs which touch the same folders (union find over all paths) and order every group
+   *
+   * @return the groups in the order of their first job
+   */
+  List<List<RenameJob<T>>> plan() {
+    int[] parent = new int[jobs.size()];
+    for (int i = 0; i < parent.length; i++) {
+      parent[i] = i;
+    }
+
+    // all touched folders and the folders which are moved/created (nested folders conflict with them)
+    Map<Path, Integer> paths = new HashMap<>();
+    Map<Path, Integer> movedPaths = new HashMap<>();
+    for (int i = 0; i < jobs.size(); i++) {
+      RenameJob<T> job = jobs.get(i);
+      for (Path path : job.getPaths()) {
+        Integer other = paths.get(path);
+        if (other == null) {
+          paths.put(path, i);
+        }
+        else {
+          // only folder moves conflict; with non unique patterns (or multi movie dirs) only the files are moved into a shared folder
+          RenameJob<T> otherJob = jobs.get(other);
+          if (path.equals(job.destination) && path.equals(otherJob.destination) && job.isMoving() && (job.moveFolder || otherJob.moveFolder)) {
+            LOGGER.warn("rename conflict: " + job.source + " and " + jobs.get(other).source + " have the same destination " + path);
+          }
+          union(parent, i, other);
+        }
+      }
+      if (job.moveFolder && job.isMoving()) {
+        movedPaths.put(job.source, i);
+      }
+      if (job.isMoving()) {
+        movedPaths.put(job.destination, i);
+      }
+    }
+
+    // the parent folders are created on the move and deleted by the renamer if they are empty afterwards
+    Map<Path, Integer> parents = new HashMap<>();
+    for (int i = 0; i < jobs.size(); i++) {
+      for (Path parentFolder : jobs.get(i).getParentFolders()) {
+        Integer other = parents.get(parentFolder);
+        if (other == null) {
+          parents.put(parentFolder, i);
+        }
+        else {
+          union(parent, i, other);
+        }
+      }
+    }
+
+    for (int i = 0; i < jobs.size(); i++) {
+      for (Path path : jobs.get(i).getPaths()) {
+        for (Path ancestor = path.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+          Integer other = movedPaths.get(ancestor);
+          if (other != null) {
+            union(parent, i, other);
+          }
+        }
+      }
+    }
+
+    Map<Integer, List<RenameJob<T>>> groups = new LinkedHashMap<>();
+    for (int i = 0; i < jobs.size(); i++) {
+      int root = find(parent, i);
+      List<RenameJob<T>> group = groups.get(root);
+      if (group == null) {
+        group = new ArrayList<>();
+        groups.put(root, group);
+      }
+      group.add(jobs.get(i));
+    }
+
+    List<List<RenameJob<T>>> result = new ArrayList<>(groups.size());
+    for (List<RenameJob<T>> group : groups.values()) {
+      result.add(group.size() > 1 ? order(group) : group);
+    }
+    return result;
+  }
+
+  /**
+   * order the jobs of a group: a folder may only be moved to its destination after all other folders have been moved away from there; nested
+   * folders are moved before their parent
+   */
+  private List<RenameJob<T>> order(List<RenameJob<T>> group) {
+    List<RenameJob<T>> remaining = new ArrayList<>(group);
+    List<RenameJob<T>> ordered = new ArrayList<>(group.size());
+    while (!remaining.isEmpty()) {
+      RenameJob<T> next = null;
+      for (RenameJob<T> job : remaining) {
+        if (!isBlocked(job, remaining)) {
+          next = job;
+          break;
+        }
+      }
+      if (next == null) {
+        // cycle (e.g. two folders swap their names) - keep the input order; the blocked move will fail and keep its folder
+        next = remaining.get(0);
+        LOGGER.warn("rename cycle detected: " + next.source + " -> " + next.destination);
+      }
+      remaining.remove(next);
+      ordered.add(next);
+    }
+    return ordered;
+  }
+
+  private boolean isBlocked(RenameJob<T> job, List<RenameJob<T>> remaining) {
+    if (!job.isMoving()) {
+      return false;
+    }
+    for (RenameJob<T> other : remaining) {
+      if (other == job || !other.moveFolder || !other.isMoving()) {
+        continue;
+      }
+      // the other folder still occupies the destination
+      if (other.source.startsWith(job.destination)) {
+        return true;
+      }
+      // nested folders are moved before their parent
+      if (job.moveFolder && other.source.startsWith(job.source)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private String execute(RenameJob<T> job, RenameAction<T> action) {
+    String description;
+    throttle.acquireFolder(job.source);
+    try {
+      description = action.rename(job.item);
+    }
+    finally {
+      throttle.releaseFolder(job.source);
+    }
+
+    // the folder is still at its old place and the destination is free: most likely locked -> retry later
+    if (job.moveFolder && job.isMoving() && Files.exists(job.source) && Files.notExists(job.destination)) {
+      failed.add(job);
+    }
+    return description;
+  }
+
+  private static int find(int[] parent, int i) {
+    while (parent[i] != i) {
+      parent[i] = parent[parent[i]];
+      i = parent[i];
+    }
+    return i;
+  }
+
+  private static void union(int[] parent, int i, int j) {
+    int rootI = find(parent, i);
+    int rootJ = find(parent, j);
+    // the smaller index stays root, so the groups keep the order of their first job
+    if (rootI < rootJ) {
+      parent[rootJ] = rootI;
+    }
+    else if (rootJ < rootI) {
+      parent[rootI] = rootJ;
+    }
+  }
+
+  /**
+   * one planned rename
+   */
+  static class RenameJob<T> {
+    final T       item;
+    final Path    datasource;
+    final Path    source;
+    final Path    destination;
+    final boolean moveFolder;
+
+    RenameJob(T item, Path datasource, Path source, Path destination, boolean moveFolder) {
+      this.item = item;
+      this.datasource = datasource;
+      this.source = source;
+      this.destination = destination;
+      this.moveFolder = moveFolder;
+    }
+
+    boolean isMoving() {
+      return !source.equals(destination);
+    }
+
+    List<Path> getPaths() {
+      if (isMoving()) {
+        List<Path> paths = new ArrayList<>(2);
+        paths.add(source);
+        paths.add(destination);
+        return paths;
+      }
+      return Collections.singletonList(source);
+    }
+
+    /**
+     * the parent folders of the source and destination below the data source (the data source itself is never created or deleted)
+     */
+    List<Path> getParentFolders() {
+      List<Path> parentFolders = new ArrayList<>(2);
+      if (datasource == null || !isMoving()) {
+        return parentFolders;
+      }
+      for (Path path : getPaths()) {
+        Path parentFolder = path.getParent();
+        if (parentFolder != null && parentFolder.startsWith(datasource) && !parentFolder.equals(datasource)) {
+          parentFolders.add(parentFolder);
+        }
+      }
+      return parentFolders;
+    }
+  }
+
+  /**
+   * executes one group of dependent renames sequentially
+   */
+  private class RenameGroup implements Callable<Object> {
+    private final List<RenameJob<T>> group;
+    private final RenameAction<T>    action;
+
+    RenameGroup(List<RenameJob<T>> group, RenameAction<T> action) {
+      this.group = group;
+      this.action = action;
+    }
+
+    @Override
+    public String call() throws Exception {
+      String description = "";
+      for (RenameJob<T> job : group) {
+        if (cancel) {
+          break;
+        }
+        description = execute(job, action);
+      }
+      return description;
+    }
+  }
+}
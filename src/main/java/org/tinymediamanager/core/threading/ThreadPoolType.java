@@ -0,0 +1,107 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.threading;
+
+import org.tinymediamanager.core.Settings;
+
+/**
+ * The enum ThreadPoolType. The types of thread pools which can be sized via the settings
+ *
+ * @author Manuel Laggner
+ */
+public enum ThreadPoolType {
+  UPDATE(Profile.IO_BOUND),
+  MEDIAINFO(Profile.CPU_BOUND),
+  SCRAPE(Profile.IO_BOUND),
+  SUBTITLE(Profile.IO_BOUND),
+  IMAGECACHE(Profile.CPU_BOUND);
+
+  /**
+   * the load profile of the tasks in a pool; used to determine the bounds for adaptive sizing
+   */
+  public enum Profile {
+    IO_BOUND,
+    CPU_BOUND
+  }
+
+  private final Profile profile;
+
+  private ThreadPoolType(Profile profile) {
+    this.profile = profile;
+  }
+
+  public Profile getProfile() {
+    return profile;
+  }
+
+  /**
+   * get the configured amount of threads for this pool type
+   *
+   * @return the amount of threads (at least 1)
+   */
+  public int getConfiguredThreads() {
+    Settings settings = Settings.getInstance();
+    int threads;
+    switch (this) {
+      case UPDATE:
+        threads = settings.getUpdateThreads();
+        break;
+
+      case MEDIAINFO:
+        threads = settings.getMediainfoThreads();
+        break;
+
+      case SCRAPE:
+        threads = settings.getScrapeThreads();
+        break;
+
+      case SUBTITLE:
+        threads = settings.getSubtitleThreads();
+        break;
+
+      case IMAGECACHE:
+        threads = settings.getImageCacheThreads();
+        if (threads <= 0) {
+          threads = Runtime.getRuntime().availableProcessors() - 1;
+        }
+        break;
+
+      default:
+        threads = 1;
+        break;
+    }
+    return Math.max(1, threads);
+  }
+
+  /**
+   * get the upper bound of threads for adaptive sizing. I/O bound pools may use more threads than cores (the threads are mostly waiting),
+   * CPU bound pools are limited to the amount of cores
+   *
+   * @return the maximum amount of threads
+   */
+  public int getMaximumThreads() {
+    int cores = Runtime.getRuntime().availableProcessors();
+    int max;
+    if (profile == Profile.CPU_BOUND) {
+      max = cores;
+    }
+    else {
+      max = Math.min(4 * cores, 32);
+    }
+    // never go below the configured value
+    return Math.max(max, getConfiguredThreads());
+  }
+}
@@ -35,7 +35,7 @@ public abstract class TmmTask implements Runnable, TmmTaskHandle {
   protected String                   taskDescription;
   protected int                      workUnits;
   protected int                      progressDone;
-  protected boolean                  cancel;
+  protected volatile boolean         cancel;
 
   protected TmmTask(String taskName, int workUnits, TaskType type) {
     this.taskName = taskName;
@@ -28,6 +28,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.tinymediamanager.core.Settings;
 
 /**
  * The Class TmmThreadPool.
@@ -39,6 +40,7 @@ public abstract class TmmThreadPool extends TmmTask {
 
   private ThreadPoolExecutor        pool    = null;
   private CompletionService<Object> service = null;
+  private AdaptivePoolSizer         sizer   = null;
 
   protected String                  poolname;
 
@@ -46,6 +48,10 @@ public abstract class TmmThreadPool extends TmmTask {
     super(taskName, 0, TaskType.MAIN_TASK);
   }
 
+  protected TmmThreadPool(String taskName, TaskType type) {
+    super(taskName, 0, type);
+  }
+
   /**
    * create new ThreadPool.
    * 
@@ -64,6 +70,25 @@ public abstract class TmmThreadPool extends TmmTask {
     );
     pool.allowCoreThreadTimeOut(true);
     this.service = new ExecutorCompletionService<>(pool);
+    this.sizer = null;
+  }
+
+  /**
+   * create new ThreadPool with the amount of threads configured for the given pool type. If adaptive thread pools are enabled in the settings,
+   * the pool will be resized while running
+   * 
+   * @param type
+   *          the type of the pool
+   * @param name
+   *          a name for the logging
+   */
+  protected void initThreadPool(ThreadPoolType type, String name) {
+    int threads = type.getConfiguredThreads();
+    initThreadPool(threads, name);
+    if (Settings.getInstance().isAdaptiveThreadPools()) {
+      this.sizer = new AdaptivePoolSizer(name, type.getProfile(), type.getMaximumThreads());
+    }
+    LOGGER.debug("ThreadPool " + name + ": starting with " + threads + " threads" + (sizer != null ? " (adaptive)" : ""));
   }
 
   /**
@@ -72,10 +97,26 @@ public abstract class TmmThreadPool extends TmmTask {
    * @param task
    *          the callable
    */
-  protected synchronized void submitTask(Callable<Object> task) {
+  protected synchronized void submitTask(final Callable<Object> task) {
     if (!cancel) {
       workUnits++;
-      service.submit(task);
+      if (sizer != null) {
+        service.submit(new Callable<Object>() {
+          @Override
+          public Object call() throws Exception {
+            long start = System.nanoTime();
+            try {
+              return task.call();
+            }
+            finally {
+              sizer.record(System.nanoTime() - start);
+            }
+          }
+        });
+      }
+      else {
+        service.submit(task);
+      }
     }
   }
 
@@ -85,10 +126,26 @@ public abstract class TmmThreadPool extends TmmTask {
    * @param task
    *          the runnable
    */
-  protected synchronized void submitTask(Runnable task) {
+  protected synchronized void submitTask(final Runnable task) {
     if (!cancel) {
       workUnits++;
-      service.submit(task, "");
+      if (sizer != null) {
+        service.submit(new Runnable() {
+          @Override
+          public void run() {
+            long start = System.nanoTime();
+            try {
+              task.run();
+            }
+            finally {
+              sizer.record(System.nanoTime() - start);
+            }
+          }
+        }, "");
+      }
+      else {
+        service.submit(task, "");
+      }
     }
   }
 
@@ -101,6 +158,9 @@ public abstract class TmmThreadPool extends TmmTask {
       try {
         final Future<Object> future = service.take();
         progressDone++;
+        if (sizer != null) {
+          sizer.adjust(pool);
+        }
         callback(future.get());
       }
       catch (InterruptedException e) {
@@ -16,17 +16,17 @@
 package org.tinymediamanager.core.tvshow;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.List;
 
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.tinymediamanager.core.ArtworkDownloader;
+import org.tinymediamanager.core.DatasourceWatcher;
 import org.tinymediamanager.core.ImageCache;
 import org.tinymediamanager.core.MediaEntityImageFetcherTask;
 import org.tinymediamanager.core.MediaFileType;
@@ -37,7 +37,6 @@ import org.tinymediamanager.core.entities.MediaFile;
 import org.tinymediamanager.core.threading.TmmTaskManager;
 import org.tinymediamanager.core.tvshow.entities.TvShow;
 import org.tinymediamanager.core.tvshow.entities.TvShowSeason;
-import org.tinymediamanager.scraper.http.Url;
 
 /**
  * The class TvShowArtworkHelper . A helper class for managing TV show artwork
@@ -179,19 +178,8 @@ public class TvShowArtworkHelper {
         LOGGER.debug("writing season poster " + filename);
 
         // fetch and store images
-        Url url1 = new Url(url);
-        FileOutputStream outputStream = new FileOutputStream(filename);
-        InputStream is = url1.getInputStream();
-        IOUtils.copy(is, outputStream);
-        outputStream.close();
-        outputStream.flush();
-        try {
-          outputStream.getFD().sync(); // wait until file has been completely written
-        }
-        catch (Exception e) {
-          // empty here -> just not let the thread crash
-        }
-        is.close();
+        DatasourceWatcher.ignoreChanges(Paths.get(filename));
+        Files.write(Paths.get(filename), ArtworkDownloader.getInstance().download(url));
 
         ImageCache.invalidateCachedImage(Paths.get(filename));
         if (tvShowSeason != null) {
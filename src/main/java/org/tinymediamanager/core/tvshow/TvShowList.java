@@ -19,6 +19,7 @@ import static org.tinymediamanager.core.Constants.ADDED_TV_SHOW;
 import static org.tinymediamanager.core.Constants.EPISODE_COUNT;
 import static org.tinymediamanager.core.Constants.MEDIA_FILES;
 import static org.tinymediamanager.core.Constants.MEDIA_INFORMATION;
+import static org.tinymediamanager.core.Constants.PATH;
 import static org.tinymediamanager.core.Constants.REMOVED_TV_SHOW;
 import static org.tinymediamanager.core.Constants.TV_SHOWS;
 import static org.tinymediamanager.core.Constants.TV_SHOW_COUNT;
@@ -27,12 +28,20 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.File;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import org.apache.commons.lang3.LocaleUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -69,16 +78,21 @@ import com.fasterxml.jackson.databind.ObjectReader;
  * @author Manuel Laggner
  */
 public class TvShowList extends AbstractModelObject {
-  private static final Logger    LOGGER     = LoggerFactory.getLogger(TvShowList.class);
-  private static TvShowList      instance   = null;
-
-  private List<TvShow>           tvShowList = ObservableCollections.observableList(Collections.synchronizedList(new ArrayList<TvShow>()));
-  private List<String>           tvShowTagsObservable;
-  private List<String>           episodeTagsObservable;
-  private List<String>           videoCodecsObservable;
-  private List<String>           audioCodecsObservable;
-
-  private PropertyChangeListener propertyChangeListener;
+  private static final Logger         LOGGER                  = LoggerFactory.getLogger(TvShowList.class);
+  private static final int            PARALLEL_LOAD_THRESHOLD = 500;
+  private static final int            DECODE_CHUNK_SIZE       = 250;
+  private static TvShowList           instance                = null;
+
+  private List<TvShow>                tvShowList              = ObservableCollections.observableList(Collections.synchronizedList(new ArrayList<TvShow>()));
+  private Map<UUID, TvShow>           tvShowIndex             = new ConcurrentHashMap<>();
+  // all TV shows by their (absolute) folder; the key for the atomic get-or-create of TV shows while updating the data sources
+  private ConcurrentMap<Path, TvShow> tvShowPathIndex         = new ConcurrentHashMap<>();
+  private List<String>                tvShowTagsObservable;
+  private List<String>                episodeTagsObservable;
+  private List<String>                videoCodecsObservable;
+  private List<String>                audioCodecsObservable;
+
+  private PropertyChangeListener      propertyChangeListener;
 
   /**
    * Instantiates a new TvShowList.
@@ -111,6 +125,16 @@ public class TvShowList extends AbstractModelObject {
         if (EPISODE_COUNT.equals(evt.getPropertyName())) {
           firePropertyChange(EPISODE_COUNT, 0, 1);
         }
+        // keep the path index up to date (e.g. after renaming)
+        if (PATH.equals(evt.getPropertyName()) && evt.getSource() instanceof TvShow) {
+          TvShow tvShow = (TvShow) evt.getSource();
+          if (evt.getOldValue() instanceof String && StringUtils.isNotBlank((String) evt.getOldValue())) {
+            tvShowPathIndex.remove(Paths.get((String) evt.getOldValue()).toAbsolutePath(), tvShow);
+          }
+          if (tvShowIndex.containsKey(tvShow.getDbId())) {
+            indexPath(tvShow);
+          }
+        }
       }
     };
   }
@@ -162,12 +186,45 @@ public class TvShowList extends AbstractModelObject {
     int oldValue = tvShowList.size();
 
     tvShowList.add(newValue);
+    tvShowIndex.put(newValue.getDbId(), newValue);
+    indexPath(newValue);
     newValue.addPropertyChangeListener(propertyChangeListener);
     firePropertyChange(TV_SHOWS, null, tvShowList);
     firePropertyChange(ADDED_TV_SHOW, null, newValue);
     firePropertyChange(TV_SHOW_COUNT, oldValue, tvShowList.size());
   }
 
+  /**
+   * get the TV show of the folder of the given TV show or add the given TV show if there is no TV show for this folder yet. This is done
+   * atomically, so several threads can look for the TV show of the same folder at the same time: only one TV show is created (and only one event is
+   * fired)
+   * 
+   * @param newValue
+   *          the new TV show (with its path set)
+   * @return the TV show of this folder: either the already existing one or the given TV show
+   */
+  public TvShow getOrAddTvShow(TvShow newValue) {
+    TvShow tvShow = tvShowPathIndex.putIfAbsent(newValue.getPathNIO(), newValue);
+    if (tvShow != null) {
+      return tvShow;
+    }
+
+    addTvShow(newValue);
+    return newValue;
+  }
+
+  private void indexPath(TvShow tvShow) {
+    if (StringUtils.isNotBlank(tvShow.getPath())) {
+      tvShowPathIndex.put(tvShow.getPathNIO(), tvShow);
+    }
+  }
+
+  private void unindexPath(TvShow tvShow) {
+    if (StringUtils.isNotBlank(tvShow.getPath())) {
+      tvShowPathIndex.remove(tvShow.getPathNIO(), tvShow);
+    }
+  }
+
   /**
    * Removes the datasource.
    * 
@@ -197,6 +254,8 @@ public class TvShowList extends AbstractModelObject {
     int oldValue = tvShowList.size();
     tvShow.removeAllEpisodes();
     tvShowList.remove(tvShow);
+    tvShowIndex.remove(tvShow.getDbId());
+    unindexPath(tvShow);
 
     try {
       TvShowModuleManager.getInstance().removeTvShowFromDb(tvShow);
@@ -222,6 +281,8 @@ public class TvShowList extends AbstractModelObject {
     tvShow.deleteFilesSafely();
     tvShow.removeAllEpisodes();
     tvShowList.remove(tvShow);
+    tvShowIndex.remove(tvShow.getDbId());
+    unindexPath(tvShow);
 
     try {
       TvShowModuleManager.getInstance().removeTvShowFromDb(tvShow);
@@ -259,12 +320,28 @@ public class TvShowList extends AbstractModelObject {
     return count;
   }
 
+  /**
+   * get the TV show with the given db id
+   * 
+   * @param uuid
+   *          the db id
+   * @return the TV show or null
+   */
+  public TvShow lookupTvShow(UUID uuid) {
+    if (uuid == null) {
+      return null;
+    }
+    return tvShowIndex.get(uuid);
+  }
+
   /**
    * Load tv shows from database.
    */
-  void loadTvShowsFromDatabase(MVMap<UUID, String> tvShowMap, ObjectMapper objectMapper) {
+  void loadTvShowsFromDatabase(MVMap<UUID, byte[]> tvShowMap, ObjectMapper objectMapper) {
     // load all TV shows from the database
     ObjectReader tvShowObjectReader = objectMapper.readerFor(TvShow.class);
+    tvShowIndex.clear();
+    tvShowPathIndex.clear();
 
     for (UUID uuid : tvShowMap.keyList()) {
       try {
@@ -273,9 +350,11 @@ public class TvShowList extends AbstractModelObject {
 
         // for performance reasons we add tv shows directly
         tvShowList.add(tvShow);
+        tvShowIndex.put(uuid, tvShow);
+        indexPath(tvShow);
       }
       catch (Exception e) {
-        LOGGER.warn("problem decoding TV show json string: ", e);
+        LOGGER.warn("problem decoding TV show: ", e);
       }
     }
     LOGGER.info("found " + tvShowList.size() + " TV shows in database");
@@ -284,31 +363,58 @@ public class TvShowList extends AbstractModelObject {
   /**
    * Load episodes from database.
    */
-  void loadEpisodesFromDatabase(MVMap<UUID, String> episodesMap, ObjectMapper objectMapper) {
+  void loadEpisodesFromDatabase(MVMap<UUID, byte[]> episodesMap, ObjectMapper objectMapper) {
     // load all episodes from the database
+    // the ObjectReader is immutable and thus can be shared across all decoding threads
     ObjectReader episodeObjectReader = objectMapper.readerFor(TvShowEpisode.class);
-    int episodeCount = 0;
 
-    for (UUID uuid : episodesMap.keyList()) {
+    List<UUID> uuids = new ArrayList<>(episodesMap.keySet());
+    List<TvShowEpisode> episodes;
+
+    int threads = Runtime.getRuntime().availableProcessors();
+    if (threads > 1 && uuids.size() > PARALLEL_LOAD_THRESHOLD) {
+      // decode the episodes in parallel; every fork decodes a slice of the key range
+      ForkJoinPool pool = new ForkJoinPool(threads);
       try {
-        episodeCount++;
-        TvShowEpisode episode = episodeObjectReader.readValue(episodesMap.get(uuid));
-        episode.setDbId(uuid);
-
-        // and assign it the the right TV show
-        for (TvShow tvShow : tvShowList) {
-          if (tvShow.getDbId().equals(episode.getTvShowDbId())) {
-            episode.setTvShow(tvShow);
-            tvShow.addEpisode(episode);
-            break;
-          }
-        }
+        episodes = pool.invoke(new EpisodeDecodeTask(episodesMap, episodeObjectReader, uuids, 0, uuids.size()));
       }
-      catch (Exception e) {
-        LOGGER.warn("problem decoding episode json string: ", e);
+      finally {
+        pool.shutdown();
       }
     }
-    LOGGER.info("found " + episodeCount + " episodes in database");
+    else {
+      episodes = new EpisodeDecodeTask(episodesMap, episodeObjectReader, uuids, 0, uuids.size()).decode();
+    }
+
+    // group the episodes by their TV show
+    Map<UUID, List<TvShowEpisode>> episodesPerTvShow = new HashMap<>();
+    for (TvShowEpisode episode : episodes) {
+      List<TvShowEpisode> episodesOfTvShow = episodesPerTvShow.get(episode.getTvShowDbId());
+      if (episodesOfTvShow == null) {
+        episodesOfTvShow = new ArrayList<>();
+        episodesPerTvShow.put(episode.getTvShowDbId(), episodesOfTvShow);
+      }
+      episodesOfTvShow.add(episode);
+    }
+
+    // and assign them to the right TV show (in one batch per TV show)
+    int orphanedEpisodes = 0;
+    for (Entry<UUID, List<TvShowEpisode>> entry : episodesPerTvShow.entrySet()) {
+      TvShow tvShow = lookupTvShow(entry.getKey());
+      if (tvShow == null) {
+        orphanedEpisodes += entry.getValue().size();
+        continue;
+      }
+      for (TvShowEpisode episode : entry.getValue()) {
+        episode.setTvShow(tvShow);
+      }
+      tvShow.addEpisodes(entry.getValue());
+    }
+
+    if (orphanedEpisodes > 0) {
+      LOGGER.debug("skipped " + orphanedEpisodes + " episodes without a TV show");
+    }
+    LOGGER.info("found " + uuids.size() + " episodes in database");
   }
 
   void initDataAfterLoading() {
@@ -672,15 +778,7 @@ public class TvShowList extends AbstractModelObject {
    * @return the TV show by path
    */
   public TvShow getTvShowByPath(Path path) {
-    ArrayList<TvShow> tvShows = new ArrayList<>(tvShowList);
-    // iterate over all tv shows and check whether this path is being owned by one
-    for (TvShow tvShow : tvShows) {
-      if (tvShow.getPathNIO().compareTo(path.toAbsolutePath()) == 0) {
-        return tvShow;
-      }
-    }
-
-    return null;
+    return tvShowPathIndex.get(path.toAbsolutePath());
   }
 
   /**
@@ -860,4 +958,57 @@ public class TvShowList extends AbstractModelObject {
       return o1.getId().compareTo(o2.getId());
     }
   }
+
+  /**
+   * decodes a range of the episode keys; big ranges are split and decoded in parallel
+   */
+  private static class EpisodeDecodeTask extends RecursiveTask<List<TvShowEpisode>> {
+    private static final long         serialVersionUID = 1L;
+
+    private final MVMap<UUID, byte[]> episodesMap;
+    private final ObjectReader        episodeObjectReader;
+    private final List<UUID>          uuids;
+    private final int                 start;
+    private final int                 end;
+
+    EpisodeDecodeTask(MVMap<UUID, byte[]> episodesMap, ObjectReader episodeObjectReader, List<UUID> uuids, int start, int end) {
+      this.episodesMap = episodesMap;
+      this.episodeObjectReader = episodeObjectReader;
+      this.uuids = uuids;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected List<TvShowEpisode> compute() {
+      if (end - start <= DECODE_CHUNK_SIZE) {
+        return decode();
+      }
+
+      int middle = (start + end) >>> 1;
+      EpisodeDecodeTask left = new EpisodeDecodeTask(episodesMap, episodeObjectReader, uuids, start, middle);
+      EpisodeDecodeTask right = new EpisodeDecodeTask(episodesMap, episodeObjectReader, uuids, middle, end);
+      left.fork();
+      List<TvShowEpisode> episodes = right.compute();
+      List<TvShowEpisode> result = left.join();
+      result.addAll(episodes);
+      return result;
+    }
+
+    List<TvShowEpisode> decode() {
+      List<TvShowEpisode> episodes = new ArrayList<>(end - start);
+      for (int i = start; i < end; i++) {
+        UUID uuid = uuids.get(i);
+        try {
+          TvShowEpisode episode = episodeObjectReader.readValue(episodesMap.get(uuid));
+          episode.setDbId(uuid);
+          episodes.add(episode);
+        }
+        catch (Exception e) {
+          LOGGER.warn("problem decoding episode: ", e);
+        }
+      }
+      return episodes;
+    }
+  }
 }
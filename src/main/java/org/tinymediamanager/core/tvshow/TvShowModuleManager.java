@@ -15,12 +15,14 @@
  */
 package org.tinymediamanager.core.tvshow;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.TimeZone;
 import java.util.UUID;
 
-import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.time.StopWatch;
 import org.h2.mvstore.MVMap;
 import org.h2.mvstore.MVStore;
 import org.json.JSONArray;
@@ -29,14 +31,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tinymediamanager.Globals;
 import org.tinymediamanager.core.Constants;
+import org.tinymediamanager.core.ContentHashIndex;
+import org.tinymediamanager.core.DatasourceWatcher;
+import org.tinymediamanager.core.DatasourceWatcher.ChangeListener;
+import org.tinymediamanager.core.EntityCodec;
+import org.tinymediamanager.core.EntityMaps;
 import org.tinymediamanager.core.ITmmModule;
 import org.tinymediamanager.core.Settings;
 import org.tinymediamanager.core.Utils;
+import org.tinymediamanager.core.WriteBehindQueue;
+import org.tinymediamanager.core.WriteBehindQueue.EntityWriter;
+import org.tinymediamanager.core.threading.TmmTaskManager;
 import org.tinymediamanager.core.tvshow.entities.TvShow;
 import org.tinymediamanager.core.tvshow.entities.TvShowEpisode;
+import org.tinymediamanager.core.tvshow.tasks.TvShowUpdateDatasourceTask2;
 
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
@@ -47,21 +57,27 @@ import com.fasterxml.jackson.databind.ObjectWriter;
  * @author Manuel Laggner
  */
 public class TvShowModuleManager implements ITmmModule {
-  public static final TvShowSettings TV_SHOW_SETTINGS = Globals.settings.getTvShowSettings();
+  public static final TvShowSettings      TV_SHOW_SETTINGS = Globals.settings.getTvShowSettings();
 
-  private static final String        MODULE_TITLE     = "TV show management";
-  private static final String        TV_SHOW_DB       = "tvshows.db";
-  private static final Logger        LOGGER           = LoggerFactory.getLogger(TvShowModuleManager.class);
-  private static TvShowModuleManager instance;
+  private static final String             MODULE_TITLE     = "TV show management";
+  private static final String             TV_SHOW_DB       = "tvshows.db";
+  private static final long               WRITE_DELAY      = 1000; // 1 sec
+  private static final Logger             LOGGER           = LoggerFactory.getLogger(TvShowModuleManager.class);
+  private static TvShowModuleManager      instance;
 
-  private boolean                    enabled;
-  private MVStore                    mvStore;
-  private ObjectMapper               objectMapper;
-  private ObjectWriter               tvShowObjectWriter;
-  private ObjectWriter               episodeObjectWriter;
+  private boolean                         enabled;
+  private MVStore                         mvStore;
+  private ObjectMapper                    objectMapper;
+  private ObjectWriter                    tvShowObjectWriter;
+  private ObjectWriter                    episodeObjectWriter;
 
-  private MVMap<UUID, String>        tvShowMap;
-  private MVMap<UUID, String>        episodeMap;
+  private MVMap<UUID, byte[]>             tvShowMap;
+  private MVMap<UUID, byte[]>             episodeMap;
+  private ContentHashIndex                tvShowHashes;
+  private ContentHashIndex                episodeHashes;
+  private WriteBehindQueue<TvShow>        tvShowWriteQueue;
+  private WriteBehindQueue<TvShowEpisode> episodeWriteQueue;
+  private DatasourceWatcher               datasourceWatcher;
 
   private TvShowModuleManager() {
     enabled = false;
@@ -98,8 +114,9 @@ public class TvShowModuleManager implements ITmmModule {
     mvStore.setRetentionTime(0);
     mvStore.setReuseSpace(true);
 
-    // configure JSON
-    objectMapper = new ObjectMapper();
+    // configure the entity codec (JSON or binary)
+    EntityCodec codec = EntityMaps.getDefaultCodec();
+    objectMapper = codec.createObjectMapper();
     objectMapper.configure(MapperFeature.AUTO_DETECT_GETTERS, false);
     objectMapper.configure(MapperFeature.AUTO_DETECT_IS_GETTERS, false);
     objectMapper.configure(MapperFeature.AUTO_DETECT_SETTERS, false);
@@ -110,17 +127,75 @@ public class TvShowModuleManager implements ITmmModule {
     tvShowObjectWriter = objectMapper.writerFor(TvShow.class);
     episodeObjectWriter = objectMapper.writerFor(TvShowEpisode.class);
 
-    tvShowMap = mvStore.openMap("tvshows");
-    episodeMap = mvStore.openMap("episodes");
+    tvShowMap = EntityMaps.openMap(mvStore, "tvshows", codec);
+    episodeMap = EntityMaps.openMap(mvStore, "episodes", codec);
+    tvShowHashes = new ContentHashIndex(mvStore, "tvshows");
+    episodeHashes = new ContentHashIndex(mvStore, "episodes");
+    tvShowWriteQueue = new WriteBehindQueue<>("tvshows", mvStore, new EntityWriter<TvShow>() {
+      @Override
+      public void write(TvShow tvShow) throws Exception {
+        writeTvShow(tvShow);
+      }
+    }, WRITE_DELAY);
+    episodeWriteQueue = new WriteBehindQueue<>("episodes", mvStore, new EntityWriter<TvShowEpisode>() {
+      @Override
+      public void write(TvShowEpisode episode) throws Exception {
+        writeEpisode(episode);
+      }
+    }, WRITE_DELAY);
 
+    // load the data and log the time needed for every phase
+    StopWatch stopWatch = new StopWatch();
+    stopWatch.start();
     TvShowList.getInstance().loadTvShowsFromDatabase(tvShowMap, objectMapper);
+    long tvShowsLoaded = stopWatch.getTime();
+    LOGGER.info("loading TV shows took " + tvShowsLoaded + " ms");
+
     TvShowList.getInstance().loadEpisodesFromDatabase(episodeMap, objectMapper);
+    long episodesLoaded = stopWatch.getTime();
+    LOGGER.info("loading episodes took " + (episodesLoaded - tvShowsLoaded) + " ms");
+
     TvShowList.getInstance().initDataAfterLoading();
+    stopWatch.stop();
+    LOGGER.info("initializing TV show data took " + (stopWatch.getTime() - episodesLoaded) + " ms");
+    LOGGER.info("TV show module started - took " + stopWatch);
     enabled = true;
   }
 
+  /**
+   * start watching the TV show data sources; detected changes are passed to an update of the affected TV shows
+   */
+  public void startDatasourceWatcher() {
+    if (datasourceWatcher != null) {
+      return;
+    }
+
+    datasourceWatcher = new DatasourceWatcher("tvshows", Globals.settings.getTvShowSettings().getTvShowDataSource(),
+        Globals.settings.getDatasourcePollInterval(), new ChangeListener() {
+          @Override
+          public void datasourceChanged(String datasource) {
+            TmmTaskManager.getInstance().addMainTask(new TvShowUpdateDatasourceTask2(datasource));
+          }
+
+          @Override
+          public void foldersChanged(String datasource, List<Path> folders) {
+            TmmTaskManager.getInstance().addMainTask(new TvShowUpdateDatasourceTask2(folders));
+          }
+        });
+    datasourceWatcher.start();
+  }
+
   @Override
   public void shutDown() throws Exception {
+    if (datasourceWatcher != null) {
+      datasourceWatcher.stop();
+      datasourceWatcher = null;
+    }
+
+    // write all pending changes before closing the database
+    tvShowWriteQueue.shutdown();
+    episodeWriteQueue.shutdown();
+
     mvStore.compactMoveChunks();
     mvStore.close();
 
@@ -147,45 +222,72 @@ public class TvShowModuleManager implements ITmmModule {
    */
   public void dump(TvShow tvshow) {
     try {
-      JSONObject show = new JSONObject(tvShowObjectWriter.writeValueAsString(tvshow));
+      // the codec may be a binary one; convert the encoded entities to JSON
+      JSONObject show = new JSONObject(objectMapper.readTree(tvShowObjectWriter.writeValueAsBytes(tvshow)).toString());
       JSONArray episodes = new JSONArray();
       for (TvShowEpisode ep : tvshow.getEpisodes()) {
-        JSONObject epJson = new JSONObject(episodeObjectWriter.writeValueAsString(ep));
+        JSONObject epJson = new JSONObject(objectMapper.readTree(episodeObjectWriter.writeValueAsBytes(ep)).toString());
         episodes.put(epJson);
       }
       show.put("episodes", episodes);
       LOGGER.info("Dumping TvShow:\n" + show.toString(4));
     }
-    catch (JsonProcessingException e) {
+    catch (IOException e) {
       LOGGER.error("Cannot parse JSON!", e);
     }
   }
 
+  /**
+   * write all pending TV show/episode changes to the database (and wait until they have been committed)
+   */
+  public void flush() {
+    if (enabled) {
+      tvShowWriteQueue.flush();
+      episodeWriteQueue.flush();
+    }
+  }
+
   void persistTvShow(TvShow tvShow) throws Exception {
-    String newValue = tvShowObjectWriter.writeValueAsString(tvShow);
-    String oldValue = tvShowMap.get(tvShow.getDbId());
+    // the TV show is serialized in the writer thread; multiple saves within the write delay result in a single write
+    tvShowWriteQueue.enqueue(tvShow.getDbId(), tvShow);
+  }
 
-    if (!StringUtils.equals(newValue, oldValue)) {
+  private void writeTvShow(TvShow tvShow) throws Exception {
+    byte[] newValue = tvShowObjectWriter.writeValueAsBytes(tvShow);
+    byte[] hash = ContentHashIndex.hash(newValue);
+
+    // compare the content hashes rather than the whole stored value
+    if (tvShowHashes.hasChanged(tvShow.getDbId(), hash)) {
       // write to DB
       tvShowMap.put(tvShow.getDbId(), newValue);
+      tvShowHashes.put(tvShow.getDbId(), hash);
     }
   }
 
   void removeTvShowFromDb(TvShow tvShow) throws Exception {
+    tvShowWriteQueue.discard(tvShow.getDbId());
     tvShowMap.remove(tvShow.getDbId());
+    tvShowHashes.remove(tvShow.getDbId());
   }
 
   void persistEpisode(TvShowEpisode episode) throws Exception {
-    String newValue = episodeObjectWriter.writeValueAsString(episode);
-    String oldValue = episodeMap.get(episode.getDbId());
+    episodeWriteQueue.enqueue(episode.getDbId(), episode);
+  }
+
+  private void writeEpisode(TvShowEpisode episode) throws Exception {
+    byte[] newValue = episodeObjectWriter.writeValueAsBytes(episode);
+    byte[] hash = ContentHashIndex.hash(newValue);
 
-    if (!StringUtils.equals(newValue, oldValue)) {
+    if (episodeHashes.hasChanged(episode.getDbId(), hash)) {
       episodeMap.put(episode.getDbId(), newValue);
+      episodeHashes.put(episode.getDbId(), hash);
     }
   }
 
   void removeEpisodeFromDb(TvShowEpisode episode) throws Exception {
+    episodeWriteQueue.discard(episode.getDbId());
     episodeMap.remove(episode.getDbId());
+    episodeHashes.remove(episode.getDbId());
   }
 
   @Override
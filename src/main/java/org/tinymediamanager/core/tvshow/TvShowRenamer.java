@@ -39,6 +39,7 @@ import org.tinymediamanager.core.MediaSource;
 import org.tinymediamanager.core.Message;
 import org.tinymediamanager.core.Message.MessageLevel;
 import org.tinymediamanager.core.MessageManager;
+import org.tinymediamanager.core.RenamerTemplate;
 import org.tinymediamanager.core.Utils;
 import org.tinymediamanager.core.entities.MediaFile;
 import org.tinymediamanager.core.entities.MediaFileSubtitle;
@@ -53,17 +54,27 @@ import org.tinymediamanager.scraper.util.StrgUtils;
  * @author Myron Boyle
  */
 public class TvShowRenamer {
-  private static final Logger         LOGGER         = LoggerFactory.getLogger(TvShowRenamer.class);
-  private static final TvShowSettings SETTINGS       = Globals.settings.getTvShowSettings();
-
-  private static final String[]       seasonNumbers  = { "$1", "$2", "$3", "$4" };
-  private static final String[]       episodeNumbers = { "$E", "$D" };
-  private static final String[]       episodeTitles  = { "$T" };
-  private static final String[]       showTitles     = { "$N", "$M" };
-
-  private static final Pattern        epDelimiter    = Pattern.compile("(\\s?(folge|episode|[epx]+)\\s?)?\\$[ED]", Pattern.CASE_INSENSITIVE);
-  private static final Pattern        seDelimiter    = Pattern.compile("((staffel|season|s)\\s?)?[\\$][1234]", Pattern.CASE_INSENSITIVE);
-  private static final Pattern        token          = Pattern.compile("(\\$[\\w#])");
+  private static final Logger         LOGGER                 = LoggerFactory.getLogger(TvShowRenamer.class);
+  private static final TvShowSettings SETTINGS               = Globals.settings.getTvShowSettings();
+
+  private static final String[]       seasonNumbers          = { "$1", "$2", "$3", "$4" };
+  private static final String[]       episodeNumbers         = { "$E", "$D" };
+  private static final String[]       episodeTitles          = { "$T" };
+  private static final String[]       showTitles             = { "$N", "$M" };
+
+  private static final Pattern        epDelimiter            = Pattern.compile("(\\s?(folge|episode|[epx]+)\\s?)?\\$[ED]", Pattern.CASE_INSENSITIVE);
+  private static final Pattern        seDelimiter            = Pattern.compile("((staffel|season|s)\\s?)?[\\$][1234]", Pattern.CASE_INSENSITIVE);
+  private static final Pattern        token                  = Pattern.compile("(\\$[\\w#])");
+
+  // cleanup rules for the generated file/folder names
+  private static final Pattern        emptyRoundBrackets     = Pattern.compile("\\(\\)");
+  private static final Pattern        emptySquareBrackets    = Pattern.compile("\\[\\]");
+  private static final Pattern        multipleSeparators     = Pattern.compile(SystemUtils.IS_OS_WINDOWS ? "\\\\{2,}" : File.separator + "{2,}");
+  private static final Pattern        leadingSeparator       = Pattern.compile(SystemUtils.IS_OS_WINDOWS ? "^\\\\" : "^" + File.separator);
+  private static final Pattern        multipleSpaces         = Pattern.compile(" +");
+  private static final Pattern        space                  = Pattern.compile(" ");
+  private static final Pattern        trailingDotsAndSpaces  = Pattern.compile("[ \\.]+$");
+  private static final Pattern        invalidTokenCharacters = Pattern.compile("([\"\\:<>|/?*])");
 
   /**
    * add leadingZero if only 1 char
@@ -668,22 +679,14 @@ public class TvShowRenamer {
       // TV show root folder
 
       // replace all $x parameters
-      Matcher m = token.matcher(template);
-      while (m.find()) {
-        String value = getTokenValue(show, null, m.group(1));
-        newDestination = replaceToken(newDestination, m.group(1), value);
-      }
+      newDestination = RenamerTemplate.compile(template).evaluate(new TvShowTokenResolver(show, null));
     }
     else if (episodes.size() == 1) {
       // single episode
 
       firstEp = episodes.get(0);
       // replace all $x parameters
-      Matcher m = token.matcher(template);
-      while (m.find()) {
-        String value = getTokenValue(show, firstEp, m.group(1));
-        newDestination = replaceToken(newDestination, m.group(1), value);
-      }
+      newDestination = RenamerTemplate.compile(template).evaluate(new TvShowTokenResolver(show, firstEp));
     }
     else {
       // multi episodes
@@ -776,18 +779,18 @@ public class TvShowRenamer {
 
     // DEFAULT CLEANUP
     // replace empty brackets
-    newDestination = newDestination.replaceAll("\\(\\)", "");
-    newDestination = newDestination.replaceAll("\\[\\]", "");
+    newDestination = emptyRoundBrackets.matcher(newDestination).replaceAll("");
+    newDestination = emptySquareBrackets.matcher(newDestination).replaceAll("");
 
     // if there are multiple file separators in a row - strip them out
     if (SystemUtils.IS_OS_WINDOWS) {
       // we need to mask it in windows
-      newDestination = newDestination.replaceAll("\\\\{2,}", "\\\\");
-      newDestination = newDestination.replaceAll("^\\\\", "");
+      newDestination = multipleSeparators.matcher(newDestination).replaceAll("\\\\");
+      newDestination = leadingSeparator.matcher(newDestination).replaceAll("");
     }
     else {
-      newDestination = newDestination.replaceAll(File.separator + "{2,}", File.separator);
-      newDestination = newDestination.replaceAll("^" + File.separator, "");
+      newDestination = multipleSeparators.matcher(newDestination).replaceAll(File.separator);
+      newDestination = leadingSeparator.matcher(newDestination).replaceAll("");
     }
 
     // ASCII replacement
@@ -797,15 +800,15 @@ public class TvShowRenamer {
 
     // trim out unnecessary whitespaces
     newDestination = newDestination.trim();
-    newDestination = newDestination.replaceAll(" +", " ").trim();
+    newDestination = multipleSpaces.matcher(newDestination).replaceAll(" ").trim();
 
     // any whitespace replacements?
     if (SETTINGS.isRenamerSpaceSubstitution()) {
-      newDestination = newDestination.replaceAll(" ", SETTINGS.getRenamerSpaceReplacement());
+      newDestination = space.matcher(newDestination).replaceAll(SETTINGS.getRenamerSpaceReplacement());
     }
 
     // replace trailing dots and spaces
-    newDestination = newDestination.replaceAll("[ \\.]+$", "");
+    newDestination = trailingDotsAndSpaces.matcher(newDestination).replaceAll("");
 
     return newDestination.trim();
   }
@@ -896,11 +899,15 @@ public class TvShowRenamer {
     if (StringUtils.isNotBlank(replacement)) {
       // replace illegal characters
       // http://msdn.microsoft.com/en-us/library/windows/desktop/aa365247%28v=vs.85%29.aspx
-      replacingCleaned = replacement.replaceAll("([\"\\:<>|/?*])", "");
+      replacingCleaned = cleanTokenValue(replacement);
     }
     return destination.replace(token, replacingCleaned);
   }
 
+  private static String cleanTokenValue(String value) {
+    return invalidTokenCharacters.matcher(value).replaceAll("");
+  }
+
   /**
    * replaces all invalid/illegal characters for filenames with ""<br>
    * except the colon, which will be changed to a dash
@@ -915,4 +922,31 @@ public class TvShowRenamer {
     return source.replaceAll("([\"\\\\:<>|/?*])", "");
   }
 
+  /**
+   * resolves the token values of one TV show/episode for the renamer templates
+   */
+  private static class TvShowTokenResolver implements RenamerTemplate.TokenResolver {
+    private final TvShow        show;
+    private final TvShowEpisode episode;
+
+    TvShowTokenResolver(TvShow show, TvShowEpisode episode) {
+      this.show = show;
+      this.episode = episode;
+    }
+
+    @Override
+    public String getTokenValue(String token) {
+      String value = TvShowRenamer.getTokenValue(show, episode, token);
+      if (StringUtils.isNotBlank(value)) {
+        // replace illegal characters
+        return cleanTokenValue(value);
+      }
+      return "";
+    }
+
+    @Override
+    public String getOptionalValue(String token) {
+      return getTokenValue(token);
+    }
+  }
 }
@@ -47,6 +47,7 @@ import org.apache.commons.lang3.SystemUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tinymediamanager.Globals;
+import org.tinymediamanager.core.DatasourceWatcher;
 import org.tinymediamanager.core.MediaFileType;
 import org.tinymediamanager.core.Message;
 import org.tinymediamanager.core.Message.MessageLevel;
@@ -354,6 +355,7 @@ public class TvShowEpisodeToXbmcNfoConnector {
     }
 
     try {
+      DatasourceWatcher.ignoreChanges(nfoFile.toPath());
       FileUtils.write(nfoFile, outputXml, "UTF-8");
       for (TvShowEpisode e : tvShowEpisodes) {
         e.removeAllMediaFiles(MediaFileType.NFO);
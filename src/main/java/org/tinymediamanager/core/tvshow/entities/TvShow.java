@@ -58,6 +58,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -128,7 +129,8 @@ public class TvShow extends MediaEntity {
   @JsonProperty
   private List<TvShowActor>                  actors                = new ArrayList<>();
 
-  private List<TvShowEpisode>                episodes              = new ArrayList<>();
+  // episodes are attached by several update threads at once
+  private List<TvShowEpisode>                episodes              = Collections.synchronizedList(new ArrayList<TvShowEpisode>());
   private HashMap<Integer, MediaFile>        seasonPosters         = new HashMap<>(0);
   private List<TvShowSeason>                 seasons               = new ArrayList<>(1);
   private List<MediaGenres>                  genresForAccess       = new ArrayList<>(1);
@@ -254,17 +256,57 @@ public class TvShow extends MediaEntity {
    *          the episode
    */
   public void addEpisode(TvShowEpisode episode) {
-    int oldValue = episodes.size();
-    episodes.add(episode);
+    int oldValue;
+    synchronized (episodes) {
+      oldValue = episodes.size();
+      episodes.add(episode);
+      Collections.sort(episodes);
+    }
     episode.addPropertyChangeListener(propertyChangeListener);
     addToSeason(episode);
 
-    Collections.sort(episodes);
-
     firePropertyChange(ADDED_EPISODE, null, episode);
     firePropertyChange(EPISODE_COUNT, oldValue, episodes.size());
   }
 
+  /**
+   * Adds all given episodes in one step. Unlike {@link #addEpisode(TvShowEpisode)} no event per episode is fired, so this should only be used
+   * while loading the TV show (before any UI component listens to it)
+   * 
+   * @param newEpisodes
+   *          the episodes
+   */
+  public void addEpisodes(List<TvShowEpisode> newEpisodes) {
+    if (newEpisodes.isEmpty()) {
+      return;
+    }
+
+    int oldValue;
+    synchronized (episodes) {
+      oldValue = episodes.size();
+      episodes.addAll(newEpisodes);
+      Collections.sort(episodes);
+    }
+
+    // group the episodes by season to add them in one batch to every season
+    Map<TvShowSeason, List<TvShowEpisode>> episodesPerSeason = new HashMap<>();
+    for (TvShowEpisode episode : newEpisodes) {
+      episode.addPropertyChangeListener(propertyChangeListener);
+      TvShowSeason season = getSeasonForEpisode(episode);
+      List<TvShowEpisode> seasonEpisodes = episodesPerSeason.get(season);
+      if (seasonEpisodes == null) {
+        seasonEpisodes = new ArrayList<>();
+        episodesPerSeason.put(season, seasonEpisodes);
+      }
+      seasonEpisodes.add(episode);
+    }
+    for (Entry<TvShowSeason, List<TvShowEpisode>> entry : episodesPerSeason.entrySet()) {
+      entry.getKey().addEpisodes(entry.getValue());
+    }
+
+    firePropertyChange(EPISODE_COUNT, oldValue, episodes.size());
+  }
+
   /**
    * Gets the episode count.
    * 
@@ -349,14 +391,16 @@ public class TvShow extends MediaEntity {
    * remove all episodes from this tv show.
    */
   public void removeAllEpisodes() {
-    int oldValue = episodes.size();
-    if (episodes.size() > 0) {
-      for (int i = episodes.size() - 1; i >= 0; i--) {
-        TvShowEpisode episode = episodes.get(i);
-        episodes.remove(episode);
-        episode.removePropertyChangeListener(propertyChangeListener);
-        TvShowList.getInstance().removeEpisodeFromDb(episode);
-      }
+    List<TvShowEpisode> removedEpisodes;
+    synchronized (episodes) {
+      removedEpisodes = new ArrayList<>(episodes);
+      episodes.clear();
+    }
+    int oldValue = removedEpisodes.size();
+    for (int i = removedEpisodes.size() - 1; i >= 0; i--) {
+      TvShowEpisode episode = removedEpisodes.get(i);
+      episode.removePropertyChangeListener(propertyChangeListener);
+      TvShowList.getInstance().removeEpisodeFromDb(episode);
     }
 
     firePropertyChange(EPISODE_COUNT, oldValue, episodes.size());
@@ -369,9 +413,8 @@ public class TvShow extends MediaEntity {
    *          the episode
    */
   public void removeEpisode(TvShowEpisode episode) {
-    if (episodes.contains(episode)) {
-      int oldValue = episodes.size();
-      episodes.remove(episode);
+    int oldValue = episodes.size();
+    if (episodes.remove(episode)) {
       episode.removePropertyChangeListener(propertyChangeListener);
       removeFromSeason(episode);
       TvShowList.getInstance().removeEpisodeFromDb(episode);
@@ -44,7 +44,7 @@ import org.tinymediamanager.core.entities.MediaFile;
 public class TvShowSeason extends AbstractModelObject {
   private int                    season      = -1;
   private TvShow                 tvShow;
-  private List<TvShowEpisode>    episodes    = new ArrayList<>();
+  private List<TvShowEpisode>    episodes    = Collections.synchronizedList(new ArrayList<TvShowEpisode>());
   private Date                   lastWatched = null;
   private PropertyChangeListener listener;
 
@@ -70,12 +70,31 @@ public class TvShowSeason extends AbstractModelObject {
   }
 
   public void addEpisode(TvShowEpisode episode) {
-    episodes.add(episode);
-    Collections.sort(episodes);
+    synchronized (episodes) {
+      episodes.add(episode);
+      Collections.sort(episodes);
+    }
     episode.addPropertyChangeListener(listener);
     firePropertyChange(ADDED_EPISODE, null, episodes);
   }
 
+  /**
+   * add all given episodes at once (sort and fire the event only once)
+   *
+   * @param newEpisodes
+   *          the episodes to add
+   */
+  public void addEpisodes(List<TvShowEpisode> newEpisodes) {
+    synchronized (episodes) {
+      episodes.addAll(newEpisodes);
+      Collections.sort(episodes);
+    }
+    for (TvShowEpisode episode : newEpisodes) {
+      episode.addPropertyChangeListener(listener);
+    }
+    firePropertyChange(ADDED_EPISODE, null, episodes);
+  }
+
   public void removeEpisode(TvShowEpisode episode) {
     episodes.remove(episode);
     episode.removePropertyChangeListener(listener);
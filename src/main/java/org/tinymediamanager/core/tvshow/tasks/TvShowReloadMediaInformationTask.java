@@ -27,6 +27,7 @@ import org.tinymediamanager.core.Message;
 import org.tinymediamanager.core.Message.MessageLevel;
 import org.tinymediamanager.core.MessageManager;
 import org.tinymediamanager.core.entities.MediaFile;
+import org.tinymediamanager.core.threading.ThreadPoolType;
 import org.tinymediamanager.core.threading.TmmThreadPool;
 import org.tinymediamanager.core.tvshow.entities.TvShow;
 import org.tinymediamanager.core.tvshow.entities.TvShowEpisode;
@@ -68,7 +69,7 @@ public class TvShowReloadMediaInformationTask extends TmmThreadPool {
       // update MediaInfo
       start();
 
-      initThreadPool(1, "reloadMI");
+      initThreadPool(ThreadPoolType.MEDIAINFO, "reloadMI");
       for (TvShow show : tvShows) {
         if (cancel) {
           break;
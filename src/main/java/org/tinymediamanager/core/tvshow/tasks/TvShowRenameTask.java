@@ -15,16 +15,21 @@
  */
 package org.tinymediamanager.core.tvshow.tasks;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
 import java.util.concurrent.Callable;
 
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tinymediamanager.core.Message;
 import org.tinymediamanager.core.Message.MessageLevel;
 import org.tinymediamanager.core.MessageManager;
+import org.tinymediamanager.core.Settings;
+import org.tinymediamanager.core.threading.RenameScheduler;
 import org.tinymediamanager.core.threading.TmmThreadPool;
 import org.tinymediamanager.core.tvshow.TvShowRenamer;
 import org.tinymediamanager.core.tvshow.entities.TvShow;
@@ -37,12 +42,14 @@ import org.tinymediamanager.ui.UTF8Control;
  * @author Manuel Laggner
  */
 public class TvShowRenameTask extends TmmThreadPool {
-  private final static Logger         LOGGER           = LoggerFactory.getLogger(TvShowRenameTask.class);
-  private static final ResourceBundle BUNDLE           = ResourceBundle.getBundle("messages", new UTF8Control()); //$NON-NLS-1$
+  private final static Logger                  LOGGER           = LoggerFactory.getLogger(TvShowRenameTask.class);
+  private static final ResourceBundle          BUNDLE           = ResourceBundle.getBundle("messages", new UTF8Control()); //$NON-NLS-1$
 
-  private List<TvShow>                tvShowsToRename  = new ArrayList<>();
-  private List<TvShowEpisode>         episodesToRename = new ArrayList<>();
-  private boolean                     renameRoot       = true;
+  private List<TvShow>                         tvShowsToRename  = new ArrayList<>();
+  private List<TvShowEpisode>                  episodesToRename = new ArrayList<>();
+  private boolean                              renameRoot       = true;
+  private final RenameScheduler<TvShowEpisode> episodeScheduler;
+  private final RenameScheduler<TvShow>        rootScheduler;
 
   /**
    * Instantiates a new tv show rename task.
@@ -59,14 +66,18 @@ public class TvShowRenameTask extends TmmThreadPool {
       this.episodesToRename.addAll(episodesToRename);
     }
     this.renameRoot = renameRootFolder;
+    this.episodeScheduler = new RenameScheduler<>(Settings.getInstance().getRenamesPerDevice());
+    this.rootScheduler = new RenameScheduler<>(Settings.getInstance().getRenamesPerDevice());
   }
 
   @Override
   protected void doInBackground() {
     try {
       start();
-      initThreadPool(1, "rename");
+      initThreadPool(Math.max(1, Settings.getInstance().getRenameThreads()), "rename");
 
+      // episodes of the same TV show share their folders (season folders, multi episode files) and are renamed sequentially; different TV
+      // shows are renamed in parallel
       // rename complete tv shows
       for (int i = 0; i < tvShowsToRename.size(); i++) {
         if (cancel) {
@@ -74,7 +85,7 @@ public class TvShowRenameTask extends TmmThreadPool {
         }
         TvShow show = tvShowsToRename.get(i);
         for (TvShowEpisode episode : new ArrayList<>(show.getEpisodes())) {
-          submitTask(new RenameEpisodeTask(episode));
+          episodeScheduler.addJob(episode, null, show.getPathNIO(), null, false);
         }
       }
       // rename single episodes
@@ -83,9 +94,12 @@ public class TvShowRenameTask extends TmmThreadPool {
           break;
         }
         TvShowEpisode episode = episodesToRename.get(i);
-        submitTask(new RenameEpisodeTask(episode));
+        episodeScheduler.addJob(episode, null, episode.getTvShow().getPathNIO(), null, false);
       }
 
+      for (Callable<Object> task : episodeScheduler.createTasks(new RenameEpisodeAction())) {
+        submitTask(task);
+      }
       waitForCompletionOrCancel();
       if (cancel) {
         return;
@@ -107,8 +121,23 @@ public class TvShowRenameTask extends TmmThreadPool {
           if (cancel) {
             break;
           }
-          TvShowRenamer.renameTvShowRoot(tvShowsToRename.get(i)); // rename root and update ShowMFs
+          TvShow show = tvShowsToRename.get(i);
+          Path datasource = StringUtils.isNotBlank(show.getDataSource()) ? Paths.get(show.getDataSource()) : null;
+          rootScheduler.addJob(show, datasource, show.getPathNIO(), Paths.get(TvShowRenamer.generateTvShowDir(show)), true);
+        }
+
+        RenameTvShowAction action = new RenameTvShowAction();
+        initThreadPool(Math.max(1, Settings.getInstance().getRenameThreads()), "rename");
+        for (Callable<Object> task : rootScheduler.createTasks(action)) {
+          submitTask(task);
+        }
+        waitForCompletionOrCancel();
+        if (cancel) {
+          return;
         }
+
+        // renames which failed because of locked folders
+        rootScheduler.retryFailed(action);
       }
 
       LOGGER.info("Done renaming TV shows)");
@@ -120,24 +149,35 @@ public class TvShowRenameTask extends TmmThreadPool {
     return;
   }
 
+  @Override
+  public void cancel() {
+    super.cancel();
+    episodeScheduler.cancel();
+    rootScheduler.cancel();
+  }
+
   /**
-   * ThreadpoolWorker to work off ONE episode
+   * renames ONE episode
    */
-  private class RenameEpisodeTask implements Callable<Object> {
-
-    private TvShowEpisode episode = null;
-
-    public RenameEpisodeTask(TvShowEpisode episode) {
-      this.episode = episode;
-    }
-
+  private class RenameEpisodeAction implements RenameScheduler.RenameAction<TvShowEpisode> {
     @Override
-    public String call() throws Exception {
+    public String rename(TvShowEpisode episode) {
       TvShowRenamer.renameEpisode(episode);
       return episode.getTitle();
     }
   }
 
+  /**
+   * renames the root folder of ONE TV show
+   */
+  private class RenameTvShowAction implements RenameScheduler.RenameAction<TvShow> {
+    @Override
+    public String rename(TvShow show) {
+      TvShowRenamer.renameTvShowRoot(show); // rename root and update ShowMFs
+      return show.getTitle();
+    }
+  }
+
   @Override
   public void callback(Object obj) {
     publishState((String) obj, progressDone);
@@ -27,6 +27,7 @@ import org.tinymediamanager.Globals;
 import org.tinymediamanager.core.Message;
 import org.tinymediamanager.core.Message.MessageLevel;
 import org.tinymediamanager.core.MessageManager;
+import org.tinymediamanager.core.threading.ThreadPoolType;
 import org.tinymediamanager.core.threading.TmmTask;
 import org.tinymediamanager.core.threading.TmmTaskManager;
 import org.tinymediamanager.core.threading.TmmThreadPool;
@@ -82,7 +83,7 @@ public class TvShowScrapeTask extends TmmThreadPool {
     LOGGER.debug("start scraping tv shows...");
     start();
 
-    initThreadPool(3, "scrape");
+    initThreadPool(ThreadPoolType.SCRAPE, "scrape");
     for (TvShow tvShow : tvShowsToScrape) {
       submitTask(new Worker(tvShow));
     }
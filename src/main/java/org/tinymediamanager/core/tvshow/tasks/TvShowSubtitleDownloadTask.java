@@ -24,6 +24,7 @@ import java.util.zip.ZipInputStream;
 
 import org.apache.commons.io.FilenameUtils;
 import org.tinymediamanager.Globals;
+import org.tinymediamanager.core.DatasourceWatcher;
 import org.tinymediamanager.core.MediaFileType;
 import org.tinymediamanager.core.Utils;
 import org.tinymediamanager.core.entities.MediaFile;
@@ -74,6 +75,7 @@ public class TvShowSubtitleDownloadTask extends DownloadTask {
           }
 
           File destination = new File(file.getParent().toFile(), basename + "." + extension);
+          DatasourceWatcher.ignoreChanges(destination.toPath());
           FileOutputStream os = new FileOutputStream(destination);
 
           int len;
@@ -29,6 +29,7 @@ import org.tinymediamanager.core.Message;
 import org.tinymediamanager.core.Message.MessageLevel;
 import org.tinymediamanager.core.MessageManager;
 import org.tinymediamanager.core.entities.MediaFile;
+import org.tinymediamanager.core.threading.ThreadPoolType;
 import org.tinymediamanager.core.threading.TmmTaskManager;
 import org.tinymediamanager.core.threading.TmmThreadPool;
 import org.tinymediamanager.core.tvshow.entities.TvShowEpisode;
@@ -62,7 +63,7 @@ public class TvShowSubtitleSearchAndDownloadTask extends TmmThreadPool {
 
   @Override
   protected void doInBackground() {
-    initThreadPool(3, "searchAndDownloadSubtitles");
+    initThreadPool(ThreadPoolType.SUBTITLE, "searchAndDownloadSubtitles");
     start();
 
     for (int i = 0; i < episodes.size(); i++) {
@@ -29,11 +29,14 @@ import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -49,8 +52,12 @@ import org.tinymediamanager.core.MediaSource;
 import org.tinymediamanager.core.Message;
 import org.tinymediamanager.core.Message.MessageLevel;
 import org.tinymediamanager.core.MessageManager;
+import org.tinymediamanager.core.PhaseTimer;
 import org.tinymediamanager.core.Utils;
 import org.tinymediamanager.core.entities.MediaFile;
+import org.tinymediamanager.core.threading.FileStoreThrottle;
+import org.tinymediamanager.core.threading.ThreadPoolType;
+import org.tinymediamanager.core.threading.TmmTask;
 import org.tinymediamanager.core.threading.TmmThreadPool;
 import org.tinymediamanager.core.tvshow.TvShowEpisodeAndSeasonParser;
 import org.tinymediamanager.core.tvshow.TvShowEpisodeAndSeasonParser.EpisodeMatchingResult;
@@ -88,7 +95,12 @@ public class TvShowUpdateDatasourceTask2 extends TmmThreadPool {
   private List<String>                dataSources;
   private List<Path>                  tvShowFolders = new ArrayList<>();
   private TvShowList                  tvShowList;
-  private HashSet<Path>               filesFound    = new HashSet<>();
+  private Set<Path>                   filesFound    = Collections.synchronizedSet(new HashSet<Path>());
+
+  // concurrent update of several data sources: one sub task per data source
+  private List<TmmTask>               subTasks      = new CopyOnWriteArrayList<>();
+  private boolean                     subTask       = false;
+  private PhaseTimer                  timer         = new PhaseTimer();
 
   /**
    * Instantiates a new scrape task - to update all datasources
@@ -142,55 +154,34 @@ public class TvShowUpdateDatasourceTask2 extends TmmThreadPool {
       start();
 
       // get existing show folders
-      List<Path> existing = new ArrayList<>();
-      for (TvShow show : tvShowList.getTvShows()) {
+      Set<Path> existing = new HashSet<>();
+      for (TvShow show : new ArrayList<>(tvShowList.getTvShows())) {
         existing.add(show.getPathNIO());
       }
 
+      // the sub tasks of a concurrent update also gather the mediainfo of their data source
+      boolean concurrent = tvShowFolders.isEmpty() && dataSources.size() > 1 && Globals.settings.isConcurrentDatasources();
+
       // here we have 2 ways of updating:
       // - per datasource -> update ds / remove orphaned / update MFs
       // - per TV show -> udpate TV show / update MFs
       if (tvShowFolders.size() == 0) {
 
-        for (String ds : dataSources) {
-          initThreadPool(3, "update"); // FIXME: more threads result in duplicate tree entries :/
-          List<Path> newTvShowDirs = new ArrayList<>();
-          List<Path> existingTvShowDirs = new ArrayList<>();
-          List<Path> rootList = listFilesAndDirs(Paths.get(ds));
-          for (Path path : rootList) {
-            if (Files.isDirectory(path)) {
-              if (existing.contains(path)) {
-                existingTvShowDirs.add(path);
-              }
-              else {
-                newTvShowDirs.add(path);
-              }
-            }
-            else {
-              // File in root folder - not possible for TV datasource
+        if (concurrent) {
+          updateDatasourcesConcurrently();
+        }
+        else {
+          for (String ds : dataSources) {
+            updateDatasource(ds, existing);
+            if (cancel) {
+              break;
             }
           }
-
-          for (Path subdir : newTvShowDirs) {
-            submitTask(new FindTvShowTask(subdir, Paths.get(ds).toAbsolutePath()));
-          }
-          for (Path subdir : existingTvShowDirs) {
-            submitTask(new FindTvShowTask(subdir, Paths.get(ds).toAbsolutePath()));
-          }
-          waitForCompletionOrCancel();
-          if (cancel) {
-            break;
-          }
-
-          cleanupDatasource(ds);
-          waitForCompletionOrCancel();
-          if (cancel) {
-            break;
-          }
-        } // end forech datasource
+        }
       }
       else {
-        initThreadPool(3, "update");
+        timer.start("parse");
+        initThreadPool(ThreadPoolType.UPDATE, "update");
         // update selected TV show
         for (Path path : tvShowFolders) {
           submitTask(new FindTvShowTask(path, path.getParent().toAbsolutePath()));
@@ -198,30 +189,39 @@ public class TvShowUpdateDatasourceTask2 extends TmmThreadPool {
         waitForCompletionOrCancel();
 
         if (!cancel) {
+          timer.start("cleanup");
           cleanupShows();
           waitForCompletionOrCancel();
         }
       }
 
-      LOGGER.info("getting Mediainfo...");
-      initThreadPool(1, "mediainfo");
-      setTaskName(BUNDLE.getString("update.mediainfo"));
-      setTaskDescription(null);
-      setProgressDone(0);
-      // gather MediaInformation for ALL shows - TBD
-      if (!cancel) {
-        for (int i = tvShowList.getTvShows().size() - 1; i >= 0; i--) {
-          if (cancel) {
-            break;
+      if (!concurrent) {
+        timer.start("mediainfo");
+        LOGGER.info("getting Mediainfo...");
+        initThreadPool(ThreadPoolType.MEDIAINFO, "mediainfo");
+        setTaskName(BUNDLE.getString("update.mediainfo"));
+        setTaskDescription(null);
+        setProgressDone(0);
+        // gather MediaInformation for ALL shows - TBD (a sub task only for the shows of its data source)
+        Path datasourcePath = subTask ? Paths.get(dataSources.get(0)).toAbsolutePath() : null;
+        if (!cancel) {
+          for (TvShow tvShow : new ArrayList<>(tvShowList.getTvShows())) {
+            if (cancel) {
+              break;
+            }
+            if (subTask && !isInDatasource(tvShow, datasourcePath)) {
+              continue;
+            }
+            gatherMediaInformationForUngatheredMediaFiles(tvShow);
           }
-          TvShow tvShow = tvShowList.getTvShows().get(i);
-          gatherMediaInformationForUngatheredMediaFiles(tvShow);
+          waitForCompletionOrCancel();
         }
-        waitForCompletionOrCancel();
       }
 
       stopWatch.stop();
+      timer.stop();
       LOGGER.info("Done updating datasource :) - took " + stopWatch);
+      LOGGER.info("time per phase: " + timer);
 
       LOGGER.debug("FilesFound " + filesFound.size());
       LOGGER.debug("tvShowsFound " + tvShowList.getTvShowCount());
@@ -239,6 +239,93 @@ public class TvShowUpdateDatasourceTask2 extends TmmThreadPool {
     }
   }
 
+  /**
+   * update a single data source: parse all TV show folders and remove orphaned TV shows/files
+   */
+  private void updateDatasource(String ds, Set<Path> existing) {
+    timer.start("parse");
+    initThreadPool(ThreadPoolType.UPDATE, "update");
+    List<Path> newTvShowDirs = new ArrayList<>();
+    List<Path> existingTvShowDirs = new ArrayList<>();
+    List<Path> rootList = listFilesAndDirs(Paths.get(ds));
+    for (Path path : rootList) {
+      if (Files.isDirectory(path)) {
+        if (existing.contains(path)) {
+          existingTvShowDirs.add(path);
+        }
+        else {
+          newTvShowDirs.add(path);
+        }
+      }
+      else {
+        // File in root folder - not possible for TV datasource
+      }
+    }
+
+    for (Path subdir : newTvShowDirs) {
+      submitTask(new FindTvShowTask(subdir, Paths.get(ds).toAbsolutePath()));
+    }
+    for (Path subdir : existingTvShowDirs) {
+      submitTask(new FindTvShowTask(subdir, Paths.get(ds).toAbsolutePath()));
+    }
+    waitForCompletionOrCancel();
+    if (cancel) {
+      return;
+    }
+
+    timer.start("cleanup");
+    cleanupDatasource(ds);
+    waitForCompletionOrCancel();
+    timer.stop();
+  }
+
+  /**
+   * update all data sources concurrently. Every data source is updated by its own sub task (parsing, cleanup and mediainfo), so that the cleanup
+   * and mediainfo of a data source start as soon as its own folders have been parsed. Only a limited amount of data sources per device (file
+   * store) is updated at once
+   */
+  private void updateDatasourcesConcurrently() {
+    final FileStoreThrottle throttle = new FileStoreThrottle(Globals.settings.getDatasourcesPerDevice());
+
+    timer.start("datasources");
+    initThreadPool(dataSources.size(), "datasource");
+    setTaskName(BUNDLE.getString("update.datasource"));
+    publishState();
+
+    for (final String ds : dataSources) {
+      final TvShowUpdateDatasourceTask2 task = new TvShowUpdateDatasourceTask2(ds);
+      task.subTask = true;
+      subTasks.add(task);
+
+      submitTask(new Runnable() {
+        @Override
+        public void run() {
+          Path path = Paths.get(ds);
+          throttle.acquireFolder(path);
+          try {
+            task.run();
+          }
+          finally {
+            throttle.releaseFolder(path);
+          }
+        }
+      });
+    }
+    waitForCompletionOrCancel();
+  }
+
+  @Override
+  public void cancel() {
+    super.cancel();
+    for (TmmTask task : subTasks) {
+      task.cancel();
+    }
+  }
+
+  private boolean isInDatasource(TvShow tvShow, Path datasource) {
+    return datasource.equals(Paths.get(tvShow.getDataSource()).toAbsolutePath());
+  }
+
   private void cleanupShows() {
     setTaskName(BUNDLE.getString("update.cleanup"));
     setTaskDescription(null);
@@ -275,14 +362,15 @@ public class TvShowUpdateDatasourceTask2 extends TmmThreadPool {
     publishState();
     LOGGER.info("removing orphaned tv shows/files...");
 
-    for (int i = tvShowList.getTvShows().size() - 1; i >= 0; i--) {
+    Path datasourcePath = Paths.get(datasource).toAbsolutePath();
+    // iterate over a copy - other data sources may be updated at the same time
+    for (TvShow tvShow : new ArrayList<>(tvShowList.getTvShows())) {
       if (cancel) {
         break;
       }
-      TvShow tvShow = tvShowList.getTvShows().get(i);
 
       // check only Tv shows matching datasource
-      if (!Paths.get(datasource).toAbsolutePath().equals(Paths.get(tvShow.getDataSource()).toAbsolutePath())) {
+      if (!isInDatasource(tvShow, datasourcePath)) {
         continue;
       }
 
@@ -391,6 +479,11 @@ public class TvShowUpdateDatasourceTask2 extends TmmThreadPool {
         LOGGER.debug("Skipping dir: " + showDir);
         return "";
       }
+      if (!Files.isDirectory(showDir)) {
+        // the folder has been removed meanwhile; the cleanup will take care of the TV show
+        LOGGER.debug("Folder does not exist (any more): " + showDir);
+        return "";
+      }
 
       HashSet<Path> allFiles = getAllFilesRecursive(showDir, Integer.MAX_VALUE);
       filesFound.add(showDir.toAbsolutePath()); // our global cache
@@ -431,7 +524,8 @@ public class TvShowUpdateDatasourceTask2 extends TmmThreadPool {
           tvShow.setDataSource(datasource.toString());
           // tvShow.saveToDb();
           tvShow.setNewlyAdded(true);
-          tvShowList.addTvShow(tvShow);
+          // another worker may have created the TV show for this folder meanwhile
+          tvShow = tvShowList.getOrAddTvShow(tvShow);
         }
       }
 
@@ -25,6 +25,7 @@ import javax.swing.AbstractAction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tinymediamanager.core.ImageCache;
+import org.tinymediamanager.core.ImageCacheIndex;
 import org.tinymediamanager.core.Utils;
 import org.tinymediamanager.ui.UTF8Control;
 
@@ -54,5 +55,6 @@ public class ClearImageCacheAction extends AbstractAction {
         LOGGER.warn(e.getMessage());
       }
     }
+    ImageCacheIndex.getInstance().clear();
   }
 }
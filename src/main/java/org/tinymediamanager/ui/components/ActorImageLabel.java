@@ -104,7 +104,7 @@ public class ActorImageLabel extends ImageLabel {
   @Override
   protected void paintComponent(Graphics g) {
     // refetch the image if its visible now
-    if (isShowing() && scaledImage == null && StringUtils.isNotBlank(imageUrl)) {
+    if (isShowing() && scaledImage == null && StringUtils.isNotBlank(imageUrl) && !isLoading()) {
       worker = new ImageFetcher(this.getSize());
       worker.execute();
       return;
@@ -31,7 +31,13 @@ import java.awt.image.BufferedImage;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.swing.JLabel;
 import javax.swing.SwingWorker;
@@ -56,6 +62,7 @@ public class ImageLabel extends JLabel {
 
   private static final long                  serialVersionUID   = -2524445544386464158L;
   protected static final ResourceBundle      BUNDLE             = ResourceBundle.getBundle("messages", new UTF8Control()); //$NON-NLS-1$
+  private static final ThreadPoolExecutor    PREFETCH_POOL      = createPrefetchPool();
   private static Font                        FONT;
 
   protected BufferedImage                    scaledImage;
@@ -71,6 +78,7 @@ public class ImageLabel extends JLabel {
 
   protected SwingWorker<BufferedImage, Void> worker             = null;
   protected MouseListener                    lightboxListener   = null;
+  private final AtomicInteger                prefetchGeneration = new AtomicInteger(0);
 
   static {
     try {
@@ -310,6 +318,10 @@ public class ImageLabel extends JLabel {
   }
 
   private void recreateScaledImageIfNeeded(int originalWidth, int originalHeight, int newWidth, int newHeight) {
+    // there is already a load in progress; the size will be re-checked on the next paint
+    if (isLoading()) {
+      return;
+    }
     if ((newWidth * 0.8f > originalWidth) || (originalWidth > newWidth * 1.2f) || (newHeight * 0.8f > originalHeight)
         || (originalHeight > newHeight * 1.2f) && newWidth > 10) {
       if (StringUtils.isNotBlank(imagePath)) {
@@ -323,6 +335,107 @@ public class ImageLabel extends JLabel {
     }
   }
 
+  /**
+   * is there an image load in progress?
+   * 
+   * @return true if a worker is still running
+   */
+  protected boolean isLoading() {
+    return worker != null && !worker.isDone();
+  }
+
+  /**
+   * get the file to load for the given image in the given size (the nearest level of the thumbnail pyramid if the image cache is used)
+   */
+  private Path getImageFile(String imagePath, Dimension newSize) {
+    if (useCache) {
+      return ImageCache.getCachedFile(Paths.get(imagePath), newSize.width);
+    }
+    return Paths.get(imagePath);
+  }
+
+  /**
+   * load the image from the file and scale it to the given size; the scaled image is taken from/put into the in-memory cache
+   */
+  private BufferedImage loadScaledImage(Path file, Dimension newSize) {
+    if (file == null || !Files.exists(file)) {
+      return null;
+    }
+
+    try {
+      // the modification time is part of the key, so changed images are loaded again
+      String source = file.toAbsolutePath().toString() + "|" + Files.getLastModifiedTime(file).toMillis();
+      BufferedImage image = ScaledImageCache.get(source, newSize);
+      if (image != null) {
+        return image;
+      }
+
+      image = ImageCache.createImage(file);
+      // nearly the right size - paintComponent scales the rest
+      if (!isNearSize(image, newSize)) {
+        // the pyramid levels are close to the needed size, so a balanced rescale is sufficient
+        Scalr.Method method = useCache ? Scalr.Method.BALANCED : Scalr.Method.QUALITY;
+        image = Scalr.resize(image, method, Scalr.Mode.AUTOMATIC, newSize.width, newSize.height, Scalr.OP_ANTIALIAS);
+      }
+      ScaledImageCache.put(source, newSize, image);
+      return image;
+    }
+    catch (Exception e) {
+      return null;
+    }
+  }
+
+  private static boolean isNearSize(BufferedImage image, Dimension newSize) {
+    float scale = Math.min(newSize.width / (float) image.getWidth(), newSize.height / (float) image.getHeight());
+    return scale >= 0.8f && scale <= 1.0f;
+  }
+
+  /**
+   * prefetch the given images (e.g. the artwork of the neighbouring rows) in the current size of this label into the image cache and the
+   * in-memory cache of scaled images. The prefetching runs in a low priority background thread; a new call cancels the pending prefetches of
+   * the previous call
+   * 
+   * @param imagePaths
+   *          the paths of the images to prefetch
+   */
+  public void prefetchImages(List<String> imagePaths) {
+    final int generation = prefetchGeneration.incrementAndGet();
+    final Dimension size = getSize();
+    if (size.width <= 0 || size.height <= 0) {
+      return;
+    }
+
+    for (final String path : imagePaths) {
+      if (StringUtils.isBlank(path)) {
+        continue;
+      }
+      PREFETCH_POOL.execute(new Runnable() {
+        @Override
+        public void run() {
+          // the user has moved on
+          if (generation != prefetchGeneration.get()) {
+            return;
+          }
+          loadScaledImage(getImageFile(path, size), size);
+        }
+      });
+    }
+  }
+
+  private static ThreadPoolExecutor createPrefetchPool() {
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 2, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "tmmpool-imagePrefetch");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+      }
+    });
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
+
   public void setPosition(Position position) {
     this.position = position;
   }
@@ -364,9 +477,16 @@ public class ImageLabel extends JLabel {
     @Override
     protected BufferedImage doInBackground() throws Exception {
       try {
+        BufferedImage image = ScaledImageCache.get(imageUrl, newSize);
+        if (image != null) {
+          return image;
+        }
+
         Url url = new Url(imageUrl);
-        return Scalr.resize(ImageCache.createImage(url.getBytes()), Scalr.Method.QUALITY, Scalr.Mode.AUTOMATIC, newSize.width, newSize.height,
+        image = Scalr.resize(ImageCache.createImage(url.getBytes()), Scalr.Method.QUALITY, Scalr.Mode.AUTOMATIC, newSize.width, newSize.height,
             Scalr.OP_ANTIALIAS);
+        ScaledImageCache.put(imageUrl, newSize, image);
+        return image;
       }
       catch (Exception e) {
         imageUrl = "";
@@ -376,7 +496,8 @@ public class ImageLabel extends JLabel {
 
     @Override
     protected void done() {
-      if (isCancelled()) {
+      // cancelled or replaced by a newer load
+      if (isCancelled() || worker != this) {
         return;
       }
 
@@ -405,31 +526,17 @@ public class ImageLabel extends JLabel {
 
     @Override
     protected BufferedImage doInBackground() throws Exception {
-      Path file = null;
-      if (useCache) {
-        file = ImageCache.getCachedFile(Paths.get(imagePath));
-      }
-      else {
-        file = Paths.get(imagePath);
-      }
-
-      if (file != null && Files.exists(file)) {
-        try {
-          return Scalr.resize(ImageCache.createImage(file), Scalr.Method.QUALITY, Scalr.Mode.AUTOMATIC, newSize.width, newSize.height,
-              Scalr.OP_ANTIALIAS);
-        }
-        catch (Exception e) {
-          return null;
-        }
-      }
-      else {
+      Path file = getImageFile(imagePath, newSize);
+      if (isCancelled()) {
         return null;
       }
+      return loadScaledImage(file, newSize);
     }
 
     @Override
     protected void done() {
-      if (isCancelled()) {
+      // cancelled or replaced by a newer load
+      if (isCancelled() || worker != this) {
         return;
       }
 
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.ui.components;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The class ScaledImageCache. An in-memory LRU cache of the already scaled images of all image labels (movies, movie sets, TV shows), so that
+ * switching between entities does not read and rescale the same images again. The cache is bounded by the (approximate) amount of memory the
+ * images need
+ *
+ * @author Manuel Laggner
+ */
+class ScaledImageCache {
+  private static final long                                 MAX_BYTES = 64 * 1024 * 1024;
+
+  private static final LinkedHashMap<String, BufferedImage> CACHE     = new LinkedHashMap<>(64, 0.75f, true);
+  private static long                                       bytes     = 0;
+
+  private ScaledImageCache() {
+  }
+
+  /**
+   * get the scaled image
+   *
+   * @param source
+   *          the source of the image (file incl. its modification time or url)
+   * @param size
+   *          the size the image has been scaled to
+   * @return the image or null if it is not cached
+   */
+  static synchronized BufferedImage get(String source, Dimension size) {
+    return CACHE.get(getKey(source, size));
+  }
+
+  /**
+   * put a scaled image into the cache; the least recently used images are removed if the cache exceeds its size
+   *
+   * @param source
+   *          the source of the image (file incl. its modification time or url)
+   * @param size
+   *          the size the image has been scaled to
+   * @param image
+   *          the scaled image
+   */
+  static synchronized void put(String source, Dimension size, BufferedImage image) {
+    long imageBytes = getBytes(image);
+    // do not let a single image flush the whole cache
+    if (imageBytes == 0 || imageBytes > MAX_BYTES / 4) {
+      return;
+    }
+
+    BufferedImage oldImage = CACHE.put(getKey(source, size), image);
+    if (oldImage != null) {
+      bytes -= getBytes(oldImage);
+    }
+    bytes += imageBytes;
+
+    Iterator<Map.Entry<String, BufferedImage>> it = CACHE.entrySet().iterator();
+    while (bytes > MAX_BYTES && it.hasNext()) {
+      bytes -= getBytes(it.next().getValue());
+      it.remove();
+    }
+  }
+
+  private static String getKey(String source, Dimension size) {
+    return source + "|" + size.width + "x" + size.height;
+  }
+
+  private static long getBytes(BufferedImage image) {
+    if (image == null) {
+      return 0;
+    }
+    // ARGB/RGB images need 4 bytes per pixel
+    return (long) image.getWidth() * image.getHeight() * 4;
+  }
+}
@@ -74,6 +74,9 @@ public class MovieInformationPanel extends JPanel {
    */
   private static final ResourceBundle BUNDLE           = ResourceBundle.getBundle("messages", new UTF8Control()); //$NON-NLS-1$
 
+  /** the amount of rows before/after the selected movie to prefetch the artwork for. */
+  private static final int            PREFETCH_ROWS    = 2;
+
   /** The Constant serialVersionUID. */
   private static final long           serialVersionUID = -8527284262749511617L;
 
@@ -352,6 +355,9 @@ public class MovieInformationPanel extends JPanel {
             }
             lblMovieBackground.setImagePath(movie.getArtworkFilename(MediaFileType.FANART));
             lblMoviePoster.setImagePath(movie.getArtworkFilename(MediaFileType.POSTER));
+            if (source instanceof MovieSelectionModel) {
+              prefetchArtwork((MovieSelectionModel) source);
+            }
 
             synchronized (mediaFiles) {
               mediaFiles.clear();
@@ -398,6 +404,21 @@ public class MovieInformationPanel extends JPanel {
     return splitPaneVertical;
   }
 
+  /**
+   * warm the caches with the artwork of the neighbouring movies, so that scrolling through the table does not block on loading the artwork
+   */
+  private void prefetchArtwork(MovieSelectionModel selectionModel) {
+    List<String> fanarts = new ArrayList<>();
+    List<String> posters = new ArrayList<>();
+    for (Movie movie : selectionModel.getNeighbouringMovies(PREFETCH_ROWS)) {
+      // movies without loaded details take the paths from their summary; the prefetch must not load the details on the EDT
+      fanarts.add(movie.getArtworkFilename(MediaFileType.FANART));
+      posters.add(movie.getArtworkFilename(MediaFileType.POSTER));
+    }
+    lblMovieBackground.prefetchImages(fanarts);
+    lblMoviePoster.prefetchImages(posters);
+  }
+
   protected void initDataBindings() {
     BeanProperty<MovieSelectionModel, String> movieSelectionModelBeanProperty = BeanProperty.create("selectedMovie.titleForUi");
     BeanProperty<JLabel, String> jLabelBeanProperty = BeanProperty.create("text");
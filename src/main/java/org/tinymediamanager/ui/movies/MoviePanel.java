@@ -85,6 +85,7 @@ import org.tinymediamanager.ui.movies.actions.MovieMediaInformationAction;
 import org.tinymediamanager.ui.movies.actions.MovieRemoveAction;
 import org.tinymediamanager.ui.movies.actions.MovieRenameAction;
 import org.tinymediamanager.ui.movies.actions.MovieRenamePreviewAction;
+import org.tinymediamanager.ui.movies.actions.MovieRescanDatasourceAction;
 import org.tinymediamanager.ui.movies.actions.MovieRewriteNfoAction;
 import org.tinymediamanager.ui.movies.actions.MovieSelectedScrapeAction;
 import org.tinymediamanager.ui.movies.actions.MovieSelectedScrapeMetadataAction;
@@ -234,6 +235,7 @@ public class MoviePanel extends JPanel {
         buttonUpdateDatasource.getPopupMenu().removeAll();
         JMenuItem item = new JMenuItem(actionUpdateDataSources2);
         buttonUpdateDatasource.getPopupMenu().add(item);
+        buttonUpdateDatasource.getPopupMenu().add(new JMenuItem(new MovieRescanDatasourceAction()));
         buttonUpdateDatasource.getPopupMenu().addSeparator();
         for (String ds : MovieModuleManager.MOVIE_SETTINGS.getMovieDataSource()) {
           buttonUpdateDatasource.getPopupMenu().add(new JMenuItem(new MovieUpdateSingleDatasourceAction(ds)));
@@ -17,6 +17,7 @@ package org.tinymediamanager.ui.movies;
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -64,6 +65,9 @@ public class MovieSelectionModel extends AbstractModelObject implements ListSele
   /** The sorted list. */
   private SortedList<Movie>                 sortedList;
 
+  /** The sorted and filtered list (as shown in the table). */
+  private EventList<Movie>                  source;
+
   /** The property change listener. */
   private PropertyChangeListener            propertyChangeListener;
 
@@ -79,6 +83,7 @@ public class MovieSelectionModel extends AbstractModelObject implements ListSele
    */
   public MovieSelectionModel(SortedList<Movie> sortedList, EventList<Movie> source, MovieMatcherEditor matcher) {
     this.sortedList = sortedList;
+    this.source = source;
     this.selectionModel = new DefaultEventSelectionModel<>(source);
     this.selectionModel.addListSelectionListener(this);
     this.matcherEditor = matcher;
@@ -189,6 +194,40 @@ public class MovieSelectionModel extends AbstractModelObject implements ListSele
     }
   }
 
+  /**
+   * Gets the movies in the rows before/after the selected movie (in the current sort/filter order), nearest first
+   * 
+   * @param count
+   *          the amount of rows in each direction
+   * @return the neighbouring movies
+   */
+  public List<Movie> getNeighbouringMovies(int count) {
+    List<Movie> movies = new ArrayList<>();
+    if (source == null) {
+      return movies;
+    }
+
+    int index = selectionModel.getLeadSelectionIndex();
+    source.getReadWriteLock().readLock().lock();
+    try {
+      if (index < 0 || index >= source.size()) {
+        return movies;
+      }
+      for (int i = 1; i <= count; i++) {
+        if (index + i < source.size()) {
+          movies.add(source.get(index + i));
+        }
+        if (index - i >= 0) {
+          movies.add(source.get(index - i));
+        }
+      }
+    }
+    finally {
+      source.getReadWriteLock().readLock().unlock();
+    }
+    return movies;
+  }
+
   /**
    * Gets the selected movie.
    * 
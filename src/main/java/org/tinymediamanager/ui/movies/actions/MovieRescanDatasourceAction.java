@@ -0,0 +1,50 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.ui.movies.actions;
+
+import java.awt.event.ActionEvent;
+import java.util.ResourceBundle;
+
+import javax.swing.AbstractAction;
+import javax.swing.JOptionPane;
+
+import org.tinymediamanager.core.movie.tasks.MovieUpdateDatasourceTask2;
+import org.tinymediamanager.core.threading.TmmTaskManager;
+import org.tinymediamanager.core.threading.TmmThreadPool;
+import org.tinymediamanager.ui.UTF8Control;
+
+/**
+ * MovieRescanDatasourceAction - update all movies from all datasources and parse every folder (even unchanged ones)
+ * 
+ * @author Manuel Laggner
+ */
+public class MovieRescanDatasourceAction extends AbstractAction {
+  private static final long           serialVersionUID = -3160217618637373218L;
+  private static final ResourceBundle BUNDLE           = ResourceBundle.getBundle("messages", new UTF8Control()); //$NON-NLS-1$
+
+  public MovieRescanDatasourceAction() {
+    putValue(NAME, BUNDLE.getString("update.datasource.full")); //$NON-NLS-1$
+    putValue(SHORT_DESCRIPTION, BUNDLE.getString("update.datasource.full.desc")); //$NON-NLS-1$
+  }
+
+  @Override
+  public void actionPerformed(ActionEvent e) {
+    TmmThreadPool task = new MovieUpdateDatasourceTask2(true);
+    if (TmmTaskManager.getInstance().addMainTask(task)) {
+      JOptionPane.showMessageDialog(null, BUNDLE.getString("onlyoneoperation")); //$NON-NLS-1$
+    }
+  }
+}
@@ -42,10 +42,14 @@ import javax.swing.JPanel;
 import javax.swing.JPasswordField;
 import javax.swing.JSeparator;
 import javax.swing.JSlider;
+import javax.swing.JSpinner;
 import javax.swing.JTextField;
 import javax.swing.JTextPane;
+import javax.swing.SpinnerNumberModel;
 import javax.swing.SwingConstants;
 import javax.swing.border.TitledBorder;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 
 import org.apache.commons.lang3.LocaleUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -58,6 +62,8 @@ import org.slf4j.LoggerFactory;
 import org.tinymediamanager.Globals;
 import org.tinymediamanager.core.ImageCache;
 import org.tinymediamanager.core.ImageCache.CacheType;
+import org.tinymediamanager.core.ImageCache.EvictionPolicy;
+import org.tinymediamanager.core.ImageCacheIndex;
 import org.tinymediamanager.core.Message;
 import org.tinymediamanager.core.Message.MessageLevel;
 import org.tinymediamanager.core.MessageManager;
@@ -99,7 +105,11 @@ public class GeneralSettingsPanel extends ScrollablePanel {
   private JTextField                  tfProxyUsername;
   private JPasswordField              tfProxyPassword;
   private JComboBox                   cbImageCacheQuality;
+  private JComboBox                   cbImageCacheEvictionPolicy;
   private JCheckBox                   chckbxImageCache;
+  private JSpinner                    spImageCacheSize;
+  private JCheckBox                   chckbxImageCacheContentHash;
+  private JLabel                      lblImageCacheStats;
   private JComboBox                   cbLanguage;
   private JTextField                  tfMediaPlayer;
   private JButton                     btnSearchMediaPlayer;
@@ -108,6 +118,7 @@ public class GeneralSettingsPanel extends ScrollablePanel {
   private JComboBox                   cbFontSize;
   private JComboBox                   cbFontFamily;
   private JCheckBox                   chckbxDeleteTrash;
+  private JCheckBox                   chckbxWatchDatasources;
   private JSlider                     sliderMemory;
   private JTextPane                   tpMemoryHint;
   private LinkLabel                   lblLinkTransifex;
@@ -343,6 +354,8 @@ public class GeneralSettingsPanel extends ScrollablePanel {
         new ColumnSpec[] { FormSpecs.RELATED_GAP_COLSPEC, FormSpecs.DEFAULT_COLSPEC, FormSpecs.RELATED_GAP_COLSPEC, ColumnSpec.decode("default:grow"),
             FormSpecs.RELATED_GAP_COLSPEC, },
         new RowSpec[] { FormSpecs.RELATED_GAP_ROWSPEC, FormSpecs.DEFAULT_ROWSPEC, FormSpecs.RELATED_GAP_ROWSPEC, FormSpecs.DEFAULT_ROWSPEC,
+            FormSpecs.RELATED_GAP_ROWSPEC, FormSpecs.DEFAULT_ROWSPEC, FormSpecs.RELATED_GAP_ROWSPEC, FormSpecs.DEFAULT_ROWSPEC,
+            FormSpecs.RELATED_GAP_ROWSPEC, FormSpecs.DEFAULT_ROWSPEC, FormSpecs.RELATED_GAP_ROWSPEC, FormSpecs.DEFAULT_ROWSPEC,
             FormSpecs.RELATED_GAP_ROWSPEC, }));
 
     chckbxImageCache = new JCheckBox(BUNDLE.getString("Settings.imagecache"));//$NON-NLS-1$
@@ -354,6 +367,32 @@ public class GeneralSettingsPanel extends ScrollablePanel {
     cbImageCacheQuality = new JComboBox(ImageCache.CacheType.values());
     panelCache.add(cbImageCacheQuality, "4, 4, fill, default");
 
+    JLabel lblImageCacheSize = new JLabel(BUNDLE.getString("Settings.imagecachesize"));//$NON-NLS-1$
+    panelCache.add(lblImageCacheSize, "2, 6, right, default");
+
+    spImageCacheSize = new JSpinner(new SpinnerNumberModel(settings.getImageCacheSizeLimit(), 0, 1048576, 512));
+    spImageCacheSize.addChangeListener(new ChangeListener() {
+      @Override
+      public void stateChanged(ChangeEvent e) {
+        settings.setImageCacheSizeLimit((Integer) spImageCacheSize.getValue());
+      }
+    });
+    panelCache.add(spImageCacheSize, "4, 6, left, default");
+
+    JLabel lblImageCacheEvictionPolicy = new JLabel(BUNDLE.getString("Settings.imagecacheevictionpolicy"));//$NON-NLS-1$
+    panelCache.add(lblImageCacheEvictionPolicy, "2, 8, right, default");
+
+    cbImageCacheEvictionPolicy = new JComboBox(ImageCache.EvictionPolicy.values());
+    cbImageCacheEvictionPolicy.setToolTipText(BUNDLE.getString("Settings.imagecacheevictionpolicy.desc")); //$NON-NLS-1$
+    panelCache.add(cbImageCacheEvictionPolicy, "4, 8, fill, default");
+
+    chckbxImageCacheContentHash = new JCheckBox(BUNDLE.getString("Settings.imagecachecontenthash")); //$NON-NLS-1$
+    chckbxImageCacheContentHash.setToolTipText(BUNDLE.getString("Settings.imagecachecontenthash.desc")); //$NON-NLS-1$
+    panelCache.add(chckbxImageCacheContentHash, "2, 10, 3, 1");
+
+    lblImageCacheStats = new JLabel("");
+    panelCache.add(lblImageCacheStats, "2, 12, 3, 1");
+
     JPanel panelAnalytics = new JPanel();
     panelAnalytics
         .setBorder(new TitledBorder(null, BUNDLE.getString("Settings.analytics.border"), TitledBorder.LEADING, TitledBorder.TOP, null, null)); //$NON-NLS-1$
@@ -377,11 +416,16 @@ public class GeneralSettingsPanel extends ScrollablePanel {
     panelMisc.setLayout(new FormLayout(
         new ColumnSpec[] { FormFactory.RELATED_GAP_COLSPEC, FormFactory.DEFAULT_COLSPEC, FormFactory.RELATED_GAP_COLSPEC,
             ColumnSpec.decode("default:grow"), FormFactory.RELATED_GAP_COLSPEC, },
-        new RowSpec[] { FormFactory.RELATED_GAP_ROWSPEC, FormFactory.DEFAULT_ROWSPEC, FormFactory.RELATED_GAP_ROWSPEC, }));
+        new RowSpec[] { FormFactory.RELATED_GAP_ROWSPEC, FormFactory.DEFAULT_ROWSPEC, FormFactory.RELATED_GAP_ROWSPEC,
+            FormFactory.DEFAULT_ROWSPEC, FormFactory.RELATED_GAP_ROWSPEC, }));
 
     chckbxDeleteTrash = new JCheckBox(BUNDLE.getString("Settings.deletetrash"));
     panelMisc.add(chckbxDeleteTrash, "2, 2, 3, 1");
 
+    chckbxWatchDatasources = new JCheckBox(BUNDLE.getString("Settings.watchdatasources")); //$NON-NLS-1$
+    chckbxWatchDatasources.setToolTipText(BUNDLE.getString("Settings.watchdatasources.desc")); //$NON-NLS-1$
+    panelMisc.add(chckbxWatchDatasources, "2, 4, 3, 1");
+
     initDataBindings();
 
     initMemorySlider();
@@ -504,11 +548,20 @@ public class GeneralSettingsPanel extends ScrollablePanel {
           if (!isShowing()) {
             writeMemorySettings();
           }
+          else {
+            updateImageCacheStats();
+          }
         }
       }
     });
   }
 
+  private void updateImageCacheStats() {
+    ImageCacheIndex index = ImageCacheIndex.getInstance();
+    lblImageCacheStats.setText(String.format(BUNDLE.getString("Settings.imagecachestats"), index.getTotalSize() / (1024 * 1024),
+        index.getEntryCount(), index.getHits(), index.getMisses(), index.getEvictions(), index.getOrphans()));
+  }
+
   private void writeMemorySettings() {
     int memoryAmount = sliderMemory.getValue();
     String jvmArg = "-Xmx" + memoryAmount + "m";
@@ -583,6 +636,11 @@ public class GeneralSettingsPanel extends ScrollablePanel {
         settingsBeanProperty_7, cbImageCacheQuality, jComboBoxBeanProperty);
     autoBinding_5.bind();
     //
+    BeanProperty<Settings, EvictionPolicy> settingsBeanProperty_14 = BeanProperty.create("imageCacheEvictionPolicy");
+    AutoBinding<Settings, EvictionPolicy, JComboBox, Object> autoBinding_14 = Bindings.createAutoBinding(UpdateStrategy.READ_WRITE, settings,
+        settingsBeanProperty_14, cbImageCacheEvictionPolicy, jComboBoxBeanProperty);
+    autoBinding_14.bind();
+    //
     BeanProperty<Settings, Boolean> settingsBeanProperty_9 = BeanProperty.create("imageCache");
     BeanProperty<JCheckBox, Boolean> jCheckBoxBeanProperty = BeanProperty.create("selected");
     AutoBinding<Settings, Boolean, JCheckBox, Boolean> autoBinding_7 = Bindings.createAutoBinding(UpdateStrategy.READ_WRITE, settings,
@@ -610,5 +668,15 @@ public class GeneralSettingsPanel extends ScrollablePanel {
     AutoBinding<Settings, Boolean, JCheckBox, Boolean> autoBinding_4 = Bindings.createAutoBinding(UpdateStrategy.READ_WRITE, settings,
         settingsBeanProperty_4, chckbxAnalytics, jCheckBoxBeanProperty);
     autoBinding_4.bind();
+    //
+    BeanProperty<Settings, Boolean> settingsBeanProperty_12 = BeanProperty.create("watchDatasources");
+    AutoBinding<Settings, Boolean, JCheckBox, Boolean> autoBinding_12 = Bindings.createAutoBinding(UpdateStrategy.READ_WRITE, settings,
+        settingsBeanProperty_12, chckbxWatchDatasources, jCheckBoxBeanProperty);
+    autoBinding_12.bind();
+    //
+    BeanProperty<Settings, Boolean> settingsBeanProperty_13 = BeanProperty.create("imageCacheContentHash");
+    AutoBinding<Settings, Boolean, JCheckBox, Boolean> autoBinding_13 = Bindings.createAutoBinding(UpdateStrategy.READ_WRITE, settings,
+        settingsBeanProperty_13, chckbxImageCacheContentHash, jCheckBoxBeanProperty);
+    autoBinding_13.bind();
   }
 }
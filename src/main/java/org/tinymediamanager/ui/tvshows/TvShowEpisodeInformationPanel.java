@@ -24,6 +24,8 @@ import java.awt.FlowLayout;
 import java.awt.Font;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.ResourceBundle;
 
 import javax.swing.Box;
@@ -72,6 +74,8 @@ public class TvShowEpisodeInformationPanel extends JPanel {
    * @wbp.nls.resourceBundle messages
    */
   private static final ResourceBundle BUNDLE           = ResourceBundle.getBundle("messages", new UTF8Control()); //$NON-NLS-1$
+  /** the amount of episodes before/after the selected one to prefetch the artwork for */
+  private static final int            PREFETCH_ROWS    = 2;
 
   /** UI components */
   private JSplitPane                  splitPaneVertical;
@@ -303,6 +307,7 @@ public class TvShowEpisodeInformationPanel extends JPanel {
           TvShowEpisodeSelectionModel model = (TvShowEpisodeSelectionModel) source;
           setSeasonPoster(model.getSelectedTvShowEpisode());
           setEpisodeThumb(model.getSelectedTvShowEpisode());
+          prefetchArtwork(model.getSelectedTvShowEpisode());
         }
         if ((source.getClass() == TvShowEpisode.class && THUMB.equals(property))) {
           TvShowEpisode episode = (TvShowEpisode) source;
@@ -318,6 +323,21 @@ public class TvShowEpisodeInformationPanel extends JPanel {
     this.tvShowEpisodeSelectionModel.addPropertyChangeListener(propertyChangeListener);
   }
 
+  /**
+   * warm the caches with the thumbs of the neighbouring episodes, so that arrowing through the tree does not block on loading the artwork
+   */
+  private void prefetchArtwork(TvShowEpisode tvShowEpisode) {
+    List<String> thumbs = new ArrayList<>();
+    if (tvShowEpisode.getTvShowSeason() != null) {
+      for (TvShowEpisode episode : new ArrayList<>(tvShowEpisode.getTvShowSeason().getEpisodes())) {
+        if (episode != tvShowEpisode && Math.abs(episode.getEpisode() - tvShowEpisode.getEpisode()) <= PREFETCH_ROWS) {
+          thumbs.add(episode.getArtworkFilename(MediaFileType.THUMB));
+        }
+      }
+    }
+    lblEpisodeThumb.prefetchImages(thumbs);
+  }
+
   private void setSeasonPoster(TvShowEpisode tvShowEpisode) {
     lblSeasonPoster.clearImage();
     lblSeasonPoster.setImagePath(tvShowEpisode.getTvShowSeason().getPoster());
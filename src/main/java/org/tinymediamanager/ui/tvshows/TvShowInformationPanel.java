@@ -72,6 +72,8 @@ public class TvShowInformationPanel extends JPanel {
    * @wbp.nls.resourceBundle messages
    */
   private static final ResourceBundle BUNDLE           = ResourceBundle.getBundle("messages", new UTF8Control()); //$NON-NLS-1$
+  /** the amount of TV shows before/after the selected one to prefetch the artwork for */
+  private static final int            PREFETCH_ROWS    = 2;
 
   /** UI components */
   private JSplitPane                  splitPaneVertical;
@@ -298,6 +300,7 @@ public class TvShowInformationPanel extends JPanel {
           setFanart(model.getSelectedTvShow());
           setPoster(model.getSelectedTvShow());
           setBanner(model.getSelectedTvShow());
+          prefetchArtwork(model);
           synchronized (mediaFiles) {
             mediaFiles.clear();
             for (MediaFile mediafile : new ArrayList<>(model.getSelectedTvShow().getMediaFiles())) {
@@ -341,6 +344,24 @@ public class TvShowInformationPanel extends JPanel {
 
   }
 
+  /**
+   * warm the caches with the artwork of the neighbouring TV shows, so that arrowing through the tree does not block on loading the artwork
+   */
+  private void prefetchArtwork(TvShowSelectionModel model) {
+    List<String> fanarts = new ArrayList<>();
+    List<String> posters = new ArrayList<>();
+    List<String> banners = new ArrayList<>();
+    for (TvShow tvShow : model.getNeighbouringTvShows(PREFETCH_ROWS)) {
+      // TV shows are always loaded completely; resolving the paths only reads the media files in memory
+      fanarts.add(tvShow.getArtworkFilename(MediaFileType.FANART));
+      posters.add(tvShow.getArtworkFilename(MediaFileType.POSTER));
+      banners.add(tvShow.getArtworkFilename(MediaFileType.BANNER));
+    }
+    lblTvShowBackground.prefetchImages(fanarts);
+    lblTvShowPoster.prefetchImages(posters);
+    lblTvShowBanner.prefetchImages(banners);
+  }
+
   private void setPoster(TvShow tvShow) {
     lblTvShowPoster.clearImage();
     lblTvShowPoster.setImagePath(tvShow.getArtworkFilename(MediaFileType.POSTER));
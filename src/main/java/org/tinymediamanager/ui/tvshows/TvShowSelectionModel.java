@@ -22,6 +22,7 @@ import java.util.List;
 
 import javax.swing.JTree;
 import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
 
 import org.tinymediamanager.core.AbstractModelObject;
@@ -93,6 +94,52 @@ public class TvShowSelectionModel extends AbstractModelObject {
     return selectedTvShow;
   }
 
+  /**
+   * Gets the TV shows before/after the selected TV show in the tree (in the current sort/filter order), nearest first
+   * 
+   * @param count
+   *          the amount of TV shows in each direction
+   * @return the neighbouring TV shows
+   */
+  public List<TvShow> getNeighbouringTvShows(int count) {
+    List<TvShow> tvShows = new ArrayList<>();
+
+    TreePath path = tree.getSelectionPath();
+    if (path == null) {
+      return tvShows;
+    }
+
+    // find the node of the TV show (the selection may also be a season/episode)
+    DefaultMutableTreeNode tvShowNode = null;
+    for (Object component : path.getPath()) {
+      if (component instanceof DefaultMutableTreeNode && ((DefaultMutableTreeNode) component).getUserObject() instanceof TvShow) {
+        tvShowNode = (DefaultMutableTreeNode) component;
+        break;
+      }
+    }
+    if (tvShowNode == null || tvShowNode.getParent() == null) {
+      return tvShows;
+    }
+
+    TreeNode parent = tvShowNode.getParent();
+    int index = parent.getIndex(tvShowNode);
+    for (int i = 1; i <= count; i++) {
+      if (index + i < parent.getChildCount()) {
+        addTvShow(tvShows, parent.getChildAt(index + i));
+      }
+      if (index - i >= 0) {
+        addTvShow(tvShows, parent.getChildAt(index - i));
+      }
+    }
+    return tvShows;
+  }
+
+  private void addTvShow(List<TvShow> tvShows, TreeNode node) {
+    if (node instanceof DefaultMutableTreeNode && ((DefaultMutableTreeNode) node).getUserObject() instanceof TvShow) {
+      tvShows.add((TvShow) ((DefaultMutableTreeNode) node).getUserObject());
+    }
+  }
+
   /**
    * Gets the selected TV shows
    * 
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * tests the artwork downloader against a local http server
+ */
+public class ArtworkDownloaderTest {
+  private static final byte[] CONTENT       = "not really an image".getBytes();
+
+  private HttpServer          server;
+  private AtomicInteger       requests      = new AtomicInteger(0);
+  private AtomicInteger       concurrent    = new AtomicInteger(0);
+  private AtomicInteger       maxConcurrent = new AtomicInteger(0);
+
+  @Before
+  public void setUp() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/", new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        int running = concurrent.incrementAndGet();
+        synchronized (maxConcurrent) {
+          maxConcurrent.set(Math.max(maxConcurrent.get(), running));
+        }
+        try {
+          // slow server, so that the requests overlap
+          Thread.sleep(200);
+          exchange.sendResponseHeaders(200, CONTENT.length);
+          OutputStream os = exchange.getResponseBody();
+          os.write(CONTENT);
+          os.close();
+        }
+        catch (InterruptedException e) {
+          throw new IOException(e);
+        }
+        finally {
+          concurrent.decrementAndGet();
+        }
+      }
+    });
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.start();
+  }
+
+  @After
+  public void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  public void testIdenticalUrlsAreDownloadedOnce() throws Exception {
+    final ArtworkDownloader downloader = new ArtworkDownloader(3);
+    final String url = getUrl("poster.jpg");
+
+    List<Callable<byte[]>> tasks = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      tasks.add(new Callable<byte[]>() {
+        @Override
+        public byte[] call() throws Exception {
+          return downloader.download(url);
+        }
+      });
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    for (Future<byte[]> future : executor.invokeAll(tasks)) {
+      assertThat(future.get()).isEqualTo(CONTENT);
+    }
+    executor.shutdown();
+
+    // requested afterwards
+    assertThat(downloader.download(url)).isEqualTo(CONTENT);
+    assertThat(requests.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void testDownloadsPerHostAreLimited() throws Exception {
+    final ArtworkDownloader downloader = new ArtworkDownloader(2);
+
+    List<Callable<byte[]>> tasks = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      final String url = getUrl("fanart" + i + ".jpg");
+      tasks.add(new Callable<byte[]>() {
+        @Override
+        public byte[] call() throws Exception {
+          return downloader.download(url);
+        }
+      });
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(6);
+    for (Future<byte[]> future : executor.invokeAll(tasks)) {
+      assertThat(future.get()).isEqualTo(CONTENT);
+    }
+    executor.shutdown();
+
+    assertThat(requests.get()).isEqualTo(6);
+    assertThat(maxConcurrent.get()).isLessThanOrEqualTo(2);
+  }
+
+  @Test
+  public void testGetHost() {
+    assertThat(ArtworkDownloader.getHost("http://Image.TMDB.org/t/p/original/a.jpg")).isEqualTo("image.tmdb.org");
+    assertThat(ArtworkDownloader.getHost("file:/tmp/a.jpg")).isEqualTo("");
+  }
+
+  @Test
+  public void testIsRemote() {
+    assertThat(ArtworkDownloader.isRemote("http://image.tmdb.org/t/p/original/a.jpg")).isTrue();
+    assertThat(ArtworkDownloader.isRemote("HTTPS://image.tmdb.org/t/p/original/a.jpg")).isTrue();
+    assertThat(ArtworkDownloader.isRemote("file:/tmp/a.jpg")).isFalse();
+    assertThat(ArtworkDownloader.isRemote("/tmp/a.jpg")).isFalse();
+  }
+
+  private String getUrl(String file) {
+    return "http://127.0.0.1:" + server.getAddress().getPort() + "/" + file;
+  }
+}
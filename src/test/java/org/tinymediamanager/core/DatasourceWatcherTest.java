@@ -0,0 +1,98 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tinymediamanager.core.DatasourceWatcher.ChangeListener;
+
+/**
+ * tests that the data source watcher reports external changes, but not the files written by tmm itself
+ * 
+ * @author Manuel Laggner
+ */
+public class DatasourceWatcherTest {
+  private static final Path    DATASOURCE = Paths.get("target", "test-classes", "watcher").toAbsolutePath();
+
+  private final List<Path>     changed    = new ArrayList<>();
+  private final CountDownLatch latch      = new CountDownLatch(1);
+  private DatasourceWatcher    watcher;
+
+  @Before
+  public void setUp() throws Exception {
+    FileUtils.deleteQuietly(DATASOURCE.toFile());
+    Files.createDirectories(DATASOURCE.resolve("Movie A"));
+    Files.createDirectories(DATASOURCE.resolve("Movie B"));
+
+    watcher = new DatasourceWatcher("test", Arrays.asList(DATASOURCE.toString()), 1, new ChangeListener() {
+      @Override
+      public void datasourceChanged(String datasource) {
+        changed.add(Paths.get(datasource));
+        latch.countDown();
+      }
+
+      @Override
+      public void foldersChanged(String datasource, List<Path> folders) {
+        changed.addAll(folders);
+        latch.countDown();
+      }
+    });
+    watcher.start();
+  }
+
+  @After
+  public void tearDown() {
+    watcher.stop();
+    FileUtils.deleteQuietly(DATASOURCE.toFile());
+  }
+
+  @Test
+  public void testSelfWrittenNfoIsIgnored() throws Exception {
+    // written by tmm (the NFO connectors write via Utils.writeStringToFile)
+    Utils.writeStringToFile(DATASOURCE.resolve("Movie A").resolve("movie.nfo"), "<movie/>");
+    // written by someone else
+    Files.write(DATASOURCE.resolve("Movie B").resolve("movie.nfo"), "<movie/>".getBytes("UTF-8"));
+
+    // the changes are reported after the debounce delay
+    assertThat(latch.await(60, TimeUnit.SECONDS)).isTrue();
+    assertThat(changed).containsExactly(DATASOURCE.resolve("Movie B"));
+  }
+
+  @Test
+  public void testSelfWrittenPath() {
+    Path nfo = DATASOURCE.resolve("Movie C").resolve("movie.nfo");
+    assertThat(DatasourceWatcher.isSelfWritten(nfo)).isFalse();
+
+    DatasourceWatcher.ignoreChanges(nfo);
+    assertThat(DatasourceWatcher.isSelfWritten(nfo)).isTrue();
+    // the modification time of the folder holding the NFO changes too
+    assertThat(DatasourceWatcher.isSelfWritten(nfo.getParent())).isTrue();
+    assertThat(DatasourceWatcher.isSelfWritten(DATASOURCE.resolve("Movie D"))).isFalse();
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * token values and the former regex based token replacement; shared by the renamer template test and benchmark
+ *
+ * @author Manuel Laggner
+ */
+class RenamerTemplateFixture {
+  private static final Map<String, String>   VALUES   = new HashMap<>();
+
+  static final RenamerTemplate.TokenResolver RESOLVER = new RenamerTemplate.TokenResolver() {
+    @Override
+    public String getTokenValue(String token) {
+      return getValue(token);
+    }
+
+    @Override
+    public String getOptionalValue(String token) {
+      return RenamerTemplate.compile(token).evaluate(this).trim();
+    }
+  };
+
+  static {
+    VALUES.put("$T", "The Dish");
+    VALUES.put("$Y", "2000");
+    VALUES.put("$I", "tt0205873");
+    VALUES.put("$R", "720p");
+  }
+
+  private RenamerTemplateFixture() {
+  }
+
+  static String getValue(String token) {
+    String value = VALUES.get(token.toUpperCase());
+    return value == null ? "" : value;
+  }
+
+  /**
+   * evaluate the template with the compiled renamer template
+   */
+  static String evaluate(String template) {
+    return RenamerTemplate.compileWithOptionalGroups(template).evaluate(RESOLVER).trim();
+  }
+
+  /**
+   * the former token replacement of the movie renamer
+   */
+  static String evaluateRegex(String template) {
+    Matcher mat = Pattern.compile("\\{(.*?)\\}").matcher(template);
+    while (mat.find()) {
+      String replacement = "";
+      Matcher key = Pattern.compile("\\$.{1}").matcher(mat.group(1));
+      if (key.find()) {
+        String value = replaceTokensRegex(key.group()).trim();
+        if (!value.isEmpty()) {
+          replacement = mat.group(1).replace(key.group(), value);
+        }
+      }
+      template = template.replace(mat.group(0), replacement);
+    }
+    return replaceTokensRegex(template).trim();
+  }
+
+  private static String replaceTokensRegex(String template) {
+    String destination = template;
+    Matcher m = Pattern.compile("(\\$[\\w#])").matcher(template);
+    while (m.find()) {
+      destination = destination.replace(m.group(1), getValue(m.group(1)));
+    }
+    return destination;
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.tinymediamanager.core.RenamerTemplateFixture.RESOLVER;
+import static org.tinymediamanager.core.RenamerTemplateFixture.evaluate;
+import static org.tinymediamanager.core.RenamerTemplateFixture.evaluateRegex;
+
+import org.junit.Test;
+
+/**
+ * tests the compiled renamer templates against the former regex based token replacement
+ */
+public class RenamerTemplateTest {
+  @Test
+  public void testTokens() {
+    assertThat(evaluate("$T ($Y)")).isEqualTo("The Dish (2000)");
+    assertThat(evaluate("$t - $I")).isEqualTo("The Dish - tt0205873");
+    // unknown tokens are empty, a $ without token character stays
+    assertThat(evaluate("$T$Z $")).isEqualTo("The Dish $");
+    assertThat(evaluate("$$T")).isEqualTo("$The Dish");
+  }
+
+  @Test
+  public void testOptionalGroups() {
+    assertThat(evaluate("$T {($Y)}")).isEqualTo("The Dish (2000)");
+    assertThat(evaluate("$T{ [$C]}")).isEqualTo("The Dish");
+    // only the first token decides
+    assertThat(evaluate("{$C $Y}$T")).isEqualTo("The Dish");
+    assertThat(evaluate("{$Y $C}$T")).isEqualTo("2000 The Dish");
+    // groups without a token and unclosed groups
+    assertThat(evaluate("{no token}$T")).isEqualTo("The Dish");
+    assertThat(evaluate("$T {unclosed")).isEqualTo("The Dish {unclosed");
+    // groups are not interpreted by compile()
+    assertThat(RenamerTemplate.compile("{$Y}").evaluate(RESOLVER)).isEqualTo("{2000}");
+  }
+
+  @Test
+  public void testSameResultAsRegexReplacement() {
+    String[] templates = { "$T ($Y)", "$T {($Y)} {[$C]}", "{$T - }$Y", "{ Year $Y / $T }", "{a {b $Y} c}", "$1$T/$Y/$I {$I $I}" };
+    for (String template : templates) {
+      assertThat(evaluate(template)).as(template).isEqualTo(evaluateRegex(template));
+    }
+  }
+}
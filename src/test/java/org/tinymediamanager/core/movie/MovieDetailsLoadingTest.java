@@ -0,0 +1,126 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.movie;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.tinymediamanager.core.MediaFileType;
+import org.tinymediamanager.core.Settings;
+import org.tinymediamanager.core.TmmModuleManager;
+import org.tinymediamanager.core.entities.MediaFile;
+import org.tinymediamanager.core.entities.MediaFileAudioStream;
+import org.tinymediamanager.core.movie.entities.Movie;
+import org.tinymediamanager.core.movie.entities.MovieActor;
+import org.tinymediamanager.core.movie.entities.MovieTrailer;
+
+/**
+ * round trip of a movie which is loaded from its summary and gets its details from the database on first access
+ * 
+ * @author Manuel Laggner
+ */
+public class MovieDetailsLoadingTest {
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    FileUtils.deleteQuietly(new File("target/movieDetailsSettings"));
+    Settings.getInstance("target/movieDetailsSettings");
+    TmmModuleManager.getInstance().startUp();
+    MovieModuleManager.getInstance().startUp();
+  }
+
+  @AfterClass
+  public static void tearDownAfterClass() throws Exception {
+    MovieModuleManager.getInstance().shutDown();
+    TmmModuleManager.getInstance().shutDown();
+  }
+
+  @Test
+  public void testDetailsSurviveLazyLoading() throws Exception {
+    Movie movie = new Movie();
+    UUID dbId = movie.getDbId();
+    movie.setTitle("Round Trip");
+    movie.setPath("target/movieDetails/Round Trip");
+    movie.setPlot("plot");
+
+    MediaFile video = new MediaFile(Paths.get("target/movieDetails/Round Trip/Round Trip.avi"), MediaFileType.VIDEO);
+    video.setVideoCodec("h264");
+    MediaFileAudioStream audio = new MediaFileAudioStream();
+    audio.setCodec("AC3");
+    audio.setLanguage("deu");
+    video.setAudioStreams(Arrays.asList(audio));
+    movie.addToMediaFiles(video);
+    movie.addActor(new MovieActor("Actor", "Role"));
+    MovieTrailer trailer = new MovieTrailer();
+    trailer.setName("Trailer");
+    trailer.setUrl("http://localhost/trailer.mp4");
+    movie.addTrailer(trailer);
+
+    MovieList.getInstance().addMovie(movie);
+    movie.saveToDb();
+    restartMovieModule();
+
+    // loaded from the summary: the details are read on first access
+    Movie loaded = MovieList.getInstance().lookupMovie(dbId);
+    assertThat(loaded).isNotNull();
+    assertThat(loaded.isDetailsLoaded()).isFalse();
+    loaded.loadDetails();
+    assertThat(loaded.isDetailsLoaded()).isTrue();
+    assertDetails(loaded);
+
+    // write the hydrated movie back and read it again
+    loaded.setTitle("Round Trip 2");
+    loaded.saveToDb();
+    restartMovieModule();
+
+    Movie reloaded = MovieList.getInstance().lookupMovie(dbId);
+    assertThat(reloaded.getTitle()).isEqualTo("Round Trip 2");
+    assertThat(reloaded.isDetailsLoaded()).isFalse();
+    assertDetails(reloaded);
+  }
+
+  private void restartMovieModule() throws Exception {
+    MovieModuleManager.getInstance().shutDown();
+    MovieModuleManager.getInstance().startUp();
+  }
+
+  private void assertDetails(Movie movie) {
+    assertThat(movie.getPlot()).isEqualTo("plot");
+
+    assertThat(movie.getMediaFiles(MediaFileType.VIDEO)).hasSize(1);
+    MediaFile video = movie.getMediaFiles(MediaFileType.VIDEO).get(0);
+    assertThat(video.getFilename()).isEqualTo("Round Trip.avi");
+    assertThat(video.getVideoCodec()).isEqualTo("h264");
+    assertThat(video.getAudioStreams()).hasSize(1);
+    assertThat(video.getAudioStreams().get(0).getCodec()).isEqualTo("AC3");
+    assertThat(video.getAudioStreams().get(0).getLanguage()).isEqualTo("deu");
+
+    assertThat(movie.getActors()).hasSize(1);
+    assertThat(movie.getActors().get(0).getName()).isEqualTo("Actor");
+    assertThat(movie.getActors().get(0).getCharacter()).isEqualTo("Role");
+
+    assertThat(movie.getTrailer()).hasSize(1);
+    assertThat(movie.getTrailer().get(0).getUrl()).isEqualTo("http://localhost/trailer.mp4");
+  }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.threading;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tinymediamanager.Globals;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * tests the range handling and resuming of the download task against a local http server
+ */
+public class DownloadTaskTest {
+  private static final Path    FOLDER  = Paths.get("target", "test-classes", "download").toAbsolutePath();
+  private static final byte[]  CONTENT = createContent(64 * 1024);
+  private static final String  ETAG    = "\"v2\"";
+  private static final Pattern RANGE   = Pattern.compile("bytes=(\\d+)-(\\d*)");
+
+  private HttpServer           server;
+  private volatile byte[]      content = CONTENT;
+  private volatile String      failedRange;
+  private volatile String      lastRange;
+  private volatile String      lastIfRange;
+  private final List<String>   ranges  = new CopyOnWriteArrayList<>();
+
+  private static byte[] createContent(int size) {
+    byte[] content = new byte[size];
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) (i * 31 + i / 256);
+    }
+    return content;
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    FileUtils.deleteQuietly(FOLDER.toFile());
+    Files.createDirectories(FOLDER);
+
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/", new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        lastRange = range;
+        lastIfRange = exchange.getRequestHeaders().getFirst("If-Range");
+        if (range != null) {
+          ranges.add(range);
+        }
+        if (range != null && range.equals(failedRange)) {
+          exchange.sendResponseHeaders(500, -1);
+          exchange.close();
+          return;
+        }
+
+        byte[] body = content;
+        exchange.getResponseHeaders().add("ETag", ETAG);
+        exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+
+        // a range is only served if the file has not been changed (If-Range)
+        int start = 0;
+        int end = body.length - 1;
+        Matcher matcher = RANGE.matcher(StringUtils.defaultString(range));
+        if (matcher.matches() && (lastIfRange == null || ETAG.equals(lastIfRange))) {
+          start = Integer.parseInt(matcher.group(1));
+          if (!matcher.group(2).isEmpty()) {
+            end = Math.min(end, Integer.parseInt(matcher.group(2)));
+          }
+          exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + body.length);
+          exchange.sendResponseHeaders(206, end - start + 1);
+        }
+        else {
+          exchange.sendResponseHeaders(200, body.length);
+        }
+        try (OutputStream os = exchange.getResponseBody()) {
+          os.write(body, start, end - start + 1);
+        }
+        catch (IOException e) {
+          // the client closed the connection after reading its segment
+        }
+      }
+    });
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.start();
+  }
+
+  @After
+  public void tearDown() {
+    server.stop(0);
+    FileUtils.deleteQuietly(FOLDER.toFile());
+  }
+
+  @Test
+  public void testContentRange() {
+    assertThat(DownloadTask.getRangeStart("bytes 100-999/1000")).isEqualTo(100);
+    assertThat(DownloadTask.getRangeTotal("bytes 100-999/1000")).isEqualTo(1000);
+    assertThat(DownloadTask.getRangeStart("bytes 0-499/*")).isEqualTo(0);
+    assertThat(DownloadTask.getRangeTotal("bytes 0-499/*")).isEqualTo(-1);
+    assertThat(DownloadTask.getRangeStart(null)).isEqualTo(-1);
+    assertThat(DownloadTask.getRangeTotal("invalid")).isEqualTo(-1);
+  }
+
+  @Test
+  public void testDownload() throws Exception {
+    Path file = FOLDER.resolve("trailer.mp4");
+    new DownloadTask(getUrl(), file).run();
+
+    assertThat(Files.readAllBytes(file)).isEqualTo(CONTENT);
+    assertThat(lastRange).isNull();
+    assertThat(Files.exists(FOLDER.resolve("trailer.mp4.part.meta"))).isFalse();
+  }
+
+  @Test
+  public void testResume() throws Exception {
+    Path file = FOLDER.resolve("trailer.mp4");
+    Path tempFile = FOLDER.resolve("trailer.mp4.part");
+    Files.write(tempFile, Arrays.copyOf(CONTENT, 1000));
+    DownloadTask.ResumeInfo.store(tempFile, new DownloadTask.ResumeInfo(ETAG, CONTENT.length, 1, CONTENT.length));
+
+    new DownloadTask(getUrl(), file).run();
+
+    assertThat(lastRange).isEqualTo("bytes=1000-");
+    assertThat(lastIfRange).isEqualTo(ETAG);
+    assertThat(Files.readAllBytes(file)).isEqualTo(CONTENT);
+    assertThat(Files.exists(tempFile)).isFalse();
+  }
+
+  @Test
+  public void testChangedFileIsDownloadedAgain() throws Exception {
+    Path file = FOLDER.resolve("trailer.mp4");
+    Path tempFile = FOLDER.resolve("trailer.mp4.part");
+    // the partial download (and a segment) belongs to an older version of the file
+    Files.write(tempFile, new byte[1000]);
+    Files.write(FOLDER.resolve("trailer.mp4.part1"), new byte[1000]);
+    DownloadTask.ResumeInfo.store(tempFile, new DownloadTask.ResumeInfo("\"v1\"", CONTENT.length, 1, CONTENT.length));
+
+    new DownloadTask(getUrl(), file).run();
+
+    assertThat(lastIfRange).isEqualTo("\"v1\"");
+    assertThat(Files.readAllBytes(file)).isEqualTo(CONTENT);
+    assertThat(Files.exists(FOLDER.resolve("trailer.mp4.part1"))).isFalse();
+  }
+
+  @Test
+  public void testPartialDownloadWithoutValidatorIsDiscarded() throws Exception {
+    Path file = FOLDER.resolve("trailer.mp4");
+    Files.write(FOLDER.resolve("trailer.mp4.part"), new byte[1000]);
+
+    new DownloadTask(getUrl(), file).run();
+
+    assertThat(lastRange).isNull();
+    assertThat(Files.readAllBytes(file)).isEqualTo(CONTENT);
+  }
+
+  @Test
+  public void testResumeSegmentedDownload() throws Exception {
+    int segments = Globals.settings.getDownloadSegments();
+    Globals.settings.setDownloadSegments(3);
+    try {
+      content = createContent(25 * 1024 * 1024);
+      long segmentSize = (content.length + 2) / 3;
+      String middleRange = "bytes=" + segmentSize + "-" + (2 * segmentSize - 1);
+
+      // the middle segment fails: the download is interrupted
+      failedRange = middleRange;
+      Path file = FOLDER.resolve("movie.mkv");
+      Path tempFile = FOLDER.resolve("movie.mkv.part");
+      new DownloadTask(getUrl(), file).run();
+
+      assertThat(Files.exists(file)).isFalse();
+      assertThat(Files.exists(FOLDER.resolve("movie.mkv.part1"))).isTrue();
+      assertThat(Files.exists(FOLDER.resolve("movie.mkv.part2"))).isTrue();
+      DownloadTask.ResumeInfo resumeInfo = DownloadTask.ResumeInfo.load(tempFile);
+      assertThat(resumeInfo).isNotNull();
+      assertThat(resumeInfo.segmentCount).isEqualTo(3);
+      assertThat(resumeInfo.segmentSize).isEqualTo(segmentSize);
+
+      // resume: every segment continues within its original range
+      failedRange = null;
+      ranges.clear();
+      new DownloadTask(getUrl(), file).run();
+
+      assertThat(ranges).contains(middleRange);
+      for (String range : ranges) {
+        Matcher matcher = RANGE.matcher(range);
+        assertThat(matcher.matches()).isTrue();
+        long start = Long.parseLong(matcher.group(1));
+        if (start >= 2 * segmentSize) {
+          assertThat(matcher.group(2)).isEqualTo(Long.toString(content.length - 1));
+        }
+      }
+      assertThat(Files.readAllBytes(file)).isEqualTo(content);
+      assertThat(Files.exists(tempFile)).isFalse();
+      assertThat(Files.exists(FOLDER.resolve("movie.mkv.part1"))).isFalse();
+      assertThat(Files.exists(FOLDER.resolve("movie.mkv.part2"))).isFalse();
+      assertThat(Files.exists(FOLDER.resolve("movie.mkv.part.meta"))).isFalse();
+    }
+    finally {
+      Globals.settings.setDownloadSegments(segments);
+    }
+  }
+
+  private String getUrl() {
+    return "http://127.0.0.1:" + server.getAddress().getPort() + "/trailer.mp4";
+  }
+}
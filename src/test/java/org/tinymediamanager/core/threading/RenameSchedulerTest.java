@@ -0,0 +1,189 @@
+/*
+ * Copyright 2012 - 2016 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.threading;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.tinymediamanager.core.Utils;
+import org.tinymediamanager.core.threading.RenameScheduler.RenameAction;
+import org.tinymediamanager.core.threading.RenameScheduler.RenameJob;
+
+/**
+ * tests the planning of the rename scheduler and the parallel execution of the planned groups
+ *
+ * @author Manuel Laggner
+ */
+public class RenameSchedulerTest {
+  private static final Path DS = Paths.get("target", "test-classes", "rename").toAbsolutePath();
+
+  @Test
+  public void testIndependentRenamesAreSeparateGroups() {
+    RenameScheduler<String> scheduler = new RenameScheduler<>(2);
+    scheduler.addJob("a", DS, DS.resolve("a"), DS.resolve("A (2001)"), true);
+    scheduler.addJob("b", DS, DS.resolve("b"), DS.resolve("B (2002)"), true);
+    scheduler.addJob("c", DS, DS.resolve("c"), DS.resolve("c"), true);
+
+    assertThat(scheduler.plan()).hasSize(3);
+  }
+
+  @Test
+  public void testChainIsMovedAwayFirst() {
+    RenameScheduler<String> scheduler = new RenameScheduler<>(2);
+    // a -> b, but b has to be moved to c before
+    scheduler.addJob("a", DS, DS.resolve("a"), DS.resolve("b"), true);
+    scheduler.addJob("b", DS, DS.resolve("b"), DS.resolve("c"), true);
+    scheduler.addJob("d", DS, DS.resolve("d"), DS.resolve("e"), true);
+
+    List<List<RenameJob<String>>> groups = scheduler.plan();
+    assertThat(groups).hasSize(2);
+    assertThat(groups.get(0)).hasSize(2);
+    assertThat(groups.get(0).get(0).item).isEqualTo("b");
+    assertThat(groups.get(0).get(1).item).isEqualTo("a");
+  }
+
+  @Test
+  public void testSameDestinationIsOneGroup() {
+    RenameScheduler<String> scheduler = new RenameScheduler<>(2);
+    scheduler.addJob("a", DS, DS.resolve("a"), DS.resolve("Movie (2001)"), true);
+    scheduler.addJob("b", DS, DS.resolve("b"), DS.resolve("Movie (2001)"), true);
+
+    assertThat(scheduler.plan()).hasSize(1);
+  }
+
+  @Test
+  public void testNestedFoldersAreOneGroup() {
+    RenameScheduler<String> scheduler = new RenameScheduler<>(2);
+    scheduler.addJob("a", DS, DS.resolve("a"), DS.resolve("x"), true);
+    scheduler.addJob("b", DS, DS.resolve("a").resolve("b"), DS.resolve("a").resolve("c"), true);
+
+    // the nested folder is moved before its parent
+    List<List<RenameJob<String>>> groups = scheduler.plan();
+    assertThat(groups).hasSize(1);
+    assertThat(groups.get(0).get(0).item).isEqualTo("b");
+  }
+
+  @Test
+  public void testMultiMovieDirsDoNotBlockTheDatasource() {
+    RenameScheduler<String> scheduler = new RenameScheduler<>(2);
+    // two movies in the root of the datasource and one in its own folder
+    scheduler.addJob("a", DS, DS, DS.resolve("A (2001)"), false);
+    scheduler.addJob("b", DS, DS, DS.resolve("B (2002)"), false);
+    scheduler.addJob("c", DS, DS.resolve("c"), DS.resolve("C (2003)"), true);
+
+    List<List<RenameJob<String>>> groups = scheduler.plan();
+    assertThat(groups).hasSize(2);
+    assertThat(groups.get(0)).hasSize(2);
+  }
+
+  @Test
+  public void testSharedParentFolderIsOneGroup() {
+    RenameScheduler<String> scheduler = new RenameScheduler<>(2);
+    // both movies are moved out of the same collection folder (which is deleted by the renamer if it is empty)
+    scheduler.addJob("a", DS, DS.resolve("Coll1").resolve("a"), DS.resolve("Coll2").resolve("A (2001)"), true);
+    scheduler.addJob("b", DS, DS.resolve("Coll1").resolve("b"), DS.resolve("B (2002)"), true);
+    // the data source itself is shared by all and does not group
+    scheduler.addJob("c", DS, DS.resolve("c"), DS.resolve("C (2003)"), true);
+
+    List<List<RenameJob<String>>> groups = scheduler.plan();
+    assertThat(groups).hasSize(2);
+    assertThat(groups.get(0)).hasSize(2);
+  }
+
+  @Test
+  public void testParallelRenames() throws Exception {
+    final Path ds = Paths.get("target", "test-classes", "renameParallel").toAbsolutePath();
+    Utils.deleteDirectoryRecursive(ds);
+
+    // collection folders which are emptied and filled by several renames, a chain and some independent folders
+    final Map<String, Path[]> moves = new HashMap<>();
+    moves.put("a", new Path[] { ds.resolve("Coll1").resolve("a"), ds.resolve("Coll2").resolve("A (2001)") });
+    moves.put("b", new Path[] { ds.resolve("Coll1").resolve("b"), ds.resolve("Coll2").resolve("B (2002)") });
+    moves.put("c", new Path[] { ds.resolve("c"), ds.resolve("d") });
+    moves.put("d", new Path[] { ds.resolve("d"), ds.resolve("D (2004)") });
+    for (int i = 0; i < 10; i++) {
+      moves.put("e" + i, new Path[] { ds.resolve("e" + i), ds.resolve("E" + i + " (2005)") });
+    }
+    for (Map.Entry<String, Path[]> entry : moves.entrySet()) {
+      Files.createDirectories(entry.getValue()[0]);
+      Files.write(entry.getValue()[0].resolve(entry.getKey() + ".avi"), entry.getKey().getBytes("UTF-8"));
+    }
+
+    RenameScheduler<String> scheduler = new RenameScheduler<>(4);
+    for (Map.Entry<String, Path[]> entry : moves.entrySet()) {
+      scheduler.addJob(entry.getKey(), ds, entry.getValue()[0], entry.getValue()[1], true);
+    }
+
+    // like the renamers: create the parent, move the folder and delete the old parent if it is empty
+    RenameAction<String> action = new RenameAction<String>() {
+      @Override
+      public String rename(String item) {
+        Path source = moves.get(item)[0];
+        Path destination = moves.get(item)[1];
+        try {
+          Files.createDirectories(destination.getParent());
+          Files.move(source, destination);
+          if (!source.getParent().equals(ds) && isEmpty(source.getParent())) {
+            Files.delete(source.getParent());
+          }
+        }
+        catch (IOException e) {
+          throw new IllegalStateException(item, e);
+        }
+        return item;
+      }
+    };
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (Future<Object> future : executor.invokeAll(scheduler.createTasks(action))) {
+        future.get();
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(Files.exists(ds.resolve("Coll1"))).isFalse();
+    assertThat(Files.exists(ds.resolve("Coll2").resolve("A (2001)").resolve("a.avi"))).isTrue();
+    assertThat(Files.exists(ds.resolve("Coll2").resolve("B (2002)").resolve("b.avi"))).isTrue();
+    assertThat(Files.exists(ds.resolve("c"))).isFalse();
+    assertThat(Files.exists(ds.resolve("d").resolve("c.avi"))).isTrue();
+    assertThat(Files.exists(ds.resolve("D (2004)").resolve("d.avi"))).isTrue();
+    for (int i = 0; i < 10; i++) {
+      assertThat(Files.exists(ds.resolve("e" + i))).isFalse();
+      assertThat(Files.exists(ds.resolve("E" + i + " (2005)").resolve("e" + i + ".avi"))).isTrue();
+    }
+  }
+
+  private static boolean isEmpty(Path folder) throws IOException {
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder)) {
+      return !stream.iterator().hasNext();
+    }
+  }
+}